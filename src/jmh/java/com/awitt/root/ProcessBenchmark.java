@@ -0,0 +1,193 @@
+package com.awitt.root;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.awitt.root.engine.BinaryEngine;
+import com.awitt.root.engine.IngestEngine;
+import com.awitt.root.engine.ParallelChunkEngine;
+import com.awitt.root.engine.SequentialEngine;
+import com.awitt.root.io.BinaryConverter;
+import com.awitt.root.io.FileLineSource;
+import com.awitt.root.io.MappedLineSource;
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverOptions;
+import com.awitt.root.workload.Workload;
+import com.awitt.root.workload.WorkloadGenerator;
+
+/**
+ * End-to-end cost of {@link DriverTracker#process()} over a generated file,
+ * for each way of reading it and of retaining Trips. Results are consumed
+ * rather than logged, so that only processing is measured.
+ * <p>
+ * An operation is one full run over the file; the {@code lines} counter
+ * reports the equivalent lines/s. Retained Trips are only measured up to 10M
+ * lines: at roughly 95 bytes per retained Trip, 100M lines would need about
+ * 9.5 GB of live Trips, more than the heap of every fork.
+ * <p>
+ * Lives in the package of the tracker, so that it can consume each report
+ * without the tracker having to expose how it prints.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = { "-Xms8g", "-Xmx8g" })
+public class ProcessBenchmark {
+
+	/** Average number of Trips per Driver **/
+	private static final int TRIPS_PER_DRIVER = 100;
+
+	/**
+	 * As in the default workload; early Trips are parsed once and held with
+	 * their Driver's name until it is registered, so they are not reprocessed
+	 **/
+	private static final double EARLY_TRIP_RATIO = 0.1;
+
+	/** How the file is read **/
+	public enum Input {
+		SEQUENTIAL, MAPPED, PARALLEL, BINARY
+	}
+
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Lines {
+		public long lines;
+	}
+
+	/** A file whose every Trip is retained until it is summarized **/
+	@State(Scope.Benchmark)
+	public static class RetainedFile extends GeneratedFile {
+
+		@Param({ "1000000", "10000000" })
+		long lines;
+
+		@Param({ "SEQUENTIAL", "MAPPED", "PARALLEL", "BINARY" })
+		Input input;
+
+		@Override
+		long lines() {
+			return this.lines;
+		}
+
+		@Override
+		Input input() {
+			return this.input;
+		}
+	}
+
+	/** A file whose Trips are summarized as they are read **/
+	@State(Scope.Benchmark)
+	public static class StreamedFile extends GeneratedFile {
+
+		@Param({ "1000000", "10000000", "100000000" })
+		long lines;
+
+		@Param({ "SEQUENTIAL", "MAPPED", "PARALLEL", "BINARY" })
+		Input input;
+
+		@Override
+		long lines() {
+			return this.lines;
+		}
+
+		@Override
+		Input input() {
+			return this.input;
+		}
+	}
+
+	/** A generated file, read in each way **/
+	public abstract static class GeneratedFile {
+		private Path file;
+
+		abstract long lines();
+
+		abstract Input input();
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			final long lines = lines();
+			final int drivers = (int) Math.max(1, lines / (TRIPS_PER_DRIVER + 1));
+
+			this.file = Files.createTempFile("drivers-" + lines + "-", ".txt");
+			new WorkloadGenerator(Workload.DEFAULT.withDrivers(drivers).withTrips(lines - drivers)
+					.withEarlyTripRatio(EARLY_TRIP_RATIO)).write(this.file);
+
+			// CONVERTED ONCE, AS IT WOULD BE FOR A FILE PROCESSED MANY TIMES
+			if (input() == Input.BINARY) {
+				final Path text = this.file;
+				this.file = Files.createTempFile("drivers-" + lines + "-", ".bin");
+
+				try (OutputStream out = Files.newOutputStream(this.file);
+						BinaryConverter converter = new BinaryConverter(out)) {
+					converter.convert(new FileLineSource(text));
+				} finally {
+					Files.delete(text);
+				}
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			Files.deleteIfExists(this.file);
+		}
+
+		IngestEngine engine() {
+
+			switch (input()) {
+			case MAPPED:
+				return new SequentialEngine(new MappedLineSource(this.file));
+			case PARALLEL:
+				return new ParallelChunkEngine(this.file, Runtime.getRuntime().availableProcessors());
+			case BINARY:
+				return new BinaryEngine(Collections.singletonList(this.file));
+			default:
+				return new SequentialEngine(new FileLineSource(this.file));
+			}
+		}
+	}
+
+	@Benchmark
+	public void retain(final RetainedFile file, final Lines counter, final Blackhole blackhole) {
+		process(file, DriverOptions.DEFAULT, counter, blackhole);
+	}
+
+	@Benchmark
+	public void stream(final StreamedFile file, final Lines counter, final Blackhole blackhole) {
+		process(file, DriverOptions.STREAMING, counter, blackhole);
+	}
+
+	private static void process(final GeneratedFile file, final DriverOptions options, final Lines counter,
+			final Blackhole blackhole) {
+
+		new DriverTracker(file.engine(), options) {
+			@Override
+			void printResults(final Driver driver) {
+				blackhole.consume(driver);
+			}
+		}.process();
+
+		counter.lines += file.lines();
+	}
+}
@@ -0,0 +1,146 @@
+package com.awitt.root.benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.awitt.root.model.ConcurrentDrivingSummary;
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverOptions;
+import com.awitt.root.model.DriverOptions.Retention;
+import com.awitt.root.model.DrivingSummary;
+
+/**
+ * Report costs: {@link Driver#aggregateTrips() summarizing} the retained
+ * Trips of a Driver, and sorting summarized Drivers with
+ * {@link Driver#compareTo(Driver)}; the cost of also keeping hourly totals
+ * while streaming Trips; and the cost of many threads adding Trips to the
+ * {@link ConcurrentDrivingSummary} of a single Driver.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregateBenchmark {
+
+	private static final long SEED = 0x5EEDL;
+
+	@State(Scope.Thread)
+	public static class RetainedTrips {
+
+		@Param({ "1000", "100000" })
+		int trips;
+
+		@Param({ "RETAIN", "COLUMNAR" })
+		Retention retention;
+
+		Driver driver;
+
+		@Setup
+		public void setUp() {
+			final SplittableRandom random = new SplittableRandom(SEED);
+			this.driver = new Driver("Lauren", DriverOptions.DEFAULT.withRetention(this.retention));
+
+			for (int i = 0; i < this.trips; i++) {
+				final int start = random.nextInt(23 * 60);
+				this.driver.addTrip(start, start + 5 + random.nextInt(55), random.nextLong(60_000_000L));
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class SummarizedDrivers {
+
+		@Param({ "10000", "1000000" })
+		int drivers;
+
+		Driver[] unsorted;
+
+		@Setup
+		public void setUp() {
+			final SplittableRandom random = new SplittableRandom(SEED);
+			this.unsorted = new Driver[this.drivers];
+
+			for (int i = 0; i < this.drivers; i++) {
+				this.unsorted[i] = new Driver("Driver" + i, DriverOptions.STREAMING);
+
+				for (int trip = random.nextInt(4); trip > 0; trip--) {
+					this.unsorted[i].addTrip(0, 60, 5_000_000L + random.nextLong(95_000_000L));
+				}
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class StreamedTrips {
+
+		private static final int TRIPS = 1024;
+
+		@Param({ "false", "true" })
+		boolean hourly;
+
+		final int[] starts = new int[TRIPS];
+		final int[] ends = new int[TRIPS];
+		final long[] distances = new long[TRIPS];
+		DrivingSummary summary;
+
+		@Setup
+		public void setUp() {
+			final SplittableRandom random = new SplittableRandom(SEED);
+			this.summary = new DrivingSummary(this.hourly);
+
+			for (int i = 0; i < TRIPS; i++) {
+				this.starts[i] = random.nextInt(22 * 60 * 60);
+				this.ends[i] = this.starts[i] + 5 * 60 + random.nextInt(2 * 60 * 60);
+				this.distances[i] = random.nextLong(60_000_000L);
+			}
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class HotDriver {
+		final ConcurrentDrivingSummary summary = new ConcurrentDrivingSummary();
+	}
+
+	@Benchmark
+	public DrivingSummary aggregateTrips(final RetainedTrips state) {
+		return state.driver.aggregateTrips().getDrivingSummary();
+	}
+
+	@Benchmark
+	public Driver[] sortDrivers(final SummarizedDrivers state) {
+		final Driver[] drivers = state.unsorted.clone();
+		Arrays.sort(drivers);
+		return drivers;
+	}
+
+	@Benchmark
+	public DrivingSummary addTrips(final StreamedTrips state) {
+
+		for (int i = 0; i < state.starts.length; i++) {
+			state.summary.addTripInfo(state.starts[i], state.ends[i], state.distances[i]);
+		}
+
+		return state.summary;
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void addTripToHotDriver(final HotDriver state) {
+		state.summary.addTripInfo(17_300_000L, 30 * 60);
+	}
+}
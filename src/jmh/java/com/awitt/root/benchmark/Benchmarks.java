@@ -0,0 +1,28 @@
+package com.awitt.root.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar, running the JMH benchmarks selected on
+ * the command line, all of them by default, always with the
+ * {@link GCProfiler} so that every run reports allocation rates alongside
+ * ops/s.
+ * <p>
+ * Accepts every JMH command line option, e.g. {@code java -jar
+ * target/benchmarks.jar ProcessBenchmark -p lines=1000000 -rf json}.
+ */
+public final class Benchmarks {
+
+	private Benchmarks() {
+	}
+
+	public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+		final CommandLineOptions commandLine = new CommandLineOptions(args);
+		new Runner(new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,77 @@
+package com.awitt.root.benchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.awitt.root.actions.Action;
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverIndex;
+import com.awitt.root.model.DriverOptions;
+import com.awitt.root.model.Trip;
+
+/**
+ * Per-line costs: recognizing a command, parsing a {@link Trip} and
+ * dispatching a Trip line to its {@link Driver}, from a String and from
+ * bytes.
+ * <p>
+ * The Driver streams its Trips, so that dispatching does not accumulate
+ * Trips across invocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineBenchmark {
+
+	private static final String TRIP_LINE = "Trip Lauren 12:01 13:16 42.0";
+
+	private final ByteBuffer tripBytes = ByteBuffer.wrap(TRIP_LINE.getBytes(StandardCharsets.US_ASCII));
+	private final Map<String, Driver> drivers = new DriverIndex();
+
+	@Setup
+	public void setUp() {
+		Action.DRIVER.doCommand("Driver Lauren", this.drivers, DriverOptions.STREAMING);
+	}
+
+	@Benchmark
+	public Trip tripConstructor() {
+		return new Trip("12:01", "13:16", "42.0");
+	}
+
+	@Benchmark
+	public Optional<String> tripDoCommand() {
+		return Action.TRIP.doCommand(TRIP_LINE, this.drivers, DriverOptions.STREAMING);
+	}
+
+	@Benchmark
+	public Optional<String> tripDoCommandBytes() {
+		return Action.TRIP.doCommand(this.tripBytes, 0, this.tripBytes.limit(), this.drivers,
+				DriverOptions.STREAMING);
+	}
+
+	@Benchmark
+	public boolean isCommand() {
+		return Action.TRIP.isCommand(TRIP_LINE);
+	}
+
+	@Benchmark
+	public boolean isCommandBytes() {
+		return Action.TRIP.isCommand(this.tripBytes, 0, this.tripBytes.limit());
+	}
+}
@@ -0,0 +1,75 @@
+package com.awitt.root;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.awitt.root.io.BinaryConverter;
+import com.awitt.root.io.BinaryFormat;
+import com.awitt.root.io.FileLineSource;
+
+/**
+ * Bootstrap for converting a file of Driver data to the {@link BinaryFormat},
+ * so that {@link DriverTracker} can process it many times without parsing
+ * its text again, that parses command line arguments and handles exceptions
+ * and program execution.
+ */
+public class BinaryConverterApplication {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BinaryConverterApplication.class);
+	private static final String OPT_FILE_PATH_SHORT = "f";
+	private static final String OPT_FILE_PATH_LONG = "file";
+	private static final String OPT_OUTPUT_SHORT = "o";
+	private static final String OPT_OUTPUT_LONG = "output";
+
+	public static void main(String[] args) {
+		final Path input;
+		final Path output;
+
+		try {
+			final CommandLine commandLine = new DefaultParser().parse(buildOptions(), args);
+			input = Paths.get(commandLine.getOptionValue(OPT_FILE_PATH_SHORT));
+			output = Paths.get(commandLine.getOptionValue(OPT_OUTPUT_SHORT));
+		} catch (ParseException | IllegalArgumentException e) {
+			LOGGER.error("An exception occurred while attempting to parse command line options: {}", args, e);
+			System.exit(1);
+			return;
+		}
+
+		try (BinaryConverter converter = new BinaryConverter(Files.newOutputStream(output))) {
+			LOGGER.info("converting {} to {}", input, output);
+			final long start = System.nanoTime();
+			final long records = converter.convert(new FileLineSource(input));
+			LOGGER.info("wrote {} records to {} in {} ms", records, output, (System.nanoTime() - start) / 1_000_000);
+		} catch (IOException | UncheckedIOException e) {
+			LOGGER.error("An exception occurred while attempting to convert file", e);
+			System.exit(1);
+			return;
+		} catch (RuntimeException e) {
+			LOGGER.error("An exception occurred while attempting to convert line", e);
+			System.exit(1);
+			return;
+		}
+
+		System.exit(0);
+	}
+
+	private static Options buildOptions() {
+		return new Options()
+				.addOption(Option.builder(OPT_FILE_PATH_SHORT).longOpt(OPT_FILE_PATH_LONG)
+						.desc("the path to the file containing driver data to be converted").hasArg()
+						.argName("path").required().build())
+				.addOption(Option.builder(OPT_OUTPUT_SHORT).longOpt(OPT_OUTPUT_LONG)
+						.desc("the path of the binary file to write").hasArg().argName("path").required().build());
+	}
+}
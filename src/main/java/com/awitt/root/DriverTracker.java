@@ -1,64 +1,345 @@
 package com.awitt.root;
 
-import static com.awitt.root.actions.Action.DRIVER;
-import static com.awitt.root.actions.Action.TRIP;
-
 import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.awitt.root.actions.Action;
+import com.awitt.root.actions.Command;
+import com.awitt.root.actions.CommandTable;
+import com.awitt.root.engine.IngestEngine;
+import com.awitt.root.engine.LineDispatcher;
+import com.awitt.root.engine.ParallelChunkEngine;
+import com.awitt.root.engine.SequentialEngine;
+import com.awitt.root.engine.SpillingEngine;
+import com.awitt.root.io.Checkpoint;
+import com.awitt.root.io.FileTail;
+import com.awitt.root.io.LineSource;
+import com.awitt.root.io.ReaderLineSource;
+import com.awitt.root.io.StreamLineSource;
+import com.awitt.root.metrics.IngestMetrics;
+import com.awitt.root.metrics.IngestMetrics.Phase;
 import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverIndex;
+import com.awitt.root.model.DriverOptions;
+import com.awitt.root.model.DriverStore;
+import com.awitt.root.model.SpeedSketch;
 import com.awitt.root.model.Trip;
+import com.awitt.root.report.ReportSnapshot;
+import com.awitt.root.report.ReportWriter;
+import com.awitt.root.report.TopDrivers;
 
 /**
  * Stateful class that processes a file of ROOT {@link Action driver metric
  * commands}.
  * <p>
- * Each line is processed sequentially, with each {@link Action} encapsulating
- * the logic necessary to perform its function. If an Action cannot perform its
- * function when called, it returns the same line so that it can be reprocessed.
+ * Each line is read by an {@link IngestEngine}, sequentially unless otherwise
+ * specified, with each {@link Action} encapsulating the logic necessary to
+ * perform its function. Lines are dispatched to their Action through a
+ * {@link CommandTable}, to which additional {@link Command}s can be
+ * {@link #register(Command) registered}.
  * <p>
- * Reprocessing occurs for as long as there are lines to be reprocessed and as
- * long as reprocessing has not occurred more times than there are Actions.
+ * A Trip whose Driver is not registered yet is parsed and held against its
+ * lower-cased name, and handed over to the Driver as soon as it is
+ * registered; Trips whose Driver is never registered are reported once the
+ * file has been completely processed. If any other Command cannot perform its
+ * function when called, it returns the same line so that it can be
+ * reprocessed, for as long as there are lines to be reprocessed and as long
+ * as reprocessing has not occurred more times than there are Commands.
  * <p>
  * Once the file has been completely processed, each {@link Driver}'s
  * {@link Trip}s are validated and aggregated, resulting in a summary of each
  * Driver's total distance driven and their average speed, ordered by total
  * distance.
+ * <p>
+ * When created with {@link DriverOptions#STREAMING streaming} options, Trips
+ * are instead aggregated as soon as they are processed and never retained, so
+ * memory use depends only on the number of Drivers. Streamed Drivers can
+ * also be {@link #storeIn(DriverStore) stored} on disk rather than on the
+ * heap.
+ * <p>
+ * When created over a {@link FileTail}, a file that keeps being appended to
+ * can instead be {@link #follow(long, TimeUnit) followed}, reading only new
+ * lines and printing the summary on an interval. While following, an
+ * immutable {@link ReportSnapshot} of every Driver can also be
+ * {@link #publishTo(Consumer, long, TimeUnit) published} on its own interval,
+ * so that other threads can query the summary as it changes.
+ * <p>
+ * When read by a {@link SpillingEngine} that goes over its memory budget,
+ * the Drivers are reprocessed, aggregated and sorted one partition at a time
+ * from disk instead, and reported from the merged partitions.
+ * <p>
+ * When Drivers keep {@link DriverOptions#isSpeedPercentiles() speeds}, the
+ * sketches of every Driver are also merged into the
+ * {@link #getFleetSpeeds() speeds of the fleet}, whose percentiles are logged
+ * with each report.
+ * <p>
+ * The summary is logged unless a {@link ReportWriter} is
+ * {@link #reportTo(ReportWriter) provided}, which writes it in the background
+ * in any of its formats.
+ * <p>
+ * The duration of each {@link Phase} is recorded in the
+ * {@link IngestMetrics}, whose {@link #getMetrics() increase over the run} is
+ * logged once the file has been completely processed, so that each of several
+ * trackers run in turn only logs its own. Trackers running at the same time
+ * are counted in the metrics of each other.
  */
 public class DriverTracker {
 	private static final Logger LOGGER = LoggerFactory.getLogger(DriverTracker.class);
 
+	/** Longest wait for new lines while following **/
+	private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	/** Most bytes read by a single poll, so that a long backlog is read in slices **/
+	private static final long POLL_BYTES = 64L << 20;
+
 	/**
 	 * Map of lower-cased {@link Driver#getName() driver name} and
-	 * {@link Driver}
+	 * {@link Driver}; replaced when resuming from a {@link Checkpoint}, or
+	 * by a {@link DriverStore}
 	 **/
-	private final Map<String, Driver> drivers;
+	private Map<String, Driver> drivers;
+
+	/** How the Driver data is read **/
+	private final IngestEngine engine;
+
+	/** How each registered {@link Driver} keeps track of its {@link Trip}s **/
+	private final DriverOptions options;
+
+	/** Every {@link Command} that can be processed, keyed on its text **/
+	private final CommandTable commands;
+
+	/** The file being followed; {@code null} unless following **/
+	private final FileTail tail;
+
+	/** The number of Drivers to report; {@code 0} to report every Driver **/
+	private int top;
 
-	/** The file to be processed **/
-	private final BufferedReader reader;
+	/** Where the summary is written; {@code null} to log it **/
+	private ReportWriter writer;
 
 	/**
-	 * Instantiates this class to process a file of Driver data.
+	 * Map of lower-cased driver name and a {@link Driver} holding the
+	 * {@link Trip}s read before a Driver of that name was registered
+	 **/
+	private final Map<String, Driver> unregistered;
+
+	/** Lines waiting to be reprocessed, while following or checkpointing **/
+	private List<String> pending;
+
+	/** Where snapshots are published while following; {@code null} for none **/
+	private Consumer<ReportSnapshot> snapshots;
+
+	/** The time between snapshots while following **/
+	private long snapshotIntervalNanos;
+
+	/** The speeds of every Driver as of the last report; {@code null} unless kept **/
+	private SpeedSketch fleetSpeeds;
+
+	/** The {@link IngestMetrics#GLOBAL global metrics} as the current run started **/
+	private IngestMetrics runStart = IngestMetrics.GLOBAL.snapshot();
+
+	/** The metrics of the last run; {@code null} until a run has ended **/
+	private IngestMetrics metrics;
+
+	/**
+	 * Instantiates this class to process a file of Driver data, retaining
+	 * every {@link Trip} until the file has been completely processed.
 	 * 
 	 * @param reader
 	 *            the {@link BufferedReader} containing a handle to the Driver
 	 *            data file to be processed
 	 */
 	public DriverTracker(final BufferedReader reader) {
-		Validate.notNull(reader, "reader cannot be null");
+		this(reader, DriverOptions.DEFAULT);
+	}
 
-		this.reader = reader;
-		this.drivers = new HashMap<>();
+	/**
+	 * Instantiates this class to process a file of Driver data.
+	 * 
+	 * @param reader
+	 *            the {@link BufferedReader} containing a handle to the Driver
+	 *            data file to be processed
+	 * @param options
+	 *            how each registered {@link Driver} keeps track of its
+	 *            {@link Trip}s
+	 */
+	public DriverTracker(final BufferedReader reader, final DriverOptions options) {
+		this(new ReaderLineSource(reader), options);
+	}
+
+	/**
+	 * Instantiates this class to process Driver data from any
+	 * {@link LineSource}, such as a {@link StreamLineSource} that hands over
+	 * lines as raw bytes.
+	 * 
+	 * @param source
+	 *            the {@link LineSource} of the Driver data to be processed
+	 * @param options
+	 *            how each registered {@link Driver} keeps track of its
+	 *            {@link Trip}s
+	 */
+	public DriverTracker(final LineSource source, final DriverOptions options) {
+		this(new SequentialEngine(source), options);
+	}
+
+	/**
+	 * Instantiates this class to process Driver data read by any
+	 * {@link IngestEngine}, such as a {@link ParallelChunkEngine} that
+	 * processes a single file on many cores.
+	 * 
+	 * @param engine
+	 *            the {@link IngestEngine} that reads the Driver data to be
+	 *            processed
+	 * @param options
+	 *            how each registered {@link Driver} keeps track of its
+	 *            {@link Trip}s
+	 */
+	public DriverTracker(final IngestEngine engine, final DriverOptions options) {
+		this(engine, options, null);
+	}
+
+	/**
+	 * Instantiates this class to process, or to {@link #follow(long, TimeUnit)
+	 * follow}, a file of Driver data that keeps being appended to.
+	 * 
+	 * @param tail
+	 *            the {@link FileTail} of the Driver data to be processed
+	 * @param options
+	 *            how each registered {@link Driver} keeps track of its
+	 *            {@link Trip}s; only when {@link DriverOptions#STREAMING
+	 *            streaming} does each new Trip only update the summary of its
+	 *            Driver, without every Trip being aggregated again for each
+	 *            report
+	 */
+	public DriverTracker(final FileTail tail, final DriverOptions options) {
+		this(new SequentialEngine(tail), options, tail);
+	}
+
+	private DriverTracker(final IngestEngine engine, final DriverOptions options, final FileTail tail) {
+		Validate.notNull(engine, "engine cannot be null");
+		Validate.notNull(options, "options cannot be null");
+
+		this.engine = engine;
+		this.options = options;
+		this.tail = tail;
+		this.drivers = new DriverIndex();
+		this.commands = CommandTable.withActions();
+		this.unregistered = new LinkedHashMap<>();
+		this.pending = new ArrayList<>();
+	}
+
+	/**
+	 * Adds a {@link Command}, in addition to the built-in {@link Action}s, to
+	 * be processed by this tracker. Must be called before
+	 * {@link #process()}.
+	 * 
+	 * @param command
+	 *            the Command to add
+	 * @return {@code this} tracker, for chaining
+	 * @throws IllegalArgumentException
+	 *             if a Command with the same text is already registered
+	 */
+	public DriverTracker register(final Command command) {
+		this.commands.register(command);
+		return this;
+	}
+
+	/**
+	 * Limits every report to the first {@code count} {@link Driver}s by total
+	 * distance, selected without sorting every Driver. Drivers with equal
+	 * distances are reported in the same order as in a full report.
+	 * 
+	 * @param count
+	 *            the number of Drivers to report
+	 * @return {@code this} tracker, for chaining
+	 */
+	public DriverTracker top(final int count) {
+		Validate.isTrue(count > 0, "count must be positive");
+
+		this.top = count;
+		return this;
+	}
+
+	/**
+	 * Writes every report to {@code writer} instead of logging it. The writer
+	 * is flushed after each report, but is left open.
+	 * 
+	 * @param writer
+	 *            the {@link ReportWriter} to write reports to
+	 * @return {@code this} tracker, for chaining
+	 */
+	public DriverTracker reportTo(final ReportWriter writer) {
+		Validate.notNull(writer, "writer cannot be null");
+
+		this.writer = writer;
+		return this;
+	}
+
+	/**
+	 * Registers every {@link Driver} in {@code store}, and adds every Trip to
+	 * its Driver there, instead of holding them on the heap. Drivers already
+	 * in the store are reported along with those processed, but only as the
+	 * {@link #top(int) top} Drivers, so that a report never holds every stored
+	 * Driver on the heap. The store is left open. Must be called before
+	 * processing.
+	 * 
+	 * @param store
+	 *            the {@link DriverStore} to keep every Driver in
+	 * @return {@code this} tracker, for chaining
+	 * @throws IllegalStateException
+	 *             if this tracker does not have {@link DriverOptions#STREAMING
+	 *             streaming} options, or has already processed Drivers
+	 */
+	public DriverTracker storeIn(final DriverStore store) {
+		Validate.notNull(store, "store cannot be null");
+		Validate.validState(this.options.isStreaming(), "only a streaming tracker can store its drivers");
+		Validate.validState(this.drivers.isEmpty(), "can only store drivers before processing");
+
+		this.drivers = store;
+		return this;
+	}
+
+	/**
+	 * Publishes a {@link ReportSnapshot} of every {@link Driver} to
+	 * {@code snapshots} while {@link #follow(long, TimeUnit) following}: once
+	 * when following starts, then on the given interval, as long as new lines
+	 * were read. Snapshots are taken on the following thread, between reads,
+	 * so the consumer never sees a Driver being updated.
+	 * 
+	 * @param snapshots
+	 *            the consumer of each snapshot, such as a server answering
+	 *            queries from it
+	 * @param interval
+	 *            the time between snapshots
+	 * @param unit
+	 *            the unit of {@code interval}
+	 * @return {@code this} tracker, for chaining
+	 */
+	public DriverTracker publishTo(final Consumer<ReportSnapshot> snapshots, final long interval,
+			final TimeUnit unit) {
+		Validate.notNull(snapshots, "snapshots cannot be null");
+		Validate.isTrue(interval > 0, "interval must be positive");
+		Validate.notNull(unit, "unit cannot be null");
+
+		this.snapshots = snapshots;
+		this.snapshotIntervalNanos = unit.toNanos(interval);
+		return this;
 	}
 
 	/**
@@ -66,58 +347,473 @@ public DriverTracker(final BufferedReader reader) {
 	 * resulting in a summary of {@link Driver} {@link Trip}s.
 	 */
 	public void process() {
-		final List<String> toReprocess = new ArrayList<>();
+		final List<String> toReprocess;
+		final long start = System.nanoTime();
+		this.runStart = IngestMetrics.GLOBAL.snapshot();
+		validateReportable();
 
 		// FIRST PASS, PROCESS ANY COMMANDS WE CAN
-		this.reader.lines().forEach(line -> processLine(line, toReprocess));
+		try {
+			toReprocess = this.engine.ingest(this.drivers, this.unregistered, this.commands, this.options);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		IngestMetrics.GLOBAL.time(Phase.INGEST, start);
+
+		if (this.engine instanceof SpillingEngine && ((SpillingEngine) this.engine).isSpilled()) {
+			reportSpilled((SpillingEngine) this.engine);
+			logMetrics();
+			return;
+		}
 
 		// REPROCESS UNTIL ALL COMMANDS DONE
-		reprocess(toReprocess, 1);
+		final long reprocessStart = System.nanoTime();
+		reprocess(toReprocess);
+		IngestMetrics.GLOBAL.time(Phase.REPROCESS, reprocessStart);
 
 		// AGGREGATE AND PRINT RESULTS
-		this.drivers.values().stream().map(Driver::aggregateTrips).sorted().forEach(this::printResults);
+		reportUnregistered();
+		report();
+		logMetrics();
 	}
 
-	void printResults(final Driver driver) {
-		assert driver != null : "driver cannot be null";
-		LOGGER.info(driver.getName() + ": " + driver.getDrivingSummary().toString());
+	/**
+	 * Reprocesses, aggregates and sorts each partition spilled by
+	 * {@code engine} on its own, then prints the merged partitions, exactly
+	 * as {@link #report()} would have printed every {@link Driver} held in
+	 * memory.
+	 */
+	private void reportSpilled(final SpillingEngine engine) {
+
+		try {
+			final long start = System.nanoTime();
+			engine.sortPartitions();
+			IngestMetrics.GLOBAL.time(Phase.AGGREGATE, start);
+
+			final long printStart = System.nanoTime();
+			engine.forEachInOrder(this.top, this::printResults);
+			endReport();
+			IngestMetrics.GLOBAL.time(Phase.PRINT, printStart);
+
+			if (this.options.isSpeedPercentiles()) {
+				logFleetSpeeds(engine.getSpeeds());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Completely processes the file read by the {@link FileTail}, as
+	 * {@link #process()} does, writing a {@link Checkpoint} to
+	 * {@code checkpoint} every {@code interval} bytes. If a checkpoint already
+	 * exists, as when a previous run did not complete, processing resumes
+	 * from it rather than from the start of the file. The checkpoint is
+	 * deleted once the file has been completely processed.
+	 * 
+	 * @param checkpoint
+	 *            the checkpoint file
+	 * @param interval
+	 *            the number of bytes to process between checkpoints
+	 * @throws IllegalStateException
+	 *             if this tracker was not created over a {@link FileTail}
+	 *             with {@link DriverOptions#STREAMING streaming} options, or
+	 *             if its Drivers keep hourly totals or speeds, which a
+	 *             checkpoint does not hold
+	 * @throws UncheckedIOException
+	 *             if the checkpoint cannot be read or written, or if the file
+	 *             was truncated or replaced since it was taken
+	 */
+	public void process(final Path checkpoint, final long interval) {
+		Validate.validState(this.tail != null, "only a tracker created over a FileTail can checkpoint");
+		Validate.validState(this.options.isStreaming(), "only a streaming tracker can checkpoint");
+		Validate.validState(!this.options.isHourlySummary() && !this.options.isSpeedPercentiles(),
+				"a checkpoint only holds the totals of each driver, not hourly totals or speeds");
+		Validate.notNull(checkpoint, "checkpoint cannot be null");
+		Validate.isTrue(interval > 0, "interval must be positive");
+
+		final long start = System.nanoTime();
+		this.runStart = IngestMetrics.GLOBAL.snapshot();
+		validateReportable();
+
+		try {
+			if (Files.exists(checkpoint)) {
+				resume(Checkpoint.read(checkpoint));
+			}
+
+			final LineDispatcher dispatcher = new LineDispatcher(this.commands, this.drivers, this.unregistered,
+					this.options, this.pending);
+
+			while (this.tail.forEachLine(dispatcher, interval)) {
+				checkpoint().write(checkpoint);
+				LOGGER.debug("checkpoint written at offset {}", this.tail.getPosition());
+			}
+
+			// THE LAST LINE MAY NOT BE TERMINATED
+			if (this.tail.forHeldLine(dispatcher)) {
+				checkpoint().write(checkpoint);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		IngestMetrics.GLOBAL.time(Phase.INGEST, start);
+
+		// REPROCESS UNTIL ALL COMMANDS DONE
+		final long reprocessStart = System.nanoTime();
+		reprocess(this.pending);
+		IngestMetrics.GLOBAL.time(Phase.REPROCESS, reprocessStart);
+
+		// AGGREGATE AND PRINT RESULTS
+		reportUnregistered();
+		report();
+		logMetrics();
+
+		try {
+			Files.deleteIfExists(checkpoint);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 
-	private void processLine(final String line, final List<String> toReprocess) {
-		final Optional<String> sameLineNeedsToBeReprocessed = processLine(line);
+	private Checkpoint checkpoint() throws IOException {
+		return new Checkpoint(this.tail.getPosition(), this.tail.size(), this.tail.getFileKey(), this.drivers,
+				this.unregistered, this.pending);
+	}
+
+	/**
+	 * @throws IOException
+	 *             if the file followed is shorter than it was when the
+	 *             checkpoint was taken, or is another file, as reading it
+	 *             again from its start would count its Trips twice
+	 */
+	private void resume(final Checkpoint checkpoint) throws IOException {
+		Validate.validState(this.drivers.isEmpty(), "can only resume before processing");
+
+		if (this.tail.size() < Math.max(checkpoint.getSize(), checkpoint.getOffset())) {
+			throw new IOException("cannot resume from a checkpoint at offset " + checkpoint.getOffset()
+					+ ": the file was truncated from " + checkpoint.getSize() + " to " + this.tail.size() + " bytes");
+		}
 
-		if (sameLineNeedsToBeReprocessed.isPresent()) {
-			toReprocess.add(line);
+		if (!checkpoint.getFileKey().isEmpty() && !checkpoint.getFileKey().equals(this.tail.getFileKey())) {
+			throw new IOException("cannot resume from a checkpoint of another file: " + checkpoint.getFileKey()
+					+ " is now " + this.tail.getFileKey());
 		}
+
+		LOGGER.info("resuming from offset {} with {} drivers", checkpoint.getOffset(),
+				checkpoint.getDrivers().size());
+
+		// NOTHING HAS BEEN PROCESSED YET, SO THE CHECKPOINT IS TAKEN AS IS
+		this.drivers = checkpoint.getDrivers();
+		this.unregistered.putAll(checkpoint.getUnregistered());
+		this.pending.addAll(checkpoint.getPending());
+		this.tail.seek(checkpoint.getOffset());
 	}
 
-	private Optional<String> processLine(final String line) {
+	/**
+	 * Keeps reading the lines appended to the followed file, until the
+	 * calling thread is interrupted, printing a summary of every
+	 * {@link Driver} on the given interval. Only new bytes are read, and each
+	 * new Trip only updates the summary of its Driver, so a report costs only
+	 * sorting the Drivers.
+	 * <p>
+	 * A Trip whose Driver is not registered yet is held until its Driver is
+	 * registered, and is only reported from then on.
+	 * <p>
+	 * An interrupt that arrives while the file is being read, which closes
+	 * it, or while a report is being written, ends following just as an
+	 * interrupt between polls does, leaving the thread interrupted.
+	 * 
+	 * @param interval
+	 *            the time between reports
+	 * @param unit
+	 *            the unit of {@code interval}
+	 * @throws IllegalStateException
+	 *             if this tracker was not created over a {@link FileTail}
+	 */
+	public void follow(final long interval, final TimeUnit unit) {
+		Validate.validState(this.tail != null, "only a tracker created over a FileTail can follow");
+		Validate.isTrue(interval > 0, "interval must be positive");
+		Validate.notNull(unit, "unit cannot be null");
+
+		final long intervalNanos = unit.toNanos(interval);
+		long nextReport = System.nanoTime() + intervalNanos;
+		this.runStart = IngestMetrics.GLOBAL.snapshot();
+		validateReportable();
+		long nextSnapshot = System.nanoTime();
+		boolean unpublished = true;
+
+		while (!Thread.currentThread().isInterrupted()) {
+			final boolean read;
+
+			try {
+				read = poll();
+			} catch (UncheckedIOException e) {
+				if (isInterruption(e)) {
+					break;
+				}
+
+				throw e;
+			}
+
+			unpublished |= read;
+
+			// A SNAPSHOT IS STILL CURRENT IF NOTHING WAS READ SINCE IT WAS TAKEN
+			if (this.snapshots != null && unpublished && nextSnapshot - System.nanoTime() <= 0) {
+				publish();
+				unpublished = false;
+				nextSnapshot = System.nanoTime() + this.snapshotIntervalNanos;
+			}
 
-		if (StringUtils.isNotBlank(line)) {
-			return pickStategy(line).doCommand(line, this.drivers);
+			final long untilReport = nextReport - System.nanoTime();
+
+			if (untilReport <= 0) {
+				try {
+					report();
+				} catch (UncheckedIOException e) {
+					if (isInterruption(e)) {
+						break;
+					}
+
+					throw e;
+				}
+
+				nextReport += intervalNanos;
+			} else if (!read) {
+				try {
+					TimeUnit.NANOSECONDS.sleep(Math.min(untilReport, POLL_INTERVAL_NANOS));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
 		}
 
-		return Optional.empty();
+		logMetrics();
 	}
 
-	private void reprocess(final List<String> reprocess, int count) {
+	/**
+	 * @return whether or not {@code e} was only thrown because the thread was
+	 *         interrupted while reading or writing
+	 */
+	private static boolean isInterruption(final UncheckedIOException e) {
+		return Thread.currentThread().isInterrupted() && (e.getCause() instanceof ClosedByInterruptException
+				|| e.getCause() instanceof InterruptedIOException);
+	}
 
-		if (!reprocess.isEmpty() && count <= Action.values().length) {
-			final List<String> toReprocess = new ArrayList<>();
+	/**
+	 * Reads the complete lines appended to the followed file since the
+	 * previous poll, a slice of at most about 64 MiB at a
+	 * time, so that a long backlog does not hold back reports and snapshots.
+	 * 
+	 * @return whether or not any new line was read
+	 * @throws IllegalStateException
+	 *             if this tracker was not created over a {@link FileTail}
+	 */
+	public boolean poll() {
+		Validate.validState(this.tail != null, "only a tracker created over a FileTail can poll");
+
+		final long position = this.tail.getPosition();
+		final long start = System.nanoTime();
+
+		try {
+			this.tail.forEachLine(new LineDispatcher(this.commands, this.drivers, this.unregistered, this.options,
+					this.pending), POLL_BYTES);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 
-			reprocess.stream().forEach(line -> processLine(line, toReprocess));
-			reprocess(toReprocess, count++);
+		if (this.tail.getPosition() == position) {
+			return false;
 		}
+
+		IngestMetrics.GLOBAL.time(Phase.INGEST, start);
+
+		// NEW DRIVERS MAY HAVE BEEN REGISTERED FOR EARLIER LINES
+		if (!this.pending.isEmpty()) {
+			final List<String> stillPending = new ArrayList<>();
+			final LineDispatcher dispatcher = new LineDispatcher(this.commands, this.drivers, this.unregistered,
+					this.options, stillPending);
+
+			this.pending.forEach(dispatcher::onLine);
+			this.pending = stillPending;
+		}
+
+		return true;
 	}
 
-	private Action pickStategy(final String line) {
+	/**
+	 * Prints a summary of every {@link Driver} processed so far, or of the
+	 * {@link #top(int) top} Drivers only, ordered by total distance.
+	 *
+	 * @throws IllegalStateException
+	 *             if the Drivers are {@link #storeIn(DriverStore) stored} but
+	 *             no top has been set
+	 */
+	public void report() {
+		validateReportable();
+		final long start = System.nanoTime();
+		aggregateTrips();
+		IngestMetrics.GLOBAL.time(Phase.AGGREGATE, start);
+
+		final long sortStart = System.nanoTime();
+		final List<Driver> reported = this.drivers instanceof DriverStore ? topStored((DriverStore) this.drivers)
+				: this.top > 0 ? TopDrivers.select(this.drivers.values().iterator(), this.top)
+						: this.drivers.values().stream().sorted().collect(Collectors.toList());
+		IngestMetrics.GLOBAL.time(Phase.SORT, sortStart);
+
+		final long printStart = System.nanoTime();
+		reported.forEach(this::printResults);
+		endReport();
+		IngestMetrics.GLOBAL.time(Phase.PRINT, printStart);
+
+		if (this.options.isSpeedPercentiles()) {
+			final SpeedSketch speeds = new SpeedSketch();
 
-		if (DRIVER.isCommand(line)) {
-			return DRIVER;
-		} else if (TRIP.isCommand(line)) {
-			return TRIP;
+			for (final Driver driver : this.drivers.values()) {
+
+				// NEITHER A CONCURRENT NOR A STORED SUMMARY KEEPS SPEEDS
+				if (driver.getDrivingSummary().hasSpeeds()) {
+					speeds.merge(driver.getDrivingSummary().getSpeeds());
+				}
+			}
+
+			logFleetSpeeds(speeds);
 		}
+	}
 
-		throw new IllegalArgumentException("Unexpected command: " + line);
+	/**
+	 * @return a sketch of the speeds of every {@link Trip} of every
+	 *         {@link Driver} as of the last report; {@code null} unless
+	 *         Drivers keep {@link DriverOptions#isSpeedPercentiles() speeds}
+	 *         and a report was printed
+	 */
+	public SpeedSketch getFleetSpeeds() {
+		return this.fleetSpeeds;
+	}
+
+	/**
+	 * @return the {@link IngestMetrics} recorded over the last run of this
+	 *         tracker, as logged when it ended; {@code null} until a run has
+	 *         ended
+	 */
+	public IngestMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * Fails before any line is processed, rather than once the report is due,
+	 * when stored Drivers would all be sorted on the heap.
+	 */
+	private void validateReportable() {
+		Validate.validState(this.top > 0 || !(this.drivers instanceof DriverStore),
+				"stored drivers can only be reported as the top drivers");
+	}
+
+	/**
+	 * Selects the top stored {@link Driver}s by the totals in the header of
+	 * their records, so that only the names of those selected are decoded.
+	 */
+	private List<Driver> topStored(final DriverStore store) {
+		final List<Long> records = TopDrivers.select(store.records(), (record, other) -> Driver
+				.compareDistances(store.scaledDistanceAt(record), store.scaledDistanceAt(other)), this.top);
+
+		return records.stream().map(store::driverAt).collect(Collectors.toList());
+	}
+
+	private void logFleetSpeeds(final SpeedSketch speeds) {
+		this.fleetSpeeds = speeds;
+
+		if (speeds.getCount() > 0) {
+			LOGGER.info("fleet speeds of {} trips: p50 {} mph, p95 {} mph, p99 {} mph", speeds.getCount(),
+					String.format("%.2f", speeds.getQuantile(0.50)), String.format("%.2f", speeds.getQuantile(0.95)),
+					String.format("%.2f", speeds.getQuantile(0.99)));
+		}
+	}
+
+	/**
+	 * Aggregates the retained Trips of every {@link Driver}. Streamed Drivers
+	 * have nothing to aggregate, so they are not visited, which spares
+	 * decoding every Driver of a {@link DriverStore} once more than the report
+	 * itself does.
+	 */
+	private void aggregateTrips() {
+
+		if (!this.options.isStreaming()) {
+			this.drivers.values().forEach(Driver::aggregateTrips);
+		}
+	}
+
+	/**
+	 * Publishes a snapshot of every {@link Driver} processed so far.
+	 */
+	private void publish() {
+		aggregateTrips();
+		this.snapshots.accept(ReportSnapshot.of(this.drivers.values()));
+	}
+
+	private void endReport() {
+
+		if (this.writer != null) {
+			try {
+				this.writer.endReport();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	void printResults(final Driver driver) {
+		assert driver != null : "driver cannot be null";
+
+		if (this.writer == null) {
+			LOGGER.info("{}: {}", driver.getName(), driver.getDrivingSummary());
+			return;
+		}
+
+		try {
+			this.writer.write(driver);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void logMetrics() {
+		this.metrics = IngestMetrics.GLOBAL.since(this.runStart);
+		LOGGER.info("metrics: {}", this.metrics);
+
+		if (this.metrics.getDuplicateRegistrations() > 0) {
+			LOGGER.warn("{} registrations of an already registered driver were ignored",
+					this.metrics.getDuplicateRegistrations());
+		}
+	}
+
+	private void reprocess(final List<String> reprocess) {
+		List<String> remaining = reprocess;
+
+		for (int pass = 1; !remaining.isEmpty() && pass <= this.commands.size(); pass++) {
+			final List<String> toReprocess = new ArrayList<>();
+			IngestMetrics.GLOBAL.reprocessPass();
+
+			final LineDispatcher dispatcher = new LineDispatcher(this.commands, this.drivers, this.unregistered,
+					this.options, toReprocess);
+
+			remaining.forEach(dispatcher::onLine);
+			remaining = toReprocess;
+		}
+
+		if (!remaining.isEmpty()) {
+			LOGGER.warn("{} lines could not be processed, such as: {}", remaining.size(), remaining.get(0));
+		}
+	}
+
+	/**
+	 * Reports, in one final pass, the Trips held for every Driver that was
+	 * never registered; they are not part of any summary.
+	 */
+	private void reportUnregistered() {
+		this.unregistered.values().forEach(
+				driver -> LOGGER.warn("trips found for a driver that was never registered: {}", driver.getName()));
+		this.unregistered.clear();
 	}
-}
\ No newline at end of file
+}
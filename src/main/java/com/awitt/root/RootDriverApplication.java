@@ -1,17 +1,47 @@
 package com.awitt.root;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.Closeable;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.Option;
+import org.apache.commons.cli.OptionGroup;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.awitt.root.engine.BinaryEngine;
+import com.awitt.root.engine.MultiFileEngine;
+import com.awitt.root.engine.ParallelChunkEngine;
+import com.awitt.root.engine.PipelinedEngine;
+import com.awitt.root.engine.SpillingEngine;
+import com.awitt.root.io.FileLineSource;
+import com.awitt.root.io.FileTail;
+import com.awitt.root.io.GzipLineSource;
+import com.awitt.root.io.InputFiles;
+import com.awitt.root.io.LineSource;
+import com.awitt.root.io.MappedLineSource;
+import com.awitt.root.metrics.IngestMetrics;
+import com.awitt.root.model.DriverOptions;
+import com.awitt.root.model.DriverOptions.Retention;
+import com.awitt.root.model.DriverStore;
+import com.awitt.root.report.ReportFormat;
+import com.awitt.root.report.ReportWriter;
+import com.awitt.root.server.QueryServer;
+
 /**
  * Bootstrap for the application that parses command line arguments,
  * instantiates the main working class, and handles exceptions and program
@@ -22,33 +52,351 @@ public class RootDriverApplication {
 	private static final Logger LOGGER = LoggerFactory.getLogger(RootDriverApplication.class);
 	private static final String OPT_FILE_PATH_SHORT = "f";
 	private static final String OPT_FILE_PATH_LONG = "file";
+	private static final String OPT_MMAP_SHORT = "m";
+	private static final String OPT_MMAP_LONG = "mmap";
+	private static final String OPT_BINARY_SHORT = "b";
+	private static final String OPT_BINARY_LONG = "binary";
+	private static final String OPT_COLUMNAR_SHORT = "c";
+	private static final String OPT_COLUMNAR_LONG = "columnar";
+	private static final String OPT_STREAM_SHORT = "s";
+	private static final String OPT_STREAM_LONG = "stream";
+	private static final String OPT_HOURLY_LONG = "hourly";
+	private static final String OPT_SPEED_PERCENTILES_LONG = "speed-percentiles";
+	private static final String OPT_PARALLEL_SHORT = "p";
+	private static final String OPT_PARALLEL_LONG = "parallel";
+	private static final String OPT_PIPELINE_LONG = "pipeline";
+	private static final String OPT_FOLLOW_SHORT = "F";
+	private static final String OPT_FOLLOW_LONG = "follow";
+	private static final String DEFAULT_FOLLOW_SECONDS = "10";
+	private static final String OPT_CHECKPOINT_SHORT = "k";
+	private static final String OPT_CHECKPOINT_LONG = "checkpoint";
+	private static final String OPT_CHECKPOINT_INTERVAL_LONG = "checkpoint-interval";
+	private static final String DEFAULT_CHECKPOINT_MEGABYTES = "1024";
+	private static final String OPT_STORE_LONG = "store";
+	private static final String OPT_MEMORY_BUDGET_LONG = "memory-budget";
+	private static final String OPT_SPILL_DIR_LONG = "spill-dir";
+	private static final String OPT_SERVE_LONG = "serve";
+	private static final String DEFAULT_SERVE_PORT = "8080";
+	private static final String OPT_SNAPSHOT_INTERVAL_LONG = "snapshot-interval";
+	private static final String DEFAULT_SNAPSHOT_MILLIS = "1000";
+	private static final String OPT_TOP_SHORT = "t";
+	private static final String OPT_TOP_LONG = "top";
+	private static final String OPT_OUTPUT_SHORT = "o";
+	private static final String OPT_OUTPUT_LONG = "output";
+	private static final String OPT_FORMAT_LONG = "format";
+
+	/** How long a shutdown waits for a followed file to be closed **/
+	private static final long SHUTDOWN_SECONDS = 10;
 
 	public static void main(String[] args) {
-		final String file;
+		final DriverTracker tracker;
+		final long followSeconds;
+		final Path checkpoint;
+		final long checkpointInterval;
+		final ReportWriter writer;
+		final QueryServer server;
+		final DriverStore store;
+
+		IngestMetrics.register();
 
 		try {
-			file = parseCommandLineArgs(args).getOptionValue(OPT_FILE_PATH_SHORT);
-			LOGGER.info("loading {}", file);
-		} catch (ParseException e) {
+			final CommandLine commandLine = parseCommandLineArgs(args);
+			tracker = createTracker(commandLine);
+			store = commandLine.hasOption(OPT_STORE_LONG)
+					? DriverStore.open(Paths.get(commandLine.getOptionValue(OPT_STORE_LONG)))
+					: null;
+
+			if (store != null) {
+				tracker.storeIn(store);
+			}
+
+			if (commandLine.hasOption(OPT_TOP_SHORT)) {
+				tracker.top(Integer.parseInt(commandLine.getOptionValue(OPT_TOP_SHORT)));
+			}
+
+			followSeconds = commandLine.hasOption(OPT_FOLLOW_SHORT) || commandLine.hasOption(OPT_SERVE_LONG)
+					? Long.parseLong(commandLine.getOptionValue(OPT_FOLLOW_SHORT, DEFAULT_FOLLOW_SECONDS))
+					: 0;
+			checkpoint = commandLine.hasOption(OPT_CHECKPOINT_SHORT)
+					? Paths.get(commandLine.getOptionValue(OPT_CHECKPOINT_SHORT))
+					: null;
+			checkpointInterval = checkpointInterval(commandLine);
+			writer = createWriter(commandLine);
+
+			if (writer != null) {
+				tracker.reportTo(writer);
+			}
+
+			server = createServer(commandLine);
+
+			if (server != null) {
+				tracker.publishTo(server, Long.parseLong(commandLine.getOptionValue(OPT_SNAPSHOT_INTERVAL_LONG,
+						DEFAULT_SNAPSHOT_MILLIS)), TimeUnit.MILLISECONDS);
+				server.start();
+			}
+		} catch (ParseException | IllegalArgumentException e) {
 			LOGGER.error("An exception occurred while attempting to parse command line options: {}", args, e);
 			System.exit(1);
 			return;
-		}
-
-		try (final BufferedReader bufferedReader = new BufferedReader(new FileReader(file))) {
-			final DriverTracker tracker = new DriverTracker(bufferedReader);
-			tracker.process();
 		} catch (IOException e) {
 			LOGGER.error("An exception occurred while attempting to load file", e);
 			System.exit(1);
 			return;
+		}
+
+		final CountDownLatch closed = new CountDownLatch(1);
+		int status = 0;
+
+		if (followSeconds > 0) {
+			final Thread following = Thread.currentThread();
+
+			// FOLLOWING ONLY ENDS WHEN INTERRUPTED, SO A SIGTERM INTERRUPTS IT AND WAITS FOR EVERYTHING TO BE CLOSED
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				following.interrupt();
+
+				try {
+					closed.await(SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}, "shutdown"));
+		}
+
+		try {
+			if (followSeconds > 0) {
+				tracker.follow(followSeconds, TimeUnit.SECONDS);
+
+				// CLEARED, SO THAT CLOSING CAN STILL WAIT FOR THE LAST REPORT TO BE WRITTEN
+				Thread.interrupted();
+			} else if (checkpoint != null) {
+				tracker.process(checkpoint, checkpointInterval);
+			} else {
+				tracker.process();
+			}
+		} catch (UncheckedIOException e) {
+			LOGGER.error("An exception occurred while attempting to load file", e);
+			status = 1;
 		} catch (Throwable t) {
 			LOGGER.error("An unexpected exception occurred while attempting to process file", t);
-			System.exit(1);
-			return;
+			status = 1;
+		} finally {
+			// IN REVERSE ORDER OF OPENING, EVEN IF PROCESSING FAILED, SO THAT THE LAST REPORTS AND THE STORE REACH THE DISK
+			if (!close(server, writer, store)) {
+				status = 1;
+			}
+		}
+
+		// COUNTED DOWN FIRST, AS EXITING WHILE A SHUTDOWN HOOK WAITS WOULD BLOCK FOREVER
+		closed.countDown();
+		System.exit(status);
+	}
+
+	/**
+	 * Closes each of the {@code resources} that was opened, in order, even
+	 * if closing an earlier one fails.
+	 * 
+	 * @return whether or not every resource was closed
+	 */
+	private static boolean close(final Closeable... resources) {
+		boolean closed = true;
+
+		for (final Closeable resource : resources) {
+			try {
+				if (resource != null) {
+					resource.close();
+				}
+			} catch (IOException | RuntimeException e) {
+				LOGGER.error("An exception occurred while attempting to close {}", resource, e);
+				closed = false;
+			}
+		}
+
+		return closed;
+	}
+
+	private static DriverTracker createTracker(final CommandLine commandLine) throws IOException, ParseException {
+		final boolean stored = commandLine.hasOption(OPT_STORE_LONG);
+		final boolean followed = commandLine.hasOption(OPT_FOLLOW_SHORT) || commandLine.hasOption(OPT_CHECKPOINT_SHORT)
+				|| commandLine.hasOption(OPT_SERVE_LONG);
+
+		if ((stored || commandLine.hasOption(OPT_CHECKPOINT_SHORT)) && (commandLine.hasOption(OPT_HOURLY_LONG)
+				|| commandLine.hasOption(OPT_SPEED_PERCENTILES_LONG))) {
+			// ONLY THE TOTALS OF EACH DRIVER ARE STORED OR CHECKPOINTED
+			throw new ParseException("hourly totals and speed percentiles cannot be kept in a store or a checkpoint");
+		}
+
+		if (stored && (!commandLine.hasOption(OPT_TOP_SHORT) || commandLine.hasOption(OPT_SERVE_LONG))) {
+			// A FULL REPORT OR A SNAPSHOT WOULD SORT EVERY STORED DRIVER ON THE HEAP
+			throw new ParseException("stored drivers can only be reported as the --top drivers, and cannot be served");
+		}
+
+		if (followed && (commandLine.hasOption(OPT_COLUMNAR_SHORT) || commandLine.hasOption(OPT_PARALLEL_SHORT)
+				|| commandLine.hasOption(OPT_PIPELINE_LONG) || commandLine.hasOption(OPT_BINARY_SHORT))) {
+			throw new ParseException("a followed, checkpointed or served file is always streamed, "
+					+ "one line of text at a time");
+		}
+
+		if (!commandLine.hasOption(OPT_FILE_PATH_SHORT)) {
+			if (!stored) {
+				throw new ParseException("no file to process");
+			}
+
+			// NOTHING TO PROCESS, ONLY THE DRIVERS ALREADY STORED TO REPORT
+			return new DriverTracker(handler -> {
+			}, DriverOptions.STREAMING);
+		}
+
+		final List<Path> files = InputFiles
+				.resolve(Arrays.asList(commandLine.getOptionValues(OPT_FILE_PATH_SHORT)));
+		final DriverOptions options = stored ? DriverOptions.STREAMING
+				: (commandLine.hasOption(OPT_STREAM_SHORT) ? DriverOptions.STREAMING
+						: commandLine.hasOption(OPT_COLUMNAR_SHORT) ? DriverOptions.COLUMNAR : DriverOptions.DEFAULT)
+								.withHourlySummary(commandLine.hasOption(OPT_HOURLY_LONG))
+								.withSpeedPercentiles(commandLine.hasOption(OPT_SPEED_PERCENTILES_LONG));
+		final boolean mmap = commandLine.hasOption(OPT_MMAP_SHORT);
+		LOGGER.info("loading {}", files);
+
+		if (stored && (commandLine.hasOption(OPT_PARALLEL_SHORT) || commandLine.hasOption(OPT_PIPELINE_LONG)
+				|| commandLine.hasOption(OPT_CHECKPOINT_SHORT)
+				|| (files.size() > 1 && !commandLine.hasOption(OPT_BINARY_SHORT)))) {
+			// THE STORE IS NOT THREAD-SAFE, AND KEEPS ITS OWN PROGRESS
+			throw new ParseException("a store can only be filled from a single text file or from binary files, "
+					+ "without checkpoints, one line at a time");
+		}
+
+		if (commandLine.hasOption(OPT_MEMORY_BUDGET_LONG) && (stored || files.size() > 1
+				|| commandLine.hasOption(OPT_PARALLEL_SHORT) || commandLine.hasOption(OPT_PIPELINE_LONG)
+				|| commandLine.hasOption(OPT_BINARY_SHORT) || commandLine.hasOption(OPT_FOLLOW_SHORT)
+				|| commandLine.hasOption(OPT_CHECKPOINT_SHORT) || commandLine.hasOption(OPT_SERVE_LONG))) {
+			// ONLY A SINGLE SEQUENTIAL PASS OVER THE FILE CAN SPILL WHAT IT HOLDS PARTWAY THROUGH
+			throw new ParseException("a memory budget only applies to a single file processed once, "
+					+ "one line at a time, without a store");
 		}
 
-		System.exit(0);
+		if (mmap && (followed || commandLine.hasOption(OPT_BINARY_SHORT)
+				|| (files.size() == 1 && commandLine.hasOption(OPT_PARALLEL_SHORT)))) {
+			// FOLLOWED FILES, CHUNKS AND BINARY FILES ARE EACH READ THROUGH THEIR OWN CHANNEL
+			throw new ParseException("only a file read one line of text at a time, or one of many files, "
+					+ "can be memory-mapped");
+		}
+
+		if (followed) {
+			if (files.size() > 1 || GzipLineSource.isCompressed(files.get(0))) {
+				throw new ParseException("only a single uncompressed file can be followed, checkpointed or served");
+			}
+
+			return new DriverTracker(new FileTail(files.get(0)), options.withRetention(Retention.STREAM));
+		}
+
+		if (commandLine.hasOption(OPT_BINARY_SHORT)) {
+			return new DriverTracker(new BinaryEngine(files), options);
+		}
+
+		if (files.size() > 1) {
+			// FILES ARE ALREADY PROCESSED CONCURRENTLY, SO EACH IS DECOMPRESSED ON A SINGLE THREAD
+			return new DriverTracker(new MultiFileEngine(files, parallelism(commandLine),
+					file -> lineSource(file, mmap, 1)), options);
+		}
+
+		final Path file = files.get(0);
+		final int cores = Runtime.getRuntime().availableProcessors();
+
+		if (GzipLineSource.isCompressed(file) && commandLine.hasOption(OPT_PARALLEL_SHORT)) {
+			// A COMPRESSED FILE CANNOT BE SPLIT INTO CHUNKS, BUT ITS MEMBERS CAN BE DECOMPRESSED CONCURRENTLY
+			return new DriverTracker(new GzipLineSource(file, parallelism(commandLine)), options);
+		}
+
+		if (commandLine.hasOption(OPT_PARALLEL_SHORT)) {
+			return new DriverTracker(new ParallelChunkEngine(file, parallelism(commandLine)), options);
+		}
+
+		if (commandLine.hasOption(OPT_PIPELINE_LONG)) {
+			final int threads = Integer.parseInt(commandLine.getOptionValue(OPT_PIPELINE_LONG, String.valueOf(cores)));
+
+			return new DriverTracker(new PipelinedEngine(lineSource(file, mmap, cores), threads,
+					Math.max(1, threads / 2)), options);
+		}
+
+		if (commandLine.hasOption(OPT_MEMORY_BUDGET_LONG)) {
+			final long budget = Long.parseLong(commandLine.getOptionValue(OPT_MEMORY_BUDGET_LONG)) << 20;
+			final Path directory = Paths.get(
+					commandLine.getOptionValue(OPT_SPILL_DIR_LONG, System.getProperty("java.io.tmpdir")));
+
+			return new DriverTracker(new SpillingEngine(lineSource(file, mmap, cores), directory, budget), options);
+		}
+
+		return new DriverTracker(lineSource(file, mmap, cores), options);
+	}
+
+	/**
+	 * @param decompressors
+	 *            the number of threads decompressing a gzip-compressed file
+	 * @return the {@link LineSource} of {@code file}, decompressed as it is
+	 *         read if it is gzip-compressed, or memory-mapped if asked
+	 */
+	private static LineSource lineSource(final Path file, final boolean mmap, final int decompressors) {
+
+		if (GzipLineSource.isCompressed(file)) {
+			return new GzipLineSource(file, decompressors);
+		}
+
+		return mmap ? new MappedLineSource(file) : new FileLineSource(file);
+	}
+
+	/**
+	 * @return a writer of the report to the output file, or to the standard
+	 *         output if only a format is given; {@code null} to log the
+	 *         report
+	 */
+	private static ReportWriter createWriter(final CommandLine commandLine) throws IOException {
+
+		if (!commandLine.hasOption(OPT_OUTPUT_SHORT) && !commandLine.hasOption(OPT_FORMAT_LONG)) {
+			return null;
+		}
+
+		final ReportFormat format = ReportFormat
+				.valueOf(commandLine.getOptionValue(OPT_FORMAT_LONG, ReportFormat.TEXT.name()).toUpperCase(Locale.ROOT));
+		final OutputStream out = commandLine.hasOption(OPT_OUTPUT_SHORT)
+				? new FileOutputStream(commandLine.getOptionValue(OPT_OUTPUT_SHORT))
+				: System.out;
+
+		return new ReportWriter(out, format);
+	}
+
+	/**
+	 * @return a server answering queries on the given port, bound but not
+	 *         started; {@code null} unless serving
+	 */
+	private static QueryServer createServer(final CommandLine commandLine) throws IOException {
+
+		if (!commandLine.hasOption(OPT_SERVE_LONG)) {
+			return null;
+		}
+
+		final int port = Integer.parseInt(commandLine.getOptionValue(OPT_SERVE_LONG, DEFAULT_SERVE_PORT));
+
+		return new QueryServer(new InetSocketAddress(port), Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @return the number of bytes to process between checkpoints, given in
+	 *         megabytes
+	 */
+	private static long checkpointInterval(final CommandLine commandLine) throws ParseException {
+		final long megabytes = Long.parseLong(commandLine.getOptionValue(OPT_CHECKPOINT_INTERVAL_LONG,
+				DEFAULT_CHECKPOINT_MEGABYTES));
+
+		if (megabytes <= 0 || megabytes > Long.MAX_VALUE >> 20) {
+			throw new ParseException("--checkpoint-interval must be a positive number of megabytes, of at most "
+					+ (Long.MAX_VALUE >> 20));
+		}
+
+		return megabytes << 20;
+	}
+
+	private static int parallelism(final CommandLine commandLine) {
+		return Integer.parseInt(commandLine.getOptionValue(OPT_PARALLEL_SHORT,
+				String.valueOf(Runtime.getRuntime().availableProcessors())));
 	}
 
 	private static CommandLine parseCommandLineArgs(final String[] args) throws ParseException {
@@ -56,7 +404,84 @@ private static CommandLine parseCommandLineArgs(final String[] args) throws Pars
 	}
 
 	private static Options buildOptions() {
-		return new Options().addOption(Option.builder(OPT_FILE_PATH_SHORT).longOpt(OPT_FILE_PATH_LONG)
-				.desc("the path to the file containing driver data to be processed").hasArg().numberOfArgs(1).build());
+		return new Options()
+				.addOption(Option.builder(OPT_FILE_PATH_SHORT).longOpt(OPT_FILE_PATH_LONG)
+						.desc("the paths to the files containing driver data to be processed; each may be a file, "
+								+ "a directory of files, or a glob pattern such as logs/*.txt")
+						.hasArgs().argName("paths").build())
+				.addOption(Option.builder(OPT_MMAP_SHORT).longOpt(OPT_MMAP_LONG)
+						.desc("memory-map the file instead of reading it through a buffer; the file must be UTF-8, and "
+								+ "cannot be followed, checkpointed, served, binary or split into --parallel chunks")
+						.build())
+				.addOption(Option.builder(OPT_BINARY_SHORT).longOpt(OPT_BINARY_LONG)
+						.desc("the files are in the binary format written by BinaryConverterApplication, and are "
+								+ "processed one after the other")
+						.build())
+				.addOptionGroup(new OptionGroup()
+						.addOption(Option.builder(OPT_STREAM_SHORT).longOpt(OPT_STREAM_LONG)
+								.desc("aggregate each trip as it is read instead of retaining every trip").build())
+						.addOption(Option.builder(OPT_COLUMNAR_SHORT).longOpt(OPT_COLUMNAR_LONG)
+								.desc("retain every trip in compact columnar arrays").build()))
+				.addOption(Option.builder().longOpt(OPT_HOURLY_LONG)
+						.desc("also total each driver's distance and duration by hour of the day, reported by the "
+								+ "json format")
+						.build())
+				.addOption(Option.builder().longOpt(OPT_SPEED_PERCENTILES_LONG)
+						.desc("also sketch the speed of each driver's trips, reporting the 50th, 95th and 99th "
+								+ "percentiles of each driver in the json format and of the fleet in the log")
+						.build())
+				.addOption(Option.builder(OPT_PARALLEL_SHORT).longOpt(OPT_PARALLEL_LONG)
+						.desc("process a single file in chunks, or many files at once, on the given number of "
+								+ "threads; defaults to one per core")
+						.hasArg().optionalArg(true).argName("threads").build())
+				.addOption(Option.builder().longOpt(OPT_PIPELINE_LONG)
+						.desc("process a single file in a pipeline of a reader, the given number of parsers and "
+								+ "half as many aggregators; defaults to one parser per core")
+						.hasArg().optionalArg(true).argName("threads").build())
+				.addOption(Option.builder(OPT_FOLLOW_SHORT).longOpt(OPT_FOLLOW_LONG)
+						.desc("keep following a single file as it is appended to, streaming trips and printing "
+								+ "the summary on the given interval; defaults to every " + DEFAULT_FOLLOW_SECONDS
+								+ " seconds")
+						.hasArg().optionalArg(true).argName("seconds").build())
+				.addOption(Option.builder(OPT_CHECKPOINT_SHORT).longOpt(OPT_CHECKPOINT_LONG)
+						.desc("stream the trips of a single file, periodically saving progress to the given "
+								+ "checkpoint file, and resume from it if it exists")
+						.hasArg().argName("path").build())
+				.addOption(Option.builder().longOpt(OPT_CHECKPOINT_INTERVAL_LONG)
+						.desc("the number of megabytes to process between checkpoints; defaults to "
+								+ DEFAULT_CHECKPOINT_MEGABYTES)
+						.hasArg().argName("megabytes").build())
+				.addOption(Option.builder().longOpt(OPT_STORE_LONG)
+						.desc("stream every driver into the disk-backed store in the given directory, creating it "
+								+ "if needed, instead of holding drivers on the heap, and only report the --top "
+								+ "drivers; without files, only reports the drivers already stored")
+						.hasArg().argName("directory").build())
+				.addOption(Option.builder().longOpt(OPT_MEMORY_BUDGET_LONG)
+						.desc("once drivers and lines waiting to be reprocessed take up about the given number of "
+								+ "megabytes, spill them and the rest of the file to disk, partitioned by driver, "
+								+ "and report from the sorted partitions")
+						.hasArg().argName("megabytes").build())
+				.addOption(Option.builder().longOpt(OPT_SPILL_DIR_LONG)
+						.desc("the directory in which to spill once over the memory budget; defaults to the "
+								+ "temporary directory")
+						.hasArg().argName("directory").build())
+				.addOption(Option.builder().longOpt(OPT_SERVE_LONG)
+						.desc("follow a single file, as --follow does, while answering queries over HTTP on the "
+								+ "given port; defaults to " + DEFAULT_SERVE_PORT)
+						.hasArg().optionalArg(true).argName("port").build())
+				.addOption(Option.builder().longOpt(OPT_SNAPSHOT_INTERVAL_LONG)
+						.desc("the number of milliseconds between the snapshots that queries are answered from; "
+								+ "defaults to " + DEFAULT_SNAPSHOT_MILLIS)
+						.hasArg().argName("millis").build())
+				.addOption(Option.builder(OPT_TOP_SHORT).longOpt(OPT_TOP_LONG)
+						.desc("only report the given number of drivers with the longest total distance")
+						.hasArg().argName("count").build())
+				.addOption(Option.builder(OPT_OUTPUT_SHORT).longOpt(OPT_OUTPUT_LONG)
+						.desc("write the report to the given file, in the background, instead of logging it")
+						.hasArg().argName("path").build())
+				.addOption(Option.builder().longOpt(OPT_FORMAT_LONG)
+						.desc("the format of the report written to the output file, or to the standard output if "
+								+ "none is given: text, csv, json or binary; defaults to text")
+						.hasArg().argName("format").build());
 	}
 }
\ No newline at end of file
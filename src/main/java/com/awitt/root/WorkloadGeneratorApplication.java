@@ -0,0 +1,135 @@
+package com.awitt.root;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.awitt.root.workload.Workload;
+import com.awitt.root.workload.WorkloadGenerator;
+
+/**
+ * Bootstrap for writing a synthetic file of Driver data, for load-testing
+ * {@link DriverTracker} without production data, that parses command line
+ * arguments into a {@link Workload} and handles exceptions and program
+ * execution.
+ */
+public class WorkloadGeneratorApplication {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(WorkloadGeneratorApplication.class);
+	private static final String OPT_OUTPUT_SHORT = "o";
+	private static final String OPT_OUTPUT_LONG = "output";
+	private static final String OPT_DRIVERS_SHORT = "d";
+	private static final String OPT_DRIVERS_LONG = "drivers";
+	private static final String OPT_TRIPS_SHORT = "t";
+	private static final String OPT_TRIPS_LONG = "trips";
+	private static final String OPT_SKEW_SHORT = "z";
+	private static final String OPT_SKEW_LONG = "skew";
+	private static final String OPT_EARLY_SHORT = "e";
+	private static final String OPT_EARLY_LONG = "early";
+	private static final String OPT_INVALID_SHORT = "i";
+	private static final String OPT_INVALID_LONG = "invalid";
+	private static final String OPT_SEED_SHORT = "r";
+	private static final String OPT_SEED_LONG = "seed";
+	private static final String OPT_PARALLEL_SHORT = "p";
+	private static final String OPT_PARALLEL_LONG = "parallel";
+
+	public static void main(String[] args) {
+		final Path output;
+		final Workload workload;
+		final int parallelism;
+
+		try {
+			final CommandLine commandLine = new DefaultParser().parse(buildOptions(), args);
+			output = Paths.get(commandLine.getOptionValue(OPT_OUTPUT_SHORT));
+			workload = createWorkload(commandLine);
+			parallelism = Integer.parseInt(commandLine.getOptionValue(OPT_PARALLEL_SHORT,
+					String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+			if (parallelism <= 0) {
+				throw new ParseException("--parallel must be a positive number of threads");
+			}
+		} catch (ParseException | IllegalArgumentException e) {
+			LOGGER.error("An exception occurred while attempting to parse command line options: {}", args, e);
+			System.exit(1);
+			return;
+		}
+
+		try {
+			LOGGER.info("writing {} to {}", workload, output);
+			final long start = System.nanoTime();
+			new WorkloadGenerator(workload, parallelism).write(output);
+			LOGGER.info("wrote {} in {} ms", output, (System.nanoTime() - start) / 1_000_000);
+		} catch (IOException e) {
+			LOGGER.error("An exception occurred while attempting to write file", e);
+			System.exit(1);
+			return;
+		}
+
+		System.exit(0);
+	}
+
+	private static Workload createWorkload(final CommandLine commandLine) {
+		Workload workload = Workload.DEFAULT;
+
+		if (commandLine.hasOption(OPT_DRIVERS_SHORT)) {
+			workload = workload.withDrivers(Integer.parseInt(commandLine.getOptionValue(OPT_DRIVERS_SHORT)));
+		}
+		if (commandLine.hasOption(OPT_TRIPS_SHORT)) {
+			workload = workload.withTrips(Long.parseLong(commandLine.getOptionValue(OPT_TRIPS_SHORT)));
+		}
+		if (commandLine.hasOption(OPT_SKEW_SHORT)) {
+			workload = workload.withSkew(Double.parseDouble(commandLine.getOptionValue(OPT_SKEW_SHORT)));
+		}
+		if (commandLine.hasOption(OPT_EARLY_SHORT)) {
+			workload = workload.withEarlyTripRatio(Double.parseDouble(commandLine.getOptionValue(OPT_EARLY_SHORT)));
+		}
+		if (commandLine.hasOption(OPT_INVALID_SHORT)) {
+			workload = workload
+					.withInvalidSpeedRatio(Double.parseDouble(commandLine.getOptionValue(OPT_INVALID_SHORT)));
+		}
+		if (commandLine.hasOption(OPT_SEED_SHORT)) {
+			workload = workload.withSeed(Long.parseLong(commandLine.getOptionValue(OPT_SEED_SHORT)));
+		}
+
+		return workload;
+	}
+
+	private static Options buildOptions() {
+		return new Options()
+				.addOption(Option.builder(OPT_OUTPUT_SHORT).longOpt(OPT_OUTPUT_LONG)
+						.desc("the path of the file to write").hasArg().argName("path").required().build())
+				.addOption(Option.builder(OPT_DRIVERS_SHORT).longOpt(OPT_DRIVERS_LONG)
+						.desc("the number of drivers to register; defaults to " + Workload.DEFAULT.getDrivers())
+						.hasArg().argName("count").build())
+				.addOption(Option.builder(OPT_TRIPS_SHORT).longOpt(OPT_TRIPS_LONG)
+						.desc("the number of trips to record across all drivers; defaults to "
+								+ Workload.DEFAULT.getTrips())
+						.hasArg().argName("count").build())
+				.addOption(Option.builder(OPT_SKEW_SHORT).longOpt(OPT_SKEW_LONG)
+						.desc("the Zipf exponent of trips per driver, 0 for an even spread; defaults to "
+								+ Workload.DEFAULT.getSkew())
+						.hasArg().argName("exponent").build())
+				.addOption(Option.builder(OPT_EARLY_SHORT).longOpt(OPT_EARLY_LONG)
+						.desc("the fraction of trips written before their driver is registered; defaults to "
+								+ Workload.DEFAULT.getEarlyTripRatio())
+						.hasArg().argName("ratio").build())
+				.addOption(Option.builder(OPT_INVALID_SHORT).longOpt(OPT_INVALID_LONG)
+						.desc("the fraction of trips with an average speed outside of 5 to 100 mph; defaults to "
+								+ Workload.DEFAULT.getInvalidSpeedRatio())
+						.hasArg().argName("ratio").build())
+				.addOption(Option.builder(OPT_SEED_SHORT).longOpt(OPT_SEED_LONG)
+						.desc("the seed from which the file is derived; defaults to " + Workload.DEFAULT.getSeed())
+						.hasArg().argName("seed").build())
+				.addOption(Option.builder(OPT_PARALLEL_SHORT).longOpt(OPT_PARALLEL_LONG)
+						.desc("the number of threads formatting trips; defaults to one per core").hasArg()
+						.argName("threads").build());
+	}
+}
@@ -1,5 +1,6 @@
 package com.awitt.root.actions;
 
+import java.nio.ByteBuffer;
 import java.time.format.DateTimeParseException;
 import java.util.EnumSet;
 import java.util.Map;
@@ -11,28 +12,69 @@
 import org.slf4j.LoggerFactory;
 
 import com.awitt.root.DriverTracker;
+import com.awitt.root.io.Lines;
+import com.awitt.root.io.TripLineParser;
+import com.awitt.root.metrics.IngestMetrics;
 import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverIndex;
+import com.awitt.root.model.DriverTable;
+import com.awitt.root.model.DriverOptions;
 import com.awitt.root.model.Trip;
 
 /**
- * All possible actions that can be processed by {@link DriverTracker}.
+ * All built-in actions that can be processed by {@link DriverTracker}.
  */
-public enum Action {
+public enum Action implements Command {
 
 	/** Registers a driver in the application **/
 	DRIVER("Driver") {
 		@Override
-		public Optional<String> doCommand(final String line, final Map<String, Driver> drivers) {
+		public Optional<String> doCommand(final String line, final Map<String, Driver> drivers,
+				final DriverOptions options) {
 			Validate.notBlank(line, "line cannot be blank");
 			Validate.notNull(drivers, "drivers cannot be null");
+			Validate.notNull(options, "options cannot be null");
 
 			final String name = line.substring(line.indexOf(" ") + 1);
 
-			if (drivers.get(name.toLowerCase()) == null) {
+			if (!getDriver(name, drivers).isPresent()) {
 				LOGGER.debug("registering {}", name);
-				drivers.put(name.toLowerCase(), new Driver(name));
+				drivers.put(DriverIndex.toKey(name), new Driver(name, options));
 			} else {
-				LOGGER.warn("driver already registered: {}", name);
+				// COUNTED RATHER THAN LOGGED, SO THAT BAD DATA CANNOT FLOOD THE LOG
+				LOGGER.debug("driver already registered: {}", name);
+				IngestMetrics.GLOBAL.duplicateRegistration();
+			}
+
+			return Optional.empty();
+		}
+
+		@Override
+		public Optional<String> doCommand(final ByteBuffer buffer, final int from, final int to,
+				final Map<String, Driver> drivers, final DriverOptions options) {
+			Validate.notNull(buffer, "buffer cannot be null");
+			Validate.notNull(drivers, "drivers cannot be null");
+			Validate.notNull(options, "options cannot be null");
+
+			if (!(drivers instanceof DriverTable)) {
+				return doCommand(Lines.toString(buffer, from, to), drivers, options);
+			}
+
+			final int space = Lines.indexOf(buffer, from, to, (byte) ' ');
+			final int nameFrom = space < 0 ? from : space + 1;
+
+			// THE NAME IS ONLY DECODED WHEN THE DRIVER IS NEW
+			final Driver driver = ((DriverTable) drivers).register(buffer, nameFrom, to, options);
+
+			if (driver != null) {
+				LOGGER.debug("registering {}", driver.getName());
+			} else {
+				// COUNTED RATHER THAN LOGGED, SO THAT BAD DATA CANNOT FLOOD THE LOG
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug("driver already registered: {}", Lines.toString(buffer, nameFrom, to));
+				}
+
+				IngestMetrics.GLOBAL.duplicateRegistration();
 			}
 
 			return Optional.empty();
@@ -42,7 +84,14 @@ public Optional<String> doCommand(final String line, final Map<String, Driver> d
 	/** Records a trip attributed to a registered driver **/
 	TRIP("Trip") {
 		@Override
-		public Optional<String> doCommand(final String line, final Map<String, Driver> drivers) {
+		public Optional<String> doCommand(final String line, final Map<String, Driver> drivers,
+				final DriverOptions options) {
+			return doCommand(line, drivers, options, null);
+		}
+
+		@Override
+		public Optional<String> doCommand(final String line, final Map<String, Driver> drivers,
+				final DriverOptions options, final TripHolders holders) {
 			Validate.notBlank(line, "line cannot be blank");
 			Validate.notNull(drivers, "drivers cannot be null");
 
@@ -53,13 +102,14 @@ public Optional<String> doCommand(final String line, final Map<String, Driver> d
 			}
 
 			final String name = metrics[1];
-			final Optional<Driver> driver = getDriver(name, drivers);
+			final Optional<Driver> registered = getDriver(name, drivers);
 
-			if (!driver.isPresent()) {
+			if (!registered.isPresent() && holders == null) {
 				LOGGER.debug("driver not registered yet: {}", name);
 				return Optional.of(line);
 			}
 
+			final Driver driver = registered.isPresent() ? registered.get() : holders.holderOf(name);
 			final String start = metrics[2];
 			final String end = metrics[3];
 			final String distance = metrics[4];
@@ -67,26 +117,97 @@ public Optional<String> doCommand(final String line, final Map<String, Driver> d
 			try {
 				final Trip trip = new Trip(start, end, distance);
 				LOGGER.debug("adding new trip for {}: {}", name, trip);
-				driver.get().getTrips().add(trip);
+				driver.addTrip(trip);
 			} catch (DateTimeParseException | NumberFormatException e) {
 				throw new RuntimeException("Trip data in an unexpected format: " + line, e);
 			}
 
 			return Optional.empty();
 		}
+
+		@Override
+		public Optional<String> doCommand(final ByteBuffer buffer, final int from, final int to,
+				final Map<String, Driver> drivers, final DriverOptions options) {
+			return doCommand(buffer, from, to, drivers, options, null);
+		}
+
+		@Override
+		public Optional<String> doCommand(final ByteBuffer buffer, final int from, final int to,
+				final Map<String, Driver> drivers, final DriverOptions options, final TripHolders holders) {
+			Validate.notNull(buffer, "buffer cannot be null");
+			Validate.notNull(drivers, "drivers cannot be null");
+
+			final Parsing parsing = PARSING.get();
+			final TripLineParser parser = parsing.parser;
+
+			// ANYTHING OTHER THAN A CANONICAL TRIP LINE IS LEFT TO THE STRING PARSING
+			if (!parsing.parse(buffer, from, to)) {
+				return doCommand(Lines.toString(buffer, from, to), drivers, options, holders);
+			}
+
+			Driver driver = Action.lookup(buffer, parser.getNameFrom(), parser.getNameTo(), drivers);
+
+			if (driver == null && holders == null) {
+				final String line = Lines.toString(buffer, from, to);
+				LOGGER.debug("driver not registered yet: {}", line);
+				return Optional.of(line);
+			} else if (driver == null) {
+				driver = holders.holderOf(buffer, parser.getNameFrom(), parser.getNameTo());
+			}
+
+			driver.addTrip(parser.getStartMinute(), parser.getEndMinute(), parser.getDistance());
+
+			return Optional.empty();
+		}
 	};
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(Action.class);
 
+	/** Parsers are reused to keep parsing allocation-free **/
+	private static final ThreadLocal<Parsing> PARSING = ThreadLocal.withInitial(Parsing::new);
+
 	private final String command;
 
+	@Override
+	public abstract Optional<String> doCommand(String line, Map<String, Driver> drivers, DriverOptions options);
+
 	/**
-	 * Performs the logic necessary for this Action's function. If the function
-	 * cannot be performed, the provided {@code line} should be returned as an
-	 * {@link Optional}, otherwise an {@link Optional#empty() empty optional}
-	 * should be returned by the implementation.
+	 * Performs the logic necessary for this Action's function, creating any
+	 * {@link Driver} with the {@link DriverOptions#DEFAULT default options}.
+	 * 
+	 * @see #doCommand(String, Map, DriverOptions)
 	 **/
-	public abstract Optional<String> doCommand(String line, Map<String, Driver> drivers);
+	public Optional<String> doCommand(final String line, final Map<String, Driver> drivers) {
+		return doCommand(line, drivers, DriverOptions.DEFAULT);
+	}
+
+	/**
+	 * Performs the logic necessary for this Action's function, as
+	 * {@link #doCommand(String, Map, DriverOptions)} does, except that a
+	 * {@link #TRIP} whose Driver is not registered yet is parsed once and
+	 * added to its holder in {@code holders}, rather than returned to be
+	 * reprocessed.
+	 * 
+	 * @param holders
+	 *            where Trips of Drivers not registered yet are held;
+	 *            {@code null} to return them to be reprocessed
+	 */
+	public Optional<String> doCommand(final String line, final Map<String, Driver> drivers,
+			final DriverOptions options, final TripHolders holders) {
+		return doCommand(line, drivers, options);
+	}
+
+	/**
+	 * Performs the logic necessary for this Action's function on a line of
+	 * UTF-8 encoded bytes, with the same result as
+	 * {@link #doCommand(String, Map, DriverOptions, TripHolders)}.
+	 * 
+	 * @see #doCommand(ByteBuffer, int, int, Map, DriverOptions)
+	 */
+	public Optional<String> doCommand(final ByteBuffer buffer, final int from, final int to,
+			final Map<String, Driver> drivers, final DriverOptions options, final TripHolders holders) {
+		return doCommand(buffer, from, to, drivers, options);
+	}
 
 	private Action(final String command) {
 		assert StringUtils.isNotBlank(command) : "command cannot be blank";
@@ -103,10 +224,26 @@ public boolean isCommand(final String line) {
 		return StringUtils.isNotBlank(line) && line.split(" ")[0].equalsIgnoreCase(getCommand());
 	}
 
+	/**
+	 * @param buffer
+	 *            the buffer holding a line of data to be processed
+	 * @param from
+	 *            the absolute index of the first byte of the line, inclusive
+	 * @param to
+	 *            the absolute index of the end of the line, exclusive
+	 * @return whether or not this line is to be processed by this
+	 *         {@link Action}
+	 */
+	public boolean isCommand(final ByteBuffer buffer, final int from, final int to) {
+		final int space = Lines.indexOf(buffer, from, to, (byte) ' ');
+		return Lines.equalsIgnoreCase(buffer, from, space < 0 ? to : space, getCommand());
+	}
+
 	/**
 	 * @return the String representation of this {@link Action} mirroring the
 	 *         command text in a ROOT Driver metric file
 	 */
+	@Override
 	public String getCommand() {
 		return this.command;
 	}
@@ -134,6 +271,49 @@ public Optional<Driver> getDriver(final String name, final Map<String, Driver> d
 		assert StringUtils.isNotBlank(name) : "name cannot be blank";
 		assert drivers != null : "drivers cannot be null";
 
-		return Optional.ofNullable(drivers.get(name.toLowerCase()));
+		if (drivers instanceof DriverTable) {
+			return Optional.ofNullable(((DriverTable) drivers).getIgnoreCase(name));
+		}
+
+		return Optional.ofNullable(drivers.get(DriverIndex.toKey(name)));
+	}
+
+	/**
+	 * Looks up a {@link Driver} by a name held as bytes, which are only
+	 * decoded when {@code drivers} is not a {@link DriverTable}.
+	 * 
+	 * @return the Driver, or {@code null} if there is none
+	 */
+	private static Driver lookup(final ByteBuffer buffer, final int from, final int to,
+			final Map<String, Driver> drivers) {
+
+		if (drivers instanceof DriverTable) {
+			return ((DriverTable) drivers).get(buffer, from, to);
+		}
+
+		return drivers.get(DriverIndex.toKey(Lines.toString(buffer, from, to)));
+	}
+
+	/**
+	 * A thread's {@link TripLineParser}, timing one in every
+	 * {@link IngestMetrics#SAMPLE_INTERVAL} lines parsed.
+	 */
+	private static final class Parsing {
+
+		private final TripLineParser parser = new TripLineParser();
+		private long lines;
+
+		boolean parse(final ByteBuffer buffer, final int from, final int to) {
+
+			if (!IngestMetrics.isSampled(++this.lines)) {
+				return this.parser.parse(buffer, from, to);
+			}
+
+			final long start = System.nanoTime();
+			final boolean parsed = this.parser.parse(buffer, from, to);
+			IngestMetrics.GLOBAL.parsed(System.nanoTime() - start);
+
+			return parsed;
+		}
 	}
-}
\ No newline at end of file
+}
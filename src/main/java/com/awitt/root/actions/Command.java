@@ -0,0 +1,56 @@
+package com.awitt.root.actions;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.commons.lang3.Validate;
+
+import com.awitt.root.DriverTracker;
+import com.awitt.root.io.Lines;
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverOptions;
+
+/**
+ * A command that can be processed by {@link DriverTracker}, identified by the
+ * first word of a line of Driver data. The built-in commands are the
+ * {@link Action}s; others can be added to a {@link CommandTable}.
+ */
+public interface Command {
+
+	/**
+	 * @return the command text that begins each line to be processed by this
+	 *         Command, for example {@code Driver}; matched ignoring case
+	 */
+	String getCommand();
+
+	/**
+	 * Performs the logic necessary for this Command's function. If the
+	 * function cannot be performed, the provided {@code line} should be
+	 * returned as an {@link Optional}, otherwise an {@link Optional#empty()
+	 * empty optional} should be returned by the implementation.
+	 * <p>
+	 * Any {@link Driver} created by this Command is created with the provided
+	 * {@code options}.
+	 **/
+	Optional<String> doCommand(String line, Map<String, Driver> drivers, DriverOptions options);
+
+	/**
+	 * Performs the logic necessary for this Command's function on a line of
+	 * UTF-8 encoded bytes, with the same result as
+	 * {@link #doCommand(String, Map, DriverOptions)}. Unless overridden, the
+	 * line is decoded to a String.
+	 * 
+	 * @param buffer
+	 *            the buffer holding the line
+	 * @param from
+	 *            the absolute index of the first byte of the line, inclusive
+	 * @param to
+	 *            the absolute index of the end of the line, exclusive
+	 **/
+	default Optional<String> doCommand(final ByteBuffer buffer, final int from, final int to,
+			final Map<String, Driver> drivers, final DriverOptions options) {
+		Validate.notNull(buffer, "buffer cannot be null");
+		return doCommand(Lines.toString(buffer, from, to), drivers, options);
+	}
+}
@@ -0,0 +1,180 @@
+package com.awitt.root.actions;
+
+import java.nio.ByteBuffer;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+import com.awitt.root.DriverTracker;
+import com.awitt.root.io.Lines;
+
+/**
+ * Dispatch table mapping the first word of a line of Driver data to the
+ * {@link Command} that processes it, ignoring case.
+ * <p>
+ * The table is open-addressed and keyed on a case-folded hash of the command
+ * text, so that finding the Command for a line costs one pass over its first
+ * word, whether it is held as a String or as bytes, no matter how many
+ * Commands are registered. The first word is never copied.
+ * <p>
+ * Commands are expected to be {@link #register(Command) registered} before
+ * the table is used by a {@link DriverTracker}; this class is not
+ * thread-safe while registering.
+ */
+public class CommandTable {
+
+	private static final int INITIAL_CAPACITY = 8;
+	private static final char SEPARATOR = ' ';
+
+	private Command[] slots;
+	private int size;
+
+	/**
+	 * Creates an empty table.
+	 */
+	public CommandTable() {
+		this.slots = new Command[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * @return a new table holding every {@link Action}
+	 */
+	public static CommandTable withActions() {
+		final CommandTable table = new CommandTable();
+
+		for (final Action action : Action.values()) {
+			table.register(action);
+		}
+
+		return table;
+	}
+
+	/**
+	 * Adds a {@link Command} to this table.
+	 * 
+	 * @param command
+	 *            the Command to add; its {@link Command#getCommand() command
+	 *            text} must be a single word of ASCII characters
+	 * @return {@code this} table, for chaining
+	 * @throws IllegalArgumentException
+	 *             if the command text is not a single ASCII word, or if a
+	 *             Command with the same text, ignoring case, is already
+	 *             registered
+	 */
+	public CommandTable register(final Command command) {
+		Validate.notNull(command, "command cannot be null");
+
+		final String text = command.getCommand();
+		Validate.isTrue(StringUtils.isAsciiPrintable(text) && !StringUtils.containsWhitespace(text),
+				"command must be a single ASCII word: %s", text);
+		Validate.isTrue(get(text) == null, "command already registered: %s", text);
+
+		if ((this.size + 1) * 2 > this.slots.length) {
+			resize();
+		}
+
+		insert(this.slots, command);
+		this.size++;
+
+		return this;
+	}
+
+	/**
+	 * @return the number of Commands in this table
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @param line
+	 *            a line of data to be processed
+	 * @return the {@link Command} for the first word of the {@code line}, or
+	 *         {@code null} if there is none; {@code null} is returned rather
+	 *         than an empty Optional to keep dispatch allocation-free
+	 */
+	public Command get(final String line) {
+		assert line != null : "line cannot be null";
+
+		int hash = 0;
+		int end = 0;
+
+		for (char c; end < line.length() && (c = line.charAt(end)) != SEPARATOR; end++) {
+			hash = 31 * hash + toLowerCase(c);
+		}
+
+		for (int i = index(hash, this.slots.length);; i = (i + 1) & (this.slots.length - 1)) {
+			final Command command = this.slots[i];
+
+			if (command == null || command.getCommand().regionMatches(true, 0, line, 0, end)
+					&& command.getCommand().length() == end) {
+				return command;
+			}
+		}
+	}
+
+	/**
+	 * @param buffer
+	 *            the buffer holding a line of data to be processed
+	 * @param from
+	 *            the absolute index of the first byte of the line, inclusive
+	 * @param to
+	 *            the absolute index of the end of the line, exclusive
+	 * @return the {@link Command} for the first word of the line, or
+	 *         {@code null} if there is none
+	 */
+	public Command get(final ByteBuffer buffer, final int from, final int to) {
+		assert buffer != null : "buffer cannot be null";
+
+		int hash = 0;
+		int end = from;
+
+		for (byte b; end < to && (b = buffer.get(end)) != SEPARATOR; end++) {
+			hash = 31 * hash + Lines.toLowerCase(b);
+		}
+
+		for (int i = index(hash, this.slots.length);; i = (i + 1) & (this.slots.length - 1)) {
+			final Command command = this.slots[i];
+
+			if (command == null || Lines.equalsIgnoreCase(buffer, from, end, command.getCommand())) {
+				return command;
+			}
+		}
+	}
+
+	private void resize() {
+		final Command[] resized = new Command[this.slots.length * 2];
+
+		for (final Command command : this.slots) {
+			if (command != null) {
+				insert(resized, command);
+			}
+		}
+
+		this.slots = resized;
+	}
+
+	private static void insert(final Command[] slots, final Command command) {
+		final String text = command.getCommand();
+		int hash = 0;
+
+		for (int i = 0; i < text.length(); i++) {
+			hash = 31 * hash + toLowerCase(text.charAt(i));
+		}
+
+		int i = index(hash, slots.length);
+		while (slots[i] != null) {
+			i = (i + 1) & (slots.length - 1);
+		}
+
+		slots[i] = command;
+	}
+
+	private static int index(final int hash, final int length) {
+		return (hash ^ (hash >>> 16)) & (length - 1);
+	}
+
+	private static char toLowerCase(final char c) {
+		return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+	}
+}
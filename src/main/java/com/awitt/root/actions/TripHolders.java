@@ -0,0 +1,31 @@
+package com.awitt.root.actions;
+
+import java.nio.ByteBuffer;
+
+import com.awitt.root.model.Driver;
+
+/**
+ * Where {@link Action#TRIP} adds a Trip whose Driver is not registered yet,
+ * once it has parsed it: to a Driver holding the Trips of its name, rather
+ * than handing the line back to be parsed again later.
+ */
+public interface TripHolders {
+
+	/**
+	 * @return the Driver holding the Trips of {@code name}, created if there
+	 *         is none yet
+	 */
+	Driver holderOf(String name);
+
+	/**
+	 * @param buffer
+	 *            the buffer holding the name, UTF-8 encoded
+	 * @param from
+	 *            the absolute index of the first byte of the name, inclusive
+	 * @param to
+	 *            the absolute index of the end of the name, exclusive
+	 * @return the Driver holding the Trips of the name, created if there is
+	 *         none yet
+	 */
+	Driver holderOf(ByteBuffer buffer, int from, int to);
+}
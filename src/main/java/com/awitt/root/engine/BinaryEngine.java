@@ -0,0 +1,249 @@
+package com.awitt.root.engine;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.awitt.root.actions.CommandTable;
+import com.awitt.root.io.BinaryConverter;
+import com.awitt.root.io.BinaryFormat;
+import com.awitt.root.metrics.IngestMetrics;
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverTable;
+import com.awitt.root.model.DriverOptions;
+
+/**
+ * {@link IngestEngine} that processes files already converted to the
+ * {@link BinaryFormat} by a {@link BinaryConverter}, one after the other, so
+ * that no text is parsed.
+ * <p>
+ * Records are read straight out of a single reusable {@link ByteBuffer}. The
+ * Driver of each name id is looked up once, the first time a Trip uses it,
+ * and registering a Driver replaces it, so that recording a Trip allocates
+ * nothing.
+ * <p>
+ * The binary format only holds {@code Driver} and {@code Trip} records, so
+ * there is never a line to be reprocessed.
+ */
+public class BinaryEngine implements IngestEngine {
+	private static final Logger LOGGER = LoggerFactory.getLogger(BinaryEngine.class);
+
+	/** The size, in bytes, of the read buffer **/
+	static final int BUFFER_SIZE = 1 << 20;
+
+	private static final int INITIAL_IDS = 1 << 10;
+
+	private final List<Path> files;
+
+	/**
+	 * @param files
+	 *            the files of Driver data in the {@link BinaryFormat} to be
+	 *            processed, in order
+	 */
+	public BinaryEngine(final List<Path> files) {
+		Validate.notEmpty(files, "files cannot be empty");
+		Validate.noNullElements(files, "files cannot contain null");
+
+		this.files = new ArrayList<>(files);
+	}
+
+	@Override
+	public List<String> ingest(final Map<String, Driver> drivers, final Map<String, Driver> unregistered,
+			final CommandTable commands, final DriverOptions options) throws IOException {
+		Validate.isInstanceOf(DriverTable.class, drivers, "drivers must be a DriverTable");
+
+		final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+		for (final Path file : this.files) {
+			LOGGER.debug("processing {}", file);
+
+			try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				buffer.clear().flip();
+				new Records(file, channel, buffer, (DriverTable) drivers, unregistered, options).readAll();
+			}
+		}
+
+		return new ArrayList<>();
+	}
+
+	/**
+	 * The state of reading a single file, whose name ids are its own.
+	 */
+	private static final class Records {
+		private final Path file;
+		private final FileChannel channel;
+		private final ByteBuffer buffer;
+		private final DriverOptions options;
+		private final DriverTable registered;
+		private final PendingTrips pendingTrips;
+
+		/** The lower-cased names of every id, one after the other **/
+		private byte[] names = new byte[INITIAL_IDS * 16];
+		private ByteBuffer namesBuffer = ByteBuffer.wrap(this.names);
+		private int[] nameEnds = new int[INITIAL_IDS];
+		private int ids;
+
+		/** The Driver, registered or not, of each id once known **/
+		private Driver[] drivers = new Driver[INITIAL_IDS];
+
+		Records(final Path file, final FileChannel channel, final ByteBuffer buffer, final DriverTable drivers,
+				final Map<String, Driver> unregistered, final DriverOptions options) {
+			this.file = file;
+			this.channel = channel;
+			this.buffer = buffer;
+			this.options = options;
+			this.registered = drivers;
+			this.pendingTrips = PendingTrips.drainedFrom(unregistered, options);
+		}
+
+		void readAll() throws IOException {
+
+			if (!fill(BinaryFormat.HEADER_BYTES) || this.buffer.getInt() != BinaryFormat.MAGIC) {
+				throw new IOException("not a binary file of driver data: " + this.file);
+			}
+
+			final int version = this.buffer.getInt();
+
+			if (version != BinaryFormat.VERSION) {
+				throw new IOException("unsupported version " + version + " of " + this.file);
+			}
+
+			long records = 0;
+
+			while (fill(1)) {
+				final byte tag = this.buffer.get(this.buffer.position());
+
+				if (tag == BinaryFormat.TRIP) {
+					require(BinaryFormat.TRIP_BYTES);
+					this.buffer.get();
+					trip(id(this.buffer.getInt()), this.buffer.getShort(), this.buffer.getShort(),
+							this.buffer.getLong());
+				} else if (tag == BinaryFormat.NAME || tag == BinaryFormat.DRIVER) {
+					require(BinaryFormat.NAME_HEADER_BYTES);
+					final int length = this.buffer.getShort(this.buffer.position() + 5) & 0xFFFF;
+
+					require(BinaryFormat.NAME_HEADER_BYTES + length);
+					this.buffer.get();
+					final int id = this.buffer.getInt();
+					this.buffer.getShort();
+
+					if (tag == BinaryFormat.NAME) {
+						name(id, length);
+					} else {
+						register(id(id), length);
+					}
+				} else {
+					throw new IOException("unexpected record " + tag + " in " + this.file);
+				}
+
+				records++;
+			}
+
+			IngestMetrics.GLOBAL.linesRead(records);
+		}
+
+		private void name(final int id, final int length) throws IOException {
+
+			if (id != this.ids) {
+				throw new IOException("name " + id + " out of order in " + this.file);
+			}
+
+			if (this.ids == this.nameEnds.length) {
+				this.nameEnds = Arrays.copyOf(this.nameEnds, this.ids * 2);
+				this.drivers = Arrays.copyOf(this.drivers, this.ids * 2);
+			}
+
+			final int from = this.ids == 0 ? 0 : this.nameEnds[this.ids - 1];
+
+			if (from + length > this.names.length) {
+				this.names = Arrays.copyOf(this.names, Math.max(this.names.length * 2, from + length));
+				this.namesBuffer = ByteBuffer.wrap(this.names);
+			}
+
+			this.buffer.get(this.names, from, length);
+			this.nameEnds[this.ids++] = from + length;
+		}
+
+		private void register(final int id, final int length) {
+			final int from = this.buffer.position();
+			final Driver driver = this.registered.register(this.buffer, from, from + length, this.options);
+
+			this.buffer.position(from + length);
+
+			if (driver == null) {
+				IngestMetrics.GLOBAL.duplicateRegistration();
+				return;
+			}
+
+			// ANY TRIPS ALREADY RECORDED FOR THE NAME ARE HANDED OVER TO THE NEW DRIVER
+			this.pendingTrips.drainInto(driver);
+			this.drivers[id] = driver;
+		}
+
+		private void trip(final int id, final int startMinute, final int endMinute, final long distance) {
+			Driver driver = this.drivers[id];
+
+			if (driver == null) {
+				final int from = id == 0 ? 0 : this.nameEnds[id - 1];
+
+				if ((driver = this.registered.get(this.namesBuffer, from, this.nameEnds[id])) == null) {
+					driver = this.pendingTrips.holderOf(this.namesBuffer, from, this.nameEnds[id]);
+				}
+
+				this.drivers[id] = driver;
+			}
+
+			driver.addTrip(startMinute, endMinute, distance);
+		}
+
+		private int id(final int id) throws IOException {
+
+			if (id < 0 || id >= this.ids) {
+				throw new IOException("unknown name " + id + " in " + this.file);
+			}
+
+			return id;
+		}
+
+		private void require(final int bytes) throws IOException {
+
+			if (!fill(bytes)) {
+				throw new EOFException("truncated record at the end of " + this.file);
+			}
+		}
+
+		/**
+		 * Reads more of the file until at least {@code bytes} remain in the
+		 * buffer.
+		 *
+		 * @return whether or not they do; {@code false} only at the end of
+		 *         the file
+		 */
+		private boolean fill(final int bytes) throws IOException {
+
+			if (this.buffer.remaining() >= bytes) {
+				return true;
+			}
+
+			this.buffer.compact();
+
+			while (this.buffer.position() < bytes && this.channel.read(this.buffer) >= 0) {
+				// KEEP READING UNTIL THE RECORD IS WHOLE
+			}
+
+			this.buffer.flip();
+			return this.buffer.remaining() >= bytes;
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.awitt.root.engine;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.awitt.root.DriverTracker;
+import com.awitt.root.actions.Command;
+import com.awitt.root.actions.CommandTable;
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverOptions;
+
+/**
+ * Strategy used by {@link DriverTracker} to read all of its Driver data,
+ * processing every line it can.
+ */
+public interface IngestEngine {
+
+	/**
+	 * Reads all Driver data, processing each line with the {@link Command}
+	 * from {@code commands}. A Trip whose Driver is not registered yet is
+	 * parsed and held in {@code unregistered} until its Driver is registered,
+	 * rather than being reprocessed.
+	 * 
+	 * @param drivers
+	 *            the Map of lower-cased driver name and {@link Driver} into
+	 *            which every Driver is to be registered, in the order in which
+	 *            they were registered in the data
+	 * @param unregistered
+	 *            the Map of lower-cased driver name and a Driver holding the
+	 *            Trips read before a Driver of that name was registered; each
+	 *            is removed, and its Trips handed over, once that Driver is
+	 *            registered, so it cannot be a
+	 *            {@link com.awitt.root.model.DriverTable}
+	 * @param commands
+	 *            the {@link CommandTable} used to dispatch each line
+	 * @param options
+	 *            how each registered Driver keeps track of its Trips
+	 * @return the lines that a Command could not process yet and need to be
+	 *         reprocessed, in the order in which they were read
+	 * @throws IOException
+	 *             if something goes wrong while reading the Driver data
+	 */
+	List<String> ingest(Map<String, Driver> drivers, Map<String, Driver> unregistered, CommandTable commands,
+			DriverOptions options) throws IOException;
+}
@@ -0,0 +1,228 @@
+package com.awitt.root.engine;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+import com.awitt.root.actions.Action;
+import com.awitt.root.actions.Command;
+import com.awitt.root.actions.CommandTable;
+import com.awitt.root.io.LineHandler;
+import com.awitt.root.io.Lines;
+import com.awitt.root.metrics.IngestMetrics;
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverIndex;
+import com.awitt.root.model.DriverTable;
+import com.awitt.root.model.DriverOptions;
+
+/**
+ * {@link LineHandler} that dispatches each non-blank line to its
+ * {@link Command}, collecting any line that the Command could not process yet
+ * so that it can be reprocessed.
+ * <p>
+ * When created with a Map of unregistered Drivers, a Trip whose Driver is not
+ * registered yet is added to the {@link PendingTrips} of its name, which are
+ * handed over to the Driver as soon as it is registered.
+ * <p>
+ * Every line is counted in the {@link IngestMetrics}, and one in every
+ * {@link IngestMetrics#SAMPLE_INTERVAL} lines is timed.
+ */
+public class LineDispatcher implements LineHandler {
+
+	private final CommandTable commands;
+	private final Map<String, Driver> drivers;
+	private final DriverOptions options;
+	private final List<String> toReprocess;
+
+	/** The Trips of Drivers not registered yet; {@code null} to reprocess them **/
+	private final PendingTrips pendingTrips;
+
+	/** Whether the pending Trips of a Driver are handed over as it is registered **/
+	private final boolean drained;
+	private final IngestMetrics metrics = IngestMetrics.GLOBAL;
+	private long lines;
+
+	/**
+	 * @param commands
+	 *            the {@link CommandTable} used to dispatch each line
+	 * @param drivers
+	 *            the Map of lower-cased driver name and {@link Driver} on
+	 *            which each Command acts
+	 * @param options
+	 *            how each registered Driver keeps track of its Trips
+	 * @param toReprocess
+	 *            the List to which each line needing to be reprocessed is
+	 *            added
+	 */
+	public LineDispatcher(final CommandTable commands, final Map<String, Driver> drivers,
+			final DriverOptions options, final List<String> toReprocess) {
+		Validate.notNull(commands, "commands cannot be null");
+		Validate.notNull(drivers, "drivers cannot be null");
+		Validate.notNull(options, "options cannot be null");
+		Validate.notNull(toReprocess, "toReprocess cannot be null");
+
+		this.commands = commands;
+		this.drivers = drivers;
+		this.options = options;
+		this.toReprocess = toReprocess;
+		this.pendingTrips = null;
+		this.drained = false;
+	}
+
+	/**
+	 * @param commands
+	 *            the {@link CommandTable} used to dispatch each line
+	 * @param drivers
+	 *            the Map of lower-cased driver name and {@link Driver} on
+	 *            which each Command acts
+	 * @param unregistered
+	 *            the Map of lower-cased driver name and a Driver holding the
+	 *            Trips read before a Driver of that name was registered, which
+	 *            is removed once handed over to it
+	 * @param options
+	 *            how each registered Driver keeps track of its Trips
+	 * @param toReprocess
+	 *            the List to which each line needing to be reprocessed is
+	 *            added
+	 * @throws IllegalArgumentException
+	 *             if {@code unregistered} is a {@link DriverTable}, from which
+	 *             Drivers cannot be removed one at a time
+	 */
+	public LineDispatcher(final CommandTable commands, final Map<String, Driver> drivers,
+			final Map<String, Driver> unregistered, final DriverOptions options, final List<String> toReprocess) {
+		this(commands, drivers, PendingTrips.drainedFrom(Validate.notNull(unregistered, "unregistered cannot be null"),
+				options), true, options, toReprocess);
+	}
+
+	/**
+	 * Creates a dispatcher that keeps the Trips pending for a name even once
+	 * its Driver is registered, for them to be resolved later, such as once
+	 * the parts of a file are merged.
+	 * 
+	 * @param pendingTrips
+	 *            the Trips of Drivers not registered yet
+	 */
+	LineDispatcher(final CommandTable commands, final Map<String, Driver> drivers, final PendingTrips pendingTrips,
+			final DriverOptions options, final List<String> toReprocess) {
+		this(commands, drivers, pendingTrips, false, options, toReprocess);
+	}
+
+	private LineDispatcher(final CommandTable commands, final Map<String, Driver> drivers,
+			final PendingTrips pendingTrips, final boolean drained, final DriverOptions options,
+			final List<String> toReprocess) {
+		Validate.notNull(commands, "commands cannot be null");
+		Validate.notNull(drivers, "drivers cannot be null");
+		Validate.notNull(options, "options cannot be null");
+		Validate.notNull(toReprocess, "toReprocess cannot be null");
+
+		this.commands = commands;
+		this.drivers = drivers;
+		this.options = options;
+		this.toReprocess = toReprocess;
+		this.pendingTrips = pendingTrips;
+		this.drained = drained;
+	}
+
+	@Override
+	public void onLine(final String line) {
+
+		if (StringUtils.isNotBlank(line)) {
+			final long start = startTiming();
+			final Command command = pickStategy(line);
+
+			// A TRIP WHOSE DRIVER IS NOT REGISTERED YET IS PARSED ONCE, AND HELD FOR ITS NAME
+			final Optional<String> sameLineNeedsToBeReprocessed = command == Action.TRIP && this.pendingTrips != null
+					? Action.TRIP.doCommand(line, this.drivers, this.options, this.pendingTrips)
+					: command.doCommand(line, this.drivers, this.options);
+
+			if (sameLineNeedsToBeReprocessed.isPresent()) {
+				this.toReprocess.add(line);
+				this.metrics.lineRequeued();
+			} else if (command == Action.DRIVER && this.drained && !this.pendingTrips.isEmpty()) {
+				final String name = line.substring(line.indexOf(' ') + 1);
+				this.pendingTrips.drainInto(this.drivers.get(DriverIndex.toKey(name)));
+			}
+
+			stopTiming(start);
+		}
+	}
+
+	@Override
+	public void onLine(final ByteBuffer buffer, final int from, final int to) {
+
+		if (!Lines.isBlank(buffer, from, to)) {
+			final long start = startTiming();
+			final Command command = pickStategy(buffer, from, to);
+			final Optional<String> lineNeedsToBeReprocessed = command == Action.TRIP && this.pendingTrips != null
+					? Action.TRIP.doCommand(buffer, from, to, this.drivers, this.options, this.pendingTrips)
+					: command.doCommand(buffer, from, to, this.drivers, this.options);
+
+			if (lineNeedsToBeReprocessed.isPresent()) {
+				this.toReprocess.add(lineNeedsToBeReprocessed.get());
+				this.metrics.lineRequeued();
+			} else if (command == Action.DRIVER && this.drained && !this.pendingTrips.isEmpty()) {
+				this.pendingTrips.drainInto(registered(buffer, from, to));
+			}
+
+			stopTiming(start);
+		}
+	}
+
+	/**
+	 * @return the Driver registered by a {@link Action#DRIVER} line of UTF-8
+	 *         encoded bytes, whose name is only decoded when the Drivers are
+	 *         not a {@link DriverTable}
+	 */
+	private Driver registered(final ByteBuffer buffer, final int from, final int to) {
+		final int space = Lines.indexOf(buffer, from, to, (byte) ' ');
+		final int nameFrom = space < 0 ? from : space + 1;
+
+		if (this.drivers instanceof DriverTable) {
+			return ((DriverTable) this.drivers).get(buffer, nameFrom, to);
+		}
+
+		return this.drivers.get(DriverIndex.toKey(Lines.toString(buffer, nameFrom, to)));
+	}
+
+	/**
+	 * Counts a line about to be dispatched.
+	 * 
+	 * @return the {@link System#nanoTime()} at which it started, or
+	 *         {@code 0} if it is not timed
+	 */
+	private long startTiming() {
+		this.metrics.lineRead();
+		return IngestMetrics.isSampled(++this.lines) ? System.nanoTime() : 0;
+	}
+
+	private void stopTiming(final long start) {
+
+		if (start != 0) {
+			this.metrics.dispatched(System.nanoTime() - start);
+		}
+	}
+
+	private Command pickStategy(final String line) {
+		final Command command = this.commands.get(line);
+
+		if (command == null) {
+			throw new IllegalArgumentException("Unexpected command: " + line);
+		}
+
+		return command;
+	}
+
+	private Command pickStategy(final ByteBuffer buffer, final int from, final int to) {
+		final Command command = this.commands.get(buffer, from, to);
+
+		if (command == null) {
+			throw new IllegalArgumentException("Unexpected command: " + Lines.toString(buffer, from, to));
+		}
+
+		return command;
+	}
+}
@@ -0,0 +1,106 @@
+package com.awitt.root.engine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.awitt.root.actions.CommandTable;
+import com.awitt.root.io.Failures;
+import com.awitt.root.io.FileLineSource;
+import com.awitt.root.io.LineSource;
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverOptions;
+
+/**
+ * {@link IngestEngine} that processes many files concurrently on a bounded
+ * pool of threads, each file into its own {@link PartialDrivers partial set}
+ * of {@link Driver}s. Partial results are merged in the order in which the
+ * files were given, so that a Driver registered in one file still has the
+ * Trips found in every other file, and the result is exactly that of
+ * processing the files one after the other.
+ */
+public class MultiFileEngine implements IngestEngine {
+	private static final Logger LOGGER = LoggerFactory.getLogger(MultiFileEngine.class);
+
+	private final List<Path> files;
+	private final int parallelism;
+	private final Function<Path, LineSource> sources;
+
+	/**
+	 * @param files
+	 *            the files of Driver data to be processed, in order
+	 * @param parallelism
+	 *            the largest number of files to process at once
+	 */
+	public MultiFileEngine(final List<Path> files, final int parallelism) {
+		this(files, parallelism, FileLineSource::new);
+	}
+
+	/**
+	 * @param files
+	 *            the files of Driver data to be processed, in order
+	 * @param parallelism
+	 *            the largest number of files to process at once
+	 * @param sources
+	 *            creates the {@link LineSource} with which each file is read
+	 */
+	public MultiFileEngine(final List<Path> files, final int parallelism,
+			final Function<Path, LineSource> sources) {
+		Validate.notEmpty(files, "files cannot be empty");
+		Validate.noNullElements(files, "files cannot contain null");
+		Validate.isTrue(parallelism > 0, "parallelism must be positive");
+		Validate.notNull(sources, "sources cannot be null");
+
+		this.files = new ArrayList<>(files);
+		this.parallelism = parallelism;
+		this.sources = sources;
+	}
+
+	@Override
+	public List<String> ingest(final Map<String, Driver> drivers, final Map<String, Driver> unregistered,
+			final CommandTable commands, final DriverOptions options) throws IOException {
+		final ExecutorService pool = Executors.newFixedThreadPool(Math.min(this.parallelism, this.files.size()));
+
+		try {
+			final List<Future<PartialDrivers>> partials = new ArrayList<>(this.files.size());
+
+			for (final Path file : this.files) {
+				partials.add(pool.submit(() -> {
+					LOGGER.debug("processing {}", file);
+
+					final PartialDrivers partial = new PartialDrivers(commands, options);
+					this.sources.apply(file).forEachLine(partial);
+
+					return partial;
+				}));
+			}
+
+			// MERGE IN FILE ORDER, AS EACH FILE'S TURN COMES
+			PartialDrivers merged = null;
+
+			for (final Future<PartialDrivers> partial : partials) {
+				merged = (merged == null) ? partial.get() : merged.merge(partial.get());
+			}
+
+			return merged.resolveInto(drivers, unregistered);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while processing " + this.files, e);
+		} catch (ExecutionException e) {
+			throw Failures.rethrow(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package com.awitt.root.engine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.awitt.root.actions.CommandTable;
+import com.awitt.root.io.ChannelLineSource;
+import com.awitt.root.io.FileChunks;
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverOptions;
+
+/**
+ * {@link IngestEngine} that processes a single file on many cores.
+ * <p>
+ * The file is {@link FileChunks split} into ranges of bytes aligned to the
+ * start of a line, and each range is processed on a fork-join worker into its
+ * own {@link PartialDrivers partial set} of {@link Driver}s. Partial results
+ * are then merged in file order, combining the summary (or Trips) of each
+ * Driver, so that the result is exactly that of processing the file
+ * sequentially.
+ */
+public class ParallelChunkEngine implements IngestEngine {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ParallelChunkEngine.class);
+
+	/** The number of ranges processed per thread, to balance uneven ranges **/
+	public static final int CHUNKS_PER_THREAD = 4;
+
+	/** The default smallest range, in bytes, worth processing on its own **/
+	public static final long DEFAULT_MIN_CHUNK_SIZE = 1 << 20;
+
+	private final Path file;
+	private final int parallelism;
+	private final long minChunkSize;
+
+	/**
+	 * @param file
+	 *            the file of Driver data to be processed
+	 * @param parallelism
+	 *            the number of threads with which to process the file
+	 */
+	public ParallelChunkEngine(final Path file, final int parallelism) {
+		this(file, parallelism, DEFAULT_MIN_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param file
+	 *            the file of Driver data to be processed
+	 * @param parallelism
+	 *            the number of threads with which to process the file
+	 * @param minChunkSize
+	 *            the smallest range, in bytes, worth processing on its own
+	 */
+	public ParallelChunkEngine(final Path file, final int parallelism, final long minChunkSize) {
+		Validate.notNull(file, "file cannot be null");
+		Validate.isTrue(parallelism > 0, "parallelism must be positive");
+		Validate.isTrue(minChunkSize > 0, "minChunkSize must be positive");
+
+		this.file = file;
+		this.parallelism = parallelism;
+		this.minChunkSize = minChunkSize;
+	}
+
+	@Override
+	public List<String> ingest(final Map<String, Driver> drivers, final Map<String, Driver> unregistered,
+			final CommandTable commands, final DriverOptions options) throws IOException {
+
+		try (final FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+			final long[] boundaries = FileChunks.split(channel, chunkCount(channel.size()));
+			LOGGER.debug("processing {} in {} chunks on {} threads", this.file, boundaries.length - 1,
+					this.parallelism);
+
+			final ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+
+			try {
+				return pool.invoke(new ChunkTask(channel, boundaries, 0, boundaries.length - 1, commands, options))
+						.resolveInto(drivers, unregistered);
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			} finally {
+				pool.shutdown();
+			}
+		}
+	}
+
+	private int chunkCount(final long size) {
+		return (int) Math.max(1, Math.min((long) this.parallelism * CHUNKS_PER_THREAD, size / this.minChunkSize));
+	}
+
+	/**
+	 * Processes the ranges {@code [lo, hi)}, splitting them in half until a
+	 * single range is left, and merging the partial results in file order.
+	 */
+	private static class ChunkTask extends RecursiveTask<PartialDrivers> {
+		private static final long serialVersionUID = 1L;
+
+		private final FileChannel channel;
+		private final long[] boundaries;
+		private final int lo;
+		private final int hi;
+		private final CommandTable commands;
+		private final DriverOptions options;
+
+		ChunkTask(final FileChannel channel, final long[] boundaries, final int lo, final int hi,
+				final CommandTable commands, final DriverOptions options) {
+			this.channel = channel;
+			this.boundaries = boundaries;
+			this.lo = lo;
+			this.hi = hi;
+			this.commands = commands;
+			this.options = options;
+		}
+
+		@Override
+		protected PartialDrivers compute() {
+
+			if (this.hi - this.lo == 1) {
+				final PartialDrivers partial = new PartialDrivers(this.commands, this.options);
+
+				try {
+					new ChannelLineSource(this.channel, this.boundaries[this.lo], this.boundaries[this.hi])
+							.forEachLine(partial);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+
+				return partial;
+			}
+
+			final int mid = (this.lo + this.hi) >>> 1;
+			final ChunkTask left = new ChunkTask(this.channel, this.boundaries, this.lo, mid, this.commands,
+					this.options);
+			final ChunkTask right = new ChunkTask(this.channel, this.boundaries, mid, this.hi, this.commands,
+					this.options);
+
+			left.fork();
+			final PartialDrivers later = right.compute();
+
+			return left.join().merge(later);
+		}
+	}
+}
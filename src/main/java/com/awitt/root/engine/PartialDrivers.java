@@ -0,0 +1,117 @@
+package com.awitt.root.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.awitt.root.actions.CommandTable;
+import com.awitt.root.metrics.IngestMetrics;
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverIndex;
+import com.awitt.root.model.DriverOptions;
+
+/**
+ * {@link LineDispatcher} collecting the Drivers registered, and the Trips
+ * recorded, in one part of the Driver data, such as a range of a file or one
+ * of many files.
+ * <p>
+ * Trips whose Driver is not registered in the same part are held as
+ * {@link PendingTrips}, so that no line has to be reprocessed. Parts are
+ * then {@link #merge(PartialDrivers) merged} in order and
+ * {@link #resolveInto(Map, Map) resolved}, with the same result as processing
+ * all of the parts sequentially.
+ */
+class PartialDrivers extends LineDispatcher {
+	private static final Logger LOGGER = LoggerFactory.getLogger(PartialDrivers.class);
+
+	/** Drivers registered in these parts, in registration order **/
+	private final DriverIndex registered;
+
+	/** Trips for Drivers not registered in these parts, by name **/
+	private final DriverIndex pending;
+
+	private final List<String> toReprocess;
+	private final DriverOptions options;
+
+	PartialDrivers(final CommandTable commands, final DriverOptions options) {
+		this(commands, options, new DriverIndex(), new DriverIndex(), new ArrayList<>());
+	}
+
+	private PartialDrivers(final CommandTable commands, final DriverOptions options, final DriverIndex registered,
+			final DriverIndex pending, final List<String> toReprocess) {
+		super(commands, registered, new PendingTrips(pending, options), options, toReprocess);
+
+		this.registered = registered;
+		this.pending = pending;
+		this.toReprocess = toReprocess;
+		this.options = options;
+	}
+
+	/**
+	 * Adds the results of the parts following these parts to these results.
+	 * 
+	 * @return {@code this}, for chaining
+	 */
+	PartialDrivers merge(final PartialDrivers later) {
+
+		later.registered.forEach((key, driver) -> {
+			final Driver existing = this.registered.putIfAbsent(key, driver);
+
+			if (existing != null) {
+				LOGGER.debug("driver already registered: {}", driver.getName());
+				IngestMetrics.GLOBAL.duplicateRegistration();
+				existing.merge(driver);
+			}
+		});
+
+		later.pending.forEach((key, driver) -> {
+			final Driver existing = this.pending.putIfAbsent(key, driver);
+
+			if (existing != null) {
+				existing.merge(driver);
+			}
+		});
+
+		this.toReprocess.addAll(later.toReprocess);
+
+		return this;
+	}
+
+	/**
+	 * Registers every Driver in {@code drivers}, in registration order,
+	 * and adds every pending Trip to its registered Driver, or to
+	 * {@code unregistered} if its Driver is not registered.
+	 * 
+	 * @param drivers
+	 *            the Drivers registered so far, by lower-cased name
+	 * @param unregistered
+	 *            the Drivers holding the Trips read before their Driver was
+	 *            registered, by lower-cased name; each is handed over to
+	 *            its Driver once registered
+	 * @return the lines that need to be reprocessed
+	 */
+	List<String> resolveInto(final Map<String, Driver> drivers, final Map<String, Driver> unregistered) {
+		final PendingTrips unregisteredTrips = PendingTrips.drainedFrom(unregistered, this.options);
+
+		this.registered.forEach((key, driver) -> {
+			drivers.put(key, driver);
+			// INTO THE DRIVER AS HELD, WHICH A DriverStore KEEPS IN ITS FILE RATHER THAN AS GIVEN
+			unregisteredTrips.drainInto(drivers.get(key));
+		});
+
+		this.pending.forEach((key, trips) -> {
+			final Driver driver = drivers.get(key);
+
+			if (driver != null) {
+				driver.merge(trips);
+			} else {
+				unregistered.merge(key, trips, Driver::merge);
+			}
+		});
+
+		return this.toReprocess;
+	}
+}
@@ -0,0 +1,126 @@
+package com.awitt.root.engine;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+import com.awitt.root.actions.TripHolders;
+import com.awitt.root.io.Lines;
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverIndex;
+import com.awitt.root.model.DriverTable;
+import com.awitt.root.model.DriverOptions;
+
+/**
+ * The Trips read for each name before a Driver of that name was registered,
+ * already parsed and summed into a holding Driver per lower-cased name, so
+ * that no line has to be reprocessed. Once the Driver is registered, its
+ * pending Trips are {@link #drainInto(Driver) drained} into it in one step,
+ * unless they are kept to be resolved later.
+ */
+final class PendingTrips implements TripHolders {
+
+	private final Map<String, Driver> pending;
+	private final DriverOptions options;
+
+	/** Whether pending Trips are removed as they are drained, rather than kept **/
+	private final boolean drained;
+
+	/**
+	 * Creates pending Trips that are kept, even once their Driver is
+	 * registered, to be resolved later.
+	 *
+	 * @param pending
+	 *            the Drivers holding the Trips pending for each lower-cased
+	 *            name; a name held as bytes is only decoded when it is not a
+	 *            {@link DriverTable}
+	 * @param options
+	 *            how each holding Driver keeps track of its Trips
+	 */
+	PendingTrips(final Map<String, Driver> pending, final DriverOptions options) {
+		this(pending, options, false);
+	}
+
+	private PendingTrips(final Map<String, Driver> pending, final DriverOptions options, final boolean drained) {
+		this.pending = pending;
+		this.options = options;
+		this.drained = drained;
+	}
+
+	/**
+	 * Creates pending Trips that are removed from {@code pending} as they are
+	 * drained into their registered Driver.
+	 *
+	 * @param pending
+	 *            the Drivers holding the Trips pending for each lower-cased
+	 *            name
+	 * @param options
+	 *            how each holding Driver keeps track of its Trips
+	 * @return the pending Trips
+	 * @throws IllegalArgumentException
+	 *             if {@code pending} is a {@link DriverTable}, from which
+	 *             Drivers cannot be removed one at a time
+	 */
+	static PendingTrips drainedFrom(final Map<String, Driver> pending, final DriverOptions options) {
+		Validate.isTrue(!(pending instanceof DriverTable), "drained trips cannot be held in a DriverTable");
+
+		return new PendingTrips(pending, options, true);
+	}
+
+	boolean isEmpty() {
+		return this.pending.isEmpty();
+	}
+
+	/**
+	 * @param buffer
+	 *            the buffer holding the name
+	 * @param from
+	 *            the absolute index of the first byte of the name, inclusive
+	 * @param to
+	 *            the absolute index of the end of the name, exclusive
+	 * @return the Driver holding the Trips pending for the name, created if
+	 *         there is none yet
+	 */
+	@Override
+	public Driver holderOf(final ByteBuffer buffer, final int from, final int to) {
+
+		if (!(this.pending instanceof DriverTable)) {
+			return holderOf(Lines.toString(buffer, from, to));
+		}
+
+		final DriverTable index = (DriverTable) this.pending;
+		final Driver driver = index.get(buffer, from, to);
+
+		return driver != null ? driver : index.register(buffer, from, to, this.options);
+	}
+
+	/**
+	 * @return the Driver holding the Trips pending for {@code name}, created
+	 *         if there is none yet
+	 */
+	@Override
+	public Driver holderOf(final String name) {
+		return this.pending.computeIfAbsent(DriverIndex.toKey(name), key -> new Driver(name, this.options));
+	}
+
+	/**
+	 * Hands every Trip pending for the name of a Driver just registered over
+	 * to it.
+	 *
+	 * @param driver
+	 *            the registered Driver, as held by the index it was registered
+	 *            in
+	 */
+	void drainInto(final Driver driver) {
+		Validate.validState(this.drained, "pending trips are kept to be resolved later");
+
+		if (!this.pending.isEmpty()) {
+			final Driver trips = this.pending.remove(DriverIndex.toKey(driver.getName()));
+
+			if (trips != null) {
+				driver.merge(trips);
+			}
+		}
+	}
+}
@@ -0,0 +1,592 @@
+package com.awitt.root.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.awitt.root.actions.Action;
+import com.awitt.root.actions.Command;
+import com.awitt.root.actions.CommandTable;
+import com.awitt.root.io.Failures;
+import com.awitt.root.io.LineHandler;
+import com.awitt.root.io.LineSource;
+import com.awitt.root.io.Lines;
+import com.awitt.root.io.TripLineParser;
+import com.awitt.root.metrics.IngestMetrics;
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverIndex;
+import com.awitt.root.model.DriverOptions;
+
+/**
+ * {@link IngestEngine} that overlaps reading, parsing and aggregating in a
+ * pipeline of three stages:
+ * <ol>
+ * <li>the calling thread reads the {@link LineSource} into batches of lines,
+ * handed to the parsers in turn;</li>
+ * <li>each parser recognizes the {@link Command} of every line of its
+ * batches and parses each {@link Action#DRIVER} and {@link Action#TRIP}
+ * line, routing it to the aggregator of its Driver's shard;</li>
+ * <li>each aggregator owns the Drivers whose lower-cased name hashes to its
+ * shard, registering them and recording their Trips.</li>
+ * </ol>
+ * Stages are connected by {@link RingBuffer}s of preallocated batches, one
+ * per pair of threads, so that no batch is created while processing and a
+ * slow stage holds back the stages before it. Each aggregator takes batches
+ * from the parsers in the same turn in which they were handed out, so that
+ * every shard sees its lines in file order, and Drivers are registered in
+ * file order once every shard is done. The result is exactly that of
+ * processing the file sequentially.
+ * <p>
+ * Lines of any other Command do not belong to a shard, so they are returned
+ * to be reprocessed once every Driver and Trip has been processed.
+ * <p>
+ * Parsers and aggregators are CPU-bound for their whole lifetime, so they
+ * run on a fixed pool of platform threads.
+ */
+public class PipelinedEngine implements IngestEngine {
+	private static final Logger LOGGER = LoggerFactory.getLogger(PipelinedEngine.class);
+
+	/** The most lines in a batch **/
+	static final int BATCH_LINES = 1024;
+
+	/** The initial number of bytes of a batch, which only grows for longer lines **/
+	static final int BATCH_BYTES = 64 << 10;
+
+	/** The number of batches in each ring **/
+	static final int RING_SIZE = 4;
+
+	private final LineSource source;
+	private final int parsers;
+	private final int aggregators;
+
+	/**
+	 * @param source
+	 *            the {@link LineSource} of the Driver data to be processed
+	 * @param parsers
+	 *            the number of threads parsing lines
+	 * @param aggregators
+	 *            the number of threads, and of shards of Drivers, recording
+	 *            Drivers and Trips
+	 */
+	public PipelinedEngine(final LineSource source, final int parsers, final int aggregators) {
+		Validate.notNull(source, "source cannot be null");
+		Validate.isTrue(parsers > 0, "parsers must be positive");
+		Validate.isTrue(aggregators > 0, "aggregators must be positive");
+
+		this.source = source;
+		this.parsers = parsers;
+		this.aggregators = aggregators;
+	}
+
+	@Override
+	public List<String> ingest(final Map<String, Driver> drivers, final Map<String, Driver> unregistered,
+			final CommandTable commands, final DriverOptions options) throws IOException {
+		final AtomicBoolean cancelled = new AtomicBoolean();
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		final List<RingBuffer<LineBatch>> lines = new ArrayList<>(this.parsers);
+		final List<List<RingBuffer<ParsedBatch>>> parsed = new ArrayList<>(this.parsers);
+
+		for (int i = 0; i < this.parsers; i++) {
+			lines.add(new RingBuffer<>(RING_SIZE, LineBatch::new, cancelled));
+
+			final List<RingBuffer<ParsedBatch>> toShards = new ArrayList<>(this.aggregators);
+
+			for (int shard = 0; shard < this.aggregators; shard++) {
+				toShards.add(new RingBuffer<>(RING_SIZE, ParsedBatch::new, cancelled));
+			}
+
+			parsed.add(toShards);
+		}
+
+		final List<Shard> shards = new ArrayList<>(this.aggregators);
+
+		for (int shard = 0; shard < this.aggregators; shard++) {
+			shards.add(new Shard(shard, parsed, options));
+		}
+
+		// DRIVERS FROM EARLIER INGESTS KEEP RECEIVING THEIR TRIPS IN THEIR SHARD
+		drivers.forEach((key, driver) -> shards.get(shardOf(key.hashCode())).registered.put(key, driver));
+		unregistered.forEach((key, driver) -> shards.get(shardOf(key.hashCode())).pending.put(key, driver));
+		unregistered.clear();
+
+		final ExecutorService pool = Executors.newFixedThreadPool(this.parsers + this.aggregators, runnable -> {
+			final Thread thread = new Thread(runnable, "pipeline");
+			thread.setDaemon(true);
+			return thread;
+		});
+		final List<Future<?>> stages = new ArrayList<>();
+
+		try {
+			for (int i = 0; i < this.parsers; i++) {
+				final Parser parser = new Parser(lines.get(i), parsed.get(i), commands);
+				stages.add(submit(pool, "pipeline-parser-" + i, parser, cancelled, failure));
+			}
+
+			for (final Shard shard : shards) {
+				stages.add(submit(pool, "pipeline-shard-" + shard.index, shard, cancelled, failure));
+			}
+
+			run(() -> new Reader(lines).readAll(this.source), cancelled, failure);
+
+			for (final Future<?> stage : stages) {
+				stage.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			failure.compareAndSet(null, e);
+		} catch (ExecutionException e) {
+			failure.compareAndSet(null, e.getCause());
+		} finally {
+			cancelled.set(true);
+			pool.shutdownNow();
+		}
+
+		if (failure.get() != null) {
+			throw Failures.rethrow(failure.get());
+		}
+
+		return collect(shards, drivers, unregistered);
+	}
+
+	/**
+	 * Registers the new Drivers of every shard in file order, and hands over
+	 * the Trips of every Driver not registered yet.
+	 *
+	 * @return the lines of other Commands, in file order
+	 */
+	private static List<String> collect(final List<Shard> shards, final Map<String, Driver> drivers,
+			final Map<String, Driver> unregistered) {
+		final int[] next = new int[shards.size()];
+
+		// EACH SHARD REGISTERED ITS DRIVERS IN FILE ORDER, SO THEY ARE MERGED ON THEIR LINE NUMBERS
+		while (true) {
+			Shard first = null;
+
+			for (final Shard shard : shards) {
+				if (next[shard.index] < shard.registrations
+						&& (first == null || shard.registeredAt[next[shard.index]] < first.registeredAt[next[first.index]])) {
+					first = shard;
+				}
+			}
+
+			if (first == null) {
+				break;
+			}
+
+			final Driver driver = first.newDrivers.get(next[first.index]++);
+			drivers.put(DriverIndex.toKey(driver.getName()), driver);
+		}
+
+		shards.forEach(shard -> unregistered.putAll(shard.pending));
+
+		return shards.get(0).others;
+	}
+
+	private int shardOf(final int hash) {
+		return Math.floorMod(hash ^ (hash >>> 16), this.aggregators);
+	}
+
+	/**
+	 * Runs a {@code stage} on a thread of the {@code pool}, which is named
+	 * after it.
+	 */
+	private static Future<?> submit(final ExecutorService pool, final String name, final Stage stage,
+			final AtomicBoolean cancelled, final AtomicReference<Throwable> failure) {
+		return pool.submit(() -> {
+			// EACH THREAD OF THE POOL RUNS A SINGLE STAGE
+			Thread.currentThread().setName(name);
+			run(stage, cancelled, failure);
+		});
+	}
+
+	private static void run(final Stage stage, final AtomicBoolean cancelled,
+			final AtomicReference<Throwable> failure) {
+
+		try {
+			stage.run();
+		} catch (Throwable t) {
+			// ONLY THE FIRST FAILURE IS REPORTED; EVERY OTHER STAGE IS THEN CANCELLED
+			if (!failure.compareAndSet(null, t) && !(t instanceof CancellationException)) {
+				LOGGER.debug("pipeline stage failed after the pipeline failed", t);
+			}
+
+			cancelled.set(true);
+		}
+	}
+
+	@FunctionalInterface
+	private interface Stage {
+		void run() throws IOException;
+	}
+
+	/**
+	 * Batch of complete lines, copied out of the source's buffer.
+	 */
+	static final class LineBatch {
+		long number;
+		boolean last;
+		byte[] bytes = new byte[BATCH_BYTES];
+		ByteBuffer buffer = ByteBuffer.wrap(this.bytes);
+		int length;
+		final int[] ends = new int[BATCH_LINES];
+		int count;
+
+		LineBatch reset(final long number) {
+			this.number = number;
+			this.last = false;
+			this.length = 0;
+			this.count = 0;
+			return this;
+		}
+
+		boolean fits(final int lineLength) {
+			return this.count < BATCH_LINES && this.length + lineLength <= this.bytes.length;
+		}
+
+		void add(final ByteBuffer source, final int from, final int to) {
+			ensure(to - from);
+
+			if (source.hasArray()) {
+				System.arraycopy(source.array(), source.arrayOffset() + from, this.bytes, this.length, to - from);
+				this.length += to - from;
+			} else {
+				for (int i = from; i < to; i++) {
+					this.bytes[this.length++] = source.get(i);
+				}
+			}
+
+			this.ends[this.count++] = this.length;
+		}
+
+		private void ensure(final int lineLength) {
+
+			// ONLY A LINE LONGER THAN A WHOLE BATCH GETS HERE WITHOUT FITTING
+			if (this.length + lineLength > this.bytes.length) {
+				this.bytes = Arrays.copyOf(this.bytes, this.length + lineLength);
+				this.buffer = ByteBuffer.wrap(this.bytes);
+			}
+		}
+	}
+
+	/**
+	 * Batch of the parsed lines of one {@link LineBatch} that belong to one
+	 * shard.
+	 */
+	static final class ParsedBatch {
+		static final byte TRIP = 0;
+		static final byte DRIVER = 1;
+		static final byte TRIP_LINE = 2;
+		static final byte OTHER_LINE = 3;
+
+		boolean last;
+		int count;
+		final byte[] kinds = new byte[BATCH_LINES];
+		final long[] lineNumbers = new long[BATCH_LINES];
+		final int[] nameEnds = new int[BATCH_LINES];
+		final int[] startMinutes = new int[BATCH_LINES];
+		final int[] endMinutes = new int[BATCH_LINES];
+		final long[] distances = new long[BATCH_LINES];
+		final String[] lines = new String[BATCH_LINES];
+		byte[] names = new byte[BATCH_BYTES];
+		ByteBuffer namesBuffer = ByteBuffer.wrap(this.names);
+		int namesLength;
+
+		ParsedBatch reset() {
+			this.last = false;
+			this.count = 0;
+			this.namesLength = 0;
+			return this;
+		}
+
+		int nameFrom(final int record) {
+			return record == 0 ? 0 : this.nameEnds[record - 1];
+		}
+
+		void addName(final byte kind, final long lineNumber, final ByteBuffer source, final int from,
+				final int to) {
+
+			if (this.namesLength + to - from > this.names.length) {
+				this.names = Arrays.copyOf(this.names, Math.max(this.names.length * 2, this.namesLength + to - from));
+				this.namesBuffer = ByteBuffer.wrap(this.names);
+			}
+
+			for (int i = from; i < to; i++) {
+				this.names[this.namesLength++] = source.get(i);
+			}
+
+			this.kinds[this.count] = kind;
+			this.lineNumbers[this.count] = lineNumber;
+			this.nameEnds[this.count] = this.namesLength;
+			this.lines[this.count] = null;
+			this.count++;
+		}
+
+		void addLine(final byte kind, final String line) {
+			this.kinds[this.count] = kind;
+			this.nameEnds[this.count] = this.namesLength;
+			this.lines[this.count] = line;
+			this.count++;
+		}
+	}
+
+	/**
+	 * {@link LineHandler} copying every line read into the batch of the next
+	 * parser in turn.
+	 */
+	private final class Reader implements LineHandler {
+		private final List<RingBuffer<LineBatch>> rings;
+		private long number;
+		private LineBatch batch;
+
+		Reader(final List<RingBuffer<LineBatch>> rings) {
+			this.rings = rings;
+		}
+
+		void readAll(final LineSource source) throws IOException {
+			this.batch = ring(this.number).claim().reset(this.number);
+
+			source.forEachLine(this);
+			ring(this.number).publish();
+
+			// EVERY PARSER STOPS AT ITS NEXT TURN
+			for (int i = 1; i <= PipelinedEngine.this.parsers; i++) {
+				final LineBatch last = ring(this.number + i).claim().reset(this.number + i);
+				last.last = true;
+				ring(this.number + i).publish();
+			}
+		}
+
+		@Override
+		public void onLine(final String line) {
+			final byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+			onLine(ByteBuffer.wrap(bytes), 0, bytes.length);
+		}
+
+		@Override
+		public void onLine(final ByteBuffer buffer, final int from, final int to) {
+
+			if (!this.batch.fits(to - from) && this.batch.count > 0) {
+				ring(this.number).publish();
+				this.number++;
+				this.batch = ring(this.number).claim().reset(this.number);
+			}
+
+			this.batch.add(buffer, from, to);
+		}
+
+		private RingBuffer<LineBatch> ring(final long number) {
+			return this.rings.get((int) (number % PipelinedEngine.this.parsers));
+		}
+	}
+
+	/**
+	 * Stage parsing every line of its batches into the batches of each shard.
+	 */
+	private final class Parser implements Stage {
+		private final RingBuffer<LineBatch> in;
+		private final List<RingBuffer<ParsedBatch>> out;
+		private final CommandTable commands;
+		private final TripLineParser parser = new TripLineParser();
+		private final ParsedBatch[] batches;
+
+		Parser(final RingBuffer<LineBatch> in, final List<RingBuffer<ParsedBatch>> out, final CommandTable commands) {
+			this.in = in;
+			this.out = out;
+			this.commands = commands;
+			this.batches = new ParsedBatch[out.size()];
+		}
+
+		@Override
+		public void run() {
+
+			while (true) {
+				final LineBatch lines = this.in.take();
+
+				for (int shard = 0; shard < this.batches.length; shard++) {
+					this.batches[shard] = this.out.get(shard).claim().reset();
+					this.batches[shard].last = lines.last;
+				}
+
+				if (!lines.last) {
+					parse(lines);
+				}
+
+				this.out.forEach(RingBuffer::publish);
+				this.in.release();
+
+				if (lines.last) {
+					return;
+				}
+			}
+		}
+
+		private void parse(final LineBatch lines) {
+			final ByteBuffer buffer = lines.buffer;
+			int from = 0;
+
+			for (int line = 0; line < lines.count; line++) {
+				final int to = lines.ends[line];
+
+				if (!Lines.isBlank(buffer, from, to)) {
+					parse(buffer, from, to, lines.number * BATCH_LINES + line);
+				}
+
+				from = to;
+			}
+
+			IngestMetrics.GLOBAL.linesRead(lines.count);
+		}
+
+		private void parse(final ByteBuffer buffer, final int from, final int to, final long lineNumber) {
+			final Command command = this.commands.get(buffer, from, to);
+
+			if (command == Action.TRIP) {
+				if (this.parser.parse(buffer, from, to)) {
+					final int nameFrom = this.parser.getNameFrom();
+					final int nameTo = this.parser.getNameTo();
+					final ParsedBatch batch = this.batches[shardOf(DriverIndex.hashOf(buffer, nameFrom, nameTo))];
+					final int record = batch.count;
+
+					batch.addName(ParsedBatch.TRIP, lineNumber, buffer, nameFrom, nameTo);
+					batch.startMinutes[record] = this.parser.getStartMinute();
+					batch.endMinutes[record] = this.parser.getEndMinute();
+					batch.distances[record] = this.parser.getDistance();
+				} else {
+					// ANYTHING OTHER THAN A CANONICAL TRIP LINE IS LEFT TO THE STRING PARSING
+					final String line = Lines.toString(buffer, from, to);
+					final String[] metrics = line.split(" ");
+
+					if (metrics.length != 5) {
+						throw new RuntimeException("Trip data in an unexpected format: " + line);
+					}
+
+					this.batches[shardOf(DriverIndex.toKey(metrics[1]).hashCode())].addLine(ParsedBatch.TRIP_LINE,
+							line);
+				}
+			} else if (command == Action.DRIVER) {
+				final int space = Lines.indexOf(buffer, from, to, (byte) ' ');
+				final int nameFrom = space < 0 ? from : space + 1;
+
+				this.batches[shardOf(DriverIndex.hashOf(buffer, nameFrom, to))].addName(ParsedBatch.DRIVER,
+						lineNumber, buffer, nameFrom, to);
+			} else if (command != null) {
+				this.batches[0].addLine(ParsedBatch.OTHER_LINE, Lines.toString(buffer, from, to));
+			} else {
+				throw new IllegalArgumentException("Unexpected command: " + Lines.toString(buffer, from, to));
+			}
+		}
+	}
+
+	/**
+	 * Stage registering, and recording the Trips of, the Drivers of one
+	 * shard.
+	 */
+	private final class Shard implements Stage {
+		final int index;
+		final DriverIndex registered = new DriverIndex();
+		final Map<String, Driver> pending = new LinkedHashMap<>();
+		final List<Driver> newDrivers = new ArrayList<>();
+		final List<String> others = new ArrayList<>();
+		long[] registeredAt = new long[16];
+		int registrations;
+
+		private final List<RingBuffer<ParsedBatch>> in;
+		private final DriverOptions options;
+		private final PendingTrips pendingTrips;
+
+		Shard(final int index, final List<List<RingBuffer<ParsedBatch>>> parsed, final DriverOptions options) {
+			this.index = index;
+			this.in = new ArrayList<>(parsed.size());
+			this.options = options;
+			this.pendingTrips = PendingTrips.drainedFrom(this.pending, options);
+
+			parsed.forEach(toShards -> this.in.add(toShards.get(index)));
+		}
+
+		@Override
+		public void run() {
+
+			// TAKING FROM THE PARSERS IN THE SAME TURN AS THE READER KEEPS THE LINES IN FILE ORDER
+			for (long number = 0;; number++) {
+				final RingBuffer<ParsedBatch> ring = this.in.get((int) (number % this.in.size()));
+				final ParsedBatch batch = ring.take();
+
+				if (batch.last) {
+					ring.release();
+					return;
+				}
+
+				apply(batch);
+				ring.release();
+			}
+		}
+
+		private void apply(final ParsedBatch batch) {
+
+			for (int record = 0; record < batch.count; record++) {
+				switch (batch.kinds[record]) {
+				case ParsedBatch.TRIP:
+					trip(batch, record);
+					break;
+				case ParsedBatch.DRIVER:
+					register(batch, record);
+					break;
+				case ParsedBatch.TRIP_LINE:
+					Action.TRIP.doCommand(batch.lines[record], this.registered, this.options, this.pendingTrips);
+					break;
+				default:
+					this.others.add(batch.lines[record]);
+				}
+
+				batch.lines[record] = null;
+			}
+		}
+
+		private void trip(final ParsedBatch batch, final int record) {
+			Driver driver = this.registered.get(batch.namesBuffer, batch.nameFrom(record), batch.nameEnds[record]);
+
+			if (driver == null) {
+				driver = this.pendingTrips.holderOf(batch.namesBuffer, batch.nameFrom(record),
+						batch.nameEnds[record]);
+			}
+
+			driver.addTrip(batch.startMinutes[record], batch.endMinutes[record], batch.distances[record]);
+		}
+
+		private void register(final ParsedBatch batch, final int record) {
+			final Driver driver = this.registered.register(batch.namesBuffer, batch.nameFrom(record),
+					batch.nameEnds[record], this.options);
+
+			if (driver == null) {
+				IngestMetrics.GLOBAL.duplicateRegistration();
+				return;
+			}
+
+			this.pendingTrips.drainInto(driver);
+
+			if (this.registrations == this.registeredAt.length) {
+				this.registeredAt = Arrays.copyOf(this.registeredAt, this.registrations * 2);
+			}
+
+			this.registeredAt[this.registrations++] = batch.lineNumbers[record];
+			this.newDrivers.add(driver);
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package com.awitt.root.engine;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Bounded ring of preallocated, reusable slots handed from exactly one
+ * producer thread to exactly one consumer thread.
+ * <p>
+ * The producer {@link #claim() claims} the next free slot, fills it in place
+ * and {@link #publish() publishes} it; the consumer {@link #take() takes} the
+ * next published slot, reads it in place and {@link #release() releases} it
+ * back to the producer. No slot is ever created after construction, and a
+ * producer that gets a whole ring ahead of its consumer waits for it, so a
+ * fast stage cannot run away from a slow one.
+ * <p>
+ * Waiting spins briefly, then yields, then parks, so that it works as well on
+ * a single core as on many. A wait is abandoned with a
+ * {@link CancellationException} once the shared {@code cancelled} flag is set,
+ * or if the waiting thread is interrupted, which also sets the flag.
+ */
+final class RingBuffer<T> {
+
+	private static final int SPINS = 64;
+	private static final int YIELDS = 64;
+	private static final long MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+	private final Object[] slots;
+	private final int mask;
+	private final AtomicBoolean cancelled;
+
+	/** Sequence of the next slot to be taken; only advanced by the consumer **/
+	private final AtomicLong head = new AtomicLong();
+
+	/** Sequence of the next slot to be published; only advanced by the producer **/
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * @param capacity
+	 *            the number of slots; a power of two
+	 * @param slot
+	 *            creates each slot
+	 * @param cancelled
+	 *            the flag that, once set, abandons every wait
+	 */
+	RingBuffer(final int capacity, final Supplier<T> slot, final AtomicBoolean cancelled) {
+		Validate.isTrue(capacity > 0 && Integer.bitCount(capacity) == 1, "capacity must be a power of two");
+		Validate.notNull(slot, "slot cannot be null");
+		Validate.notNull(cancelled, "cancelled cannot be null");
+
+		this.slots = new Object[capacity];
+		this.mask = capacity - 1;
+		this.cancelled = cancelled;
+
+		for (int i = 0; i < capacity; i++) {
+			this.slots[i] = slot.get();
+		}
+	}
+
+	/**
+	 * Waits for the next slot to be free.
+	 *
+	 * @return the slot, to be filled and then {@link #publish() published}
+	 */
+	T claim() {
+		final long sequence = this.tail.get();
+
+		for (int attempt = 0; sequence - this.head.get() >= this.slots.length; attempt++) {
+			await(attempt);
+		}
+
+		return slot(sequence);
+	}
+
+	/**
+	 * Hands the slot last {@link #claim() claimed} over to the consumer.
+	 */
+	void publish() {
+		// ORDERED WRITE, SO THE SLOT IS SEEN FILLED BEFORE IT IS SEEN PUBLISHED
+		this.tail.lazySet(this.tail.get() + 1);
+	}
+
+	/**
+	 * Waits for the next slot to be published.
+	 *
+	 * @return the slot, to be read and then {@link #release() released}
+	 */
+	T take() {
+		final long sequence = this.head.get();
+
+		for (int attempt = 0; sequence >= this.tail.get(); attempt++) {
+			await(attempt);
+		}
+
+		return slot(sequence);
+	}
+
+	/**
+	 * Hands the slot last {@link #take() taken} back to the producer.
+	 */
+	void release() {
+		this.head.lazySet(this.head.get() + 1);
+	}
+
+	@SuppressWarnings("unchecked")
+	private T slot(final long sequence) {
+		return (T) this.slots[(int) sequence & this.mask];
+	}
+
+	private void await(final int attempt) {
+
+		if (Thread.currentThread().isInterrupted()) {
+			this.cancelled.set(true);
+		}
+
+		if (this.cancelled.get()) {
+			throw new CancellationException("pipeline cancelled");
+		}
+
+		if (attempt < SPINS) {
+			return;
+		} else if (attempt < SPINS + YIELDS) {
+			Thread.yield();
+		} else {
+			LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1L << Math.min(20, attempt - SPINS - YIELDS)));
+		}
+	}
+}
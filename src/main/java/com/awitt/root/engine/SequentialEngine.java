@@ -0,0 +1,41 @@
+package com.awitt.root.engine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+import com.awitt.root.actions.CommandTable;
+import com.awitt.root.io.LineSource;
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverOptions;
+
+/**
+ * {@link IngestEngine} that processes every line of a single
+ * {@link LineSource}, in order, on the calling thread.
+ */
+public class SequentialEngine implements IngestEngine {
+
+	private final LineSource source;
+
+	/**
+	 * @param source
+	 *            the {@link LineSource} of the Driver data to be processed
+	 */
+	public SequentialEngine(final LineSource source) {
+		Validate.notNull(source, "source cannot be null");
+		this.source = source;
+	}
+
+	@Override
+	public List<String> ingest(final Map<String, Driver> drivers, final Map<String, Driver> unregistered,
+			final CommandTable commands, final DriverOptions options) throws IOException {
+		final List<String> toReprocess = new ArrayList<>();
+
+		this.source.forEachLine(new LineDispatcher(commands, drivers, unregistered, options, toReprocess));
+
+		return toReprocess;
+	}
+}
@@ -0,0 +1,935 @@
+package com.awitt.root.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.awitt.root.actions.Action;
+import com.awitt.root.actions.Command;
+import com.awitt.root.actions.CommandTable;
+import com.awitt.root.io.Failures;
+import com.awitt.root.io.LineHandler;
+import com.awitt.root.io.LineSource;
+import com.awitt.root.io.Lines;
+import com.awitt.root.metrics.IngestMetrics;
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverIndex;
+import com.awitt.root.model.DriverOptions;
+import com.awitt.root.model.DrivingSummary;
+import com.awitt.root.model.SpeedSketch;
+
+/**
+ * {@link IngestEngine} that processes every line of a single
+ * {@link LineSource}, in order, as a {@link SequentialEngine} does, for as
+ * long as what it holds fits in a memory budget.
+ * <p>
+ * Once the estimated size of the registered and unregistered Drivers, of
+ * their retained Trips and of the lines waiting to be reprocessed goes over
+ * the budget, everything held is {@link #isSpilled() spilled} to disk: the
+ * totals of each Driver, each line waiting to be reprocessed, and then each
+ * line still to be read, are appended to one of a number of partition files
+ * chosen by a hash of the lower-cased driver name: the rest of a
+ * {@link Action#DRIVER} line, as it registers the Driver, and the second word
+ * of every other line. Everything about a Driver therefore lands in the same
+ * partition, in the order in which it was read. Should ingesting or sorting
+ * fail, everything spilled is deleted.
+ * <p>
+ * Each partition is then {@link #sortPartitions() processed on its own}, as
+ * many at once as the budget allows, into a run of its Drivers in report
+ * order, and the runs are {@link #forEachInOrder(int, Consumer) merged} a
+ * Driver at a time, so that no more than a partition per thread is ever held
+ * in memory. Each Driver carries the position of the line that registered it,
+ * which orders Drivers of equal distance exactly as a stable sort of every
+ * Driver in registration order does, so the report is exactly that of
+ * processing everything in memory.
+ * <p>
+ * Once spilled, Drivers only keep a {@link DriverOptions#STREAMING streamed}
+ * summary of their Trips, with hourly totals and speeds if kept, and a
+ * {@link Command} must only act on the Driver named by the second word of its
+ * line.
+ */
+public class SpillingEngine implements IngestEngine {
+	private static final Logger LOGGER = LoggerFactory.getLogger(SpillingEngine.class);
+
+	/** The default number of partitions spilled to **/
+	public static final int DEFAULT_PARTITIONS = 32;
+
+	/** The number of lines processed between two estimates of what is held **/
+	private static final int CHECK_INTERVAL = 1 << 10;
+
+	/** Rough sizes, in bytes, of what is held in memory **/
+	private static final long DRIVER_BYTES = 256;
+	private static final long HOURLY_BYTES = 2 * (16 + DrivingSummary.HOURS * Long.BYTES);
+	private static final long SPEEDS_BYTES = 48 + SpeedSketch.BUCKETS * Integer.BYTES;
+	private static final long TRIP_BYTES = 96;
+	private static final long COLUMNAR_TRIP_BYTES = 16;
+	private static final long LINE_BYTES = 48;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** The kinds of record of a partition file **/
+	private static final int REGISTERED = 'D';
+	private static final int UNREGISTERED = 'U';
+	private static final int PENDING = 'P';
+	private static final int LINE = 'L';
+
+	/** The low bits of a sort key hold the position of a line, the high bits its reprocess pass **/
+	private static final int POSITION_BITS = 48;
+
+	private final LineSource source;
+	private final Path directory;
+	private final long budget;
+	private final int partitions;
+
+	private CommandTable commands;
+	private DriverOptions options;
+
+	/** The directory of partitions and runs; {@code null} unless spilled **/
+	private Path spill;
+
+	/** The estimated memory needed to process each partition **/
+	private long[] estimates;
+
+	/** The sorted run of each partition; {@code null} until sorted **/
+	private Path[] runs;
+
+	/** The speeds of every Driver of every sorted partition **/
+	private final SpeedSketch speeds = new SpeedSketch();
+
+	/**
+	 * @param source
+	 *            the {@link LineSource} of the Driver data to be processed
+	 * @param directory
+	 *            the directory in which to spill, in a directory of its own
+	 * @param budget
+	 *            the memory, in bytes, that Drivers and lines waiting to be
+	 *            reprocessed can take up before being spilled
+	 */
+	public SpillingEngine(final LineSource source, final Path directory, final long budget) {
+		this(source, directory, budget, DEFAULT_PARTITIONS);
+	}
+
+	/**
+	 * @param source
+	 *            the {@link LineSource} of the Driver data to be processed
+	 * @param directory
+	 *            the directory in which to spill, in a directory of its own
+	 * @param budget
+	 *            the memory, in bytes, that Drivers and lines waiting to be
+	 *            reprocessed can take up before being spilled
+	 * @param partitions
+	 *            the number of partitions to spill to
+	 */
+	public SpillingEngine(final LineSource source, final Path directory, final long budget, final int partitions) {
+		Validate.notNull(source, "source cannot be null");
+		Validate.notNull(directory, "directory cannot be null");
+		Validate.isTrue(budget > 0, "budget must be positive");
+		Validate.isTrue(partitions > 0, "partitions must be positive");
+
+		this.source = source;
+		this.directory = directory;
+		this.budget = budget;
+		this.partitions = partitions;
+	}
+
+	/**
+	 * Reads all Driver data as {@link IngestEngine#ingest} does, unless the
+	 * budget is exceeded: {@code drivers}, {@code unregistered} and the lines
+	 * to reprocess are then spilled and cleared, and every line read from
+	 * then on is spilled to its partition, to be processed by
+	 * {@link #sortPartitions()}.
+	 */
+	@Override
+	public List<String> ingest(final Map<String, Driver> drivers, final Map<String, Driver> unregistered,
+			final CommandTable commands, final DriverOptions options) throws IOException {
+		this.commands = commands;
+		this.options = options;
+
+		final List<String> toReprocess = new ArrayList<>();
+
+		try (BudgetedDispatcher dispatcher = new BudgetedDispatcher(drivers, unregistered, toReprocess)) {
+			this.source.forEachLine(dispatcher);
+		} catch (UncheckedIOException e) {
+			deleteSpill();
+			throw e.getCause();
+		} catch (IOException | RuntimeException e) {
+			deleteSpill();
+			throw e;
+		}
+
+		return toReprocess;
+	}
+
+	/**
+	 * @return whether or not the budget was exceeded, so that the Drivers
+	 *         are to be {@link #sortPartitions() sorted} and
+	 *         {@link #forEachInOrder(int, Consumer) reported} from disk
+	 */
+	public boolean isSpilled() {
+		return this.spill != null;
+	}
+
+	/**
+	 * Processes every partition, reprocessing its lines as needed, into a run
+	 * of its Drivers in report order. Partitions are processed on as many
+	 * threads as there are cores, as long as the largest partition fits in
+	 * the budget that many times over. Trips whose Driver is never registered
+	 * are reported, and discarded, as each partition is processed.
+	 *
+	 * @throws IOException
+	 *             if a partition cannot be read or its run written
+	 * @throws IllegalStateException
+	 *             if nothing was spilled, or partitions were already sorted
+	 */
+	public void sortPartitions() throws IOException {
+		Validate.validState(isSpilled(), "nothing was spilled");
+		Validate.validState(this.runs == null, "partitions are already sorted");
+
+		final long largest = Math.max(1, Arrays.stream(this.estimates).max().getAsLong());
+		final int threads = (int) Math.max(1, Math.min(Math.min(Runtime.getRuntime().availableProcessors(),
+				this.partitions), this.budget / largest));
+		final Leftovers leftovers = new Leftovers();
+		final ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+		LOGGER.debug("sorting {} partitions of up to about {} bytes on {} threads", this.partitions, largest, threads);
+
+		try {
+			final List<Future<Path>> sorted = new ArrayList<>(this.partitions);
+
+			for (int partition = 0; partition < this.partitions; partition++) {
+				final int number = partition;
+				sorted.add(pool.submit(() -> sortPartition(number, leftovers)));
+			}
+
+			final Path[] runs = new Path[this.partitions];
+
+			for (int partition = 0; partition < this.partitions; partition++) {
+				runs[partition] = sorted.get(partition).get();
+			}
+
+			this.runs = runs;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while sorting partitions in " + this.spill, e);
+		} catch (ExecutionException e) {
+			throw Failures.rethrow(e.getCause());
+		} finally {
+			pool.shutdownNow();
+
+			if (this.runs == null) {
+				// ONLY ONCE NO PARTITION IS BEING SORTED, SO THAT NO RUN IS WRITTEN AFTER IT IS DELETED
+				awaitTermination(pool);
+				deleteSpill();
+			}
+		}
+
+		// EVERY PARTITION IS REPROCESSED AT ONCE, SO PASSES ARE COUNTED AS FOR A SINGLE ONE
+		for (int pass = 0; pass < leftovers.passes.get(); pass++) {
+			IngestMetrics.GLOBAL.reprocessPass();
+		}
+
+		if (leftovers.lines.get() > 0) {
+			LOGGER.warn("{} lines could not be processed, such as: {}", leftovers.lines.get(),
+					leftovers.example.get());
+		}
+	}
+
+	/**
+	 * @return a sketch of the speeds of the Trips of every Driver once
+	 *         partitions are {@link #sortPartitions() sorted}; empty unless
+	 *         Drivers keep {@link DriverOptions#isSpeedPercentiles() speeds}
+	 */
+	public SpeedSketch getSpeeds() {
+
+		synchronized (this.speeds) {
+			return this.speeds.copy();
+		}
+	}
+
+	/**
+	 * Merges the run of every partition, passing each Driver to
+	 * {@code consumer} in report order, then deletes everything spilled.
+	 *
+	 * @param limit
+	 *            the number of Drivers to pass; {@code 0} for every Driver
+	 * @param consumer
+	 *            receives each Driver, in report order
+	 * @throws IOException
+	 *             if a run cannot be read
+	 * @throws IllegalStateException
+	 *             if partitions were not {@link #sortPartitions() sorted}
+	 */
+	public void forEachInOrder(final int limit, final Consumer<Driver> consumer) throws IOException {
+		Validate.validState(this.runs != null, "partitions are not sorted");
+		Validate.isTrue(limit >= 0, "limit cannot be negative");
+		Validate.notNull(consumer, "consumer cannot be null");
+
+		final DriverOptions options = partitionOptions();
+		final List<Run> open = new ArrayList<>(this.partitions);
+		final PriorityQueue<Run> heads = new PriorityQueue<>(this.partitions);
+
+		try {
+			for (final Path run : this.runs) {
+				final Run reader = new Run(run, options);
+				open.add(reader);
+
+				if (reader.advance()) {
+					heads.add(reader);
+				}
+			}
+
+			// THE FIRST DRIVER LEFT IN ANY RUN IS THE NEXT DRIVER OF THE REPORT
+			for (int count = 0; !heads.isEmpty() && (limit == 0 || count < limit); count++) {
+				final Run next = heads.poll();
+				consumer.accept(next.head.driver);
+
+				if (next.advance()) {
+					heads.add(next);
+				}
+			}
+		} finally {
+			for (final Run run : open) {
+				run.close();
+			}
+
+			for (final Path run : this.runs) {
+				Files.deleteIfExists(run);
+			}
+
+			Files.deleteIfExists(this.spill);
+		}
+	}
+
+	/**
+	 * Processes a single partition into its run, deleting the partition.
+	 */
+	private Path sortPartition(final int partition, final Leftovers leftovers) throws IOException {
+		final Path file = partitionFile(partition);
+		final Partition drivers = new Partition(this.commands, partitionOptions());
+
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+			drivers.read(in);
+		}
+
+		Files.delete(file);
+		drivers.reprocess(leftovers);
+
+		drivers.unregistered.values().forEach(
+				driver -> LOGGER.warn("trips found for a driver that was never registered: {}", driver.getName()));
+
+		final Path run = runFile(partition);
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(run), BUFFER_SIZE))) {
+			drivers.writeRun(out);
+		}
+
+		if (this.options.isSpeedPercentiles()) {
+			final SpeedSketch speeds = new SpeedSketch();
+			drivers.drivers.values().forEach(driver -> speeds.merge(driver.getDrivingSummary().getSpeeds()));
+
+			synchronized (this.speeds) {
+				this.speeds.merge(speeds);
+			}
+		}
+
+		return run;
+	}
+
+	/**
+	 * @return the options of every Driver once spilled, which only keeps a
+	 *         streamed summary
+	 */
+	private DriverOptions partitionOptions() {
+		return DriverOptions.STREAMING.withHourlySummary(this.options.isHourlySummary())
+				.withSpeedPercentiles(this.options.isSpeedPercentiles());
+	}
+
+	private Path partitionFile(final int partition) {
+		return this.spill.resolve("partition-" + partition);
+	}
+
+	private Path runFile(final int partition) {
+		return this.spill.resolve("run-" + partition);
+	}
+
+	/**
+	 * Deletes every partition and run spilled so far, and their directory,
+	 * once ingesting or sorting has failed. A file that cannot be deleted is
+	 * only logged, so that the failure itself is not hidden.
+	 */
+	private void deleteSpill() {
+
+		if (this.spill == null) {
+			return;
+		}
+
+		try {
+			for (int partition = 0; partition < this.partitions; partition++) {
+				Files.deleteIfExists(partitionFile(partition));
+				Files.deleteIfExists(runFile(partition));
+			}
+
+			Files.deleteIfExists(this.spill);
+		} catch (IOException e) {
+			LOGGER.warn("could not delete everything spilled to {}", this.spill, e);
+		}
+	}
+
+	private static void awaitTermination(final ExecutorService pool) {
+
+		try {
+			pool.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private int partitionOf(final int hash) {
+		// THE HIGH BITS OF A FIBONACCI HASH, SO THAT THE LOW BITS PROBED BY EACH PARTITION'S INDEX STAY SPREAD
+		return (int) (((hash * 0x9E3779B9L) & 0xFFFFFFFFL) * this.partitions >>> Integer.SIZE);
+	}
+
+	/**
+	 * @return the partition of the Driver named by the rest of a
+	 *         {@link Action#DRIVER} line, or by the second word of any other
+	 *         {@code line}; the first partition if there is none
+	 */
+	private int partitionOf(final String line) {
+		final int start = line.indexOf(' ') + 1;
+
+		if (start == 0) {
+			return 0;
+		}
+
+		// A NAME OF SEVERAL WORDS IS REGISTERED WHOLE, SO ITS DRIVER MUST BE PARTITIONED BY ALL OF THEM
+		final int end = isDriverLine(line) ? -1 : line.indexOf(' ', start);
+
+		return partitionOf(DriverIndex.toKey(line.substring(start, end < 0 ? line.length() : end)).hashCode());
+	}
+
+	private int partitionOf(final ByteBuffer buffer, final int from, final int to) {
+		final int space = Lines.indexOf(buffer, from, to, (byte) ' ');
+
+		if (space < 0) {
+			return 0;
+		}
+
+		final int end = isDriverLine(buffer, from, to) ? -1 : Lines.indexOf(buffer, space + 1, to, (byte) ' ');
+
+		return partitionOf(DriverIndex.hashOf(buffer, space + 1, end < 0 ? to : end));
+	}
+
+	private static boolean isDriverLine(final String line) {
+		final String command = Action.DRIVER.getCommand();
+
+		return line.indexOf(' ') == command.length() && line.regionMatches(true, 0, command, 0, command.length());
+	}
+
+	private static boolean isDriverLine(final ByteBuffer buffer, final int from, final int to) {
+		final int space = Lines.indexOf(buffer, from, to, (byte) ' ');
+
+		return space >= 0 && Lines.equalsIgnoreCase(buffer, from, space, Action.DRIVER.getCommand());
+	}
+
+	private long driverBytes() {
+		return DRIVER_BYTES + (this.options.isHourlySummary() ? HOURLY_BYTES : 0)
+				+ (this.options.isSpeedPercentiles() ? SPEEDS_BYTES : 0);
+	}
+
+	private long tripBytes() {
+		return this.options.isStreaming() ? 0 : this.options.isColumnar() ? COLUMNAR_TRIP_BYTES : TRIP_BYTES;
+	}
+
+	private static void writeDriver(final DataOutputStream out, final Driver driver) throws IOException {
+		final DrivingSummary summary = driver.getDrivingSummary();
+
+		writeString(out, driver.getName());
+		out.writeLong(summary.getScaledTotalDistance());
+		out.writeLong(summary.getTotalDuration());
+
+		if (summary.isHourly()) {
+			for (int hour = 0; hour < DrivingSummary.HOURS; hour++) {
+				out.writeLong(summary.getScaledHourlyDistance(hour));
+				out.writeLong(summary.getHourlyDuration(hour));
+			}
+		}
+
+		if (summary.hasSpeeds()) {
+			final SpeedSketch speeds = summary.getSpeeds();
+			int buckets = 0;
+
+			for (int bucket = 0; bucket < SpeedSketch.BUCKETS; bucket++) {
+				buckets += speeds.getBucketCount(bucket) > 0 ? 1 : 0;
+			}
+
+			// ONLY THE BUCKETS HOLDING ANY SPEED, AS MOST DRIVERS DRIVE AT A FEW SPEEDS
+			out.writeShort(buckets);
+
+			for (int bucket = 0; bucket < SpeedSketch.BUCKETS; bucket++) {
+
+				if (speeds.getBucketCount(bucket) > 0) {
+					out.writeShort(bucket);
+					out.writeInt(speeds.getBucketCount(bucket));
+				}
+			}
+		}
+	}
+
+	private static Driver readDriver(final DataInputStream in, final DriverOptions options) throws IOException {
+		final Driver driver = new Driver(readString(in), options);
+		final DrivingSummary summary = driver.getDrivingSummary();
+		summary.addTripInfo(in.readLong(), in.readLong());
+
+		if (summary.isHourly()) {
+			for (int hour = 0; hour < DrivingSummary.HOURS; hour++) {
+				summary.addHourlyInfo(hour, in.readLong(), in.readLong());
+			}
+		}
+
+		if (summary.hasSpeeds()) {
+			final SpeedSketch speeds = summary.getSpeeds();
+
+			for (int buckets = in.readShort(); buckets > 0; buckets--) {
+				speeds.addToBucket(in.readShort(), in.readInt());
+			}
+		}
+
+		return driver;
+	}
+
+	private static void writeString(final DataOutputStream out, final String value) throws IOException {
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(final DataInputStream in) throws IOException {
+		final byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Dispatches each line while what is held fits in the budget, and spills
+	 * everything to the partitions once it does not.
+	 */
+	private class BudgetedDispatcher implements LineHandler, Closeable {
+		private final Map<String, Driver> drivers;
+		private final Map<String, Driver> unregistered;
+		private final List<String> toReprocess;
+		private LineDispatcher dispatcher;
+		private long lines;
+		private int pending;
+		private long pendingBytes;
+
+		/** The partition files; {@code null} until spilled **/
+		private DataOutputStream[] outputs;
+
+		/** The position of the next record spilled **/
+		private long position;
+		private byte[] scratch = new byte[256];
+
+		BudgetedDispatcher(final Map<String, Driver> drivers, final Map<String, Driver> unregistered,
+				final List<String> toReprocess) {
+			this.drivers = drivers;
+			this.unregistered = unregistered;
+			this.toReprocess = toReprocess;
+			this.dispatcher = new LineDispatcher(SpillingEngine.this.commands, drivers, unregistered,
+					SpillingEngine.this.options, toReprocess);
+		}
+
+		@Override
+		public void onLine(final String line) {
+
+			if (this.outputs == null) {
+				this.dispatcher.onLine(line);
+				dispatched();
+			} else if (StringUtils.isNotBlank(line)) {
+				final byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+				final int partition = partitionOf(line);
+
+				append(partition, bytes, bytes.length);
+
+				if (isDriverLine(line)) {
+					SpillingEngine.this.estimates[partition] += driverBytes();
+				}
+			}
+		}
+
+		@Override
+		public void onLine(final ByteBuffer buffer, final int from, final int to) {
+
+			if (this.outputs == null) {
+				this.dispatcher.onLine(buffer, from, to);
+				dispatched();
+			} else if (!Lines.isBlank(buffer, from, to)) {
+				final int length = to - from;
+				final int partition = partitionOf(buffer, from, to);
+
+				if (this.scratch.length < length) {
+					this.scratch = new byte[Math.max(length, this.scratch.length * 2)];
+				}
+
+				for (int i = 0; i < length; i++) {
+					this.scratch[i] = buffer.get(from + i);
+				}
+
+				append(partition, this.scratch, length);
+
+				if (isDriverLine(buffer, from, to)) {
+					SpillingEngine.this.estimates[partition] += driverBytes();
+				}
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+
+			if (this.outputs != null) {
+				// SOME MAY NOT HAVE BEEN OPENED, SHOULD SPILLING HAVE FAILED
+				for (final DataOutputStream out : this.outputs) {
+					if (out != null) {
+						out.close();
+					}
+				}
+			}
+		}
+
+		private void dispatched() {
+
+			for (; this.pending < this.toReprocess.size(); this.pending++) {
+				this.pendingBytes += LINE_BYTES + 2L * this.toReprocess.get(this.pending).length();
+			}
+
+			if (++this.lines % CHECK_INTERVAL == 0 && estimate() > SpillingEngine.this.budget) {
+				spill();
+			}
+		}
+
+		private long estimate() {
+			return (this.drivers.size() + this.unregistered.size()) * driverBytes() + this.lines * tripBytes()
+					+ this.pendingBytes;
+		}
+
+		private void spill() {
+			final long[] estimates = new long[SpillingEngine.this.partitions];
+
+			try {
+				SpillingEngine.this.spill = Files.createTempDirectory(SpillingEngine.this.directory, "spill");
+				LOGGER.info("about {} bytes held over a budget of {}, spilling {} drivers to {} partitions in {}",
+						estimate(), SpillingEngine.this.budget, this.drivers.size(), SpillingEngine.this.partitions,
+						SpillingEngine.this.spill);
+
+				this.outputs = new DataOutputStream[SpillingEngine.this.partitions];
+
+				for (int partition = 0; partition < this.outputs.length; partition++) {
+					this.outputs[partition] = new DataOutputStream(new BufferedOutputStream(
+							Files.newOutputStream(partitionFile(partition)), BUFFER_SIZE));
+				}
+
+				// IN REGISTRATION ORDER, SO THAT POSITIONS KEEP IT
+				for (final Map.Entry<String, Driver> entry : this.drivers.entrySet()) {
+					final int partition = partitionOf(entry.getKey().hashCode());
+
+					this.outputs[partition].writeByte(REGISTERED);
+					this.outputs[partition].writeLong(this.position++);
+					writeDriver(this.outputs[partition], entry.getValue().aggregateTrips());
+					estimates[partition] += driverBytes();
+				}
+
+				for (final Map.Entry<String, Driver> entry : this.unregistered.entrySet()) {
+					final int partition = partitionOf(entry.getKey().hashCode());
+
+					this.outputs[partition].writeByte(UNREGISTERED);
+					writeDriver(this.outputs[partition], entry.getValue().aggregateTrips());
+					estimates[partition] += driverBytes();
+				}
+
+				for (final String line : this.toReprocess) {
+					final int partition = partitionOf(line);
+
+					this.outputs[partition].writeByte(PENDING);
+					this.outputs[partition].writeLong(this.position++);
+					writeString(this.outputs[partition], line);
+					estimates[partition] += LINE_BYTES + 2L * line.length();
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			SpillingEngine.this.estimates = estimates;
+
+			// EVERYTHING HELD NOW LIVES IN ITS PARTITION
+			this.drivers.clear();
+			this.unregistered.clear();
+			this.toReprocess.clear();
+			this.dispatcher = null;
+		}
+
+		private void append(final int partition, final byte[] line, final int length) {
+
+			try {
+				this.outputs[partition].writeByte(LINE);
+				this.outputs[partition].writeLong(this.position++);
+				this.outputs[partition].writeInt(length);
+				this.outputs[partition].write(line, 0, length);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * The Drivers of a single partition, each with its sort key: the
+	 * reprocess pass and the position of the line that registered it.
+	 */
+	private static final class Partition {
+		private final CommandTable commands;
+		private final DriverOptions options;
+		private final DriverIndex drivers = new DriverIndex();
+		private final Map<String, Driver> unregistered = new LinkedHashMap<>();
+
+		/** The sort key of each Driver, in registration order **/
+		private long[] keys = new long[16];
+		private int registered;
+
+		/** The lines waiting to be reprocessed, and the position of each **/
+		private List<String> pending = new ArrayList<>();
+		private long[] positions = new long[16];
+		private int positioned;
+
+		Partition(final CommandTable commands, final DriverOptions options) {
+			this.commands = commands;
+			this.options = options;
+		}
+
+		void read(final DataInputStream in) throws IOException {
+			final LineDispatcher dispatcher = new LineDispatcher(this.commands, this.drivers, this.unregistered,
+					this.options, this.pending);
+			byte[] line = new byte[256];
+			ByteBuffer buffer = ByteBuffer.wrap(line);
+
+			for (int record; (record = in.read()) >= 0;) {
+
+				if (record == REGISTERED) {
+					final long position = in.readLong();
+					final Driver driver = readDriver(in, this.options);
+
+					this.drivers.put(DriverIndex.toKey(driver.getName()), driver);
+					registered(0, position);
+				} else if (record == UNREGISTERED) {
+					final Driver driver = readDriver(in, this.options);
+
+					this.unregistered.put(DriverIndex.toKey(driver.getName()), driver);
+				} else if (record == PENDING) {
+					final long position = in.readLong();
+
+					this.pending.add(readString(in));
+					queued(position);
+				} else if (record == LINE) {
+					final long position = in.readLong();
+					final int length = in.readInt();
+
+					if (line.length < length) {
+						line = new byte[Math.max(length, line.length * 2)];
+						buffer = ByteBuffer.wrap(line);
+					}
+
+					in.readFully(line, 0, length);
+					dispatcher.onLine(buffer, 0, length);
+					queued(position);
+					registered(0, position);
+				} else {
+					throw new IOException("corrupt partition: unknown record " + record);
+				}
+			}
+		}
+
+		/**
+		 * Reprocesses the lines waiting to be, as {@link IngestEngine}'s
+		 * caller does, keeping the position of each line.
+		 */
+		void reprocess(final Leftovers leftovers) {
+			int pass = 0;
+
+			while (!this.pending.isEmpty() && pass < this.commands.size()) {
+				final List<String> remaining = this.pending;
+				final long[] positions = this.positions;
+				pass++;
+
+				this.pending = new ArrayList<>();
+				this.positions = new long[16];
+				this.positioned = 0;
+
+				final LineDispatcher dispatcher = new LineDispatcher(this.commands, this.drivers, this.unregistered,
+						this.options, this.pending);
+
+				for (int i = 0; i < remaining.size(); i++) {
+					dispatcher.onLine(remaining.get(i));
+					queued(positions[i]);
+					registered(pass, positions[i]);
+				}
+			}
+
+			leftovers.passes.accumulateAndGet(pass, Math::max);
+
+			if (!this.pending.isEmpty()) {
+				leftovers.lines.addAndGet(this.pending.size());
+				leftovers.example.compareAndSet(null, this.pending.get(0));
+			}
+		}
+
+		void writeRun(final DataOutputStream out) throws IOException {
+			final Ranked[] sorted = new Ranked[this.drivers.size()];
+			int i = 0;
+
+			for (final Driver driver : this.drivers.values()) {
+				sorted[i] = new Ranked(driver, this.keys[i]);
+				i++;
+			}
+
+			Arrays.sort(sorted);
+			out.writeInt(sorted.length);
+
+			for (final Ranked ranked : sorted) {
+				out.writeLong(ranked.key);
+				writeDriver(out, ranked.driver.aggregateTrips());
+			}
+		}
+
+		/**
+		 * Keys every Driver registered since the last call on the line at
+		 * {@code position}.
+		 */
+		private void registered(final int pass, final long position) {
+
+			if (this.keys.length < this.drivers.size()) {
+				this.keys = Arrays.copyOf(this.keys, Math.max(this.drivers.size(), this.keys.length * 2));
+			}
+
+			for (; this.registered < this.drivers.size(); this.registered++) {
+				this.keys[this.registered] = ((long) pass << POSITION_BITS) | position;
+			}
+		}
+
+		/**
+		 * Positions every line queued since the last call at
+		 * {@code position}.
+		 */
+		private void queued(final long position) {
+
+			for (; this.positioned < this.pending.size(); this.positioned++) {
+
+				if (this.positioned == this.positions.length) {
+					this.positions = Arrays.copyOf(this.positions, this.positioned * 2);
+				}
+
+				this.positions[this.positioned] = position;
+			}
+		}
+	}
+
+	/**
+	 * A Driver with its sort key, ordered as in the report, then by key.
+	 */
+	private static final class Ranked implements Comparable<Ranked> {
+		private final Driver driver;
+		private final long key;
+
+		Ranked(final Driver driver, final long key) {
+			this.driver = driver;
+			this.key = key;
+		}
+
+		@Override
+		public int compareTo(final Ranked other) {
+			final int order = this.driver.compareTo(other.driver);
+
+			return order != 0 ? order : Long.compare(this.key, other.key);
+		}
+	}
+
+	/**
+	 * Reads the Drivers of a sorted run, one at a time.
+	 */
+	private static final class Run implements Comparable<Run>, Closeable {
+		private final DataInputStream in;
+		private final DriverOptions options;
+		private int remaining;
+		private Ranked head;
+
+		Run(final Path run, final DriverOptions options) throws IOException {
+			this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), BUFFER_SIZE));
+			this.options = options;
+			this.remaining = this.in.readInt();
+		}
+
+		/**
+		 * @return whether or not there was another Driver to read into the
+		 *         head of this run
+		 */
+		boolean advance() throws IOException {
+
+			if (this.remaining == 0) {
+				return false;
+			}
+
+			this.remaining--;
+			final long key = this.in.readLong();
+			this.head = new Ranked(readDriver(this.in, this.options), key);
+
+			return true;
+		}
+
+		@Override
+		public int compareTo(final Run other) {
+			return this.head.compareTo(other.head);
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.in.close();
+		}
+	}
+
+	/**
+	 * What is left over once every partition is reprocessed.
+	 */
+	private static final class Leftovers {
+		private final AtomicInteger passes = new AtomicInteger();
+		private final AtomicLong lines = new AtomicLong();
+		private final AtomicReference<String> example = new AtomicReference<>();
+	}
+}
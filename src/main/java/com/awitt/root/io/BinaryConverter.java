@@ -0,0 +1,197 @@
+package com.awitt.root.io;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+import com.awitt.root.actions.Action;
+import com.awitt.root.actions.Command;
+import com.awitt.root.actions.CommandTable;
+import com.awitt.root.model.DriverIndex;
+import com.awitt.root.model.Trip;
+
+/**
+ * {@link LineHandler} that converts each line of Driver data to its records
+ * in the {@link BinaryFormat}. Only {@link Action#DRIVER} and
+ * {@link Action#TRIP} lines can be converted; a Trip is validated when it is
+ * processed, not when it is converted. As a record only holds the minutes of
+ * a Trip, a Trip whose times have seconds, which processing the text would
+ * keep, cannot be converted.
+ * <p>
+ * A line that cannot be handled is reported with the same exception as when
+ * it is processed; an {@link IOException} while writing is rethrown as an
+ * {@link UncheckedIOException}.
+ */
+public class BinaryConverter implements LineHandler, Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final DataOutputStream out;
+	private final CommandTable commands = CommandTable.withActions();
+	private final TripLineParser parser = new TripLineParser();
+	private final Map<String, Integer> ids = new HashMap<>();
+	private long records;
+
+	/**
+	 * Writes the header of the {@link BinaryFormat} to {@code out}.
+	 *
+	 * @param out
+	 *            the {@link OutputStream} to which records are written; closed
+	 *            when this converter is
+	 */
+	public BinaryConverter(final OutputStream out) throws IOException {
+		Validate.notNull(out, "out cannot be null");
+
+		this.out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+		this.out.writeInt(BinaryFormat.MAGIC);
+		this.out.writeInt(BinaryFormat.VERSION);
+	}
+
+	/**
+	 * Converts every line of {@code source}.
+	 *
+	 * @return the number of records written so far
+	 */
+	public long convert(final LineSource source) throws IOException {
+		Validate.notNull(source, "source cannot be null");
+
+		try {
+			source.forEachLine(this);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		return this.ids.size() + this.records;
+	}
+
+	@Override
+	public void onLine(final String line) {
+
+		if (StringUtils.isNotBlank(line)) {
+			final byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+			onLine(ByteBuffer.wrap(bytes), 0, bytes.length);
+		}
+	}
+
+	@Override
+	public void onLine(final ByteBuffer buffer, final int from, final int to) {
+
+		if (Lines.isBlank(buffer, from, to)) {
+			return;
+		}
+
+		final Command command = this.commands.get(buffer, from, to);
+
+		try {
+			if (command == Action.TRIP) {
+				writeTrip(buffer, from, to);
+			} else if (command == Action.DRIVER) {
+				final int space = Lines.indexOf(buffer, from, to, (byte) ' ');
+				final String name = Lines.toString(buffer, space < 0 ? from : space + 1, to);
+
+				writeName(BinaryFormat.DRIVER, idOf(name), name);
+			} else {
+				throw new IllegalArgumentException("Unexpected command: " + Lines.toString(buffer, from, to));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		this.records++;
+	}
+
+	private void writeTrip(final ByteBuffer buffer, final int from, final int to) throws IOException {
+		final int id;
+		final int startMinute;
+		final int endMinute;
+		final long distance;
+
+		if (this.parser.parse(buffer, from, to)) {
+			id = idOf(Lines.toString(buffer, this.parser.getNameFrom(), this.parser.getNameTo()));
+			startMinute = this.parser.getStartMinute();
+			endMinute = this.parser.getEndMinute();
+			distance = this.parser.getDistance();
+		} else {
+			// ANYTHING OTHER THAN A CANONICAL TRIP LINE IS LEFT TO THE STRING PARSING
+			final String line = Lines.toString(buffer, from, to);
+			final String[] metrics = line.split(" ");
+
+			if (metrics.length != 5) {
+				throw new RuntimeException("Trip data in an unexpected format: " + line);
+			}
+
+			final Trip trip;
+
+			try {
+				trip = new Trip(metrics[2], metrics[3], metrics[4]);
+			} catch (DateTimeParseException | NumberFormatException e) {
+				throw new RuntimeException("Trip data in an unexpected format: " + line, e);
+			}
+
+			// A RECORD ONLY HOLDS MINUTES, AND DROPPING THE SECONDS WOULD CHANGE THE TOTALS OF THE TEXT
+			if (trip.getStart().toSecondOfDay() % 60 != 0 || trip.getStart().getNano() != 0
+					|| trip.getEnd().toSecondOfDay() % 60 != 0 || trip.getEnd().getNano() != 0) {
+				throw new IllegalArgumentException("Trip times with seconds cannot be converted: " + line);
+			}
+
+			id = idOf(metrics[1]);
+			startMinute = trip.getStart().toSecondOfDay() / 60;
+			endMinute = trip.getEnd().toSecondOfDay() / 60;
+			distance = Trip.toFixedPoint(trip.getDistance());
+		}
+
+		this.out.writeByte(BinaryFormat.TRIP);
+		this.out.writeInt(id);
+		this.out.writeShort(startMinute);
+		this.out.writeShort(endMinute);
+		this.out.writeLong(distance);
+	}
+
+	/**
+	 * @return the id of the lower-cased {@code name}, first writing its
+	 *         {@link BinaryFormat#NAME} record if it is new
+	 */
+	private int idOf(final String name) throws IOException {
+		final String key = DriverIndex.toKey(name);
+		final Integer id = this.ids.get(key);
+
+		if (id != null) {
+			return id;
+		}
+
+		final int newId = this.ids.size();
+		writeName(BinaryFormat.NAME, newId, key);
+		this.ids.put(key, newId);
+
+		return newId;
+	}
+
+	private void writeName(final byte tag, final int id, final String name) throws IOException {
+		final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+
+		if (bytes.length > BinaryFormat.MAX_NAME_BYTES) {
+			throw new IllegalArgumentException("name longer than " + BinaryFormat.MAX_NAME_BYTES + " bytes: " + name);
+		}
+
+		this.out.writeByte(tag);
+		this.out.writeInt(id);
+		this.out.writeShort(bytes.length);
+		this.out.write(bytes);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.out.close();
+	}
+}
@@ -0,0 +1,48 @@
+package com.awitt.root.io;
+
+/**
+ * Layout of the compact binary form of Driver data, written by a
+ * {@link BinaryConverter} so that files processed many times are only parsed
+ * as text once. Every value is big-endian.
+ * <p>
+ * A file starts with {@link #MAGIC} and {@link #VERSION}, each an
+ * {@code int}, followed by records that each start with a one byte tag:
+ * <ul>
+ * <li>{@link #NAME}: an {@code int} id, then an unsigned {@code short} length
+ * and that many UTF-8 bytes of a lower-cased driver name. Ids are given out
+ * in order from {@code 0}, and an id's NAME comes before any other record
+ * using it.</li>
+ * <li>{@link #DRIVER}: an {@code int} id, then an unsigned {@code short}
+ * length and that many UTF-8 bytes of the name of the registered Driver, as
+ * written in its {@code Driver} line.</li>
+ * <li>{@link #TRIP}: an {@code int} id, the {@code short} start and end
+ * minutes of the day, then the {@code long} distance in
+ * {@link com.awitt.root.model.Trip#DISTANCE_SCALE millionths of a mile}; a
+ * fixed {@link #TRIP_BYTES} bytes in all.</li>
+ * </ul>
+ */
+public final class BinaryFormat {
+
+	/** {@code RDBI} **/
+	public static final int MAGIC = 0x52444249;
+	public static final int VERSION = 1;
+
+	/** The bytes of the magic number and version that start a file **/
+	public static final int HEADER_BYTES = 8;
+
+	public static final byte NAME = 1;
+	public static final byte DRIVER = 2;
+	public static final byte TRIP = 3;
+
+	/** The bytes of a {@link #TRIP} record, including its tag **/
+	public static final int TRIP_BYTES = 1 + 4 + 2 + 2 + 8;
+
+	/** The bytes of a {@link #NAME} or {@link #DRIVER} record before its name **/
+	public static final int NAME_HEADER_BYTES = 1 + 4 + 2;
+
+	/** The longest name, in UTF-8 bytes **/
+	public static final int MAX_NAME_BYTES = 0xFFFF;
+
+	private BinaryFormat() {
+	}
+}
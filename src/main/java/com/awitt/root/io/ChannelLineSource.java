@@ -0,0 +1,77 @@
+package com.awitt.root.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * {@link LineSource} that reads the lines in a range of bytes of a
+ * {@link FileChannel} using positional reads, so that many ranges of the same
+ * channel can be read concurrently. The range is expected to start at the
+ * beginning of a line and to end just after a line terminator, or at the end
+ * of the file.
+ */
+public class ChannelLineSource implements LineSource {
+
+	private final FileChannel channel;
+	private final long start;
+	private final long end;
+
+	/**
+	 * @param channel
+	 *            the {@link FileChannel} from which to read lines
+	 * @param start
+	 *            the position of the first byte to read, inclusive
+	 * @param end
+	 *            the position at which to stop reading, exclusive
+	 */
+	public ChannelLineSource(final FileChannel channel, final long start, final long end) {
+		Validate.notNull(channel, "channel cannot be null");
+		Validate.isTrue(start >= 0 && start <= end, "invalid range: [%s, %s)", start, end);
+
+		this.channel = channel;
+		this.start = start;
+		this.end = end;
+	}
+
+	@Override
+	public void forEachLine(final LineHandler handler) throws IOException {
+		new StreamLineSource(new RangeInputStream()).forEachLine(handler);
+	}
+
+	/**
+	 * Reads {@code [start, end)} of the channel without changing its
+	 * position.
+	 */
+	private class RangeInputStream extends InputStream {
+
+		private long position = ChannelLineSource.this.start;
+
+		@Override
+		public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+			final long remaining = ChannelLineSource.this.end - this.position;
+
+			if (remaining <= 0) {
+				return -1;
+			}
+
+			final ByteBuffer target = ByteBuffer.wrap(bytes, offset, (int) Math.min(length, remaining));
+			final int read = ChannelLineSource.this.channel.read(target, this.position);
+
+			if (read > 0) {
+				this.position += read;
+			}
+
+			return read;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final byte[] single = new byte[1];
+			return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+		}
+	}
+}
@@ -0,0 +1,330 @@
+package com.awitt.root.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverIndex;
+import com.awitt.root.model.DriverOptions;
+import com.awitt.root.model.DrivingSummary;
+
+/**
+ * Snapshot of the state of processing a file of Driver data with
+ * {@link DriverOptions#STREAMING streaming} options, from which processing can
+ * resume: every registered {@link Driver}, in registration order, with the
+ * totals of its {@link DrivingSummary}, the totals of the Trips read for each
+ * Driver not registered yet, every line still waiting to be reprocessed, the
+ * offset in the file of the first line not yet processed, and the size and
+ * file key of the file, so that the checkpoint is not resumed against a
+ * file that was since truncated or replaced.
+ * <p>
+ * Checkpoints are {@link #write(Path) written} in a compact binary format to a
+ * temporary file that then replaces the checkpoint file, so that a checkpoint
+ * file is always complete. The format is:
+ * 
+ * <pre>
+ * int    magic, "RDCP"
+ * int    version
+ * long   offset
+ * long   size of the file
+ * int    length of the UTF-8 file key, empty where there is none, then the key
+ * int    number of Drivers, then for each
+ *          int     length of the UTF-8 name, then the name
+ *          long    total distance, in millionths of a mile
+ *          long    total duration, in seconds
+ * int    number of unregistered Drivers, then each as above
+ * int    number of pending lines, then for each
+ *          int     length of the UTF-8 line, then the line
+ * </pre>
+ */
+public final class Checkpoint {
+
+	private static final int MAGIC = 0x52444350;
+	private static final int VERSION = 3;
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	private final long offset;
+	private final long size;
+	private final String fileKey;
+	private final Map<String, Driver> drivers;
+	private final Map<String, Driver> unregistered;
+	private final List<String> pending;
+
+	/**
+	 * Creates a checkpoint of the given state, which is not copied, so that
+	 * millions of Drivers can be checkpointed without doubling memory; the
+	 * state must not change until the checkpoint is written.
+	 * 
+	 * @param offset
+	 *            the offset of the first line not yet processed
+	 * @param size
+	 *            the size of the file
+	 * @param fileKey
+	 *            the {@link FileTail#getFileKey() file key} of the file
+	 * @param drivers
+	 *            every registered Driver, keyed on the lower-cased
+	 *            {@link Driver#getName() driver name}, in registration order
+	 * @param unregistered
+	 *            a Driver holding the Trips read for each Driver not
+	 *            registered yet, keyed on the lower-cased driver name
+	 * @param pending
+	 *            every line still waiting to be reprocessed
+	 */
+	public Checkpoint(final long offset, final long size, final String fileKey, final Map<String, Driver> drivers,
+			final Map<String, Driver> unregistered, final List<String> pending) {
+		Validate.isTrue(offset >= 0, "offset cannot be negative");
+		Validate.isTrue(size >= 0, "size cannot be negative");
+		Validate.notNull(fileKey, "fileKey cannot be null");
+		Validate.notNull(drivers, "drivers cannot be null");
+		Validate.notNull(unregistered, "unregistered cannot be null");
+		Validate.notNull(pending, "pending cannot be null");
+
+		this.offset = offset;
+		this.size = size;
+		this.fileKey = fileKey;
+		this.drivers = drivers;
+		this.unregistered = unregistered;
+		this.pending = pending;
+	}
+
+	/**
+	 * Reads a checkpoint previously {@link #write(Path) written}. Every
+	 * Driver is created with {@link DriverOptions#STREAMING streaming}
+	 * options.
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be read or is not a checkpoint
+	 */
+	public static Checkpoint read(final Path file) throws IOException {
+		Validate.notNull(file, "file cannot be null");
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			final Input in = new Input(channel);
+
+			if (in.readInt() != MAGIC) {
+				throw new IOException(file + " is not a checkpoint");
+			}
+
+			final int version = in.readInt();
+
+			if (version != VERSION) {
+				throw new IOException(file + " is a checkpoint of unsupported version " + version);
+			}
+
+			final long offset = in.readLong();
+			final long size = in.readLong();
+			final String fileKey = in.readString();
+			final int driverCount = in.readInt();
+			final DriverIndex drivers = new DriverIndex(driverCount);
+
+			for (int i = 0; i < driverCount; i++) {
+				final Driver driver = in.readDriver();
+				drivers.put(DriverIndex.toKey(driver.getName()), driver);
+			}
+
+			final int unregisteredCount = in.readInt();
+			final Map<String, Driver> unregistered = new LinkedHashMap<>();
+
+			for (int i = 0; i < unregisteredCount; i++) {
+				final Driver driver = in.readDriver();
+				unregistered.put(DriverIndex.toKey(driver.getName()), driver);
+			}
+
+			final int pendingCount = in.readInt();
+			final List<String> pending = new ArrayList<>(pendingCount);
+
+			for (int i = 0; i < pendingCount; i++) {
+				pending.add(in.readString());
+			}
+
+			return new Checkpoint(offset, size, fileKey, drivers, unregistered, pending);
+		}
+	}
+
+	/**
+	 * Writes this checkpoint to a temporary file next to {@code file}, forces
+	 * it to disk, then replaces {@code file} with it.
+	 * 
+	 * @throws IOException
+	 *             if the checkpoint cannot be written
+	 */
+	public void write(final Path file) throws IOException {
+		Validate.notNull(file, "file cannot be null");
+
+		final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+				DataOutputStream out = new DataOutputStream(
+						new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(this.offset);
+			out.writeLong(this.size);
+			writeString(out, this.fileKey);
+			writeDrivers(out, this.drivers);
+			writeDrivers(out, this.unregistered);
+
+			out.writeInt(this.pending.size());
+
+			for (final String line : this.pending) {
+				writeString(out, line);
+			}
+
+			// ON DISK BEFORE IT REPLACES THE CHECKPOINT, SO THAT A CRASH CANNOT LEAVE AN EMPTY ONE
+			out.flush();
+			channel.force(true);
+		}
+
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	public long getOffset() {
+		return this.offset;
+	}
+
+	/**
+	 * @return the size of the file when this checkpoint was taken
+	 */
+	public long getSize() {
+		return this.size;
+	}
+
+	/**
+	 * @return the {@link FileTail#getFileKey() file key} of the file, or an
+	 *         empty String where there was none
+	 */
+	public String getFileKey() {
+		return this.fileKey;
+	}
+
+	/**
+	 * @return every registered {@link Driver}, keyed on the lower-cased
+	 *         {@link Driver#getName() driver name}, in registration order
+	 */
+	public Map<String, Driver> getDrivers() {
+		return this.drivers;
+	}
+
+	/**
+	 * @return a {@link Driver} holding the Trips read for each Driver not
+	 *         registered yet, keyed on the lower-cased driver name
+	 */
+	public Map<String, Driver> getUnregistered() {
+		return this.unregistered;
+	}
+
+	/**
+	 * @return every line still waiting to be reprocessed
+	 */
+	public List<String> getPending() {
+		return this.pending;
+	}
+
+	private static void writeDrivers(final DataOutputStream out, final Map<String, Driver> drivers)
+			throws IOException {
+		out.writeInt(drivers.size());
+
+		for (final Driver driver : drivers.values()) {
+			final DrivingSummary summary = driver.aggregateTrips().getDrivingSummary();
+
+			writeString(out, driver.getName());
+			out.writeLong(summary.getScaledTotalDistance());
+			out.writeLong(summary.getTotalDuration());
+		}
+	}
+
+	private static void writeString(final DataOutputStream out, final String value) throws IOException {
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a checkpoint through a single reusable buffer, refilled as it is
+	 * consumed.
+	 */
+	private static class Input {
+		private final FileChannel channel;
+		private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+		Input(final FileChannel channel) throws IOException {
+			this.channel = channel;
+			this.buffer.flip();
+		}
+
+		int readInt() throws IOException {
+			return require(Integer.BYTES).getInt();
+		}
+
+		long readLong() throws IOException {
+			return require(Long.BYTES).getLong();
+		}
+
+		Driver readDriver() throws IOException {
+			final Driver driver = new Driver(readString(), DriverOptions.STREAMING);
+			driver.getDrivingSummary().addTripInfo(readLong(), readLong());
+
+			return driver;
+		}
+
+		String readString() throws IOException {
+			final int length = readInt();
+
+			if (length < 0) {
+				throw new IOException("corrupt checkpoint: negative length " + length);
+			}
+
+			final ByteBuffer bytes = require(length);
+			final String value = new String(bytes.array(), bytes.position(), length, StandardCharsets.UTF_8);
+			bytes.position(bytes.position() + length);
+
+			return value;
+		}
+
+		/**
+		 * @return the buffer, holding at least {@code bytes} bytes
+		 */
+		private ByteBuffer require(final int bytes) throws IOException {
+
+			if (this.buffer.remaining() >= bytes) {
+				return this.buffer;
+			}
+
+			if (this.buffer.capacity() < bytes) {
+				final ByteBuffer larger = ByteBuffer.allocate(bytes);
+				larger.put(this.buffer);
+				this.buffer = larger;
+			} else {
+				this.buffer.compact();
+			}
+
+			while (this.buffer.position() < bytes) {
+				if (this.channel.read(this.buffer) < 0) {
+					throw new EOFException("checkpoint ends unexpectedly");
+				}
+			}
+
+			this.buffer.flip();
+
+			return this.buffer;
+		}
+	}
+}
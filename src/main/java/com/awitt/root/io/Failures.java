@@ -0,0 +1,34 @@
+package com.awitt.root.io;
+
+import java.io.IOException;
+
+/**
+ * Utility methods for rethrowing the failure of work done on another thread,
+ * such as the cause of an {@link java.util.concurrent.ExecutionException},
+ * in the calling thread.
+ */
+public final class Failures {
+
+	private Failures() {
+	}
+
+	/**
+	 * Rethrows {@code cause} as is if it is an {@link IOException}, a
+	 * {@link RuntimeException} or an {@link Error}, so that callers can write
+	 * {@code throw rethrow(cause)}.
+	 * 
+	 * @return any other, checked, {@code cause} wrapped in an IOException
+	 */
+	public static IOException rethrow(final Throwable cause) throws IOException {
+
+		if (cause instanceof IOException) {
+			throw (IOException) cause;
+		} else if (cause instanceof RuntimeException) {
+			throw (RuntimeException) cause;
+		} else if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+
+		return new IOException(cause);
+	}
+}
@@ -0,0 +1,85 @@
+package com.awitt.root.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Splits a file into ranges of bytes that each begin at the start of a line,
+ * so that each range can be processed on its own.
+ */
+public final class FileChunks {
+
+	private static final int SCAN_BUFFER_SIZE = 1 << 12;
+
+	private FileChunks() {
+	}
+
+	/**
+	 * Splits the {@code channel} into at most {@code count} ranges of roughly
+	 * equal size, moving each boundary forward to just after the next line
+	 * terminator.
+	 * 
+	 * @param channel
+	 *            the {@link FileChannel} of the file to be split
+	 * @param count
+	 *            the desired number of ranges
+	 * @return the ascending boundaries of the ranges, starting with {@code 0}
+	 *         and ending with the size of the file, such that range {@code i}
+	 *         is {@code [boundaries[i], boundaries[i + 1])}
+	 * @throws IOException
+	 *             if something goes wrong while reading the file
+	 */
+	public static long[] split(final FileChannel channel, final int count) throws IOException {
+		Validate.notNull(channel, "channel cannot be null");
+		Validate.isTrue(count > 0, "count must be positive");
+
+		final long size = channel.size();
+		final long[] boundaries = new long[count + 1];
+		final ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		int found = 1;
+
+		for (int i = 1; i < count; i++) {
+			final long boundary = nextLineStart(channel, Math.max(boundaries[found - 1], size / count * i), size,
+					scan);
+
+			// SKIP RANGES THAT WOULD BE EMPTY BECAUSE OF A LONG LINE
+			if (boundary > boundaries[found - 1] && boundary < size) {
+				boundaries[found++] = boundary;
+			}
+		}
+
+		boundaries[found++] = size;
+
+		return Arrays.copyOf(boundaries, found);
+	}
+
+	private static long nextLineStart(final FileChannel channel, final long from, final long size,
+			final ByteBuffer scan) throws IOException {
+
+		// A BOUNDARY JUST AFTER A TERMINATOR IS ALREADY THE START OF A LINE
+		long position = Math.max(from - 1, 0);
+
+		while (position < size) {
+			scan.clear();
+			final int read = channel.read(scan, position);
+
+			if (read <= 0) {
+				break;
+			}
+
+			final int newline = Lines.indexOf(scan, 0, read, (byte) '\n');
+
+			if (newline >= 0) {
+				return position + newline + 1;
+			}
+
+			position += read;
+		}
+
+		return size;
+	}
+}
@@ -0,0 +1,34 @@
+package com.awitt.root.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * {@link LineSource} that opens a file, reads its lines as raw bytes with a
+ * {@link StreamLineSource}, and closes it once every line has been read.
+ */
+public class FileLineSource implements LineSource {
+
+	private final Path file;
+
+	/**
+	 * @param file
+	 *            the file from which to read lines
+	 */
+	public FileLineSource(final Path file) {
+		Validate.notNull(file, "file cannot be null");
+		this.file = file;
+	}
+
+	@Override
+	public void forEachLine(final LineHandler handler) throws IOException {
+
+		try (final InputStream in = Files.newInputStream(this.file)) {
+			new StreamLineSource(in).forEachLine(handler);
+		}
+	}
+}
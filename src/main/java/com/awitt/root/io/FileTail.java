@@ -0,0 +1,206 @@
+package com.awitt.root.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link LineSource} over a file that keeps being appended to. The file is
+ * kept open, and each call to {@link #forEachLine(LineHandler)} only reads
+ * the bytes appended since the previous call, handing every complete line to
+ * the handler. A trailing line that is not yet terminated is held back until
+ * the rest of it arrives.
+ * <p>
+ * If the file shrinks, it is taken to have been truncated and is read again
+ * from its start. This class is not thread-safe.
+ */
+public class FileTail implements LineSource, Closeable {
+	private static final Logger LOGGER = LoggerFactory.getLogger(FileTail.class);
+
+	private final Path file;
+	private final FileChannel channel;
+
+	/** The file key of the file opened, or an empty String where there is none **/
+	private final String fileKey;
+
+	private byte[] bytes = new byte[StreamLineSource.DEFAULT_BUFFER_SIZE];
+	private ByteBuffer buffer = ByteBuffer.wrap(this.bytes);
+
+	/** Bytes of an incomplete line held at the front of the buffer **/
+	private int held;
+
+	/** Offset in the file of the first byte not yet read **/
+	private long readPosition;
+
+	/**
+	 * Opens the {@code file} to be followed from its start.
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be opened
+	 */
+	public FileTail(final Path file) throws IOException {
+		this(file, 0L);
+	}
+
+	/**
+	 * Opens the {@code file} to be followed from the given {@code position}.
+	 * 
+	 * @param position
+	 *            the offset of the first byte to be read, which must be the
+	 *            start of a line
+	 * @throws IOException
+	 *             if the file cannot be opened
+	 */
+	public FileTail(final Path file, final long position) throws IOException {
+		Validate.notNull(file, "file cannot be null");
+		Validate.isTrue(position >= 0, "position cannot be negative");
+
+		this.file = file;
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		this.readPosition = position;
+
+		try {
+			this.fileKey = Objects.toString(Files.readAttributes(file, BasicFileAttributes.class).fileKey(), "");
+		} catch (IOException e) {
+			this.channel.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public void forEachLine(final LineHandler handler) throws IOException {
+		forEachLine(handler, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Reads the lines appended since the previous call, as
+	 * {@link #forEachLine(LineHandler)} does, but stops once at least
+	 * {@code maxBytes} have been read, so that a large file can be processed
+	 * a slice at a time.
+	 * 
+	 * @param handler
+	 *            the {@link LineHandler} to receive each line
+	 * @param maxBytes
+	 *            the number of bytes after which to stop reading, at the end
+	 *            of the buffer being read
+	 * @return whether or not any bytes were read
+	 * @throws IOException
+	 *             if something goes wrong while reading the file
+	 */
+	public boolean forEachLine(final LineHandler handler, final long maxBytes) throws IOException {
+		Validate.notNull(handler, "handler cannot be null");
+		Validate.isTrue(maxBytes > 0, "maxBytes must be positive");
+
+		if (this.channel.size() < this.readPosition) {
+			LOGGER.warn("{} was truncated, reading it again from its start", this.file);
+			this.readPosition = 0;
+			this.held = 0;
+		}
+
+		final long from = this.readPosition;
+		int read;
+
+		while (this.readPosition - from < maxBytes && (read = this.channel
+				.read(ByteBuffer.wrap(this.bytes, this.held, this.bytes.length - this.held), this.readPosition)) > 0) {
+			this.readPosition += read;
+
+			final int limit = this.held + read;
+			final int start = Lines.forEachLine(this.buffer, 0, limit, handler);
+
+			if (start > 0) {
+				// MOVE THE INCOMPLETE LINE TO THE FRONT OF THE BUFFER
+				System.arraycopy(this.bytes, start, this.bytes, 0, limit - start);
+				this.held = limit - start;
+			} else if (limit == this.bytes.length) {
+				// A SINGLE LINE FILLS THE WHOLE BUFFER
+				this.bytes = Arrays.copyOf(this.bytes, this.bytes.length * 2);
+				this.buffer = ByteBuffer.wrap(this.bytes);
+				this.held = limit;
+			} else {
+				this.held = limit;
+			}
+		}
+
+		return this.readPosition > from;
+	}
+
+	/**
+	 * Hands the trailing line held back, if any, to the handler as a complete
+	 * line, for when the file is known to have ended without terminating its
+	 * last line.
+	 * 
+	 * @param handler
+	 *            the {@link LineHandler} to receive the line
+	 * @return whether or not a line was held back
+	 */
+	public boolean forHeldLine(final LineHandler handler) {
+		Validate.notNull(handler, "handler cannot be null");
+
+		if (this.held == 0) {
+			return false;
+		}
+
+		handler.onLine(this.buffer, 0, Lines.trimLineEnd(this.buffer, 0, this.held));
+		this.held = 0;
+
+		return true;
+	}
+
+	/**
+	 * Continues reading from the given {@code position}, discarding any
+	 * incomplete line held back.
+	 * 
+	 * @param position
+	 *            the offset of the next byte to be read, which must be the
+	 *            start of a line
+	 */
+	public void seek(final long position) {
+		Validate.isTrue(position >= 0, "position cannot be negative");
+
+		this.readPosition = position;
+		this.held = 0;
+	}
+
+	/**
+	 * @return the offset in the file just past the last complete line handed
+	 *         to a handler
+	 */
+	public long getPosition() {
+		return this.readPosition - this.held;
+	}
+
+	/**
+	 * @return the size of the file, as it is now
+	 * @throws IOException
+	 *             if the size cannot be read
+	 */
+	public long size() throws IOException {
+		return this.channel.size();
+	}
+
+	/**
+	 * @return the {@link BasicFileAttributes#fileKey() file key} of the file
+	 *         opened, such as its device and inode, to tell it from another
+	 *         file later found at the same path, or an empty String where the
+	 *         file system has none
+	 */
+	public String getFileKey() {
+		return this.fileKey;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+}
@@ -0,0 +1,567 @@
+package com.awitt.root.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link LineSource} that reads a gzip-compressed file as it decompresses it,
+ * without writing the decompressed file anywhere.
+ * <p>
+ * A file made of many gzip members, as written by {@code bgzip} or by
+ * concatenating compressed files, is decompressed on many threads: each
+ * member is decompressed as soon as a thread is free, up to a bounded number
+ * of members and of decompressed bytes ahead of the lines being read, and the
+ * lines of each member are read in file order. Where a member starts is only
+ * known once the previous one has been decompressed, so every offset that
+ * looks like the start of a member is decompressed speculatively, and the
+ * work of one that turns out to be inside another member is discarded.
+ * <p>
+ * Members are looked for at most {@link #SCAN_CHUNKS} chunks of the file at
+ * a time, as the lines are read, rather than across the whole file up front.
+ * With a single thread, or a file of a single member, this is no faster than
+ * a {@link GZIPInputStream}, which is what is used for a parallelism of
+ * {@code 1}, and for a file with no second member in its first
+ * {@link #SCAN_LIMIT} bytes, or however many are given, such as a single
+ * member. These bytes are scanned {@code SCAN_CHUNKS} chunks at a time, up to
+ * the first possible second member, before any is decompressed.
+ */
+public class GzipLineSource implements LineSource {
+	private static final Logger LOGGER = LoggerFactory.getLogger(GzipLineSource.class);
+
+	/** The file name extension of gzip-compressed files **/
+	public static final String EXTENSION = ".gz";
+
+	/** The size, in bytes, of each block of compressed input and of decompressed output **/
+	static final int CHUNK_SIZE = 1 << 16;
+
+	/** The most decompressed chunks held for a member ahead of the lines being read **/
+	static final int CHUNKS_AHEAD = 16;
+
+	/** The most chunks of the file scanned for the start of a member at a time **/
+	static final int SCAN_CHUNKS = 16;
+
+	/** The most bytes of the file scanned for a second member before decompressing it on one thread **/
+	public static final long SCAN_LIMIT = 1L << 26;
+
+	private static final int ID1 = 0x1f;
+	private static final int ID2 = 0x8b;
+	private static final int DEFLATE = 8;
+	private static final int FHCRC = 2;
+	private static final int FEXTRA = 4;
+	private static final int FNAME = 8;
+	private static final int FCOMMENT = 16;
+	private static final int RESERVED_FLAGS = 0xE0;
+
+	private final Path file;
+	private final int parallelism;
+	private final long scanLimit;
+
+	/**
+	 * @param file
+	 *            the gzip-compressed file from which to read lines
+	 * @param parallelism
+	 *            the number of threads decompressing members at once
+	 */
+	public GzipLineSource(final Path file, final int parallelism) {
+		this(file, parallelism, SCAN_LIMIT);
+	}
+
+	/**
+	 * @param file
+	 *            the gzip-compressed file from which to read lines
+	 * @param parallelism
+	 *            the number of threads decompressing members at once
+	 * @param scanLimit
+	 *            the most bytes of the file scanned for a second member, past
+	 *            which the file is decompressed on one thread
+	 */
+	public GzipLineSource(final Path file, final int parallelism, final long scanLimit) {
+		Validate.notNull(file, "file cannot be null");
+		Validate.isTrue(parallelism > 0, "parallelism must be positive");
+		Validate.isTrue(scanLimit > 0, "scanLimit must be positive");
+
+		this.file = file;
+		this.parallelism = parallelism;
+		this.scanLimit = scanLimit;
+	}
+
+	/**
+	 * @return whether or not {@code file} is named as gzip-compressed
+	 */
+	public static boolean isCompressed(final Path file) {
+		return file.getFileName().toString().endsWith(EXTENSION);
+	}
+
+	@Override
+	public void forEachLine(final LineHandler handler) throws IOException {
+		assert handler != null : "handler cannot be null";
+
+		if (this.parallelism == 1 || !hasEarlyMember()) {
+			try (InputStream in = new GZIPInputStream(Files.newInputStream(this.file), CHUNK_SIZE)) {
+				new StreamLineSource(in).forEachLine(handler);
+			}
+
+			return;
+		}
+
+		final ExecutorService pool = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+			final Thread thread = new Thread(runnable, "gzip-member");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ);
+				InputStream in = new Members(channel, pool)) {
+			new StreamLineSource(in).forEachLine(handler);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Scans the first {@code scanLimit} bytes of the file,
+	 * {@link #SCAN_CHUNKS} chunks at a time, stopping at the first possible
+	 * member.
+	 *
+	 * @return whether or not a member may start within the first
+	 *         {@code scanLimit} bytes of the file, after the first member
+	 */
+	boolean hasEarlyMember() throws IOException {
+		final byte[] scanned = new byte[CHUNK_SIZE];
+
+		try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+			final long limit = Math.min(this.scanLimit, channel.size());
+
+			for (long from = 1; from < limit; from += (long) SCAN_CHUNKS * CHUNK_SIZE) {
+				if (findMember(channel, from, Math.min(limit, from + (long) SCAN_CHUNKS * CHUNK_SIZE), scanned) >= 0) {
+					return true;
+				}
+			}
+		}
+
+		LOGGER.info("no second gzip member in the first {} bytes of {}, decompressing it on one thread",
+				this.scanLimit, this.file);
+
+		return false;
+	}
+
+	/**
+	 * Decompressed bytes of every member of the file, in order.
+	 */
+	private final class Members extends InputStream {
+		private final FileChannel channel;
+		private final ExecutorService pool;
+		private final long size;
+		private final Deque<Member> ahead = new ArrayDeque<>();
+		private final byte[] scanned = new byte[CHUNK_SIZE];
+
+		/** Offset from which to look for the next possible member **/
+		private long scanFrom = 1;
+		private Member current;
+		private Chunk chunk;
+		private int position;
+
+		Members(final FileChannel channel, final ExecutorService pool) throws IOException {
+			this.channel = channel;
+			this.pool = pool;
+			this.size = channel.size();
+
+			if (this.size > 0) {
+				this.current = submit(0);
+				fill();
+			}
+		}
+
+		@Override
+		public int read() throws IOException {
+			final byte[] one = new byte[1];
+			return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+		}
+
+		@Override
+		public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+
+			while (this.chunk == null || this.position == this.chunk.length) {
+				if (!nextChunk()) {
+					return -1;
+				}
+			}
+
+			final int read = Math.min(length, this.chunk.length - this.position);
+			System.arraycopy(this.chunk.bytes, this.position, bytes, offset, read);
+			this.position += read;
+
+			return read;
+		}
+
+		private boolean nextChunk() throws IOException {
+
+			if (this.current == null) {
+				return false;
+			}
+
+			final Chunk next;
+
+			try {
+				next = this.current.chunks.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while decompressing");
+			}
+
+			if (next.failure != null) {
+				throw next.failure;
+			} else if (next.end >= 0) {
+				this.current = following(next.end);
+				this.chunk = null;
+			} else {
+				this.chunk = next;
+				this.position = 0;
+				fill();
+			}
+
+			return true;
+		}
+
+		/**
+		 * @return the member starting at {@code end}, where the current
+		 *         member ended, or {@code null} if there is none
+		 */
+		private Member following(final long end) throws IOException {
+
+			// EVERY POSSIBLE MEMBER BEFORE THE END WAS INSIDE THE CURRENT ONE
+			while (!this.ahead.isEmpty() && this.ahead.peekFirst().offset < end) {
+				this.ahead.pollFirst().cancel();
+			}
+
+			this.scanFrom = Math.max(this.scanFrom, end);
+			fill();
+
+			if (!this.ahead.isEmpty() && this.ahead.peekFirst().offset == end) {
+				final Member next = this.ahead.pollFirst();
+				fill();
+				return next;
+			}
+
+			if (end < this.size) {
+				LOGGER.debug("ignoring {} bytes following the last member", this.size - end);
+			}
+
+			return null;
+		}
+
+		/**
+		 * Starts decompressing the possible members following the current
+		 * one, up to twice as many as there are threads, scanning at most
+		 * {@link #SCAN_CHUNKS} chunks past the last one found.
+		 */
+		private void fill() throws IOException {
+
+			while (this.ahead.size() < GzipLineSource.this.parallelism * 2 && this.scanFrom < this.size) {
+				final long to = Math.min(this.size, this.scanFrom + (long) SCAN_CHUNKS * CHUNK_SIZE);
+				final long offset = findMember(this.channel, this.scanFrom, to, this.scanned);
+
+				if (offset < 0) {
+					// SCANNING GOES ON FROM HERE AS MORE OF THE CURRENT MEMBER IS READ
+					this.scanFrom = to;
+					return;
+				}
+
+				this.ahead.addLast(submit(offset));
+				this.scanFrom = offset + 1;
+			}
+		}
+
+		private Member submit(final long offset) {
+			final Member member = new Member(this.channel, offset);
+			this.pool.execute(member);
+			return member;
+		}
+
+		@Override
+		public void close() {
+
+			if (this.current != null) {
+				this.current.cancel();
+			}
+
+			this.ahead.forEach(Member::cancel);
+		}
+	}
+
+	/**
+	 * @param scanned
+	 *            the buffer into which to read the file
+	 * @return the offset of the first possible member starting from
+	 *         {@code from}, inclusive, to {@code to}, exclusive, or {@code -1}
+	 *         if there is none
+	 */
+	private static long findMember(final FileChannel channel, final long from, final long to, final byte[] scanned)
+			throws IOException {
+
+		for (long block = from; block < to; block += scanned.length - 3) {
+			final int read = readFully(channel, block, scanned);
+
+			for (int i = 0; i + 3 < read && block + i < to; i++) {
+				if (isHeader(scanned, i)) {
+					return block + i;
+				}
+			}
+
+			if (read < scanned.length) {
+				break;
+			}
+		}
+
+		return -1;
+	}
+
+	private static boolean isHeader(final byte[] bytes, final int i) {
+		return (bytes[i] & 0xFF) == ID1 && (bytes[i + 1] & 0xFF) == ID2 && bytes[i + 2] == DEFLATE
+				&& (bytes[i + 3] & RESERVED_FLAGS) == 0;
+	}
+
+	/**
+	 * @return the number of bytes read, fewer than {@code bytes.length} only
+	 *         at the end of the file
+	 */
+	private static int readFully(final FileChannel channel, final long offset, final byte[] bytes)
+			throws IOException {
+		final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+		while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) >= 0) {
+			// POSITIONAL READS, SO THAT MANY THREADS CAN SHARE THE CHANNEL
+		}
+
+		return buffer.position();
+	}
+
+	/**
+	 * Decompressed bytes of a member, or how and where it ended.
+	 */
+	private static final class Chunk {
+		final byte[] bytes;
+		final int length;
+		final long end;
+		final IOException failure;
+
+		Chunk(final byte[] bytes, final int length, final long end, final IOException failure) {
+			this.bytes = bytes;
+			this.length = length;
+			this.end = end;
+			this.failure = failure;
+		}
+	}
+
+	/**
+	 * Decompression of the member that may start at an offset.
+	 */
+	private static final class Member implements Runnable {
+		final long offset;
+		final BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(CHUNKS_AHEAD + 1);
+		private final FileChannel channel;
+		private final byte[] input = new byte[CHUNK_SIZE];
+		private long inputOffset;
+		private int inputPosition;
+		private int inputLimit;
+
+		/** Set rather than interrupting, which would close the shared channel **/
+		private volatile boolean cancelled;
+
+		Member(final FileChannel channel, final long offset) {
+			this.channel = channel;
+			this.offset = offset;
+			this.inputOffset = offset;
+		}
+
+		void cancel() {
+			this.cancelled = true;
+		}
+
+		@Override
+		public void run() {
+			final Inflater inflater = new Inflater(true);
+
+			try {
+				Chunk last;
+
+				try {
+					last = new Chunk(null, 0, inflate(inflater), null);
+				} catch (IOException e) {
+					last = new Chunk(null, 0, -1, e);
+				}
+
+				deliver(last);
+			} catch (CancellationException e) {
+				// NOBODY IS WAITING FOR WHAT IS LEFT
+			} finally {
+				inflater.end();
+			}
+		}
+
+		/**
+		 * Waits for room for the {@code chunk} among the chunks ahead of the
+		 * lines being read.
+		 *
+		 * @throws CancellationException
+		 *             if this member was cancelled meanwhile
+		 */
+		private void deliver(final Chunk chunk) {
+
+			try {
+				while (!this.chunks.offer(chunk, 10, TimeUnit.MILLISECONDS)) {
+					if (this.cancelled) {
+						throw new CancellationException();
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CancellationException();
+			}
+		}
+
+		/**
+		 * @return the offset following the member's trailer
+		 */
+		private long inflate(final Inflater inflater) throws IOException {
+			readHeader();
+
+			final CRC32 crc = new CRC32();
+			long total = 0;
+
+			try {
+				while (!inflater.finished()) {
+					if (this.cancelled) {
+						throw new CancellationException();
+					}
+
+					if (inflater.needsInput()) {
+						if (this.inputPosition == this.inputLimit && !refill()) {
+							throw new ZipException("unexpected end of member at " + this.offset);
+						}
+
+						inflater.setInput(this.input, this.inputPosition, this.inputLimit - this.inputPosition);
+						this.inputPosition = this.inputLimit;
+					}
+
+					final byte[] output = new byte[CHUNK_SIZE];
+					int length = 0;
+
+					while (length < output.length && !inflater.finished() && !inflater.needsInput()) {
+						length += inflater.inflate(output, length, output.length - length);
+
+						if (inflater.needsDictionary()) {
+							throw new ZipException("member at " + this.offset + " needs a dictionary");
+						}
+					}
+
+					if (length > 0) {
+						crc.update(output, 0, length);
+						total += length;
+						deliver(new Chunk(output, length, -1, null));
+					}
+				}
+			} catch (DataFormatException e) {
+				throw new ZipException("invalid member at " + this.offset + ": " + e.getMessage());
+			}
+
+			// GIVE BACK WHAT FOLLOWS THE COMPRESSED DATA, WHICH IS THE TRAILER
+			this.inputPosition -= inflater.getRemaining();
+
+			if (readInt() != (int) crc.getValue() || readInt() != (int) total) {
+				throw new ZipException("corrupt member at " + this.offset);
+			}
+
+			return this.inputOffset - (this.inputLimit - this.inputPosition);
+		}
+
+		private void readHeader() throws IOException {
+
+			if (readByte() != ID1 || readByte() != ID2 || readByte() != DEFLATE) {
+				throw new ZipException("not a gzip member at " + this.offset);
+			}
+
+			final int flags = readByte();
+
+			// MODIFICATION TIME, EXTRA FLAGS AND OPERATING SYSTEM
+			skip(6);
+
+			if ((flags & FEXTRA) != 0) {
+				skip(readByte() | readByte() << 8);
+			}
+
+			if ((flags & FNAME) != 0) {
+				while (readByte() != 0) {
+					// SKIP THE ORIGINAL FILE NAME
+				}
+			}
+
+			if ((flags & FCOMMENT) != 0) {
+				while (readByte() != 0) {
+					// SKIP THE COMMENT
+				}
+			}
+
+			if ((flags & FHCRC) != 0) {
+				skip(2);
+			}
+		}
+
+		private int readInt() throws IOException {
+			return readByte() | readByte() << 8 | readByte() << 16 | readByte() << 24;
+		}
+
+		private void skip(final int bytes) throws IOException {
+
+			for (int i = 0; i < bytes; i++) {
+				readByte();
+			}
+		}
+
+		private int readByte() throws IOException {
+
+			if (this.inputPosition == this.inputLimit && !refill()) {
+				throw new ZipException("unexpected end of member at " + this.offset);
+			}
+
+			return this.input[this.inputPosition++] & 0xFF;
+		}
+
+		/**
+		 * @return whether or not more input was read; {@code false} only at
+		 *         the end of the file
+		 */
+		private boolean refill() throws IOException {
+			final int read = readFully(this.channel, this.inputOffset, this.input);
+
+			this.inputOffset += read;
+			this.inputPosition = 0;
+			this.inputLimit = read;
+
+			return read > 0;
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package com.awitt.root.io;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Resolves the input paths given to the application, each of which may be a
+ * file, a directory, or a glob pattern, into the files to be processed.
+ */
+public final class InputFiles {
+
+	private static final String GLOB_CHARACTERS = "*?[{";
+
+	private InputFiles() {
+	}
+
+	/**
+	 * Resolves each of the {@code inputs}, in order: a file resolves to
+	 * itself, a directory to the regular files directly within it, and a glob
+	 * pattern, such as {@code logs/*.txt} or {@code logs/**.txt}, to the
+	 * regular files matching it. Files within a directory or matching a
+	 * pattern are sorted by path.
+	 * 
+	 * @param inputs
+	 *            the input paths
+	 * @return the files to be processed
+	 * @throws NoSuchFileException
+	 *             if an input that is not a pattern does not exist, if a
+	 *             directory holds no files, or if a pattern matches no files
+	 * @throws IOException
+	 *             if something goes wrong while listing files
+	 */
+	public static List<Path> resolve(final List<String> inputs) throws IOException {
+		Validate.notEmpty(inputs, "inputs cannot be empty");
+
+		final List<Path> files = new ArrayList<>();
+
+		for (final String input : inputs) {
+			files.addAll(resolve(input));
+		}
+
+		return files;
+	}
+
+	private static List<Path> resolve(final String input) throws IOException {
+
+		if (StringUtils.containsAny(input, GLOB_CHARACTERS)) {
+			return glob(input);
+		}
+
+		final Path path = Paths.get(input);
+
+		if (Files.isDirectory(path)) {
+			final List<Path> files;
+
+			try (final Stream<Path> listing = Files.list(path)) {
+				files = listing.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+			}
+
+			if (files.isEmpty()) {
+				throw new NoSuchFileException(input, null, "no files in directory");
+			}
+
+			return files;
+		} else if (!Files.exists(path)) {
+			throw new NoSuchFileException(input);
+		}
+
+		return Collections.singletonList(path);
+	}
+
+	private static List<Path> glob(final String pattern) throws IOException {
+
+		// WALK FROM THE DEEPEST DIRECTORY THAT IS NOT PART OF THE PATTERN
+		final int firstGlob = StringUtils.indexOfAny(pattern, GLOB_CHARACTERS);
+		final int lastSeparator = Math.max(pattern.lastIndexOf('/', firstGlob),
+				pattern.lastIndexOf('\\', firstGlob));
+		final Path base = Paths.get(lastSeparator < 0 ? "" : pattern.substring(0, lastSeparator + 1));
+		final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+		final List<Path> matches;
+
+		// ONLY ** CROSSES DIRECTORIES, SO NO MATCH LIES DEEPER THAN THE PATTERN'S OWN SEPARATORS
+		final String below = pattern.substring(lastSeparator + 1);
+		final int depth = below.contains("**") ? Integer.MAX_VALUE
+				: StringUtils.countMatches(below, '/') + StringUtils.countMatches(below, '\\') + 1;
+
+		try (final Stream<Path> walk = Files.walk(base.toString().isEmpty() ? Paths.get(".") : base, depth)) {
+			matches = walk.filter(Files::isRegularFile)
+					.map(path -> base.toString().isEmpty() ? Paths.get(".").relativize(path) : path)
+					.filter(matcher::matches).sorted().collect(Collectors.toList());
+		}
+
+		if (matches.isEmpty()) {
+			throw new NoSuchFileException(pattern, null, "no files match");
+		}
+
+		return matches;
+	}
+}
@@ -0,0 +1,31 @@
+package com.awitt.root.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives each line read by a {@link LineSource}, either as a String or as a
+ * slice of raw bytes, depending on what the source has at hand.
+ */
+public interface LineHandler {
+
+	/**
+	 * @param line
+	 *            a line of text, without its line terminator
+	 */
+	void onLine(String line);
+
+	/**
+	 * Handles a line of UTF-8 encoded bytes. The bytes are only valid for the
+	 * duration of this call; implementations must not hold on to
+	 * {@code buffer}.
+	 * 
+	 * @param buffer
+	 *            the buffer holding the line
+	 * @param from
+	 *            the absolute index of the first byte of the line, inclusive
+	 * @param to
+	 *            the absolute index of the end of the line, exclusive, and
+	 *            without its line terminator
+	 */
+	void onLine(ByteBuffer buffer, int from, int to);
+}
@@ -0,0 +1,20 @@
+package com.awitt.root.io;
+
+import java.io.IOException;
+
+/**
+ * A source of lines of Driver data.
+ */
+public interface LineSource {
+
+	/**
+	 * Reads every line of this source, in order, passing each to the
+	 * {@code handler}.
+	 * 
+	 * @param handler
+	 *            the {@link LineHandler} to receive each line
+	 * @throws IOException
+	 *             if something goes wrong while reading this source
+	 */
+	void forEachLine(LineHandler handler) throws IOException;
+}
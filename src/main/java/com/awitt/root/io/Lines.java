@@ -0,0 +1,119 @@
+package com.awitt.root.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Utility methods for working with lines of UTF-8 encoded bytes held in a
+ * {@link ByteBuffer}, all addressed by absolute index so that no buffer state
+ * is changed and nothing is copied.
+ */
+public final class Lines {
+
+	private static final byte LF = '\n';
+	private static final byte CR = '\r';
+
+	private Lines() {
+	}
+
+	/**
+	 * Passes every complete, {@code \n}-terminated line in
+	 * {@code [from, to)} to the {@code handler}, without its line terminator.
+	 * 
+	 * @return the index of the first byte following the last complete line,
+	 *         that is, the start of any incomplete line remaining
+	 */
+	public static int forEachLine(final ByteBuffer buffer, final int from, final int to, final LineHandler handler) {
+		int start = from;
+
+		for (int i = from; i < to; i++) {
+			if (buffer.get(i) == LF) {
+				handler.onLine(buffer, start, trimLineEnd(buffer, start, i));
+				start = i + 1;
+			}
+		}
+
+		return start;
+	}
+
+	/**
+	 * @return the exclusive end of the line {@code [from, to)} once any
+	 *         trailing {@code \r} has been removed
+	 */
+	public static int trimLineEnd(final ByteBuffer buffer, final int from, final int to) {
+		return (to > from && buffer.get(to - 1) == CR) ? to - 1 : to;
+	}
+
+	/**
+	 * @return the index of the first {@code value} in {@code [from, to)}, or
+	 *         {@code -1} if there is none
+	 */
+	public static int indexOf(final ByteBuffer buffer, final int from, final int to, final byte value) {
+		for (int i = from; i < to; i++) {
+			if (buffer.get(i) == value) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @return whether or not {@code [from, to)} contains only whitespace, as
+	 *         defined for ASCII by {@link Character#isWhitespace(char)}
+	 */
+	public static boolean isBlank(final ByteBuffer buffer, final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			if (!Character.isWhitespace(buffer.get(i))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return whether or not {@code [from, to)} is equal to the ASCII
+	 *         {@code text}, ignoring case
+	 */
+	public static boolean equalsIgnoreCase(final ByteBuffer buffer, final int from, final int to,
+			final String text) {
+		if (to - from != text.length()) {
+			return false;
+		}
+
+		for (int i = 0; i < text.length(); i++) {
+			if (toLowerCase(buffer.get(from + i)) != toLowerCase((byte) text.charAt(i))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return {@code value} lower-cased if it is an ASCII upper-case letter,
+	 *         otherwise {@code value} unchanged
+	 */
+	public static byte toLowerCase(final byte value) {
+		return (value >= 'A' && value <= 'Z') ? (byte) (value + ('a' - 'A')) : value;
+	}
+
+	/**
+	 * @return the UTF-8 decoded String of {@code [from, to)}
+	 */
+	public static String toString(final ByteBuffer buffer, final int from, final int to) {
+
+		if (buffer.hasArray()) {
+			return new String(buffer.array(), buffer.arrayOffset() + from, to - from, StandardCharsets.UTF_8);
+		}
+
+		final byte[] bytes = new byte[to - from];
+
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(from + i);
+		}
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
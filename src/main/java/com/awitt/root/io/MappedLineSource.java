@@ -0,0 +1,86 @@
+package com.awitt.root.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * {@link LineSource} that memory-maps a file with
+ * {@link FileChannel#map(MapMode, long, long)} and hands each line to the
+ * {@link LineHandler} as a byte slice of the mapping, so that the file is
+ * neither copied into the heap nor decoded; names are decoded as UTF-8 only
+ * when needed.
+ * <p>
+ * A single mapping cannot exceed 2 GB, so the file is mapped one window at a
+ * time. Each window after the first starts at the beginning of the line that
+ * did not fit in the previous window.
+ */
+public class MappedLineSource implements LineSource {
+
+	/** The default size, in bytes, of each mapped window **/
+	public static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+	private final Path file;
+	private final int windowSize;
+
+	/**
+	 * @param file
+	 *            the file from which to read lines
+	 */
+	public MappedLineSource(final Path file) {
+		this(file, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * @param file
+	 *            the file from which to read lines
+	 * @param windowSize
+	 *            the largest number of bytes to map at once; no line can be
+	 *            longer than this
+	 */
+	public MappedLineSource(final Path file, final int windowSize) {
+		Validate.notNull(file, "file cannot be null");
+		Validate.isTrue(windowSize > 0, "windowSize must be positive");
+
+		this.file = file;
+		this.windowSize = windowSize;
+	}
+
+	@Override
+	public void forEachLine(final LineHandler handler) throws IOException {
+		assert handler != null : "handler cannot be null";
+
+		try (final FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			long position = 0;
+
+			while (position < size) {
+				final int length = (int) Math.min(this.windowSize, size - position);
+				final MappedByteBuffer window = channel.map(MapMode.READ_ONLY, position, length);
+				final int consumed = Lines.forEachLine(window, 0, length, handler);
+
+				if (position + length == size) {
+
+					// THE LAST LINE MAY NOT BE TERMINATED
+					if (consumed < length) {
+						handler.onLine(window, consumed, Lines.trimLineEnd(window, consumed, length));
+					}
+
+					return;
+				}
+
+				if (consumed == 0) {
+					throw new IOException("line at position " + position + " of " + this.file
+							+ " is longer than the window size of " + this.windowSize + " bytes");
+				}
+
+				position += consumed;
+			}
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.awitt.root.io;
+
+import java.io.BufferedReader;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * {@link LineSource} that reads String lines from a {@link BufferedReader}.
+ */
+public class ReaderLineSource implements LineSource {
+
+	private final BufferedReader reader;
+
+	/**
+	 * @param reader
+	 *            the {@link BufferedReader} from which to read lines
+	 */
+	public ReaderLineSource(final BufferedReader reader) {
+		Validate.notNull(reader, "reader cannot be null");
+		this.reader = reader;
+	}
+
+	@Override
+	public void forEachLine(final LineHandler handler) {
+		assert handler != null : "handler cannot be null";
+		this.reader.lines().forEach(handler::onLine);
+	}
+}
@@ -0,0 +1,77 @@
+package com.awitt.root.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * {@link LineSource} that reads raw UTF-8 bytes from an {@link InputStream}
+ * into a single reusable buffer, handing each line to the {@link LineHandler}
+ * as a byte slice of that buffer. No String is created for a line unless the
+ * handler creates one.
+ */
+public class StreamLineSource implements LineSource {
+
+	/** The default size, in bytes, of the read buffer **/
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+	private final InputStream in;
+	private final int bufferSize;
+
+	/**
+	 * @param in
+	 *            the {@link InputStream} from which to read lines
+	 */
+	public StreamLineSource(final InputStream in) {
+		this(in, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * @param in
+	 *            the {@link InputStream} from which to read lines
+	 * @param bufferSize
+	 *            the initial size, in bytes, of the read buffer; it grows if a
+	 *            single line does not fit
+	 */
+	public StreamLineSource(final InputStream in, final int bufferSize) {
+		Validate.notNull(in, "in cannot be null");
+		Validate.isTrue(bufferSize > 0, "bufferSize must be positive");
+
+		this.in = in;
+		this.bufferSize = bufferSize;
+	}
+
+	@Override
+	public void forEachLine(final LineHandler handler) throws IOException {
+		assert handler != null : "handler cannot be null";
+
+		byte[] bytes = new byte[this.bufferSize];
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		int limit = 0;
+		int read;
+
+		while ((read = this.in.read(bytes, limit, bytes.length - limit)) != -1) {
+			limit += read;
+
+			final int start = Lines.forEachLine(buffer, 0, limit, handler);
+
+			if (start > 0) {
+				// MOVE THE INCOMPLETE LINE TO THE FRONT OF THE BUFFER
+				System.arraycopy(bytes, start, bytes, 0, limit - start);
+				limit -= start;
+			} else if (limit == bytes.length) {
+				// A SINGLE LINE FILLS THE WHOLE BUFFER
+				bytes = Arrays.copyOf(bytes, bytes.length * 2);
+				buffer = ByteBuffer.wrap(bytes);
+			}
+		}
+
+		// THE LAST LINE MAY NOT BE TERMINATED
+		if (limit > 0) {
+			handler.onLine(buffer, 0, Lines.trimLineEnd(buffer, 0, limit));
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package com.awitt.root.io;
+
+import java.nio.ByteBuffer;
+
+import com.awitt.root.model.Trip;
+
+/**
+ * Reusable, allocation-free parser for {@code Trip} lines held as UTF-8 bytes,
+ * for example {@code Trip Dan 07:15 07:45 17.3}.
+ * <p>
+ * The line is scanned exactly once: times in the format {@code HH:MM} are
+ * read as an int minute-of-day, and the distance is read as a fixed-point
+ * number of {@link Trip#DISTANCE_SCALE millionths of a mile}, without
+ * creating any Strings.
+ * <p>
+ * Only the canonical form of a Trip line is handled here. Anything else,
+ * including malformed lines, causes {@link #parse(ByteBuffer, int, int)} to
+ * return {@code false}, so that the caller can fall back to the String-based
+ * parsing in {@link Trip#Trip(String, String, String)}, which either accepts
+ * the line or reports exactly what is wrong with it.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public class TripLineParser {
+
+	private static final byte SPACE = ' ';
+	private static final int TIME_LENGTH = 5;
+	private static final int MAX_INTEGER_DIGITS = 9;
+	private static final int MAX_FRACTION_DIGITS = 6;
+	private static final long[] FRACTION_SCALE = { 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1 };
+
+	private int nameFrom;
+	private int nameTo;
+	private int startMinute;
+	private int endMinute;
+	private long distance;
+
+	/**
+	 * Parses the Trip line {@code [from, to)}, making its parts available
+	 * through this parser's getters until the next call.
+	 * 
+	 * @return {@code true} if the line was parsed; {@code false} if it is not
+	 *         in the canonical form handled by this parser
+	 */
+	public boolean parse(final ByteBuffer buffer, final int from, final int to) {
+
+		// String.split(" ") IGNORES TRAILING SEPARATORS
+		int end = to;
+		while (end > from && buffer.get(end - 1) == SPACE) {
+			end--;
+		}
+
+		final int nameStart = Lines.indexOf(buffer, from, end, SPACE) + 1;
+		if (nameStart == 0) {
+			return false;
+		}
+
+		final int startStart = Lines.indexOf(buffer, nameStart, end, SPACE) + 1;
+		if (startStart == 0 || startStart - 1 == nameStart) {
+			return false;
+		}
+
+		final int endStart = startStart + TIME_LENGTH + 1;
+		final int distanceStart = endStart + TIME_LENGTH + 1;
+		if (distanceStart >= end || buffer.get(endStart - 1) != SPACE || buffer.get(distanceStart - 1) != SPACE) {
+			return false;
+		}
+
+		final int start = parseMinuteOfDay(buffer, startStart);
+		final int finish = parseMinuteOfDay(buffer, endStart);
+		if (start < 0 || finish < 0 || !parseDistance(buffer, distanceStart, end)) {
+			return false;
+		}
+
+		this.nameFrom = nameStart;
+		this.nameTo = startStart - 1;
+		this.startMinute = start;
+		this.endMinute = finish;
+
+		return true;
+	}
+
+	/**
+	 * @return the minute of the day represented by {@code HH:MM} starting at
+	 *         {@code from}, or {@code -1} if it is not a valid time
+	 */
+	private static int parseMinuteOfDay(final ByteBuffer buffer, final int from) {
+		final int h1 = digit(buffer.get(from));
+		final int h2 = digit(buffer.get(from + 1));
+		final int m1 = digit(buffer.get(from + 3));
+		final int m2 = digit(buffer.get(from + 4));
+
+		if ((h1 | h2 | m1 | m2) < 0 || buffer.get(from + 2) != ':') {
+			return -1;
+		}
+
+		final int hour = h1 * 10 + h2;
+		final int minute = m1 * 10 + m2;
+
+		return (hour > 23 || minute > 59) ? -1 : hour * 60 + minute;
+	}
+
+	private boolean parseDistance(final ByteBuffer buffer, final int from, final int to) {
+		int i = from;
+		final boolean negative = buffer.get(i) == '-';
+
+		if (negative || buffer.get(i) == '+') {
+			i++;
+		}
+
+		long whole = 0;
+		int integerDigits = 0;
+
+		for (int d; i < to && (d = digit(buffer.get(i))) >= 0; i++, integerDigits++) {
+			whole = whole * 10 + d;
+		}
+
+		long fraction = 0;
+		int fractionDigits = 0;
+
+		if (i < to && buffer.get(i) == '.') {
+			for (int d; ++i < to && (d = digit(buffer.get(i))) >= 0; fractionDigits++) {
+				fraction = fraction * 10 + d;
+			}
+		}
+
+		if (i != to || integerDigits + fractionDigits == 0 || integerDigits > MAX_INTEGER_DIGITS
+				|| fractionDigits > MAX_FRACTION_DIGITS) {
+			return false;
+		}
+
+		final long value = whole * Trip.DISTANCE_SCALE + fraction * FRACTION_SCALE[fractionDigits];
+		this.distance = negative ? -value : value;
+
+		return true;
+	}
+
+	private static int digit(final byte value) {
+		return (value >= '0' && value <= '9') ? value - '0' : -1;
+	}
+
+	/**
+	 * @return the absolute index of the first byte of the driver name
+	 */
+	public int getNameFrom() {
+		return this.nameFrom;
+	}
+
+	/**
+	 * @return the absolute, exclusive index of the end of the driver name
+	 */
+	public int getNameTo() {
+		return this.nameTo;
+	}
+
+	/**
+	 * @return the minute of the day at which the trip started
+	 */
+	public int getStartMinute() {
+		return this.startMinute;
+	}
+
+	/**
+	 * @return the minute of the day at which the trip ended
+	 */
+	public int getEndMinute() {
+		return this.endMinute;
+	}
+
+	/**
+	 * @return the distance of the trip, in {@link Trip#DISTANCE_SCALE
+	 *         millionths of a mile}
+	 */
+	public long getDistance() {
+		return this.distance;
+	}
+}
@@ -0,0 +1,155 @@
+package com.awitt.root.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Thread-safe histogram of non-negative values, such as durations in
+ * nanoseconds, in a fixed number of buckets so that recording never
+ * allocates.
+ * <p>
+ * Each power of two is split into {@link #SUB_BUCKETS} equal buckets, so a
+ * {@link #getPercentile(double) percentile} is never more than 12.5% above
+ * the value actually recorded at that rank; values below
+ * {@link #SUB_BUCKETS} are exact.
+ */
+public final class Histogram {
+
+	/** Buckets per power of two **/
+	static final int SUB_BUCKETS = 8;
+
+	private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+
+	/** Exact buckets, then the buckets of each power of two up to 2^62 **/
+	private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+
+	/**
+	 * @param value
+	 *            the value to record; must not be negative
+	 */
+	public void record(final long value) {
+		assert value >= 0 : "value cannot be negative";
+
+		this.buckets.incrementAndGet(bucketOf(Math.max(0, value)));
+		this.count.increment();
+		this.sum.add(value);
+	}
+
+	/**
+	 * @return the number of values recorded
+	 */
+	public long getCount() {
+		return this.count.sum();
+	}
+
+	/**
+	 * @return the sum of every value recorded
+	 */
+	public long getSum() {
+		return this.sum.sum();
+	}
+
+	/**
+	 * @return the mean of every value recorded, or {@code 0} if there is none
+	 */
+	public double getMean() {
+		final long recorded = getCount();
+		return recorded == 0 ? 0 : (double) getSum() / recorded;
+	}
+
+	/**
+	 * @param percentile
+	 *            the percentile, from {@code 0} to {@code 100}
+	 * @return the upper bound of the bucket holding the value at that
+	 *         percentile, or {@code 0} if nothing has been recorded
+	 */
+	public long getPercentile(final double percentile) {
+		Validate.inclusiveBetween(0.0, 100.0, percentile, "percentile must be between 0 and 100");
+
+		long total = 0;
+
+		for (int i = 0; i < BUCKETS; i++) {
+			total += this.buckets.get(i);
+		}
+
+		final long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+		long seen = 0;
+
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += this.buckets.get(i);
+
+			if (seen >= rank) {
+				return upperBoundOf(i);
+			}
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Discards every value recorded so far. Values recorded concurrently may
+	 * or may not be kept.
+	 */
+	public void reset() {
+
+		for (int i = 0; i < BUCKETS; i++) {
+			this.buckets.set(i, 0);
+		}
+
+		this.count.reset();
+		this.sum.reset();
+	}
+
+	/**
+	 * Adds, or with a {@code sign} of {@code -1} subtracts, every value
+	 * recorded in {@code other} to this histogram.
+	 */
+	void add(final Histogram other, final int sign) {
+
+		for (int i = 0; i < BUCKETS; i++) {
+			this.buckets.addAndGet(i, sign * other.buckets.get(i));
+		}
+
+		this.count.add(sign * other.getCount());
+		this.sum.add(sign * other.getSum());
+	}
+
+	static int bucketOf(final long value) {
+
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+
+		final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+
+		// THE TOP BIT ONLY SELECTS THE POWER OF TWO; THE NEXT BITS SELECT ITS SUB-BUCKET
+		return SUB_BUCKETS + shift * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+	}
+
+	static long upperBoundOf(final int bucket) {
+
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+
+		final int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+		final long lower = (long) (SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS) << shift;
+
+		return lower + (1L << shift) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder(this, ToStringStyle.JSON_STYLE).append("count", getCount())
+				.append("mean", Math.round(getMean())).append("p50", getPercentile(50))
+				.append("p99", getPercentile(99)).build();
+	}
+}
@@ -0,0 +1,311 @@
+package com.awitt.root.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Counters and timings of everything processed since the application started,
+ * or since the metrics were last {@link #reset() reset}, recorded by every
+ * engine and thread into the single {@link #GLOBAL} instance. The metrics of
+ * a single run are those recorded {@link #since(IngestMetrics) since} a
+ * {@link #snapshot() snapshot} taken as it started.
+ * <p>
+ * Counting a line only costs an uncontended {@link LongAdder} increment.
+ * Timing every line would cost about as much as processing it, so only one
+ * line in every {@link #SAMPLE_INTERVAL} is timed.
+ */
+public final class IngestMetrics implements IngestMetricsMXBean {
+
+	/** The phases of processing whose durations are recorded **/
+	public enum Phase {
+
+		/** Reading and dispatching every line once **/
+		INGEST,
+
+		/** Dispatching the lines whose Driver was not registered yet **/
+		REPROCESS,
+
+		/** Summarizing the Trips of every Driver **/
+		AGGREGATE,
+
+		/** Ordering, or selecting the top, Drivers **/
+		SORT,
+
+		/** Printing or writing the report **/
+		PRINT
+	}
+
+	/** The metrics of every tracker in this application **/
+	public static final IngestMetrics GLOBAL = new IngestMetrics();
+
+	/** One line in every this many is timed; a power of two **/
+	public static final int SAMPLE_INTERVAL = 1024;
+
+	/** The name under which {@link #GLOBAL} is {@link #register() registered} **/
+	public static final String OBJECT_NAME = "com.awitt.root:type=IngestMetrics";
+
+	private static final int SAMPLE_MASK = SAMPLE_INTERVAL - 1;
+
+	private final LongAdder linesRead = new LongAdder();
+	private final LongAdder linesRequeued = new LongAdder();
+	private final LongAdder reprocessPasses = new LongAdder();
+	private final LongAdder invalidTrips = new LongAdder();
+	private final LongAdder duplicateRegistrations = new LongAdder();
+	private final Histogram parseNanos = new Histogram();
+	private final Histogram dispatchNanos = new Histogram();
+	private final Map<Phase, Histogram> phaseNanos = new EnumMap<>(Phase.class);
+
+	IngestMetrics() {
+
+		for (final Phase phase : Phase.values()) {
+			this.phaseNanos.put(phase, new Histogram());
+		}
+	}
+
+	/**
+	 * Registers {@link #GLOBAL} with the platform MBean server as
+	 * {@link #OBJECT_NAME}, unless it already is.
+	 *
+	 * @throws IllegalStateException
+	 *             if it could not be registered
+	 */
+	public static void register() {
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+		try {
+			final ObjectName name = new ObjectName(OBJECT_NAME);
+
+			if (!server.isRegistered(name)) {
+				server.registerMBean(GLOBAL, name);
+			}
+		} catch (JMException e) {
+			throw new IllegalStateException("metrics could not be registered", e);
+		}
+	}
+
+	/**
+	 * @param count
+	 *            the number of lines handled by the caller so far, including
+	 *            the current one
+	 * @return whether or not the current line is to be timed
+	 */
+	public static boolean isSampled(final long count) {
+		return (count & SAMPLE_MASK) == 0;
+	}
+
+	/**
+	 * @return a copy of these metrics as they are now, which does not change
+	 *         as more is recorded in these
+	 */
+	public IngestMetrics snapshot() {
+		final IngestMetrics snapshot = new IngestMetrics();
+		snapshot.add(this, 1);
+		return snapshot;
+	}
+
+	/**
+	 * @param earlier
+	 *            a {@link #snapshot() snapshot} of these metrics taken earlier
+	 * @return the metrics recorded since {@code earlier} was taken, unless
+	 *         these were {@link #reset() reset} since
+	 */
+	public IngestMetrics since(final IngestMetrics earlier) {
+		Validate.notNull(earlier, "earlier cannot be null");
+
+		final IngestMetrics since = snapshot();
+		since.add(earlier, -1);
+		return since;
+	}
+
+	private void add(final IngestMetrics other, final int sign) {
+		this.linesRead.add(sign * other.getLinesRead());
+		this.linesRequeued.add(sign * other.getLinesRequeued());
+		this.reprocessPasses.add(sign * other.getReprocessPasses());
+		this.invalidTrips.add(sign * other.getInvalidTrips());
+		this.duplicateRegistrations.add(sign * other.getDuplicateRegistrations());
+		this.parseNanos.add(other.parseNanos, sign);
+		this.dispatchNanos.add(other.dispatchNanos, sign);
+
+		for (final Phase phase : Phase.values()) {
+			this.phaseNanos.get(phase).add(other.phaseNanos.get(phase), sign);
+		}
+	}
+
+	public void lineRead() {
+		this.linesRead.increment();
+	}
+
+	public void linesRead(final long count) {
+		this.linesRead.add(count);
+	}
+
+	public void lineRequeued() {
+		this.linesRequeued.increment();
+	}
+
+	public void reprocessPass() {
+		this.reprocessPasses.increment();
+	}
+
+	/**
+	 * @param count
+	 *            the number of Trips rejected for not meeting Trip
+	 *            requirements
+	 */
+	public void invalidTrips(final long count) {
+
+		if (count != 0) {
+			this.invalidTrips.add(count);
+		}
+	}
+
+	public void duplicateRegistration() {
+		this.duplicateRegistrations.increment();
+	}
+
+	public void parsed(final long nanos) {
+		this.parseNanos.record(nanos);
+	}
+
+	public void dispatched(final long nanos) {
+		this.dispatchNanos.record(nanos);
+	}
+
+	/**
+	 * Records the duration of a {@code phase} started at {@code startNanos}.
+	 *
+	 * @param startNanos
+	 *            the {@link System#nanoTime()} at which the phase started
+	 */
+	public void time(final Phase phase, final long startNanos) {
+		this.phaseNanos.get(phase).record(System.nanoTime() - startNanos);
+	}
+
+	public Histogram getParseNanos() {
+		return this.parseNanos;
+	}
+
+	public Histogram getDispatchNanos() {
+		return this.dispatchNanos;
+	}
+
+	public Histogram getPhaseNanos(final Phase phase) {
+		return this.phaseNanos.get(phase);
+	}
+
+	@Override
+	public long getLinesRead() {
+		return this.linesRead.sum();
+	}
+
+	@Override
+	public double getLinesPerSecond() {
+		final long nanos = getPhaseNanos(Phase.INGEST).getSum();
+		return nanos == 0 ? 0 : getLinesRead() * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+	}
+
+	@Override
+	public long getLinesRequeued() {
+		return this.linesRequeued.sum();
+	}
+
+	@Override
+	public long getReprocessPasses() {
+		return this.reprocessPasses.sum();
+	}
+
+	@Override
+	public long getInvalidTrips() {
+		return this.invalidTrips.sum();
+	}
+
+	@Override
+	public long getDuplicateRegistrations() {
+		return this.duplicateRegistrations.sum();
+	}
+
+	@Override
+	public long getParseNanosP50() {
+		return this.parseNanos.getPercentile(50);
+	}
+
+	@Override
+	public long getParseNanosP99() {
+		return this.parseNanos.getPercentile(99);
+	}
+
+	@Override
+	public long getDispatchNanosP50() {
+		return this.dispatchNanos.getPercentile(50);
+	}
+
+	@Override
+	public long getDispatchNanosP99() {
+		return this.dispatchNanos.getPercentile(99);
+	}
+
+	@Override
+	public long getIngestMillis() {
+		return millis(Phase.INGEST);
+	}
+
+	@Override
+	public long getReprocessMillis() {
+		return millis(Phase.REPROCESS);
+	}
+
+	@Override
+	public long getAggregateMillis() {
+		return millis(Phase.AGGREGATE);
+	}
+
+	@Override
+	public long getSortMillis() {
+		return millis(Phase.SORT);
+	}
+
+	@Override
+	public long getPrintMillis() {
+		return millis(Phase.PRINT);
+	}
+
+	@Override
+	public void reset() {
+		this.linesRead.reset();
+		this.linesRequeued.reset();
+		this.reprocessPasses.reset();
+		this.invalidTrips.reset();
+		this.duplicateRegistrations.reset();
+		this.parseNanos.reset();
+		this.dispatchNanos.reset();
+		this.phaseNanos.values().forEach(Histogram::reset);
+	}
+
+	private long millis(final Phase phase) {
+		return TimeUnit.NANOSECONDS.toMillis(getPhaseNanos(phase).getSum());
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder(this, ToStringStyle.JSON_STYLE).append("linesRead", getLinesRead())
+				.append("linesPerSecond", Math.round(getLinesPerSecond()))
+				.append("linesRequeued", getLinesRequeued()).append("reprocessPasses", getReprocessPasses())
+				.append("invalidTrips", getInvalidTrips())
+				.append("duplicateRegistrations", getDuplicateRegistrations())
+				.append("parseNanos", this.parseNanos).append("dispatchNanos", this.dispatchNanos)
+				.append("ingestMillis", getIngestMillis()).append("reprocessMillis", getReprocessMillis())
+				.append("aggregateMillis", getAggregateMillis()).append("sortMillis", getSortMillis())
+				.append("printMillis", getPrintMillis()).build();
+	}
+}
@@ -0,0 +1,44 @@
+package com.awitt.root.metrics;
+
+/**
+ * Management interface through which {@link IngestMetrics} are exposed over
+ * JMX. Durations are in milliseconds, other than the sampled per-line times,
+ * which are in nanoseconds.
+ */
+public interface IngestMetricsMXBean {
+
+	long getLinesRead();
+
+	double getLinesPerSecond();
+
+	long getLinesRequeued();
+
+	long getReprocessPasses();
+
+	long getInvalidTrips();
+
+	long getDuplicateRegistrations();
+
+	long getParseNanosP50();
+
+	long getParseNanosP99();
+
+	long getDispatchNanosP50();
+
+	long getDispatchNanosP99();
+
+	long getIngestMillis();
+
+	long getReprocessMillis();
+
+	long getAggregateMillis();
+
+	long getSortMillis();
+
+	long getPrintMillis();
+
+	/**
+	 * Discards every metric recorded so far.
+	 */
+	void reset();
+}
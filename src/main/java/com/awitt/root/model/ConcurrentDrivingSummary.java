@@ -0,0 +1,131 @@
+package com.awitt.root.model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * {@link DrivingSummary} to which many threads can add Trips at once, without
+ * locking, for example to ingest the Trips of a very active {@link Driver} on
+ * many threads.
+ * <p>
+ * Like a {@link java.util.concurrent.atomic.LongAdder LongAdder}, Trips are
+ * added to a single cell until two threads contend for it, and from then on
+ * to one of several striped cells, chosen by thread. The fixed-point distance
+ * and the duration of a cell are each added to atomically, so no thread ever
+ * waits for another, and totals are the sums of every cell, exact whatever
+ * the order in which threads added Trips.
+ * <p>
+ * A {@link #snapshot() snapshot} sums every cell once, never waiting for
+ * Trips to stop being added. One taken while they are holds some, but not
+ * necessarily all, of the Trips added so far, and may hold the distance of a
+ * Trip whose duration is still being added, though never its duration alone;
+ * once Trips stop being added, it holds every one of them, whole.
+ */
+public class ConcurrentDrivingSummary extends DrivingSummary {
+
+	/** The most striped cells; a power of two **/
+	static final int MAX_CELLS = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+
+	private static final AtomicReferenceFieldUpdater<ConcurrentDrivingSummary, AtomicLongArray> CELLS =
+			AtomicReferenceFieldUpdater.newUpdater(ConcurrentDrivingSummary.class, AtomicLongArray.class, "cells");
+
+	/** Longs per cell: both totals **/
+	private static final int DISTANCE = 0;
+	private static final int DURATION = 1;
+
+	/** Longs between the starts of striped cells, so that no two share a cache line **/
+	private static final int STRIDE = 8;
+
+	private final AtomicLongArray base = new AtomicLongArray(2);
+
+	/** {@code null} until threads first contend for the base cell **/
+	private volatile AtomicLongArray cells;
+
+	@Override
+	public void addTripInfo(final long distance, final long duration) {
+		AtomicLongArray striped = this.cells;
+
+		if (striped == null) {
+			final long total = this.base.get(DISTANCE);
+
+			// A FAILED COMPARE IS THE ONLY SIGN OF CONTENTION, AS ADDS ALWAYS SUCCEED
+			if (this.base.compareAndSet(DISTANCE, total, total + distance)) {
+				this.base.getAndAdd(DURATION, duration);
+				return;
+			}
+
+			striped = stripe();
+		}
+
+		final int probe = (int) Thread.currentThread().getId() * 0x9E3779B9;
+		final int cell = (probe >>> 16 & (MAX_CELLS - 1)) * STRIDE;
+
+		striped.getAndAdd(cell + DISTANCE, distance);
+		striped.getAndAdd(cell + DURATION, duration);
+	}
+
+	/**
+	 * @return the totals of the Trips added to this summary so far, summed
+	 *         once, as a {@link java.util.concurrent.atomic.LongAdder#sum()
+	 *         LongAdder} sums its cells
+	 */
+	@Override
+	public DrivingSummary snapshot() {
+		final long[] totals = sum();
+
+		final DrivingSummary snapshot = new DrivingSummary();
+		snapshot.addTripInfo(totals[DISTANCE], totals[DURATION]);
+		return snapshot;
+	}
+
+	@Override
+	protected DrivingSummary totals() {
+		return snapshot();
+	}
+
+	@Override
+	public double getTotalDistance() {
+		return Trip.toMiles(getScaledTotalDistance());
+	}
+
+	@Override
+	public long getScaledTotalDistance() {
+		return snapshot().getScaledTotalDistance();
+	}
+
+	@Override
+	public long getTotalDuration() {
+		return snapshot().getTotalDuration();
+	}
+
+	@Override
+	public long getAverageSpeed() {
+		return snapshot().getAverageSpeed();
+	}
+
+	private AtomicLongArray stripe() {
+		CELLS.compareAndSet(this, null, new AtomicLongArray(MAX_CELLS * STRIDE));
+		return this.cells;
+	}
+
+	/**
+	 * @return the totals of every cell, indexed as in a cell
+	 */
+	private long[] sum() {
+		final long[] totals = new long[2];
+		final AtomicLongArray striped = this.cells;
+
+		// DURATIONS FIRST: ONE ADDED AFTER ITS DISTANCE IS NEVER SUMMED WITHOUT IT
+		totals[DURATION] = this.base.get(DURATION);
+		totals[DISTANCE] = this.base.get(DISTANCE);
+
+		if (striped != null) {
+			for (int cell = 0; cell < MAX_CELLS * STRIDE; cell += STRIDE) {
+				totals[DURATION] += striped.get(cell + DURATION);
+				totals[DISTANCE] += striped.get(cell + DISTANCE);
+			}
+		}
+
+		return totals;
+	}
+}
@@ -1,33 +1,153 @@
 package com.awitt.root.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
+import com.awitt.root.metrics.IngestMetrics;
+import com.awitt.root.model.DriverOptions.Retention;
+
 /**
  * POJO representing a Root Driver and their associated metrics.
  */
 public class Driver implements Comparable<Driver> {
 
+	private static final int SECONDS_PER_MINUTE = 60;
+
 	private final String name;
 	private final List<Trip> trips;
+	private final TripStore tripStore;
+	private final DriverOptions options;
 	private DrivingSummary drivingSummary;
 
 	/**
-	 * Creates a new instance of this class.
+	 * Creates a new instance of this class that retains all of its
+	 * {@link Trip}s.
 	 * 
 	 * @param name
 	 *            the name of the Driver
 	 */
 	public Driver(final String name) {
+		this(name, DriverOptions.DEFAULT);
+	}
+
+	/**
+	 * Creates a new instance of this class.
+	 * 
+	 * @param name
+	 *            the name of the Driver
+	 * @param options
+	 *            how this Driver keeps track of its {@link Trip}s
+	 */
+	public Driver(final String name, final DriverOptions options) {
+		Validate.notBlank(name, "name cannot be blank");
+		Validate.notNull(options, "options cannot be null");
+
+		this.name = name;
+		this.options = options;
+		// ONLY RETAINED TRIPS NEED A LIST OF THEIR OWN
+		this.trips = options.getRetention() == Retention.RETAIN ? new ArrayList<>() : Collections.emptyList();
+		this.tripStore = options.isColumnar() ? new TripStore() : null;
+		this.drivingSummary = options.newSummary();
+	}
+
+	/**
+	 * Creates a streaming Driver whose summary is held elsewhere, such as in
+	 * a {@link DriverStore}.
+	 * 
+	 * @param name
+	 *            the name of the Driver
+	 * @param summary
+	 *            the summary to which every Trip is added
+	 */
+	Driver(final String name, final DrivingSummary summary) {
 		Validate.notBlank(name, "name cannot be blank");
 
 		this.name = name;
-		this.trips = new ArrayList<>();
-		this.drivingSummary = new DrivingSummary();
+		this.options = DriverOptions.STREAMING;
+		this.trips = Collections.emptyList();
+		this.tripStore = null;
+		this.drivingSummary = summary;
+	}
+
+	/**
+	 * Records a {@link Trip} for this Driver. When
+	 * {@link DriverOptions#isStreaming() streaming}, a Trip that
+	 * {@link Trip#meetsTripRequirements() meets} Trip requirements is added
+	 * straight to this Driver's {@link DrivingSummary} and is not retained;
+	 * otherwise it is retained, in a {@link TripStore} when
+	 * {@link DriverOptions#isColumnar() columnar}, to be aggregated later.
+	 * 
+	 * @param trip
+	 *            the Trip to record
+	 */
+	public void addTrip(final Trip trip) {
+		Validate.notNull(trip, "trip cannot be null");
+
+		if (this.tripStore != null) {
+			this.tripStore.add(trip);
+		} else if (!this.options.isStreaming()) {
+			this.trips.add(trip);
+		} else if (trip.meetsTripRequirements()) {
+			this.drivingSummary.addTripInfo(trip);
+		} else {
+			IngestMetrics.GLOBAL.invalidTrips(1);
+		}
+	}
+
+	/**
+	 * Records an already-parsed {@link Trip} for this Driver, exactly as
+	 * {@link #addTrip(Trip)} would, without creating a Trip when
+	 * {@link DriverOptions#isStreaming() streaming}.
+	 * 
+	 * @param startMinute
+	 *            the minute of the day at which the trip started
+	 * @param endMinute
+	 *            the minute of the day at which the trip ended
+	 * @param distance
+	 *            the distance of the trip; in {@link Trip#DISTANCE_SCALE
+	 *            millionths of a mile}
+	 */
+	public void addTrip(final int startMinute, final int endMinute, final long distance) {
+
+		if (this.tripStore != null) {
+			this.tripStore.add(startMinute, endMinute, distance);
+		} else if (!this.options.isStreaming()) {
+			this.trips.add(new Trip(startMinute, endMinute, distance));
+		} else if (Trip.meetsTripRequirements(startMinute, endMinute, distance)) {
+			this.drivingSummary.addTripInfo(startMinute * SECONDS_PER_MINUTE, endMinute * SECONDS_PER_MINUTE, distance);
+		} else {
+			IngestMetrics.GLOBAL.invalidTrips(1);
+		}
+	}
+
+	/**
+	 * Adds all of the {@link Trip}s and summarized info recorded for
+	 * {@code other} to this Driver, for example to combine Trips for the same
+	 * Driver recorded by different workers.
+	 * 
+	 * @param other
+	 *            the Driver whose Trips are to be added to this Driver
+	 * @return {@code this} {@link Driver}, for chaining
+	 */
+	public Driver merge(final Driver other) {
+		Validate.notNull(other, "other cannot be null");
+
+		if (!other.trips.isEmpty()) {
+			this.trips.addAll(other.trips);
+		}
+
+		this.drivingSummary.merge(other.drivingSummary);
+
+		if (this.tripStore != null && other.tripStore != null) {
+			this.tripStore.addAll(other.tripStore);
+		}
+
+		return this;
 	}
 
 	/**
@@ -35,24 +155,57 @@ public Driver(final String name) {
 	 * {@link Trip#meetsTripRequirements() do not meet} Trip requirements and
 	 * then adds each valid Trip's info the this Driver's
 	 * {@link DrivingSummary}.
+	 * <p>
+	 * When {@link DriverOptions#isStreaming() streaming}, Trips have already
+	 * been aggregated as they were recorded, so the summary is left as-is.
+	 * Otherwise, invalid Trips are counted in the {@link IngestMetrics} each
+	 * time they are filtered out.
 	 * 
 	 * @return {@code this} {@link Driver}, for chaining
 	 */
 	public Driver aggregateTrips() {
 
+		// STREAMED TRIPS ARE NOT RETAINED, SO THE SUMMARY IS ALREADY COMPLETE
+		if (this.options.isStreaming()) {
+			return this;
+		}
+
 		// RESET PREVIOUSLY-AGGREGATED DATA BEFORE RE-AGGREGATING
 		if (!this.drivingSummary.equals(DrivingSummary.NO_DATA)) {
-			this.drivingSummary = new DrivingSummary();
+			this.drivingSummary = this.options.newSummary();
 		}
 
 		// FILTER OUT INVALID TRIPS AND ADD THE OTHERS' INFO TO THE SUMMARY
-		this.trips.stream().filter(Trip::meetsTripRequirements).forEach(this.drivingSummary::addTripInfo);
+		if (this.tripStore != null) {
+			this.tripStore.aggregateInto(this.drivingSummary);
+		} else {
+			long invalid = 0;
+
+			for (final Trip trip : this.trips) {
+				if (trip.meetsTripRequirements()) {
+					this.drivingSummary.addTripInfo(trip);
+				} else {
+					invalid++;
+				}
+			}
+
+			IngestMetrics.GLOBAL.invalidTrips(invalid);
+		}
 
 		return this;
 	}
 
+	/**
+	 * @return the {@link Trip}s retained by this Driver; a read-only view of
+	 *         its {@link TripStore} when {@link DriverOptions#isColumnar()
+	 *         columnar}
+	 */
 	public List<Trip> getTrips() {
-		return this.trips;
+		return this.tripStore != null ? this.tripStore.asList() : this.trips;
+	}
+
+	public DriverOptions getOptions() {
+		return this.options;
 	}
 
 	public DrivingSummary getDrivingSummary() {
@@ -69,7 +222,7 @@ public int hashCode() {
 		int result = 1;
 		result = prime * result + ((this.drivingSummary == null) ? 0 : this.drivingSummary.hashCode());
 		result = prime * result + ((this.name == null) ? 0 : this.name.hashCode());
-		result = prime * result + ((this.trips == null) ? 0 : this.trips.hashCode());
+		result = prime * result + getTrips().hashCode();
 		return result;
 	}
 
@@ -92,10 +245,7 @@ public boolean equals(Object obj) {
 				return false;
 		} else if (!this.name.equals(other.name))
 			return false;
-		if (this.trips == null) {
-			if (other.trips != null)
-				return false;
-		} else if (!this.trips.equals(other.trips))
+		if (!getTrips().equals(other.getTrips()))
 			return false;
 		return true;
 	}
@@ -105,7 +255,7 @@ public String toString() {
 		final int maxLen = 10;
 		ToStringBuilder builder = new ToStringBuilder(this, ToStringStyle.JSON_STYLE);
 		builder.append("name", this.name)
-				.append("trips", this.trips != null ? this.trips.subList(0, Math.min(this.trips.size(), maxLen)) : null)
+				.append("trips", getTrips().subList(0, Math.min(getTrips().size(), maxLen)))
 				.append("drivingSummary", this.drivingSummary);
 		return builder.build();
 	}
@@ -121,8 +271,23 @@ public String toString() {
 	 */
 	@Override
 	public int compareTo(final Driver otherDriver) {
-		return -1 * ((otherDriver == null) ? 1
-				: (Integer.compare((int) Math.rint(this.getDrivingSummary().getTotalDistance()),
-						(int) Math.rint(otherDriver.getDrivingSummary().getTotalDistance()))));
+		return (otherDriver == null) ? -1
+				: compareDistances(this.getDrivingSummary().getScaledTotalDistance(),
+						otherDriver.getDrivingSummary().getScaledTotalDistance());
+	}
+
+	/**
+	 * Compares two total distances exactly as {@link #compareTo(Driver)}
+	 * compares the Drivers that drove them, to order Drivers by their totals
+	 * alone.
+	 * 
+	 * @param distance
+	 *            a total distance, in fixed-point
+	 * @param otherDistance
+	 *            the other total distance, in fixed-point
+	 */
+	public static int compareDistances(final long distance, final long otherDistance) {
+		return -1 * Integer.compare((int) Math.rint(Trip.toMiles(distance)),
+				(int) Math.rint(Trip.toMiles(otherDistance)));
 	}
 }
\ No newline at end of file
@@ -0,0 +1,363 @@
+package com.awitt.root.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * {@link DriverTable} holding its {@link Driver}s on the heap, that can be
+ * probed straight from a name held as bytes or as a String of any case
+ * without creating a lower-cased copy of it.
+ * <p>
+ * Hashing and equality fold ASCII letters in place; a String is only created
+ * for a name when its Driver is first registered. Names containing non-ASCII
+ * characters are rare, and are lower-cased with
+ * {@link String#toLowerCase(Locale)} in {@link Locale#ROOT} before probing,
+ * exactly as ASCII letters are folded in place, so that a key never depends
+ * on the default locale of the JVM, such as a Turkish one that would fold
+ * {@code I} to a dotless {@code i}.
+ * <p>
+ * The table is open-addressed with linear probing over an array of indexes
+ * into densely packed keys and Drivers, which are iterated in the order in
+ * which they were added. Drivers cannot be removed one at a time, only all at
+ * once by {@link #clear() clearing} the index. This class is not
+ * thread-safe.
+ */
+public class DriverIndex extends AbstractMap<String, Driver> implements DriverTable {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/** Index + 1 of each entry in the dense arrays; {@code 0} when empty **/
+	private int[] slots;
+	private int[] hashes;
+	private String[] keys;
+	private Driver[] drivers;
+	private int size;
+
+	/**
+	 * Creates an empty index.
+	 */
+	public DriverIndex() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty index sized to hold {@code expectedSize} Drivers
+	 * without growing.
+	 * 
+	 * @param expectedSize
+	 *            the number of Drivers expected to be held
+	 */
+	public DriverIndex(final int expectedSize) {
+		Validate.isTrue(expectedSize >= 0, "expectedSize cannot be negative");
+
+		final int capacity = Math.max(DEFAULT_CAPACITY, expectedSize);
+		this.slots = new int[tableSizeFor(capacity * 2)];
+		this.hashes = new int[capacity];
+		this.keys = new String[capacity];
+		this.drivers = new Driver[capacity];
+	}
+
+	/**
+	 * @param name
+	 *            a driver name, in any case
+	 * @return the lower-cased key under which a Driver with this name is held
+	 */
+	public static String toKey(final String name) {
+		Validate.notNull(name, "name cannot be null");
+
+		// FOLDS ASCII LETTERS EXACTLY AS IN PLACE, WITHOUT A COPY IF ALREADY LOWER CASE
+		return name.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * @param buffer
+	 *            the buffer holding a UTF-8 encoded driver name, in any case
+	 * @param from
+	 *            the absolute index of the first byte of the name, inclusive
+	 * @param to
+	 *            the absolute index of the end of the name, exclusive
+	 * @return the {@link String#hashCode() hash} of the {@link #toKey(String)
+	 *         key} under which a Driver with this name is held, computed
+	 *         without decoding an ASCII name
+	 */
+	public static int hashOf(final ByteBuffer buffer, final int from, final int to) {
+		int hash = 0;
+
+		for (int i = from; i < to; i++) {
+			final byte b = buffer.get(i);
+
+			if (b < 0) {
+				return toKey(decode(buffer, from, to)).hashCode();
+			}
+
+			hash = 31 * hash + toLowerCase((char) b);
+		}
+
+		return hash;
+	}
+
+	@Override
+	public Driver getIgnoreCase(final String name) {
+		assert name != null : "name cannot be null";
+
+		int hash = 0;
+
+		for (int i = 0; i < name.length(); i++) {
+			final char c = name.charAt(i);
+
+			if (c > Byte.MAX_VALUE) {
+				return get(name.toLowerCase(Locale.ROOT));
+			}
+
+			hash = 31 * hash + toLowerCase(c);
+		}
+
+		for (int i = slot(hash);; i = next(i)) {
+			final int entry = this.slots[i] - 1;
+
+			if (entry < 0) {
+				return null;
+			} else if (this.hashes[entry] == hash && equalsIgnoreCase(this.keys[entry], name)) {
+				return this.drivers[entry];
+			}
+		}
+	}
+
+	@Override
+	public Driver get(final ByteBuffer buffer, final int from, final int to) {
+		assert buffer != null : "buffer cannot be null";
+
+		int hash = 0;
+
+		for (int i = from; i < to; i++) {
+			final byte b = buffer.get(i);
+
+			if (b < 0) {
+				return get(decode(buffer, from, to).toLowerCase(Locale.ROOT));
+			}
+
+			hash = 31 * hash + toLowerCase((char) b);
+		}
+
+		for (int i = slot(hash);; i = next(i)) {
+			final int entry = this.slots[i] - 1;
+
+			if (entry < 0) {
+				return null;
+			} else if (this.hashes[entry] == hash && equalsIgnoreCase(this.keys[entry], buffer, from, to)) {
+				return this.drivers[entry];
+			}
+		}
+	}
+
+	@Override
+	public Driver register(final ByteBuffer buffer, final int from, final int to, final DriverOptions options) {
+
+		if (get(buffer, from, to) != null) {
+			return null;
+		}
+
+		final String name = decode(buffer, from, to);
+		final Driver driver = new Driver(name, options);
+		put(toKey(name), driver);
+
+		return driver;
+	}
+
+	@Override
+	public Driver get(final Object key) {
+
+		if (!(key instanceof String)) {
+			return null;
+		}
+
+		final String name = (String) key;
+		final int hash = name.hashCode();
+
+		for (int i = slot(hash);; i = next(i)) {
+			final int entry = this.slots[i] - 1;
+
+			if (entry < 0) {
+				return null;
+			} else if (this.hashes[entry] == hash && this.keys[entry].equals(name)) {
+				return this.drivers[entry];
+			}
+		}
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * @param key
+	 *            the lower-cased name of the {@code driver}
+	 * @param driver
+	 *            the {@link Driver} to hold under {@code key}
+	 */
+	@Override
+	public Driver put(final String key, final Driver driver) {
+		Validate.notNull(key, "key cannot be null");
+		Validate.notNull(driver, "driver cannot be null");
+
+		final int hash = key.hashCode();
+		int i = slot(hash);
+
+		for (int entry; (entry = this.slots[i] - 1) >= 0; i = next(i)) {
+			if (this.hashes[entry] == hash && this.keys[entry].equals(key)) {
+				final Driver previous = this.drivers[entry];
+				this.drivers[entry] = driver;
+				return previous;
+			}
+		}
+
+		if (this.size == this.keys.length) {
+			grow();
+			return put(key, driver);
+		}
+
+		this.hashes[this.size] = hash;
+		this.keys[this.size] = key;
+		this.drivers[this.size] = driver;
+		this.slots[i] = ++this.size;
+
+		return null;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Removes every Driver at once, releasing the arrays that held them.
+	 */
+	@Override
+	public void clear() {
+		this.slots = new int[tableSizeFor(DEFAULT_CAPACITY * 2)];
+		this.hashes = new int[DEFAULT_CAPACITY];
+		this.keys = new String[DEFAULT_CAPACITY];
+		this.drivers = new Driver[DEFAULT_CAPACITY];
+		this.size = 0;
+	}
+
+	@Override
+	public Set<Entry<String, Driver>> entrySet() {
+		return new AbstractSet<Entry<String, Driver>>() {
+			@Override
+			public Iterator<Entry<String, Driver>> iterator() {
+				return new Iterator<Entry<String, Driver>>() {
+					private int next;
+
+					@Override
+					public boolean hasNext() {
+						return this.next < DriverIndex.this.size;
+					}
+
+					@Override
+					public Entry<String, Driver> next() {
+
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+
+						final int entry = this.next++;
+						return new SimpleImmutableEntry<>(DriverIndex.this.keys[entry],
+								DriverIndex.this.drivers[entry]);
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return DriverIndex.this.size;
+			}
+		};
+	}
+
+	private void grow() {
+		final int capacity = this.keys.length * 2;
+
+		this.hashes = Arrays.copyOf(this.hashes, capacity);
+		this.keys = Arrays.copyOf(this.keys, capacity);
+		this.drivers = Arrays.copyOf(this.drivers, capacity);
+		this.slots = new int[tableSizeFor(capacity * 2)];
+
+		for (int entry = 0; entry < this.size; entry++) {
+			int i = slot(this.hashes[entry]);
+
+			while (this.slots[i] != 0) {
+				i = next(i);
+			}
+
+			this.slots[i] = entry + 1;
+		}
+	}
+
+	private int slot(final int hash) {
+		return (hash ^ (hash >>> 16)) & (this.slots.length - 1);
+	}
+
+	private int next(final int slot) {
+		return (slot + 1) & (this.slots.length - 1);
+	}
+
+	private static int tableSizeFor(final int capacity) {
+		return Integer.highestOneBit(capacity - 1) << 1;
+	}
+
+	private static boolean equalsIgnoreCase(final String key, final String name) {
+
+		if (key.length() != name.length()) {
+			return false;
+		}
+
+		for (int i = 0; i < key.length(); i++) {
+			if (key.charAt(i) != toLowerCase(name.charAt(i))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean equalsIgnoreCase(final String key, final ByteBuffer buffer, final int from,
+			final int to) {
+
+		if (key.length() != to - from) {
+			return false;
+		}
+
+		for (int i = 0; i < key.length(); i++) {
+			if (key.charAt(i) != toLowerCase((char) buffer.get(from + i))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	static char toLowerCase(final char c) {
+		return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+	}
+
+	static String decode(final ByteBuffer buffer, final int from, final int to) {
+		final byte[] bytes = new byte[to - from];
+
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(from + i);
+		}
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,169 @@
+package com.awitt.root.model;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Immutable settings describing how newly registered {@link Driver}s keep track
+ * of their {@link Trip}s.
+ */
+public final class DriverOptions {
+
+	/**
+	 * How a {@link Driver} holds on to the {@link Trip}s attributed to it.
+	 */
+	public enum Retention {
+
+		/**
+		 * Every Trip is kept in {@link Driver#getTrips()} and only summarized
+		 * when {@link Driver#aggregateTrips()} is called
+		 **/
+		RETAIN,
+
+		/**
+		 * Every Trip is kept in a compact, columnar {@link TripStore} and
+		 * only summarized when {@link Driver#aggregateTrips()} is called
+		 **/
+		COLUMNAR,
+
+		/**
+		 * Every valid Trip is added to the {@link DrivingSummary} as soon as
+		 * it is recorded and is then discarded, so memory depends only on the
+		 * number of Drivers
+		 **/
+		STREAM
+	}
+
+	/** Retains every Trip; the original behavior of the application **/
+	public static final DriverOptions DEFAULT = new DriverOptions(Retention.RETAIN);
+
+	/** Retains every Trip in a compact, columnar {@link TripStore} **/
+	public static final DriverOptions COLUMNAR = new DriverOptions(Retention.COLUMNAR);
+
+	/** Aggregates every Trip as it is recorded **/
+	public static final DriverOptions STREAMING = new DriverOptions(Retention.STREAM);
+
+	private final Retention retention;
+	private final boolean concurrent;
+	private final boolean hourly;
+	private final boolean speeds;
+
+	private DriverOptions(final Retention retention) {
+		this(retention, false, false, false);
+	}
+
+	private DriverOptions(final Retention retention, final boolean concurrent, final boolean hourly,
+			final boolean speeds) {
+		this.retention = retention;
+		this.concurrent = concurrent;
+		this.hourly = hourly;
+		this.speeds = speeds;
+	}
+
+	/**
+	 * @param retention
+	 *            how Trips are to be retained
+	 * @return a copy of these options with the provided {@code retention}
+	 */
+	public DriverOptions withRetention(final Retention retention) {
+		Validate.notNull(retention, "retention cannot be null");
+		return new DriverOptions(retention, this.concurrent, this.hourly, this.speeds);
+	}
+
+	/**
+	 * No engine of this application adds Trips to the same Driver from more
+	 * than one thread, as each keeps every Driver on a single thread; this is
+	 * for callers that do, such as a service recording Trips as they arrive.
+	 * 
+	 * @param concurrent
+	 *            whether or not each Driver's {@link DrivingSummary} is to be
+	 *            a {@link ConcurrentDrivingSummary}, to which many threads can
+	 *            add Trips at once; Trips are only added straight to it when
+	 *            {@link #isStreaming() streaming}
+	 * @return a copy of these options with the provided {@code concurrent}
+	 */
+	public DriverOptions withConcurrentSummary(final boolean concurrent) {
+		return new DriverOptions(this.retention, concurrent, this.hourly, this.speeds);
+	}
+
+	/**
+	 * @param hourly
+	 *            whether or not each Driver's {@link DrivingSummary} also
+	 *            keeps the distance and duration of its Trips by hour of the
+	 *            day; not kept by a {@link ConcurrentDrivingSummary}
+	 * @return a copy of these options with the provided {@code hourly}
+	 */
+	public DriverOptions withHourlySummary(final boolean hourly) {
+		return new DriverOptions(this.retention, this.concurrent, hourly, this.speeds);
+	}
+
+	/**
+	 * @param speeds
+	 *            whether or not each Driver's {@link DrivingSummary} also
+	 *            keeps a {@link SpeedSketch} of the average speed of its
+	 *            Trips; not kept by a {@link ConcurrentDrivingSummary}
+	 * @return a copy of these options with the provided {@code speeds}
+	 */
+	public DriverOptions withSpeedPercentiles(final boolean speeds) {
+		return new DriverOptions(this.retention, this.concurrent, this.hourly, speeds);
+	}
+
+	public Retention getRetention() {
+		return this.retention;
+	}
+
+	/**
+	 * @return whether or not Trips are aggregated as soon as they are recorded
+	 */
+	public boolean isStreaming() {
+		return this.retention == Retention.STREAM;
+	}
+
+	/**
+	 * @return whether or not Trips are retained in a columnar
+	 *         {@link TripStore}
+	 */
+	public boolean isColumnar() {
+		return this.retention == Retention.COLUMNAR;
+	}
+
+	/**
+	 * @return whether or not each Driver's {@link DrivingSummary} can be added
+	 *         to from many threads at once
+	 */
+	public boolean isConcurrentSummary() {
+		return this.concurrent;
+	}
+
+	/**
+	 * @return whether or not each Driver's {@link DrivingSummary} keeps hourly
+	 *         totals
+	 */
+	public boolean isHourlySummary() {
+		return this.hourly;
+	}
+
+	/**
+	 * @return whether or not each Driver's {@link DrivingSummary} keeps a
+	 *         sketch of its speeds
+	 */
+	public boolean isSpeedPercentiles() {
+		return this.speeds;
+	}
+
+	/**
+	 * @return a new, empty {@link DrivingSummary} for a Driver with these
+	 *         options
+	 */
+	public DrivingSummary newSummary() {
+		return this.concurrent ? new ConcurrentDrivingSummary() : new DrivingSummary(this.hourly, this.speeds);
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder(this, ToStringStyle.JSON_STYLE).append("retention", this.retention)
+				.append("concurrentSummary", this.concurrent).append("hourlySummary", this.hourly)
+				.append("speedPercentiles", this.speeds).build();
+	}
+}
@@ -0,0 +1,805 @@
+package com.awitt.root.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Disk-backed {@link DriverTable} holding the summary of every streaming
+ * {@link Driver} in two files of a directory, so that the number of Drivers
+ * is not limited by the heap, and so that the Drivers outlive the process
+ * and can be {@link #open(Path) reopened} for more Trips or for a report.
+ * <p>
+ * The data file, {@value #DATA_FILE}, is append-only: registering a Driver
+ * appends a record of its totals, the hash of its key, its lower-cased key
+ * and its name, and records are never moved. Adding a Trip updates the totals
+ * of its Driver's record in place. The file is memory-mapped in segments,
+ * of {@value #SEGMENT_BYTES} bytes unless created otherwise, which a record
+ * never straddles; the rest of a segment too short for the next record is
+ * padding, marked as such where it could still hold a record that was
+ * cleared.
+ * <p>
+ * The index file, {@value #INDEX_FILE}, is a memory-mapped, open-addressed
+ * table of the position and hash of every record, probed linearly as a
+ * {@link DriverIndex} is, and rewritten twice as large once half full. It is
+ * mapped in segments, as the data file is, so that a store can hold up to
+ * 2<sup>29</sup> Drivers; registering one more fails with an
+ * {@link IllegalStateException}, leaving the store as it was. A record is
+ * indexed before the data file's end is moved past it, and the index keeps
+ * the end it covers. Reopening a store only maps both files; an index that
+ * is missing, or that does not cover exactly the records up to the end of
+ * the data file, is rebuilt from the data file.
+ * <p>
+ * The Drivers handed out are views of their record, whose summary is read
+ * from and added to the mapped file. The most recently used are cached, so
+ * that recording a Trip does not decode its Driver's name again. Hourly
+ * totals are not kept.
+ * <p>
+ * Stored Drivers cannot be removed one at a time, only all at once by
+ * {@link #clear() clearing} the store, which reuses the space they took up
+ * rather than shrinking its files. Both files are written as mapped
+ * memory, so they survive the process ending abruptly, but are only forced to
+ * the disk when the store is {@link #close() closed}. This class is not
+ * thread-safe.
+ */
+public class DriverStore extends AbstractMap<String, Driver> implements DriverTable, Closeable {
+
+	/** The name of the data file in the directory of a store **/
+	public static final String DATA_FILE = "drivers.dat";
+
+	/** The name of the index file in the directory of a store **/
+	public static final String INDEX_FILE = "drivers.idx";
+
+	/** The default size, in bytes, of each mapped segment of the data file **/
+	public static final int SEGMENT_BYTES = 1 << 26;
+
+	/** Offsets, within a record, of its totals, in fixed-point and seconds **/
+	static final int DISTANCE = 0;
+	static final int DURATION = 8;
+
+	/** Offsets, within a record, of the hash and lengths of its key and name, which follow them **/
+	private static final int HASH = 16;
+	private static final int KEY_LENGTH = 20;
+	private static final int NAME_LENGTH = 22;
+	private static final int RECORD_HEADER = 24;
+
+	private static final int MAX_NAME_BYTES = 0xFFFF;
+
+	/**
+	 * A header of the magic {@code RDSD}, a version, the {@code long} end of
+	 * the last record and the size of each segment
+	 **/
+	private static final int DATA_MAGIC = 0x52445344;
+	private static final int END = 8;
+	private static final int DATA_SEGMENT_BYTES = 16;
+	private static final int DATA_HEADER = 24;
+
+	/**
+	 * A header of the magic {@code RDSI}, a version, the number of slots, the
+	 * number of records and the end of the last record indexed, padded so
+	 * that no slot straddles two mapped segments
+	 **/
+	private static final int INDEX_MAGIC = 0x52445349;
+	private static final int CAPACITY = 8;
+	private static final int SIZE = 12;
+	private static final int INDEXED_END = 16;
+	private static final int INDEX_HEADER = 32;
+
+	private static final int VERSION = 2;
+	private static final int INDEX_VERSION = 3;
+
+	/** A slot is the {@code long} position of a record + 1, {@code 0} when empty, and its {@code int} hash **/
+	private static final int SLOT_BYTES = 16;
+	private static final int SLOT_HASH = 8;
+
+	private static final int INITIAL_CAPACITY = 1 << 10;
+
+	/** The most slots of an index, which holds at most half as many records **/
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	/** The default size, in bytes, of each mapped segment of the index file **/
+	private static final int INDEX_SEGMENT_BYTES = 1 << 26;
+
+	private static final int CACHE_SIZE = 1 << 12;
+
+	private final Path directory;
+	private final FileChannel data;
+	private final int segmentBytes;
+	private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+	/** The position just past the last record **/
+	private long end;
+
+	private FileChannel index;
+	private final int indexSegmentBytes;
+
+	/** The mapped segments of the index file, the first of which holds its header **/
+	private MappedByteBuffer[] slots;
+	private int capacity;
+	private int size;
+
+	/** Recently used Drivers, by their record's position + 1 **/
+	private final Driver[] cache = new Driver[CACHE_SIZE];
+	private final long[] cachedRecords = new long[CACHE_SIZE];
+
+	private DriverStore(final Path directory, final int segmentBytes, final int indexSegmentBytes)
+			throws IOException {
+		this.directory = directory;
+		this.segmentBytes = segmentBytes;
+		this.indexSegmentBytes = indexSegmentBytes;
+		this.data = FileChannel.open(directory.resolve(DATA_FILE), StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		try {
+			final boolean created = this.data.size() == 0;
+
+			if (!created) {
+				// CHECKED BEFORE MAPPING, AS MAPPING A SEGMENT LARGER THAN THE FILE WOULD GROW IT
+				validateHeader();
+			}
+
+			final ByteBuffer header = segment(0);
+
+			if (created) {
+				header.putInt(0, DATA_MAGIC).putInt(4, VERSION).putLong(END, DATA_HEADER)
+						.putInt(DATA_SEGMENT_BYTES, segmentBytes);
+			}
+
+			this.end = header.getLong(END);
+			segment((int) ((this.end - 1) / segmentBytes));
+
+			if (!created && Files.exists(directory.resolve(INDEX_FILE))) {
+				openIndex();
+			} else {
+				rebuildIndex();
+			}
+		} catch (IOException | RuntimeException e) {
+			this.data.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens the store in {@code directory}, creating it if there is none.
+	 *
+	 * @param directory
+	 *            the directory holding the files of the store
+	 * @return the store
+	 * @throws IOException
+	 *             if the store cannot be created, or if the directory holds
+	 *             something other than a store
+	 */
+	public static DriverStore open(final Path directory) throws IOException {
+		Validate.notNull(directory, "directory cannot be null");
+
+		return open(directory, SEGMENT_BYTES, INDEX_SEGMENT_BYTES);
+	}
+
+	/**
+	 * Opens the store in {@code directory}, creating it with data segments
+	 * of {@code segmentBytes} if there is none, and mapping its index in
+	 * segments of {@code indexSegmentBytes}, which does not change the files
+	 * themselves.
+	 *
+	 * @throws IOException
+	 *             as {@link #open(Path)} does, or if the store was created
+	 *             with data segments of another size
+	 */
+	static DriverStore open(final Path directory, final int segmentBytes, final int indexSegmentBytes)
+			throws IOException {
+		Validate.notNull(directory, "directory cannot be null");
+		Validate.isTrue(Integer.bitCount(segmentBytes) == 1 && segmentBytes >= DATA_HEADER,
+				"segmentBytes must be a power of 2 of at least %d", DATA_HEADER);
+		Validate.isTrue(Integer.bitCount(indexSegmentBytes) == 1 && indexSegmentBytes >= INDEX_HEADER,
+				"indexSegmentBytes must be a power of 2 of at least %d", INDEX_HEADER);
+
+		Files.createDirectories(directory);
+		return new DriverStore(directory, segmentBytes, indexSegmentBytes);
+	}
+
+	@Override
+	public Driver getIgnoreCase(final String name) {
+		return get(DriverIndex.toKey(name));
+	}
+
+	@Override
+	public Driver get(final Object key) {
+
+		if (!(key instanceof String)) {
+			return null;
+		}
+
+		final long record = find((String) key);
+		return record < 0 ? null : driverAt(record);
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		return key instanceof String && find((String) key) >= 0;
+	}
+
+	@Override
+	public Driver get(final ByteBuffer buffer, final int from, final int to) {
+		final long record = find(buffer, from, to);
+		return record < 0 ? null : driverAt(record);
+	}
+
+	/**
+	 * @param options
+	 *            must be {@link DriverOptions#isStreaming() streaming}
+	 */
+	@Override
+	public Driver register(final ByteBuffer buffer, final int from, final int to, final DriverOptions options) {
+		Validate.isTrue(options.isStreaming(), "only streaming drivers can be stored");
+
+		if (find(buffer, from, to) >= 0) {
+			return null;
+		}
+
+		final String name = DriverIndex.decode(buffer, from, to);
+		return driverAt(append(DriverIndex.toKey(name), name));
+	}
+
+	/**
+	 * Stores the totals of {@code driver} under {@code key}, replacing those
+	 * of any Driver already stored under it.
+	 *
+	 * @return a copy of the Driver previously stored under {@code key}, or
+	 *         {@code null} if there was none
+	 */
+	@Override
+	public Driver put(final String key, final Driver driver) {
+		Validate.notNull(key, "key cannot be null");
+		Validate.notNull(driver, "driver cannot be null");
+
+		long record = find(key);
+		Driver previous = null;
+
+		if (record >= 0) {
+			final Driver stored = driverAt(record);
+			previous = new Driver(stored.getName(), stored.getDrivingSummary().snapshot());
+
+			final ByteBuffer segment = segmentOf(record);
+			segment.putLong(offsetOf(record) + DISTANCE, 0).putLong(offsetOf(record) + DURATION, 0);
+		} else {
+			record = append(key, driver.getName());
+		}
+
+		driverAt(record).getDrivingSummary().merge(driver.getDrivingSummary());
+		return previous;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Removes every stored Driver at once: the end of the data file is moved
+	 * back to its first record, and the index is replaced by an empty one.
+	 * Drivers handed out can no longer be used.
+	 */
+	@Override
+	public void clear() {
+		// PUBLISHED FIRST, SO THAT A CRASH BEFORE THE INDEX IS REPLACED LEAVES ONE THAT IS REBUILT ON OPENING
+		this.end = DATA_HEADER;
+		this.segments.get(0).putLong(END, this.end);
+
+		try {
+			this.index.close();
+			createIndex(this.directory.resolve(INDEX_FILE), INITIAL_CAPACITY);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		this.size = 0;
+		Arrays.fill(this.cache, null);
+		Arrays.fill(this.cachedRecords, 0);
+	}
+
+	/**
+	 * Iterates over the stored Drivers in the order in which they were
+	 * registered.
+	 */
+	@Override
+	public Set<Entry<String, Driver>> entrySet() {
+		return new AbstractSet<Entry<String, Driver>>() {
+			@Override
+			public Iterator<Entry<String, Driver>> iterator() {
+				final PrimitiveIterator.OfLong records = records();
+
+				return new Iterator<Entry<String, Driver>>() {
+					@Override
+					public boolean hasNext() {
+						return records.hasNext();
+					}
+
+					@Override
+					public Entry<String, Driver> next() {
+						final long record = records.nextLong();
+						final ByteBuffer segment = segmentOf(record);
+						final int from = offsetOf(record) + RECORD_HEADER;
+						final String key = DriverIndex.decode(segment, from, from + keyLength(record));
+
+						return new SimpleImmutableEntry<>(key, driverAt(record));
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return DriverStore.this.size;
+			}
+		};
+	}
+
+	/**
+	 * Iterates over the stored records in the order in which their Drivers
+	 * were registered, so that they can be compared on their
+	 * {@link #scaledDistanceAt(long) distance} without decoding the name of
+	 * every Driver.
+	 *
+	 * @return the position of each record
+	 */
+	public PrimitiveIterator.OfLong records() {
+		return new PrimitiveIterator.OfLong() {
+			private long next = recordAt(DATA_HEADER);
+
+			@Override
+			public boolean hasNext() {
+				return this.next < DriverStore.this.end;
+			}
+
+			@Override
+			public long nextLong() {
+
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+
+				final long record = this.next;
+				this.next = recordAt(record + recordLength(record));
+				return record;
+			}
+		};
+	}
+
+	/**
+	 * @param record
+	 *            the position of a record, as iterated by {@link #records()}
+	 * @return the total distance of the record's Driver, in fixed-point, read
+	 *         from the record's header alone
+	 */
+	public long scaledDistanceAt(final long record) {
+		return segmentOf(record).getLong(offsetOf(record) + DISTANCE);
+	}
+
+	/**
+	 * @param record
+	 *            the position of a record, as iterated by {@link #records()}
+	 * @return the Driver of the record, from the cache if it was recently
+	 *         used
+	 */
+	public Driver driverAt(final long record) {
+		final int entry = (int) ((record * 0x9E3779B97F4A7C15L) >>> 52) & (CACHE_SIZE - 1);
+
+		if (this.cachedRecords[entry] == record + 1) {
+			return this.cache[entry];
+		}
+
+		final ByteBuffer segment = segmentOf(record);
+		final int nameFrom = offsetOf(record) + RECORD_HEADER + keyLength(record);
+		final int nameTo = nameFrom + (segment.getShort(offsetOf(record) + NAME_LENGTH) & 0xFFFF);
+		final Driver driver = new Driver(DriverIndex.decode(segment, nameFrom, nameTo),
+				new StoredSummary(segment, offsetOf(record)));
+
+		this.cache[entry] = driver;
+		this.cachedRecords[entry] = record + 1;
+
+		return driver;
+	}
+
+	/**
+	 * Forces both files to the disk, then closes them. Drivers handed out
+	 * can no longer be used.
+	 */
+	@Override
+	public void close() throws IOException {
+
+		try {
+			Arrays.stream(this.slots).forEach(MappedByteBuffer::force);
+			this.segments.forEach(MappedByteBuffer::force);
+		} finally {
+			this.index.close();
+			this.data.close();
+		}
+	}
+
+	/**
+	 * @return the position of the record of the lower-cased {@code key}, or
+	 *         {@code -1} if there is none
+	 */
+	private long find(final String key) {
+		final int hash = key.hashCode();
+		byte[] bytes = null;
+
+		for (int i = slot(hash);; i = next(i)) {
+			final long record = recordIn(this.slots, i);
+
+			if (record < 0) {
+				return -1;
+			} else if (hashIn(this.slots, i) == hash) {
+				// ONLY ENCODED ONCE THE HASH OF A RECORD MATCHES
+				bytes = bytes == null ? key.getBytes(StandardCharsets.UTF_8) : bytes;
+
+				if (keyEquals(record, bytes)) {
+					return record;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the position of the record of a name held as bytes, in any
+	 *         case, or {@code -1} if there is none
+	 */
+	private long find(final ByteBuffer buffer, final int from, final int to) {
+		int hash = 0;
+
+		for (int i = from; i < to; i++) {
+			final byte b = buffer.get(i);
+
+			if (b < 0) {
+				return find(DriverIndex.toKey(DriverIndex.decode(buffer, from, to)));
+			}
+
+			hash = 31 * hash + DriverIndex.toLowerCase((char) b);
+		}
+
+		for (int i = slot(hash);; i = next(i)) {
+			final long record = recordIn(this.slots, i);
+
+			if (record < 0) {
+				return -1;
+			} else if (hashIn(this.slots, i) == hash && keyEqualsIgnoreCase(record, buffer, from, to)) {
+				return record;
+			}
+		}
+	}
+
+	private boolean keyEquals(final long record, final byte[] key) {
+		final ByteBuffer segment = segmentOf(record);
+		final int from = offsetOf(record) + RECORD_HEADER;
+
+		if (keyLength(record) != key.length) {
+			return false;
+		}
+
+		for (int i = 0; i < key.length; i++) {
+			if (segment.get(from + i) != key[i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return whether the key of the record is the ASCII name held as bytes,
+	 *         once lower-cased
+	 */
+	private boolean keyEqualsIgnoreCase(final long record, final ByteBuffer buffer, final int from, final int to) {
+		final ByteBuffer segment = segmentOf(record);
+		final int keyFrom = offsetOf(record) + RECORD_HEADER;
+
+		if (keyLength(record) != to - from) {
+			return false;
+		}
+
+		for (int i = 0; i < to - from; i++) {
+			if (segment.get(keyFrom + i) != DriverIndex.toLowerCase((char) buffer.get(from + i))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Appends a record of no Trips, and adds it to the index.
+	 *
+	 * @return the position of the record
+	 * @throws IllegalArgumentException
+	 *             if the name is blank, exactly as a Driver held on the heap
+	 *             cannot be created
+	 */
+	private long append(final String key, final String name) {
+		// A RECORD OF NO KEY WOULD BE TAKEN FOR THE ZEROED END OF A SEGMENT, HIDING EVERY RECORD AFTER IT
+		Validate.notBlank(name, "name cannot be blank");
+
+		final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		Validate.isTrue(nameBytes.length <= MAX_NAME_BYTES && keyBytes.length <= MAX_NAME_BYTES,
+				"name cannot be longer than %d bytes", MAX_NAME_BYTES);
+
+		final int length = RECORD_HEADER + keyBytes.length + nameBytes.length;
+		Validate.isTrue(length <= this.segmentBytes, "a record of %d bytes does not fit in a segment of %d",
+				length, this.segmentBytes);
+
+		long record = this.end;
+
+		if (offsetOf(record) + length > this.segmentBytes) {
+			// A RECORD NEVER STRADDLES SEGMENTS, SO THE REST OF THIS ONE IS PADDING
+			record = (record | (this.segmentBytes - 1)) + 1;
+		}
+
+		try {
+			if ((this.size + 1) * 2L > this.capacity) {
+				growIndex();
+			}
+
+			// MARKED AS SUCH, AS SPACE FREED BY CLEARING THE STORE STILL HOLDS THE RECORDS IT HELD
+			if (record != this.end && this.segmentBytes - offsetOf(this.end) >= RECORD_HEADER) {
+				segmentOf(this.end).putShort(offsetOf(this.end) + KEY_LENGTH, (short) 0);
+			}
+
+			final ByteBuffer segment = segment((int) (record / this.segmentBytes)).duplicate();
+			final int offset = offsetOf(record);
+
+			segment.putLong(offset + DISTANCE, 0).putLong(offset + DURATION, 0).putInt(offset + HASH, key.hashCode())
+					.putShort(offset + KEY_LENGTH, (short) keyBytes.length)
+					.putShort(offset + NAME_LENGTH, (short) nameBytes.length);
+			segment.position(offset + RECORD_HEADER);
+			segment.put(keyBytes).put(nameBytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		// INDEXED BEFORE THE END IS PUBLISHED, SO THAT A CRASH IN BETWEEN LEAVES AN INDEX THAT IS REBUILT ON OPENING
+		place(record, key.hashCode());
+		this.slots[0].putInt(SIZE, ++this.size).putLong(INDEXED_END, record + length);
+
+		this.end = record + length;
+		this.segments.get(0).putLong(END, this.end);
+
+		return record;
+	}
+
+	/**
+	 * @return the position of the record starting at or after
+	 *         {@code position}, skipping the padding at the end of a segment
+	 */
+	private long recordAt(final long position) {
+
+		if (position < this.end
+				&& (this.segmentBytes - offsetOf(position) < RECORD_HEADER || keyLength(position) == 0)) {
+			return (position | (this.segmentBytes - 1)) + 1;
+		}
+
+		return position;
+	}
+
+	private int recordLength(final long record) {
+		return RECORD_HEADER + keyLength(record) + (segmentOf(record).getShort(offsetOf(record) + NAME_LENGTH) & 0xFFFF);
+	}
+
+	private int keyLength(final long record) {
+		return segmentOf(record).getShort(offsetOf(record) + KEY_LENGTH) & 0xFFFF;
+	}
+
+	private ByteBuffer segmentOf(final long position) {
+		return this.segments.get((int) (position / this.segmentBytes));
+	}
+
+	private int offsetOf(final long position) {
+		return (int) (position & (this.segmentBytes - 1));
+	}
+
+	/**
+	 * Reads the header of an existing data file, without mapping it.
+	 *
+	 * @throws IOException
+	 *             if the file is not a store, or is one of data segments of
+	 *             another size
+	 */
+	private void validateHeader() throws IOException {
+		final ByteBuffer header = ByteBuffer.allocate(DATA_HEADER);
+
+		int read = 0;
+
+		while (header.hasRemaining() && read >= 0) {
+			read = this.data.read(header, header.position());
+		}
+
+		if (header.hasRemaining() || header.getInt(0) != DATA_MAGIC || header.getInt(4) != VERSION) {
+			throw new IOException("not a driver store: " + this.directory);
+		} else if (header.getInt(DATA_SEGMENT_BYTES) != this.segmentBytes) {
+			throw new IOException("a driver store of segments of " + header.getInt(DATA_SEGMENT_BYTES)
+					+ " bytes, not " + this.segmentBytes + ": " + this.directory);
+		}
+	}
+
+	/**
+	 * @return the segment, mapping it and any before it that are not yet,
+	 *         which grows the data file
+	 */
+	private MappedByteBuffer segment(final int segment) throws IOException {
+
+		while (this.segments.size() <= segment) {
+			this.segments.add(this.data.map(MapMode.READ_WRITE, (long) this.segments.size() * this.segmentBytes,
+					this.segmentBytes));
+		}
+
+		return this.segments.get(segment);
+	}
+
+	/**
+	 * Maps the index, or rebuilds it from the data file when it is of an
+	 * earlier version, or does not index exactly the records the data file
+	 * holds, as when the process ended between appending a record and
+	 * publishing its end.
+	 */
+	private void openIndex() throws IOException {
+		this.index = FileChannel.open(this.directory.resolve(INDEX_FILE), StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+
+		if (this.index.size() < INDEX_HEADER) {
+			this.index.close();
+			throw new IOException("not a driver store index: " + this.directory);
+		}
+
+		this.slots = mapIndex(this.index.size());
+		final ByteBuffer header = this.slots[0];
+
+		if (header.getInt(0) != INDEX_MAGIC) {
+			this.index.close();
+			throw new IOException("not a driver store index: " + this.directory);
+		}
+
+		if (header.getInt(4) != INDEX_VERSION || header.getLong(INDEXED_END) != this.end
+				|| this.index.size() != INDEX_HEADER + (long) header.getInt(CAPACITY) * SLOT_BYTES) {
+			this.index.close();
+			rebuildIndex();
+			return;
+		}
+
+		this.capacity = header.getInt(CAPACITY);
+		this.size = header.getInt(SIZE);
+	}
+
+	/**
+	 * Creates a new, empty index in {@code file}, in place of the current
+	 * one, without closing it.
+	 */
+	private void createIndex(final Path file, final int capacity) throws IOException {
+		this.index = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.slots = mapIndex(INDEX_HEADER + (long) capacity * SLOT_BYTES);
+		this.slots[0].putInt(0, INDEX_MAGIC).putInt(4, INDEX_VERSION).putInt(CAPACITY, capacity).putInt(SIZE, 0)
+				.putLong(INDEXED_END, this.end);
+		this.capacity = capacity;
+	}
+
+	private void rebuildIndex() throws IOException {
+		createIndex(this.directory.resolve(INDEX_FILE), INITIAL_CAPACITY);
+		this.size = 0;
+
+		for (long record = recordAt(DATA_HEADER); record < this.end; record = recordAt(record
+				+ recordLength(record))) {
+
+			if ((this.size + 1) * 2L > this.capacity) {
+				growIndex();
+			}
+
+			place(record, segmentOf(record).getInt(offsetOf(record) + HASH));
+			this.slots[0].putInt(SIZE, ++this.size);
+		}
+	}
+
+	/**
+	 * Rewrites the index twice as large, replacing the index file only once
+	 * the new one is complete.
+	 */
+	private void growIndex() throws IOException {
+		Validate.validState(this.capacity < MAX_CAPACITY, "a driver store cannot hold more than %d drivers",
+				MAX_CAPACITY / 2);
+
+		final FileChannel grownFrom = this.index;
+		final MappedByteBuffer[] previous = this.slots;
+		final int previousCapacity = this.capacity;
+		final Path grown = this.directory.resolve(INDEX_FILE + ".tmp");
+
+		createIndex(grown, previousCapacity * 2);
+
+		for (int i = 0; i < previousCapacity; i++) {
+			final long record = recordIn(previous, i);
+
+			if (record >= 0) {
+				place(record, hashIn(previous, i));
+			}
+		}
+
+		this.slots[0].putInt(SIZE, this.size);
+		grownFrom.close();
+		Files.move(grown, this.directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private void place(final long record, final int hash) {
+		int i = slot(hash);
+
+		while (recordIn(this.slots, i) >= 0) {
+			i = next(i);
+		}
+
+		final ByteBuffer segment = this.slots[segmentOfSlot(i)];
+		segment.putLong(offsetOfSlot(i), record + 1).putInt(offsetOfSlot(i) + SLOT_HASH, hash);
+	}
+
+	/**
+	 * @return the position of the record in a slot of {@code slots}, or
+	 *         {@code -1} if the slot is empty
+	 */
+	private long recordIn(final MappedByteBuffer[] slots, final int slot) {
+		return slots[segmentOfSlot(slot)].getLong(offsetOfSlot(slot)) - 1;
+	}
+
+	private int hashIn(final MappedByteBuffer[] slots, final int slot) {
+		return slots[segmentOfSlot(slot)].getInt(offsetOfSlot(slot) + SLOT_HASH);
+	}
+
+	private int segmentOfSlot(final int slot) {
+		return (int) (slotAt(slot) / this.indexSegmentBytes);
+	}
+
+	private int offsetOfSlot(final int slot) {
+		return (int) (slotAt(slot) & (this.indexSegmentBytes - 1));
+	}
+
+	/**
+	 * @return the first {@code length} bytes of the index file, mapped in
+	 *         segments, which grows the file
+	 */
+	private MappedByteBuffer[] mapIndex(final long length) throws IOException {
+		final MappedByteBuffer[] mapped = new MappedByteBuffer[(int) ((length - 1) / this.indexSegmentBytes) + 1];
+
+		for (int segment = 0; segment < mapped.length; segment++) {
+			final long from = (long) segment * this.indexSegmentBytes;
+			mapped[segment] = this.index.map(MapMode.READ_WRITE, from, Math.min(this.indexSegmentBytes, length - from));
+		}
+
+		return mapped;
+	}
+
+	private int slot(final int hash) {
+		return (hash ^ (hash >>> 16)) & (this.capacity - 1);
+	}
+
+	private int next(final int slot) {
+		return (slot + 1) & (this.capacity - 1);
+	}
+
+	private static long slotAt(final int slot) {
+		return INDEX_HEADER + (long) slot * SLOT_BYTES;
+	}
+}
@@ -0,0 +1,55 @@
+package com.awitt.root.model;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Case-insensitive {@link Map} of {@link Driver}s, keyed on the lower-cased
+ * {@link Driver#getName() driver name}, that can be probed straight from a
+ * name held as bytes or as a String of any case, whether its Drivers are held
+ * on the heap, as in a {@link DriverIndex}, or on disk, as in a
+ * {@link DriverStore}.
+ * <p>
+ * As a Map, keys must already be lower-cased, exactly as when the Drivers
+ * were held in a {@link java.util.HashMap}.
+ */
+public interface DriverTable extends Map<String, Driver> {
+
+	/**
+	 * @param name
+	 *            a driver name, in any case
+	 * @return the {@link Driver} with this name, ignoring case, or
+	 *         {@code null} if there is none
+	 */
+	Driver getIgnoreCase(String name);
+
+	/**
+	 * @param buffer
+	 *            the buffer holding a UTF-8 encoded driver name, in any case
+	 * @param from
+	 *            the absolute index of the first byte of the name, inclusive
+	 * @param to
+	 *            the absolute index of the end of the name, exclusive
+	 * @return the {@link Driver} with this name, ignoring case, or
+	 *         {@code null} if there is none
+	 */
+	Driver get(ByteBuffer buffer, int from, int to);
+
+	/**
+	 * Registers a new {@link Driver} under a name held as bytes, unless one
+	 * with the same name, ignoring case, is already registered. The name is
+	 * only decoded to a String when a new Driver is registered.
+	 *
+	 * @param buffer
+	 *            the buffer holding a UTF-8 encoded driver name
+	 * @param from
+	 *            the absolute index of the first byte of the name, inclusive
+	 * @param to
+	 *            the absolute index of the end of the name, exclusive
+	 * @param options
+	 *            how a new Driver keeps track of its {@link Trip}s
+	 * @return the newly registered Driver, or {@code null} if one was already
+	 *         registered
+	 */
+	Driver register(ByteBuffer buffer, int from, int to, DriverOptions options);
+}
@@ -1,11 +1,25 @@
 package com.awitt.root.model;
 
-import java.time.Duration;
-
 import org.apache.commons.lang3.Validate;
 
 /**
  * POJO representing a summary of a {@link Driver}'s {@link Trip}'s.
+ * <p>
+ * Distances are accumulated in fixed-point, so totals are exact and do not
+ * depend on the order in which Trips are added.
+ * <p>
+ * When created to keep hourly totals, the distance and duration of every Trip
+ * are also split across the hours of the day it covers, in proportion to the
+ * time spent in each, into two arrays allocated once with the summary. As
+ * with the totals, hourly distances are in fixed-point and always add up to
+ * the distance of the Trip.
+ * <p>
+ * When created to keep speeds, the average speed of every Trip is also added
+ * to a {@link SpeedSketch}, from which the percentiles of the Driver's speeds
+ * can be estimated in a fixed amount of memory.
+ * <p>
+ * Not thread-safe; a {@link ConcurrentDrivingSummary} can be added to from
+ * many threads at once.
  */
 public class DrivingSummary {
 
@@ -21,14 +35,51 @@ public class DrivingSummary {
 	 **/
 	public static final DrivingSummary NO_DATA = new DrivingSummary();
 
-	private double totalDistance;
+	/** The number of hourly totals kept, one per hour of the day **/
+	public static final int HOURS = 24;
+
+	private static final int SECONDS_PER_HOUR = 60 * 60;
+
+	/** In {@link Trip#DISTANCE_SCALE millionths of a mile} **/
+	private long totalDistance;
 	private long totalDuration;
 	private long averageSpeed;
 
+	/** In millionths of a mile and seconds, by hour of the day; {@code null} unless kept **/
+	private final long[] hourlyDistances;
+	private final long[] hourlyDurations;
+
+	/** The average speed of every Trip; {@code null} unless kept **/
+	private final SpeedSketch speeds;
+
 	public DrivingSummary() {
+		this(false);
+	}
+
+	/**
+	 * @param hourly
+	 *            whether or not to also keep the distance and duration of
+	 *            every Trip by hour of the day
+	 */
+	public DrivingSummary(final boolean hourly) {
+		this(hourly, false);
+	}
+
+	/**
+	 * @param hourly
+	 *            whether or not to also keep the distance and duration of
+	 *            every Trip by hour of the day
+	 * @param speeds
+	 *            whether or not to also keep a sketch of the average speed of
+	 *            every Trip
+	 */
+	public DrivingSummary(final boolean hourly, final boolean speeds) {
 		this.averageSpeed = -1;
 		this.totalDistance = 0;
 		this.totalDuration = 0;
+		this.hourlyDistances = hourly ? new long[HOURS] : null;
+		this.hourlyDurations = hourly ? new long[HOURS] : null;
+		this.speeds = speeds ? new SpeedSketch() : null;
 	}
 
 	/**
@@ -40,11 +91,151 @@ public DrivingSummary() {
 	public void addTripInfo(final Trip trip) {
 		Validate.notNull(trip, "trip cannot be null");
 
-		addDistance(trip.getDistance());
-		addDuration(Duration.between(trip.getStart(), trip.getEnd()).getSeconds());
+		addTripInfo(trip.getStart().toSecondOfDay(), trip.getEnd().toSecondOfDay(),
+				Trip.toFixedPoint(trip.getDistance()));
+	}
+
+	/**
+	 * Adds an already-parsed Trip's info to this summary, to the hours it
+	 * covers if hourly totals are kept, and its average speed to the sketch
+	 * of speeds if kept.
+	 * 
+	 * @param startSecond
+	 *            the second of the day at which the Trip started
+	 * @param endSecond
+	 *            the second of the day at which the Trip ended
+	 * @param distance
+	 *            the distance of the Trip; in {@link Trip#DISTANCE_SCALE
+	 *            millionths of a mile}
+	 */
+	public void addTripInfo(final int startSecond, final int endSecond, final long distance) {
+		addTripInfo(distance, endSecond - startSecond);
+
+		if (this.hourlyDistances != null && endSecond > startSecond) {
+			addHourly(startSecond, endSecond, distance);
+		}
+
+		if (this.speeds != null && endSecond > startSecond) {
+			this.speeds.add(distance, endSecond - startSecond);
+		}
+	}
+
+	/**
+	 * Adds an already-parsed Trip's info to this summary.
+	 * 
+	 * @param distance
+	 *            the distance of the Trip; in {@link Trip#DISTANCE_SCALE
+	 *            millionths of a mile}
+	 * @param duration
+	 *            the duration of the Trip; in seconds
+	 */
+	public void addTripInfo(final long distance, final long duration) {
+		addDistance(distance);
+		addDuration(duration);
+
+		// TOTALS CHANGED, SO ANY PREVIOUSLY-CALCULATED AVERAGE IS STALE
+		this.averageSpeed = -1;
+	}
+
+	/**
+	 * Adds totals already split by hour to the hourly totals of this summary,
+	 * such as those of a summary written to disk and read back. The totals of
+	 * the summary itself are left as they are.
+	 * 
+	 * @param hour
+	 *            the hour of the day, from {@code 0} to {@code 23}
+	 * @param distance
+	 *            the distance traveled during that hour; in
+	 *            {@link Trip#DISTANCE_SCALE millionths of a mile}
+	 * @param duration
+	 *            the number of seconds traveled during that hour
+	 * @throws IllegalStateException
+	 *             if hourly totals are not kept
+	 */
+	public void addHourlyInfo(final int hour, final long distance, final long duration) {
+		Validate.validState(isHourly(), "hourly totals are not kept");
+
+		this.hourlyDistances[hour] += distance;
+		this.hourlyDurations[hour] += duration;
 	}
 
-	private void addDistance(final double distance) {
+	/**
+	 * Adds all of the info in another summary to this summary, for example
+	 * to combine partial summaries of the same {@link Driver}.
+	 * 
+	 * @param other
+	 *            the summary to add to this summary
+	 */
+	public void merge(final DrivingSummary other) {
+		Validate.notNull(other, "other cannot be null");
+		final DrivingSummary totals = other.totals();
+		addTripInfo(totals.totalDistance, totals.totalDuration);
+
+		if (this.hourlyDistances != null && totals.hourlyDistances != null) {
+			for (int hour = 0; hour < HOURS; hour++) {
+				this.hourlyDistances[hour] += totals.hourlyDistances[hour];
+				this.hourlyDurations[hour] += totals.hourlyDurations[hour];
+			}
+		}
+
+		if (this.speeds != null && totals.speeds != null) {
+			this.speeds.merge(totals.speeds);
+		}
+	}
+
+	/**
+	 * @return a summary holding the totals of this summary as they are now,
+	 *         unaffected by any Trip added to this summary later
+	 */
+	public DrivingSummary snapshot() {
+		final DrivingSummary snapshot = new DrivingSummary(isHourly(), hasSpeeds());
+		snapshot.totalDistance = this.totalDistance;
+		snapshot.totalDuration = this.totalDuration;
+		snapshot.averageSpeed = this.averageSpeed;
+
+		if (isHourly()) {
+			System.arraycopy(this.hourlyDistances, 0, snapshot.hourlyDistances, 0, HOURS);
+			System.arraycopy(this.hourlyDurations, 0, snapshot.hourlyDurations, 0, HOURS);
+		}
+
+		if (hasSpeeds()) {
+			snapshot.speeds.merge(this.speeds);
+		}
+
+		return snapshot;
+	}
+
+	/**
+	 * @return a summary whose own fields hold the totals of this summary:
+	 *         this summary itself, unless a subclass holds its totals
+	 *         elsewhere, when it is a {@link #snapshot() snapshot}
+	 */
+	protected DrivingSummary totals() {
+		return this;
+	}
+
+	/**
+	 * Splits a Trip across every hour of the day it covers. Each hour's
+	 * distance is the difference of the rounded-down distances covered by
+	 * its end and by its start, so that the hours add up to the whole
+	 * distance.
+	 */
+	private void addHourly(final int startSecond, final int endSecond, final long distance) {
+		final long duration = endSecond - startSecond;
+		long covered = 0;
+
+		for (int hour = startSecond / SECONDS_PER_HOUR; hour * SECONDS_PER_HOUR < endSecond; hour++) {
+			final int from = Math.max(startSecond, hour * SECONDS_PER_HOUR);
+			final int to = Math.min(endSecond, (hour + 1) * SECONDS_PER_HOUR);
+			final long coveredByEnd = distance * (to - startSecond) / duration;
+
+			this.hourlyDistances[hour] += coveredByEnd - covered;
+			this.hourlyDurations[hour] += to - from;
+			covered = coveredByEnd;
+		}
+	}
+
+	private void addDistance(final long distance) {
 		this.totalDistance += distance;
 	}
 
@@ -53,13 +244,21 @@ private void addDuration(final long duration) {
 	}
 
 	private long calculateAverageSpeed() {
-		return Math.round(this.totalDistance / (this.totalDuration / 60.0 / 60.0));
+		return Math.round(Trip.toMiles(this.totalDistance) / (this.totalDuration / 60.0 / 60.0));
 	}
 
 	/**
 	 * @return the total distance traveled by this {@link Driver} in miles
 	 */
 	public double getTotalDistance() {
+		return Trip.toMiles(this.totalDistance);
+	}
+
+	/**
+	 * @return the total distance traveled by this {@link Driver}; in
+	 *         {@link Trip#DISTANCE_SCALE millionths of a mile}
+	 */
+	public long getScaledTotalDistance() {
 		return this.totalDistance;
 	}
 
@@ -70,6 +269,56 @@ public long getTotalDuration() {
 		return this.totalDuration;
 	}
 
+	/**
+	 * @return whether or not hourly totals are kept
+	 */
+	public boolean isHourly() {
+		return this.hourlyDistances != null;
+	}
+
+	/**
+	 * @param hour
+	 *            the hour of the day, from {@code 0} to {@code 23}
+	 * @return the distance traveled during that hour; in
+	 *         {@link Trip#DISTANCE_SCALE millionths of a mile}
+	 * @throws IllegalStateException
+	 *             if hourly totals are not kept
+	 */
+	public long getScaledHourlyDistance(final int hour) {
+		Validate.validState(isHourly(), "hourly totals are not kept");
+		return this.hourlyDistances[hour];
+	}
+
+	/**
+	 * @param hour
+	 *            the hour of the day, from {@code 0} to {@code 23}
+	 * @return the number of seconds traveled during that hour
+	 * @throws IllegalStateException
+	 *             if hourly totals are not kept
+	 */
+	public long getHourlyDuration(final int hour) {
+		Validate.validState(isHourly(), "hourly totals are not kept");
+		return this.hourlyDurations[hour];
+	}
+
+	/**
+	 * @return whether or not a sketch of the speed of every Trip is kept
+	 */
+	public boolean hasSpeeds() {
+		return this.speeds != null;
+	}
+
+	/**
+	 * @return the sketch of the average speed of every valid {@link Trip} of
+	 *         this {@link Driver}, which is added to as Trips are
+	 * @throws IllegalStateException
+	 *             if speeds are not kept
+	 */
+	public SpeedSketch getSpeeds() {
+		Validate.validState(hasSpeeds(), "speeds are not kept");
+		return this.speeds;
+	}
+
 	/**
 	 * @return the average speed, in miles per hour, of this {@link Driver}
 	 *         across all valid {@link Trip}s
@@ -85,38 +334,41 @@ public long getAverageSpeed() {
 
 	@Override
 	public String toString() {
-		final long totalDistance = Math.round(this.totalDistance);
+		final DrivingSummary totals = totals();
+		final long totalDistance = Math.round(Trip.toMiles(totals.totalDistance));
 
 		if (totalDistance == 0) {
 			return String.format("%s miles", totalDistance);
 		}
 
-		return String.format("%s miles @ %s mph", totalDistance, getAverageSpeed());
+		return String.format("%s miles @ %s mph", totalDistance, totals.getAverageSpeed());
 	}
 
 	@Override
 	public int hashCode() {
+		final DrivingSummary totals = totals();
 		final int prime = 31;
 		int result = 1;
-		long temp;
-		temp = Double.doubleToLongBits(this.totalDistance);
-		result = prime * result + (int) (temp ^ (temp >>> 32));
-		result = prime * result + (int) (this.totalDuration ^ (this.totalDuration >>> 32));
+		result = prime * result + (int) (totals.totalDistance ^ (totals.totalDistance >>> 32));
+		result = prime * result + (int) (totals.totalDuration ^ (totals.totalDuration >>> 32));
 		return result;
 	}
 
+	/**
+	 * Summaries are equal when their totals are, whether or not either is a
+	 * {@link ConcurrentDrivingSummary}.
+	 */
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj)
 			return true;
-		if (obj == null)
-			return false;
-		if (getClass() != obj.getClass())
+		if (!(obj instanceof DrivingSummary))
 			return false;
-		DrivingSummary other = (DrivingSummary) obj;
-		if (Double.doubleToLongBits(this.totalDistance) != Double.doubleToLongBits(other.totalDistance))
+		DrivingSummary totals = totals();
+		DrivingSummary other = ((DrivingSummary) obj).totals();
+		if (totals.totalDistance != other.totalDistance)
 			return false;
-		if (this.totalDuration != other.totalDuration)
+		if (totals.totalDuration != other.totalDuration)
 			return false;
 		return true;
 	}
@@ -0,0 +1,177 @@
+package com.awitt.root.model;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A mergeable sketch of the average speeds of many {@link Trip}s, from which
+ * any quantile, such as the median or the 99th percentile, can be estimated
+ * in a fixed amount of memory however many speeds are added.
+ * <p>
+ * Speeds are counted in buckets whose bounds grow geometrically, by a factor
+ * of {@code (1 + a) / (1 - a)} where {@code a} is the
+ * {@link #RELATIVE_ACCURACY relative accuracy}, across the range of speeds of
+ * a valid Trip. Each quantile is estimated by the one value that is within
+ * {@code a} of every speed in its bucket, so the estimate of a quantile
+ * {@code q} of {@code n} speeds is within {@code a} of the exact, nearest-rank
+ * speed: the {@code ceil(q * n)}th slowest of the speeds added, or the
+ * slowest for {@code q = 0}.
+ * <p>
+ * As only counts are kept, merging two sketches is exact: a sketch merged
+ * from the sketches of any split of the same speeds, in any order, is the
+ * same as the sketch of all of the speeds, so that parallel and sequential
+ * processing estimate the same quantiles. The counts are allocated on the
+ * first speed added, and take at most {@link #BUCKETS} {@code int}s.
+ * <p>
+ * Not thread-safe.
+ */
+public final class SpeedSketch {
+
+	/** The maximum relative error of an estimated quantile **/
+	public static final double RELATIVE_ACCURACY = 0.01;
+
+	private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+	private static final double LOG_GAMMA = Math.log(GAMMA);
+	private static final double MIN_SPEED = DrivingSummary.MIN_AVERAGE_SPEED;
+	private static final double MAX_SPEED = DrivingSummary.MAX_AVERAGE_SPEED;
+
+	/** The number of buckets covering the speeds of a valid Trip **/
+	public static final int BUCKETS = (int) Math.ceil(Math.log(MAX_SPEED / MIN_SPEED) / LOG_GAMMA);
+
+	/** The number of speeds in each bucket; {@code null} until a speed is added **/
+	private int[] counts;
+	private long count;
+
+	/**
+	 * Adds the average speed of a valid Trip to this sketch.
+	 *
+	 * @param speed
+	 *            in miles per hour; speeds outside those of a valid Trip are
+	 *            counted in the lowest or highest bucket
+	 */
+	public void add(final double speed) {
+		addToBucket(bucketOf(speed), 1);
+	}
+
+	/**
+	 * Adds the average speed of an already-parsed, valid Trip to this sketch.
+	 *
+	 * @param distance
+	 *            the distance of the Trip; in {@link Trip#DISTANCE_SCALE
+	 *            millionths of a mile}
+	 * @param duration
+	 *            the duration of the Trip; in seconds
+	 */
+	public void add(final long distance, final long duration) {
+		add(Trip.calculateAverageSpeed(Trip.toMiles(distance), duration));
+	}
+
+	/**
+	 * Adds counts already split into buckets to this sketch, such as those of
+	 * a sketch written to disk and read back.
+	 *
+	 * @param bucket
+	 *            the bucket, from {@code 0} to {@code BUCKETS - 1}
+	 * @param count
+	 *            the number of speeds in that bucket
+	 * @throws ArithmeticException
+	 *             if the bucket would hold more than
+	 *             {@link Integer#MAX_VALUE} speeds
+	 */
+	public void addToBucket(final int bucket, final int count) {
+		Validate.isTrue(bucket >= 0 && bucket < BUCKETS, "bucket must be between 0 and %s", BUCKETS - 1);
+		Validate.isTrue(count >= 0, "count cannot be negative");
+
+		if (count == 0) {
+			return;
+		}
+
+		if (this.counts == null) {
+			this.counts = new int[BUCKETS];
+		}
+
+		this.counts[bucket] = Math.addExact(this.counts[bucket], count);
+		this.count += count;
+	}
+
+	/**
+	 * Adds all of the speeds in another sketch to this sketch.
+	 *
+	 * @param other
+	 *            the sketch to add to this sketch
+	 */
+	public void merge(final SpeedSketch other) {
+		Validate.notNull(other, "other cannot be null");
+
+		if (other.counts == null) {
+			return;
+		}
+
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			addToBucket(bucket, other.counts[bucket]);
+		}
+	}
+
+	/**
+	 * @return a sketch of the speeds in this sketch as they are now
+	 */
+	public SpeedSketch copy() {
+		final SpeedSketch copy = new SpeedSketch();
+		copy.merge(this);
+		return copy;
+	}
+
+	/**
+	 * @return the number of speeds added to this sketch
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * @param bucket
+	 *            the bucket, from {@code 0} to {@code BUCKETS - 1}
+	 * @return the number of speeds in that bucket
+	 */
+	public int getBucketCount(final int bucket) {
+		Validate.isTrue(bucket >= 0 && bucket < BUCKETS, "bucket must be between 0 and %s", BUCKETS - 1);
+		return this.counts == null ? 0 : this.counts[bucket];
+	}
+
+	/**
+	 * @param quantile
+	 *            the quantile to estimate, from {@code 0} to {@code 1}, such
+	 *            as {@code 0.99} for the 99th percentile
+	 * @return the estimated speed at that quantile, in miles per hour, within
+	 *         {@link #RELATIVE_ACCURACY} of the exact speed
+	 * @throws IllegalStateException
+	 *             if no speed has been added
+	 */
+	public double getQuantile(final double quantile) {
+		Validate.inclusiveBetween(0.0, 1.0, quantile, "quantile must be between 0 and 1");
+		Validate.validState(this.count > 0, "no speeds have been added");
+
+		final long rank = Math.max(0, (long) Math.ceil(quantile * this.count) - 1);
+		long counted = 0;
+		int bucket = 0;
+
+		for (; bucket < BUCKETS - 1; bucket++) {
+			counted += this.counts[bucket];
+
+			if (counted > rank) {
+				break;
+			}
+		}
+
+		// EVERY SPEED IN THE BUCKET IS WITHIN THE RELATIVE ACCURACY OF THIS ONE, OR OF THE MAXIMUM ABOVE IT
+		return Math.min(MAX_SPEED, MIN_SPEED * Math.pow(GAMMA, bucket) * (1 + RELATIVE_ACCURACY));
+	}
+
+	private static int bucketOf(final double speed) {
+
+		if (!(speed > MIN_SPEED)) {
+			return 0;
+		}
+
+		return Math.min(BUCKETS - 1, (int) (Math.log(speed / MIN_SPEED) / LOG_GAMMA));
+	}
+}
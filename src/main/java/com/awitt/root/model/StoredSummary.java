@@ -0,0 +1,68 @@
+package com.awitt.root.model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link DrivingSummary} whose totals are held in a record of a
+ * {@link DriverStore} rather than on the heap, so that adding a Trip updates
+ * the store in place.
+ * <p>
+ * Hourly totals are not kept. Not thread-safe.
+ */
+class StoredSummary extends DrivingSummary {
+
+	private final ByteBuffer segment;
+	private final int record;
+
+	/**
+	 * @param segment
+	 *            the mapped segment of the data file holding the record
+	 * @param record
+	 *            the position of the record in {@code segment}
+	 */
+	StoredSummary(final ByteBuffer segment, final int record) {
+		this.segment = segment;
+		this.record = record;
+	}
+
+	@Override
+	public void addTripInfo(final long distance, final long duration) {
+		final int distanceAt = this.record + DriverStore.DISTANCE;
+		final int durationAt = this.record + DriverStore.DURATION;
+
+		this.segment.putLong(distanceAt, this.segment.getLong(distanceAt) + distance);
+		this.segment.putLong(durationAt, this.segment.getLong(durationAt) + duration);
+	}
+
+	@Override
+	public DrivingSummary snapshot() {
+		final DrivingSummary snapshot = new DrivingSummary();
+		snapshot.addTripInfo(getScaledTotalDistance(), getTotalDuration());
+		return snapshot;
+	}
+
+	@Override
+	protected DrivingSummary totals() {
+		return snapshot();
+	}
+
+	@Override
+	public double getTotalDistance() {
+		return Trip.toMiles(getScaledTotalDistance());
+	}
+
+	@Override
+	public long getScaledTotalDistance() {
+		return this.segment.getLong(this.record + DriverStore.DISTANCE);
+	}
+
+	@Override
+	public long getTotalDuration() {
+		return this.segment.getLong(this.record + DriverStore.DURATION);
+	}
+
+	@Override
+	public long getAverageSpeed() {
+		return snapshot().getAverageSpeed();
+	}
+}
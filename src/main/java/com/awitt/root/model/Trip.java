@@ -13,6 +13,15 @@
  */
 public class Trip {
 
+	/**
+	 * The number of fixed-point distance units in a mile; fixed-point
+	 * distances are in millionths of a mile
+	 **/
+	public static final long DISTANCE_SCALE = 1_000_000L;
+
+	private static final int MINUTES_PER_HOUR = 60;
+	private static final int SECONDS_PER_MINUTE = 60;
+
 	private final LocalTime start;
 	private final LocalTime end;
 	private final double distance;
@@ -45,6 +54,33 @@ public Trip(final String start, final String end, final String distance) {
 		this.averageSpeed = calculateAverageSpeed();
 	}
 
+	/**
+	 * Creates a new instance of this class from already-parsed values.
+	 * 
+	 * @param startMinute
+	 *            the minute of the day at which the trip started
+	 * @param endMinute
+	 *            the minute of the day at which the trip ended
+	 * @param distance
+	 *            the distance of the trip; in {@link #DISTANCE_SCALE
+	 *            millionths of a mile}
+	 */
+	public Trip(final int startMinute, final int endMinute, final long distance) {
+		this(toLocalTime(startMinute), toLocalTime(endMinute), toMiles(distance));
+	}
+
+	Trip(final LocalTime start, final LocalTime end, final double distance) {
+
+		this.start = start;
+		this.end = end;
+		this.distance = distance;
+		this.averageSpeed = calculateAverageSpeed();
+	}
+
+	private static LocalTime toLocalTime(final int minuteOfDay) {
+		return LocalTime.of(minuteOfDay / MINUTES_PER_HOUR, minuteOfDay % MINUTES_PER_HOUR);
+	}
+
 	private LocalTime parseTime(final String time) {
 		assert StringUtils.isNotBlank(time) : "time cannot be blank";
 		return LocalTime.parse(time);
@@ -67,8 +103,48 @@ public boolean meetsTripRequirements() {
 		return meetsAverageSpeedThreshold();
 	}
 
+	/**
+	 * Checks all requirements for a Trip to be valid, without creating an
+	 * instance of this class.
+	 * 
+	 * @param startMinute
+	 *            the minute of the day at which the trip started
+	 * @param endMinute
+	 *            the minute of the day at which the trip ended
+	 * @param distance
+	 *            the distance of the trip; in {@link #DISTANCE_SCALE
+	 *            millionths of a mile}
+	 * @return a boolean value indicating whether or not a Trip with these
+	 *         values would {@link #meetsTripRequirements() meet} the
+	 *         requirements for a valid Trip
+	 */
+	public static boolean meetsTripRequirements(final int startMinute, final int endMinute, final long distance) {
+		return meetsTripRequirements(toSeconds(startMinute, endMinute), distance);
+	}
+
+	/**
+	 * Checks all requirements for a Trip to be valid, without creating an
+	 * instance of this class.
+	 * 
+	 * @param duration
+	 *            the duration of the trip; in seconds
+	 * @param distance
+	 *            the distance of the trip; in {@link #DISTANCE_SCALE
+	 *            millionths of a mile}
+	 * @return a boolean value indicating whether or not a Trip with these
+	 *         values would {@link #meetsTripRequirements() meet} the
+	 *         requirements for a valid Trip
+	 */
+	public static boolean meetsTripRequirements(final long duration, final long distance) {
+		return meetsAverageSpeedThreshold(calculateAverageSpeed(toMiles(distance), duration));
+	}
+
+	private static boolean meetsAverageSpeedThreshold(final double averageSpeed) {
+		return Double.compare(averageSpeed, 5.0) >= 0 && Double.compare(averageSpeed, 100.0) <= 0;
+	}
+
 	private boolean meetsAverageSpeedThreshold() {
-		return Double.compare(this.averageSpeed, 5.0) >= 0 && Double.compare(this.averageSpeed, 100.0) <= 0;
+		return meetsAverageSpeedThreshold(this.averageSpeed);
 	}
 
 	public double getAverageSpeed() {
@@ -76,7 +152,38 @@ public double getAverageSpeed() {
 	}
 
 	private double calculateAverageSpeed() {
-		return this.distance / (Duration.between(this.start, this.end).getSeconds() / 60.0 / 60.0);
+		return calculateAverageSpeed(this.distance, Duration.between(this.start, this.end).getSeconds());
+	}
+
+	static double calculateAverageSpeed(final double distance, final long seconds) {
+		return distance / (seconds / 60.0 / 60.0);
+	}
+
+	/**
+	 * @return the number of seconds between two minutes of the day; negative
+	 *         if {@code endMinute} is before {@code startMinute}
+	 */
+	public static long toSeconds(final int startMinute, final int endMinute) {
+		return (long) (endMinute - startMinute) * SECONDS_PER_MINUTE;
+	}
+
+	/**
+	 * @param distance
+	 *            a distance in {@link #DISTANCE_SCALE millionths of a mile}
+	 * @return the same distance in miles
+	 */
+	public static double toMiles(final long distance) {
+		return distance / (double) DISTANCE_SCALE;
+	}
+
+	/**
+	 * @param miles
+	 *            a distance in miles
+	 * @return the same distance in {@link #DISTANCE_SCALE millionths of a
+	 *         mile}, rounded to the nearest unit
+	 */
+	public static long toFixedPoint(final double miles) {
+		return Math.round(miles * DISTANCE_SCALE);
 	}
 
 	public LocalTime getStart() {
@@ -0,0 +1,196 @@
+package com.awitt.root.model;
+
+import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+import com.awitt.root.metrics.IngestMetrics;
+
+/**
+ * Compact, columnar store of the {@link Trip}s retained by a {@link Driver}.
+ * <p>
+ * Rather than one object per Trip (a Trip and its two {@link LocalTime}s cost
+ * around 100 bytes), each Trip is held as one slot in each of three growable
+ * primitive arrays: its start and end times as an int second of the day, and
+ * its distance as a long number of {@link Trip#DISTANCE_SCALE millionths of a
+ * mile}. That is 16 bytes per retained Trip, and aggregation is a tight loop
+ * over the arrays.
+ * <p>
+ * Times are held to the second, rather than the minute, so that the rare
+ * Trip given as {@code HH:MM:SS} is kept exactly.
+ */
+public class TripStore {
+
+	private static final int INITIAL_CAPACITY = 4;
+	private static final int SECONDS_PER_MINUTE = 60;
+
+	private int[] starts;
+	private int[] ends;
+	private long[] distances;
+	private int size;
+
+	/**
+	 * Creates an empty store.
+	 */
+	public TripStore() {
+		this.starts = new int[INITIAL_CAPACITY];
+		this.ends = new int[INITIAL_CAPACITY];
+		this.distances = new long[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Adds a Trip to this store.
+	 * 
+	 * @param trip
+	 *            the Trip to add
+	 */
+	public void add(final Trip trip) {
+		Validate.notNull(trip, "trip cannot be null");
+		addSeconds(trip.getStart().toSecondOfDay(), trip.getEnd().toSecondOfDay(),
+				Trip.toFixedPoint(trip.getDistance()));
+	}
+
+	/**
+	 * Adds an already-parsed Trip to this store.
+	 * 
+	 * @param startMinute
+	 *            the minute of the day at which the trip started
+	 * @param endMinute
+	 *            the minute of the day at which the trip ended
+	 * @param distance
+	 *            the distance of the trip; in {@link Trip#DISTANCE_SCALE
+	 *            millionths of a mile}
+	 */
+	public void add(final int startMinute, final int endMinute, final long distance) {
+		addSeconds(startMinute * SECONDS_PER_MINUTE, endMinute * SECONDS_PER_MINUTE, distance);
+	}
+
+	/**
+	 * Adds every Trip in {@code other} to this store.
+	 * 
+	 * @param other
+	 *            the store whose Trips are to be added
+	 */
+	public void addAll(final TripStore other) {
+		Validate.notNull(other, "other cannot be null");
+
+		ensureCapacity(this.size + other.size);
+		System.arraycopy(other.starts, 0, this.starts, this.size, other.size);
+		System.arraycopy(other.ends, 0, this.ends, this.size, other.size);
+		System.arraycopy(other.distances, 0, this.distances, this.size, other.size);
+		this.size += other.size;
+	}
+
+	private void addSeconds(final int startSecond, final int endSecond, final long distance) {
+		ensureCapacity(this.size + 1);
+
+		this.starts[this.size] = startSecond;
+		this.ends[this.size] = endSecond;
+		this.distances[this.size] = distance;
+		this.size++;
+	}
+
+	/**
+	 * Adds the info of every Trip in this store that
+	 * {@link Trip#meetsTripRequirements() meets} Trip requirements to the
+	 * {@code summary}, counting the others in the {@link IngestMetrics}.
+	 * 
+	 * @param summary
+	 *            the {@link DrivingSummary} to which to add valid Trips
+	 */
+	public void aggregateInto(final DrivingSummary summary) {
+		Validate.notNull(summary, "summary cannot be null");
+
+		long totalDistance = 0;
+		long totalDuration = 0;
+		int valid = 0;
+
+		for (int i = 0; i < this.size; i++) {
+			final long duration = this.ends[i] - this.starts[i];
+
+			if (!Trip.meetsTripRequirements(duration, this.distances[i])) {
+				continue;
+			}
+
+			if (summary.isHourly() || summary.hasSpeeds()) {
+				// ONLY HOURLY TOTALS AND SPEEDS NEED EACH TRIP ON ITS OWN
+				summary.addTripInfo(this.starts[i], this.ends[i], this.distances[i]);
+			} else {
+				totalDistance += this.distances[i];
+				totalDuration += duration;
+			}
+
+			valid++;
+		}
+
+		summary.addTripInfo(totalDistance, totalDuration);
+		IngestMetrics.GLOBAL.invalidTrips(this.size - valid);
+	}
+
+	/**
+	 * @return the number of Trips in this store that
+	 *         {@link Trip#meetsTripRequirements() meet} Trip requirements
+	 */
+	public int countValidTrips() {
+		int count = 0;
+
+		for (int i = 0; i < this.size; i++) {
+			if (Trip.meetsTripRequirements(this.ends[i] - this.starts[i], this.distances[i])) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * @return the number of Trips in this store
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Releases any capacity not used by the Trips in this store.
+	 */
+	public void trimToSize() {
+		this.starts = Arrays.copyOf(this.starts, this.size);
+		this.ends = Arrays.copyOf(this.ends, this.size);
+		this.distances = Arrays.copyOf(this.distances, this.size);
+	}
+
+	/**
+	 * @return a read-only view of this store, creating each {@link Trip} as
+	 *         it is retrieved
+	 */
+	public List<Trip> asList() {
+		return new AbstractList<Trip>() {
+			@Override
+			public Trip get(final int index) {
+				Validate.validIndex(this, index);
+				return new Trip(LocalTime.ofSecondOfDay(TripStore.this.starts[index]),
+						LocalTime.ofSecondOfDay(TripStore.this.ends[index]),
+						Trip.toMiles(TripStore.this.distances[index]));
+			}
+
+			@Override
+			public int size() {
+				return TripStore.this.size;
+			}
+		};
+	}
+
+	private void ensureCapacity(final int capacity) {
+
+		if (capacity > this.starts.length) {
+			final int grown = Math.max(capacity, this.starts.length + (this.starts.length >> 1) + 1);
+
+			this.starts = Arrays.copyOf(this.starts, grown);
+			this.ends = Arrays.copyOf(this.ends, grown);
+			this.distances = Arrays.copyOf(this.distances, grown);
+		}
+	}
+}
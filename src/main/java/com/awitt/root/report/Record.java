@@ -0,0 +1,240 @@
+package com.awitt.root.report;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.Validate;
+
+import com.awitt.root.model.Trip;
+
+/**
+ * Reusable, growable byte buffer into which a single report record is
+ * formatted before being handed to a {@link ReportWriter}, so that formatting
+ * creates no String other than for non-ASCII names.
+ */
+final class Record {
+
+	private static final byte[] DIGITS = "0123456789".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+	/** Number of decimal digits of a {@link Trip#DISTANCE_SCALE} fraction **/
+	private static final int SCALE_DIGITS = 6;
+
+	/** The largest array some JVMs allocate, as they keep header words in it **/
+	static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	private byte[] bytes = new byte[256];
+	private int length;
+
+	Record clear() {
+		this.length = 0;
+		return this;
+	}
+
+	int length() {
+		return this.length;
+	}
+
+	byte[] toBytes() {
+		return Arrays.copyOf(this.bytes, this.length);
+	}
+
+	/**
+	 * Copies as much of this record as fits, from {@code offset}, into
+	 * {@code buffer}.
+	 * 
+	 * @return the number of bytes copied
+	 */
+	int copyTo(final int offset, final ByteBuffer buffer) {
+		final int count = Math.min(this.length - offset, buffer.remaining());
+		buffer.put(this.bytes, offset, count);
+		return count;
+	}
+
+	Record put(final byte value) {
+		ensure(1);
+		this.bytes[this.length++] = value;
+		return this;
+	}
+
+	Record put(final byte[] values) {
+		ensure(values.length);
+		System.arraycopy(values, 0, this.bytes, this.length, values.length);
+		this.length += values.length;
+		return this;
+	}
+
+	/**
+	 * Appends {@code value} encoded as UTF-8.
+	 */
+	Record utf8(final String value) {
+
+		for (int i = 0; i < value.length(); i++) {
+			if (value.charAt(i) > Byte.MAX_VALUE) {
+				return put(value.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+
+		ensure(value.length());
+
+		for (int i = 0; i < value.length(); i++) {
+			this.bytes[this.length++] = (byte) value.charAt(i);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Appends {@code value} as a quoted JSON string.
+	 */
+	Record json(final String value) {
+		put((byte) '"');
+
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+
+			if (c == '"' || c == '\\') {
+				put((byte) '\\').put((byte) c);
+			} else if (c < 0x20) {
+				put((byte) '\\').put((byte) 'u').put((byte) '0').put((byte) '0').put(HEX[c >> 4]).put(HEX[c & 0xF]);
+			} else if (c > Byte.MAX_VALUE) {
+				// LEAVE ANY SURROGATE PAIR TO BE ENCODED WHOLE
+				final int end = Character.isHighSurrogate(c) && i + 1 < value.length() ? i + 2 : i + 1;
+				put(value.substring(i, end).getBytes(StandardCharsets.UTF_8));
+				i = end - 1;
+			} else {
+				put((byte) c);
+			}
+		}
+
+		return put((byte) '"');
+	}
+
+	/**
+	 * Appends {@code value} as a CSV field, quoted only if it must be.
+	 */
+	Record csv(final String value) {
+
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+				&& value.indexOf('\r') < 0) {
+			return utf8(value);
+		}
+
+		return put((byte) '"').utf8(value.replace("\"", "\"\"")).put((byte) '"');
+	}
+
+	/**
+	 * Appends {@code value} in decimal.
+	 */
+	Record decimal(final long value) {
+
+		if (value == Long.MIN_VALUE) {
+			return utf8(Long.toString(value));
+		} else if (value < 0) {
+			put((byte) '-');
+			return decimal(-value);
+		}
+
+		int digits = 1;
+
+		for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+			digits++;
+		}
+
+		ensure(digits);
+
+		long remaining = value;
+
+		for (int i = this.length + digits - 1; i >= this.length; i--) {
+			this.bytes[i] = DIGITS[(int) (remaining % 10)];
+			remaining /= 10;
+		}
+
+		this.length += digits;
+		return this;
+	}
+
+	/**
+	 * Appends a distance in {@link Trip#DISTANCE_SCALE millionths of a mile}
+	 * as an exact decimal number of miles, without trailing zeros.
+	 */
+	Record miles(final long scaled) {
+
+		if (scaled < 0) {
+			put((byte) '-');
+			return miles(-scaled);
+		}
+
+		decimal(scaled / Trip.DISTANCE_SCALE);
+
+		long fraction = scaled % Trip.DISTANCE_SCALE;
+
+		if (fraction == 0) {
+			return this;
+		}
+
+		int digits = SCALE_DIGITS;
+
+		while (fraction % 10 == 0) {
+			fraction /= 10;
+			digits--;
+		}
+
+		put((byte) '.');
+
+		for (int i = digits - 1; i >= 0; i--) {
+			put(DIGITS[(int) (fraction / pow10(i) % 10)]);
+		}
+
+		return this;
+	}
+
+	Record int32(final int value) {
+		return put((byte) (value >>> 24)).put((byte) (value >>> 16)).put((byte) (value >>> 8)).put((byte) value);
+	}
+
+	/**
+	 * Overwrites the four bytes at {@code offset}, such as a length reserved
+	 * before the bytes it measures were appended.
+	 */
+	Record int32At(final int offset, final int value) {
+		this.bytes[offset] = (byte) (value >>> 24);
+		this.bytes[offset + 1] = (byte) (value >>> 16);
+		this.bytes[offset + 2] = (byte) (value >>> 8);
+		this.bytes[offset + 3] = (byte) value;
+		return this;
+	}
+
+	Record int64(final long value) {
+		return int32((int) (value >>> 32)).int32((int) value);
+	}
+
+	private static long pow10(final int exponent) {
+		long value = 1;
+
+		for (int i = 0; i < exponent; i++) {
+			value *= 10;
+		}
+
+		return value;
+	}
+
+	private void ensure(final int count) {
+
+		if ((long) this.length + count > this.bytes.length) {
+			this.bytes = Arrays.copyOf(this.bytes, grownCapacity(this.length, count, this.bytes.length));
+		}
+	}
+
+	/**
+	 * @return a capacity of at least {@code length + count}, doubling
+	 *         {@code capacity} where that fits in an array
+	 */
+	static int grownCapacity(final int length, final int count, final int capacity) {
+		final long required = (long) length + count;
+
+		Validate.validState(required <= MAX_CAPACITY, "a record of %d bytes cannot hold %d more", length, count);
+		return (int) Math.min(Math.max(required, capacity * 2L), MAX_CAPACITY);
+	}
+}
@@ -0,0 +1,170 @@
+package com.awitt.root.report;
+
+import java.nio.charset.StandardCharsets;
+
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DrivingSummary;
+import com.awitt.root.model.SpeedSketch;
+import com.awitt.root.model.Trip;
+
+/**
+ * The formats in which a {@link ReportWriter} can write the summary of each
+ * {@link Driver}.
+ */
+public enum ReportFormat {
+
+	/**
+	 * One line per Driver, exactly as logged by the application:
+	 * {@code Dan: 39 miles @ 47 mph}
+	 **/
+	TEXT {
+		@Override
+		void encode(final Driver driver, final Record record) {
+			final DrivingSummary summary = driver.getDrivingSummary();
+			final long miles = Math.round(summary.getTotalDistance());
+
+			record.utf8(driver.getName()).put(COLON).decimal(miles).put(MILES);
+
+			if (miles != 0) {
+				record.put(AT).decimal(summary.getAverageSpeed()).put(MPH);
+			}
+
+			record.put(NEWLINE);
+		}
+	},
+
+	/**
+	 * A header, then one line per Driver of its name, exact total distance in
+	 * miles, total duration in seconds and average speed in miles per hour
+	 **/
+	CSV {
+		private final byte[] header = ascii("name,miles,seconds,mph\n");
+
+		@Override
+		byte[] header() {
+			return this.header;
+		}
+
+		@Override
+		void encode(final Driver driver, final Record record) {
+			final DrivingSummary summary = driver.getDrivingSummary();
+
+			record.csv(driver.getName()).put(COMMA).miles(summary.getScaledTotalDistance()).put(COMMA)
+					.decimal(summary.getTotalDuration()).put(COMMA).decimal(summary.getAverageSpeed()).put(NEWLINE);
+		}
+	},
+
+	/**
+	 * One JSON object per line per Driver, with the same fields as
+	 * {@link #CSV}:
+	 * {@code {"name":"Dan","miles":39.1,"seconds":3000,"mph":47}}, and, if
+	 * the summary keeps hourly totals, {@code hourlyMiles} and
+	 * {@code hourlySeconds} arrays of the 24 hours of the day, and, if it
+	 * keeps speeds of at least one Trip, the estimated {@code speedP50},
+	 * {@code speedP95} and {@code speedP99} percentiles, in miles per hour
+	 **/
+	JSON {
+		private final byte[] miles = ascii(",\"miles\":");
+		private final byte[] seconds = ascii(",\"seconds\":");
+		private final byte[] mph = ascii(",\"mph\":");
+		private final byte[] name = ascii("{\"name\":");
+		private final byte[] hourlyMiles = ascii(",\"hourlyMiles\":[");
+		private final byte[] hourlySeconds = ascii("],\"hourlySeconds\":[");
+		private final byte[] speedP50 = ascii(",\"speedP50\":");
+		private final byte[] speedP95 = ascii(",\"speedP95\":");
+		private final byte[] speedP99 = ascii(",\"speedP99\":");
+
+		@Override
+		void encode(final Driver driver, final Record record) {
+			final DrivingSummary summary = driver.getDrivingSummary();
+
+			record.put(this.name).json(driver.getName()).put(this.miles).miles(summary.getScaledTotalDistance())
+					.put(this.seconds).decimal(summary.getTotalDuration()).put(this.mph)
+					.decimal(summary.getAverageSpeed());
+
+			if (summary.isHourly()) {
+				record.put(this.hourlyMiles);
+
+				for (int hour = 0; hour < DrivingSummary.HOURS; hour++) {
+					(hour == 0 ? record : record.put(COMMA)).miles(summary.getScaledHourlyDistance(hour));
+				}
+
+				record.put(this.hourlySeconds);
+
+				for (int hour = 0; hour < DrivingSummary.HOURS; hour++) {
+					(hour == 0 ? record : record.put(COMMA)).decimal(summary.getHourlyDuration(hour));
+				}
+
+				record.put((byte) ']');
+			}
+
+			if (summary.hasSpeeds() && summary.getSpeeds().getCount() > 0) {
+				final SpeedSketch speeds = summary.getSpeeds();
+
+				record.put(this.speedP50).miles(hundredths(speeds.getQuantile(0.50))).put(this.speedP95)
+						.miles(hundredths(speeds.getQuantile(0.95))).put(this.speedP99)
+						.miles(hundredths(speeds.getQuantile(0.99)));
+			}
+
+			record.put((byte) '}').put(NEWLINE);
+		}
+
+		/**
+		 * @return a speed rounded to the hundredth of a mile per hour, well
+		 *         within the accuracy of the sketch, in the fixed-point of
+		 *         {@link Record#miles(long)}
+		 */
+		private long hundredths(final double speed) {
+			return Math.round(speed * 100) * (Trip.DISTANCE_SCALE / 100);
+		}
+	},
+
+	/**
+	 * A header of the magic {@code RDRP} and a version, then per Driver, all
+	 * big-endian: the {@code int} length of the UTF-8 name, the name, and the
+	 * {@code long} total distance, in millionths of a mile, and total
+	 * duration, in seconds
+	 **/
+	BINARY {
+		private final byte[] header = new Record().int32(0x52445250).int32(1).toBytes();
+
+		@Override
+		byte[] header() {
+			return this.header;
+		}
+
+		@Override
+		void encode(final Driver driver, final Record record) {
+			final DrivingSummary summary = driver.getDrivingSummary();
+			final int length = record.length();
+
+			record.int32(0).utf8(driver.getName());
+			record.int32At(length, record.length() - length - Integer.BYTES);
+			record.int64(summary.getScaledTotalDistance()).int64(summary.getTotalDuration());
+		}
+	};
+
+	private static final byte NEWLINE = '\n';
+	private static final byte COMMA = ',';
+	private static final byte[] COLON = ascii(": ");
+	private static final byte[] MILES = ascii(" miles");
+	private static final byte[] AT = ascii(" @ ");
+	private static final byte[] MPH = ascii(" mph");
+
+	/**
+	 * @return the bytes written once, before any Driver
+	 */
+	byte[] header() {
+		return new byte[0];
+	}
+
+	/**
+	 * Appends the summary of an already {@link Driver#aggregateTrips()
+	 * aggregated} Driver to {@code record}.
+	 */
+	abstract void encode(Driver driver, Record record);
+
+	private static byte[] ascii(final String text) {
+		return text.getBytes(StandardCharsets.US_ASCII);
+	}
+}
@@ -0,0 +1,169 @@
+package com.awitt.root.report;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.IntUnaryOperator;
+
+import org.apache.commons.lang3.Validate;
+
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverIndex;
+
+/**
+ * Immutable copy of the summary of every {@link Driver} at one point in time,
+ * that can be queried by any number of threads while the Drivers themselves
+ * keep being updated.
+ * <p>
+ * Each Driver is formatted once, when the snapshot is taken, as a
+ * {@link ReportFormat#JSON} line held in an array of its own, so that no
+ * single array has to hold the lines of every Driver. A query only looks up
+ * the lines it needs: the first Drivers of the report by their position, and
+ * a Driver by name, or by the start of its name, by a binary search over the
+ * lower-cased names.
+ */
+public final class ReportSnapshot {
+
+	/** A snapshot of no Drivers at all **/
+	public static final ReportSnapshot EMPTY = of(Collections.emptyList());
+
+	/** Every Driver's JSON line, in report order **/
+	private final byte[][] lines;
+
+	/** The lower-cased name of every Driver, in order **/
+	private final String[] keys;
+
+	/** The position in the report of each Driver, in the order of its key **/
+	private final int[] ranks;
+
+	private ReportSnapshot(final byte[][] lines, final String[] keys, final int[] ranks) {
+		this.lines = lines;
+		this.keys = keys;
+		this.ranks = ranks;
+	}
+
+	/**
+	 * Takes a snapshot of {@code drivers}, which must not be updated until it
+	 * is returned.
+	 *
+	 * @param drivers
+	 *            the Drivers to take a snapshot of, each already
+	 *            {@link Driver#aggregateTrips() aggregated}
+	 * @return the snapshot
+	 */
+	public static ReportSnapshot of(final Collection<Driver> drivers) {
+		Validate.notNull(drivers, "drivers cannot be null");
+
+		final Driver[] sorted = drivers.toArray(new Driver[drivers.size()]);
+		Arrays.sort(sorted);
+
+		final Record record = new Record();
+		final byte[][] lines = new byte[sorted.length][];
+		final String[] keys = new String[sorted.length];
+		final Integer[] byKey = new Integer[sorted.length];
+
+		for (int rank = 0; rank < sorted.length; rank++) {
+			ReportFormat.JSON.encode(sorted[rank], record.clear());
+			lines[rank] = record.toBytes();
+			keys[rank] = DriverIndex.toKey(sorted[rank].getName());
+			byKey[rank] = rank;
+		}
+
+		Arrays.sort(byKey, (first, second) -> keys[first].compareTo(keys[second]));
+
+		final String[] orderedKeys = new String[sorted.length];
+		final int[] ranks = new int[sorted.length];
+
+		for (int i = 0; i < byKey.length; i++) {
+			ranks[i] = byKey[i];
+			orderedKeys[i] = keys[ranks[i]];
+		}
+
+		return new ReportSnapshot(lines, orderedKeys, ranks);
+	}
+
+	/**
+	 * @return the number of Drivers in this snapshot
+	 */
+	public int size() {
+		return this.lines.length;
+	}
+
+	/**
+	 * @param name
+	 *            the name of a Driver, in any case
+	 * @return the JSON line of the Driver; {@code null} if there is none
+	 */
+	public ByteBuffer driver(final String name) {
+		Validate.notNull(name, "name cannot be null");
+
+		final int index = Arrays.binarySearch(this.keys, DriverIndex.toKey(name));
+
+		return index < 0 ? null : ByteBuffer.wrap(this.lines[this.ranks[index]]).asReadOnlyBuffer();
+	}
+
+	/**
+	 * @param count
+	 *            the number of Drivers
+	 * @return the JSON lines of the first {@code count} Drivers of the
+	 *         report, or of every Driver if there are fewer
+	 * @throws IllegalArgumentException
+	 *             if their lines do not fit in a single buffer
+	 */
+	public ByteBuffer top(final int count) {
+		Validate.isTrue(count > 0, "count must be positive");
+
+		return join(0, Math.min(count, size()), rank -> rank);
+	}
+
+	/**
+	 * @param prefix
+	 *            the start of the names of the Drivers, in any case
+	 * @param limit
+	 *            the largest number of Drivers
+	 * @return the JSON lines of the Drivers whose name starts with
+	 *         {@code prefix}, ordered by name, up to {@code limit} of them
+	 * @throws IllegalArgumentException
+	 *             if their lines do not fit in a single buffer
+	 */
+	public ByteBuffer withPrefix(final String prefix, final int limit) {
+		Validate.notNull(prefix, "prefix cannot be null");
+		Validate.isTrue(limit > 0, "limit must be positive");
+
+		final String key = DriverIndex.toKey(prefix);
+		final int first = Arrays.binarySearch(this.keys, key);
+		int end = first < 0 ? -first - 1 : first;
+		final int start = end;
+
+		while (end < this.keys.length && end - start < limit && this.keys[end].startsWith(key)) {
+			end++;
+		}
+
+		return join(start, end, i -> this.ranks[i]);
+	}
+
+	/**
+	 * @return the lines of the Drivers ranked {@code rank} of each index from
+	 *         {@code from} to {@code to}, one after another
+	 */
+	private ByteBuffer join(final int from, final int to, final IntUnaryOperator rank) {
+		long length = 0;
+
+		for (int i = from; i < to; i++) {
+			length += this.lines[rank.applyAsInt(i)].length;
+		}
+
+		Validate.isTrue(length <= Record.MAX_CAPACITY, "the lines of %d drivers do not fit in a single buffer",
+				to - from);
+
+		final ByteBuffer joined = ByteBuffer.allocate((int) length);
+
+		for (int i = from; i < to; i++) {
+			joined.put(this.lines[rank.applyAsInt(i)]);
+		}
+
+		joined.flip();
+		return joined.asReadOnlyBuffer();
+	}
+}
@@ -0,0 +1,248 @@
+package com.awitt.root.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.Validate;
+
+import com.awitt.root.model.Driver;
+
+/**
+ * Writes the summary of each {@link Driver} in a {@link ReportFormat},
+ * without going through the logger.
+ * <p>
+ * Records are formatted on the calling thread into large buffers, and every
+ * filled buffer is written by a single background thread while the next one
+ * is filled. Only a fixed number of buffers exist, so a caller that outpaces
+ * the output waits for a buffer to be written rather than using more memory.
+ * <p>
+ * Several reports can be written one after the other, such as while
+ * following a file: each {@link #endReport() ended} report is followed by
+ * the header of the format again, so that every report can be read on its
+ * own.
+ * <p>
+ * A failure to write is rethrown by the next call made on this writer.
+ */
+public final class ReportWriter implements Closeable {
+
+	/** Size of each buffer, unless otherwise specified **/
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+	/** Buffers being filled, waiting to be written, and being written **/
+	private static final int BUFFERS = 3;
+
+	private static final int MIN_BUFFER_SIZE = 64;
+
+	private final WritableByteChannel channel;
+	private final ReportFormat format;
+	private final Record record;
+	private final BlockingQueue<ByteBuffer> free;
+	private final ExecutorService writer;
+
+	private ByteBuffer current;
+
+	/** Whether the header is still to be written for the report being written **/
+	private boolean headerDue;
+	private Future<?> lastWrite;
+	private volatile IOException failure;
+	private boolean closed;
+
+	/**
+	 * @param out
+	 *            the stream to which the report is written, and which is
+	 *            closed with this writer
+	 * @param format
+	 *            the format of the report
+	 */
+	public ReportWriter(final OutputStream out, final ReportFormat format) {
+		this(Channels.newChannel(Validate.notNull(out, "out cannot be null")), format, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * @param channel
+	 *            the channel to which the report is written, and which is
+	 *            closed with this writer
+	 * @param format
+	 *            the format of the report
+	 * @param bufferSize
+	 *            the size of each of the buffers into which records are
+	 *            formatted
+	 */
+	public ReportWriter(final WritableByteChannel channel, final ReportFormat format, final int bufferSize) {
+		Validate.notNull(channel, "channel cannot be null");
+		Validate.notNull(format, "format cannot be null");
+		Validate.isTrue(bufferSize >= MIN_BUFFER_SIZE, "bufferSize must be at least %d", MIN_BUFFER_SIZE);
+
+		this.channel = channel;
+		this.format = format;
+		this.record = new Record();
+		this.free = new ArrayBlockingQueue<>(BUFFERS);
+
+		for (int i = 1; i < BUFFERS; i++) {
+			this.free.add(ByteBuffer.allocate(bufferSize));
+		}
+
+		this.current = ByteBuffer.allocate(bufferSize);
+		this.current.put(format.header());
+
+		this.writer = Executors.newSingleThreadExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "report-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public ReportFormat getFormat() {
+		return this.format;
+	}
+
+	/**
+	 * Formats the summary of an already {@link Driver#aggregateTrips()
+	 * aggregated} Driver, to be written in the background.
+	 *
+	 * @param driver
+	 *            the Driver to report
+	 * @throws IOException
+	 *             if an earlier write failed, or if interrupted while waiting
+	 *             for a free buffer
+	 */
+	public void write(final Driver driver) throws IOException {
+		Validate.notNull(driver, "driver cannot be null");
+		ensureOpen();
+
+		if (this.headerDue) {
+			// THE BUFFER WAS EMPTIED AS THE LAST REPORT ENDED, SO THE HEADER FITS
+			this.current.put(this.format.header());
+			this.headerDue = false;
+		}
+
+		this.format.encode(driver, this.record.clear());
+
+		// A RECORD LONGER THAN WHAT IS LEFT OF THE BUFFER CONTINUES IN THE NEXT ONE
+		for (int offset = 0; offset < this.record.length();) {
+			offset += this.record.copyTo(offset, this.current);
+
+			if (!this.current.hasRemaining()) {
+				submit();
+			}
+		}
+	}
+
+	/**
+	 * Writes everything formatted so far and waits for it to be written.
+	 *
+	 * @throws IOException
+	 *             if writing failed, or if interrupted while waiting
+	 */
+	public void flush() throws IOException {
+		ensureOpen();
+
+		if (this.current.position() > 0) {
+			submit();
+		}
+
+		if (this.lastWrite != null) {
+			try {
+				this.lastWrite.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while flushing the report");
+			} catch (ExecutionException e) {
+				throw new IOException("report could not be written", e.getCause());
+			}
+		}
+
+		rethrowFailure();
+	}
+
+	/**
+	 * Ends the report being written, {@link #flush() flushing} it, so that
+	 * the next Driver written starts a new report with its own header. A
+	 * report of no Drivers is only its header.
+	 *
+	 * @throws IOException
+	 *             if writing failed, or if interrupted while waiting
+	 */
+	public void endReport() throws IOException {
+		ensureOpen();
+
+		if (this.headerDue) {
+			this.current.put(this.format.header());
+		}
+
+		flush();
+		this.headerDue = true;
+	}
+
+	/**
+	 * {@link #flush() Flushes} this writer, then stops its background thread
+	 * and closes the underlying output.
+	 */
+	@Override
+	public void close() throws IOException {
+
+		if (this.closed) {
+			return;
+		}
+
+		try {
+			flush();
+		} finally {
+			this.closed = true;
+			this.writer.shutdown();
+			this.channel.close();
+		}
+	}
+
+	private void submit() throws IOException {
+		final ByteBuffer filled = this.current;
+		filled.flip();
+
+		this.lastWrite = this.writer.submit(() -> {
+			try {
+				// ONCE A WRITE HAS FAILED, THE REST OF THE REPORT IS DROPPED
+				while (this.failure == null && filled.hasRemaining()) {
+					this.channel.write(filled);
+				}
+			} catch (IOException e) {
+				this.failure = e;
+			} finally {
+				filled.clear();
+				this.free.add(filled);
+			}
+		});
+
+		try {
+			this.current = this.free.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for a report buffer");
+		}
+
+		rethrowFailure();
+	}
+
+	private void ensureOpen() throws IOException {
+		Validate.validState(!this.closed, "writer is closed");
+		rethrowFailure();
+	}
+
+	private void rethrowFailure() throws IOException {
+		final IOException e = this.failure;
+
+		if (e != null) {
+			throw new IOException("report could not be written", e);
+		}
+	}
+}
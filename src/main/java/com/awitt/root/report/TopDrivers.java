@@ -0,0 +1,106 @@
+package com.awitt.root.report;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.commons.lang3.Validate;
+
+import com.awitt.root.model.Driver;
+
+/**
+ * Selects the first {@code count} {@link Driver}s in their
+ * {@link Driver#compareTo(Driver) natural order} without sorting every Driver,
+ * keeping only the best Drivers seen so far in a bounded heap whose root is
+ * the worst of them.
+ * <p>
+ * Drivers that compare as equal keep the order in which they were given, so
+ * the selection is always the head of a stable sort, such as
+ * {@link java.util.stream.Stream#sorted()}, of the same Drivers.
+ */
+public final class TopDrivers {
+
+	private TopDrivers() {
+	}
+
+	/**
+	 * @param drivers
+	 *            the Drivers to select from, each already
+	 *            {@link Driver#aggregateTrips() aggregated}
+	 * @param count
+	 *            the number of Drivers to select
+	 * @return the first {@code count} Drivers, in order
+	 */
+	public static List<Driver> select(final Iterator<Driver> drivers, final int count) {
+		Validate.notNull(drivers, "drivers cannot be null");
+
+		return select(drivers, Comparator.naturalOrder(), count);
+	}
+
+	/**
+	 * Selects the first {@code count} of any candidates, as Drivers are
+	 * selected, for those that are cheaper to compare than to turn into
+	 * Drivers, such as the records of a {@link com.awitt.root.model.DriverStore
+	 * DriverStore}.
+	 * 
+	 * @param candidates
+	 *            the candidates to select from
+	 * @param order
+	 *            the order of the candidates, as that of the Drivers they
+	 *            stand for
+	 * @param count
+	 *            the number of candidates to select
+	 * @return the first {@code count} candidates, in order
+	 */
+	public static <T> List<T> select(final Iterator<T> candidates, final Comparator<? super T> order,
+			final int count) {
+		Validate.notNull(candidates, "candidates cannot be null");
+		Validate.notNull(order, "order cannot be null");
+		Validate.isTrue(count > 0, "count must be positive");
+
+		// SORT ORDER, THEN THE ORDER IN WHICH CANDIDATES WERE GIVEN
+		final Comparator<Ranked<T>> ranking = Comparator.<Ranked<T>, T> comparing(ranked -> ranked.candidate, order)
+				.thenComparingLong(ranked -> ranked.index);
+
+		final PriorityQueue<Ranked<T>> heap = new PriorityQueue<>(Math.min(count, 1 << 16) + 1, ranking.reversed());
+		long index = 0;
+
+		while (candidates.hasNext()) {
+			final T candidate = candidates.next();
+
+			if (heap.size() < count) {
+				heap.add(new Ranked<>(candidate, index));
+			} else if (order.compare(candidate, heap.peek().candidate) < 0) {
+				// A LATER CANDIDATE ONLY DISPLACES AN EQUAL ONE IF IT SORTS STRICTLY FIRST
+				heap.poll();
+				heap.add(new Ranked<>(candidate, index));
+			}
+
+			index++;
+		}
+
+		final List<Ranked<T>> ranked = new ArrayList<>(heap);
+		Collections.sort(ranked, ranking);
+
+		final List<T> top = new ArrayList<>(ranked.size());
+		ranked.forEach(entry -> top.add(entry.candidate));
+
+		return top;
+	}
+
+	/**
+	 * A candidate and its position among the candidates given.
+	 */
+	private static class Ranked<T> {
+		private final T candidate;
+		private final long index;
+
+		Ranked(final T candidate, final long index) {
+			this.candidate = candidate;
+			this.index = index;
+		}
+	}
+}
@@ -0,0 +1,259 @@
+package com.awitt.root.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.awitt.root.DriverTracker;
+import com.awitt.root.report.ReportFormat;
+import com.awitt.root.report.ReportSnapshot;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * HTTP server answering queries about the summary of each Driver from the
+ * latest {@link ReportSnapshot} {@link #accept(ReportSnapshot) published} to
+ * it, such as by a {@link DriverTracker} while it keeps processing a file.
+ * <p>
+ * A snapshot is never changed once published, and publishing one only
+ * replaces the reference to it, so queries never wait for, nor slow down,
+ * the thread processing the file. Every response is made of
+ * {@link ReportFormat#JSON} lines:
+ * <ul>
+ * <li>{@code GET /drivers/<name>}: the Driver of that name, in any case, or
+ * {@code 404} if there is none</li>
+ * <li>{@code GET /drivers?prefix=<start>&limit=<count>}: the Drivers whose
+ * name starts with {@code prefix}, in any case, or every Driver without a
+ * {@code prefix}, ordered by name; up to {@value #DEFAULT_LIMIT} of them
+ * unless a {@code limit} is given</li>
+ * <li>{@code GET /top?count=<count>}: the first Drivers of the report;
+ * {@value #DEFAULT_COUNT} of them unless a {@code count} is given</li>
+ * </ul>
+ */
+public final class QueryServer implements Consumer<ReportSnapshot>, Closeable {
+	private static final Logger LOGGER = LoggerFactory.getLogger(QueryServer.class);
+
+	/** The number of Drivers returned by a prefix query without a limit **/
+	public static final int DEFAULT_LIMIT = 100;
+
+	/** The number of Drivers returned by a top query without a count **/
+	public static final int DEFAULT_COUNT = 10;
+
+	private static final String DRIVERS_PATH = "/drivers";
+	private static final String TOP_PATH = "/top";
+	private static final String CONTENT_TYPE = "application/x-ndjson";
+
+	/**
+	 * The JDK server only disables Nagle's algorithm when this is set; left
+	 * enabled, every small response waits on a delayed acknowledgement
+	 **/
+	private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+	private static final int OK = 200;
+	private static final int BAD_REQUEST = 400;
+	private static final int NOT_FOUND = 404;
+	private static final int BAD_METHOD = 405;
+
+	private final HttpServer server;
+	private final ExecutorService handlers;
+
+	/** The latest snapshot published; read by every query **/
+	private volatile ReportSnapshot snapshot = ReportSnapshot.EMPTY;
+
+	/**
+	 * Binds, but does not start, a server answering queries on
+	 * {@code threads} threads.
+	 *
+	 * @param address
+	 *            the address to listen on; port {@code 0} for any free port
+	 * @param threads
+	 *            the number of threads answering queries
+	 * @throws IOException
+	 *             if the address cannot be bound
+	 */
+	public QueryServer(final InetSocketAddress address, final int threads) throws IOException {
+		Validate.notNull(address, "address cannot be null");
+		Validate.isTrue(threads > 0, "threads must be positive");
+
+		// READ ONCE, WHEN THE FIRST JDK SERVER IS CREATED
+		if (System.getProperty(NO_DELAY_PROPERTY) == null) {
+			System.setProperty(NO_DELAY_PROPERTY, Boolean.TRUE.toString());
+		}
+
+		this.server = HttpServer.create(address, 0);
+		this.handlers = Executors.newFixedThreadPool(threads, runnable -> {
+			final Thread thread = new Thread(runnable, "query-server");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		this.server.setExecutor(this.handlers);
+		this.server.createContext(DRIVERS_PATH, exchange -> handle(exchange, this::drivers));
+		this.server.createContext(TOP_PATH, exchange -> handle(exchange, this::top));
+	}
+
+	/**
+	 * Starts answering queries, in the background.
+	 *
+	 * @return {@code this} server, for chaining
+	 */
+	public QueryServer start() {
+		this.server.start();
+		LOGGER.info("answering queries on {}", getAddress());
+		return this;
+	}
+
+	/**
+	 * @return the address this server listens on
+	 */
+	public InetSocketAddress getAddress() {
+		return this.server.getAddress();
+	}
+
+	/**
+	 * Publishes {@code snapshot}, which every query from now on is answered
+	 * from.
+	 *
+	 * @param snapshot
+	 *            the latest {@link ReportSnapshot}
+	 */
+	@Override
+	public void accept(final ReportSnapshot snapshot) {
+		Validate.notNull(snapshot, "snapshot cannot be null");
+		this.snapshot = snapshot;
+	}
+
+	/**
+	 * Stops answering queries, without waiting for those in progress.
+	 */
+	@Override
+	public void close() {
+		this.server.stop(0);
+		this.handlers.shutdownNow();
+	}
+
+	private ByteBuffer drivers(final HttpExchange exchange, final ReportSnapshot snapshot) throws IOException {
+		final String path = exchange.getRequestURI().getPath();
+
+		if (path.startsWith(DRIVERS_PATH + "/") && path.length() > DRIVERS_PATH.length() + 1) {
+			return snapshot.driver(path.substring(DRIVERS_PATH.length() + 1));
+		} else if (!path.equals(DRIVERS_PATH) && !path.equals(DRIVERS_PATH + "/")) {
+			return null;
+		}
+
+		final String prefix = parameter(exchange, "prefix");
+
+		return snapshot.withPrefix(prefix == null ? "" : prefix, positive(exchange, "limit", DEFAULT_LIMIT));
+	}
+
+	private ByteBuffer top(final HttpExchange exchange, final ReportSnapshot snapshot) throws IOException {
+		return snapshot.top(positive(exchange, "count", DEFAULT_COUNT));
+	}
+
+	private void handle(final HttpExchange exchange, final Query query) throws IOException {
+
+		try {
+			if (!"GET".equals(exchange.getRequestMethod())) {
+				exchange.sendResponseHeaders(BAD_METHOD, -1);
+				return;
+			}
+
+			final ByteBuffer body;
+
+			try {
+				// EVERY PART OF A QUERY IS ANSWERED FROM THE SAME SNAPSHOT
+				body = query.answer(exchange, this.snapshot);
+			} catch (IllegalArgumentException e) {
+				exchange.sendResponseHeaders(BAD_REQUEST, -1);
+				return;
+			}
+
+			if (body == null) {
+				exchange.sendResponseHeaders(NOT_FOUND, -1);
+				return;
+			}
+
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+			// A LENGTH OF 0 WOULD MEAN A CHUNKED BODY
+			exchange.sendResponseHeaders(OK, body.hasRemaining() ? body.remaining() : -1);
+
+			try (OutputStream out = exchange.getResponseBody()) {
+				final WritableByteChannel channel = Channels.newChannel(out);
+
+				while (body.hasRemaining()) {
+					channel.write(body);
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			LOGGER.debug("could not answer {}", exchange.getRequestURI(), e);
+			throw e;
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * @return the decoded value of the first query parameter of that
+	 *         {@code name}; {@code null} if there is none
+	 */
+	private static String parameter(final HttpExchange exchange, final String name)
+			throws UnsupportedEncodingException {
+		final String query = exchange.getRequestURI().getRawQuery();
+
+		if (query == null) {
+			return null;
+		}
+
+		for (final String pair : query.split("&")) {
+			final int equals = pair.indexOf('=');
+			final String key = equals < 0 ? pair : pair.substring(0, equals);
+
+			if (name.equals(URLDecoder.decode(key, "UTF-8"))) {
+				return equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), "UTF-8");
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the parameter is not a positive number
+	 */
+	private static int positive(final HttpExchange exchange, final String name, final int defaultValue)
+			throws UnsupportedEncodingException {
+		final String value = parameter(exchange, name);
+		final int number = value == null ? defaultValue : Integer.parseInt(value);
+
+		Validate.isTrue(number > 0, "%s must be positive", name);
+		return number;
+	}
+
+	/**
+	 * A kind of query, answered from a single snapshot.
+	 */
+	@FunctionalInterface
+	private interface Query {
+
+		/**
+		 * @return the JSON lines answering the query; {@code null} if there
+		 *         is nothing to answer it with
+		 * @throws IllegalArgumentException
+		 *             if the query is malformed
+		 */
+		ByteBuffer answer(HttpExchange exchange, ReportSnapshot snapshot) throws IOException;
+	}
+}
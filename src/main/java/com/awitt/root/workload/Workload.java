@@ -0,0 +1,131 @@
+package com.awitt.root.workload;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Immutable description of a synthetic file of Driver data to be written by a
+ * {@link WorkloadGenerator}.
+ */
+public final class Workload {
+
+	/** 1,000 Drivers sharing 100,000 Trips **/
+	public static final Workload DEFAULT = new Workload(1_000, 100_000, 1.0, 0.1, 0.05, 0L);
+
+	private final int drivers;
+	private final long trips;
+	private final double skew;
+	private final double earlyTripRatio;
+	private final double invalidSpeedRatio;
+	private final long seed;
+
+	private Workload(final int drivers, final long trips, final double skew, final double earlyTripRatio,
+			final double invalidSpeedRatio, final long seed) {
+		this.drivers = drivers;
+		this.trips = trips;
+		this.skew = skew;
+		this.earlyTripRatio = earlyTripRatio;
+		this.invalidSpeedRatio = invalidSpeedRatio;
+		this.seed = seed;
+	}
+
+	/**
+	 * @param drivers
+	 *            the number of Drivers to register
+	 * @return a copy of this workload with the provided number of
+	 *         {@code drivers}
+	 */
+	public Workload withDrivers(final int drivers) {
+		Validate.isTrue(drivers > 0, "drivers must be positive");
+		return new Workload(drivers, this.trips, this.skew, this.earlyTripRatio, this.invalidSpeedRatio, this.seed);
+	}
+
+	/**
+	 * @param trips
+	 *            the number of Trips to record, across all Drivers
+	 * @return a copy of this workload with the provided number of
+	 *         {@code trips}
+	 */
+	public Workload withTrips(final long trips) {
+		Validate.isTrue(trips >= 0, "trips cannot be negative");
+		return new Workload(this.drivers, trips, this.skew, this.earlyTripRatio, this.invalidSpeedRatio, this.seed);
+	}
+
+	/**
+	 * @param skew
+	 *            the exponent of the Zipf distribution of Trips per Driver:
+	 *            the Driver of rank {@code k} records Trips in proportion to
+	 *            {@code 1 / k^skew}, so {@code 0} spreads Trips evenly
+	 * @return a copy of this workload with the provided {@code skew}
+	 */
+	public Workload withSkew(final double skew) {
+		Validate.isTrue(skew >= 0, "skew cannot be negative");
+		return new Workload(this.drivers, this.trips, skew, this.earlyTripRatio, this.invalidSpeedRatio, this.seed);
+	}
+
+	/**
+	 * @param earlyTripRatio
+	 *            the fraction of Trip lines written before the Driver line of
+	 *            their Driver
+	 * @return a copy of this workload with the provided
+	 *         {@code earlyTripRatio}
+	 */
+	public Workload withEarlyTripRatio(final double earlyTripRatio) {
+		Validate.inclusiveBetween(0.0, 1.0, earlyTripRatio, "earlyTripRatio must be between 0 and 1");
+		return new Workload(this.drivers, this.trips, this.skew, earlyTripRatio, this.invalidSpeedRatio, this.seed);
+	}
+
+	/**
+	 * @param invalidSpeedRatio
+	 *            the fraction of Trips whose average speed is outside of the
+	 *            accepted range, and so are left out of every summary
+	 * @return a copy of this workload with the provided
+	 *         {@code invalidSpeedRatio}
+	 */
+	public Workload withInvalidSpeedRatio(final double invalidSpeedRatio) {
+		Validate.inclusiveBetween(0.0, 1.0, invalidSpeedRatio, "invalidSpeedRatio must be between 0 and 1");
+		return new Workload(this.drivers, this.trips, this.skew, this.earlyTripRatio, invalidSpeedRatio, this.seed);
+	}
+
+	/**
+	 * @param seed
+	 *            the seed from which every line is derived; the same workload
+	 *            always writes the same bytes
+	 * @return a copy of this workload with the provided {@code seed}
+	 */
+	public Workload withSeed(final long seed) {
+		return new Workload(this.drivers, this.trips, this.skew, this.earlyTripRatio, this.invalidSpeedRatio, seed);
+	}
+
+	public int getDrivers() {
+		return this.drivers;
+	}
+
+	public long getTrips() {
+		return this.trips;
+	}
+
+	public double getSkew() {
+		return this.skew;
+	}
+
+	public double getEarlyTripRatio() {
+		return this.earlyTripRatio;
+	}
+
+	public double getInvalidSpeedRatio() {
+		return this.invalidSpeedRatio;
+	}
+
+	public long getSeed() {
+		return this.seed;
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder(this, ToStringStyle.JSON_STYLE).append("drivers", this.drivers)
+				.append("trips", this.trips).append("skew", this.skew).append("earlyTripRatio", this.earlyTripRatio)
+				.append("invalidSpeedRatio", this.invalidSpeedRatio).append("seed", this.seed).build();
+	}
+}
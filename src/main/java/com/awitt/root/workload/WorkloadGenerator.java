@@ -0,0 +1,400 @@
+package com.awitt.root.workload;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.Validate;
+
+import com.awitt.root.io.Failures;
+
+/**
+ * Writes a synthetic, reproducible file of Driver data described by a
+ * {@link Workload}, in exactly the format read by the application.
+ * <p>
+ * Every Trip is derived from the seed and its own index alone, so that the
+ * same workload always writes the same bytes, whatever the parallelism,
+ * without holding any Trip in memory. Trips chosen to come before their Driver
+ * line are written first, followed by every Driver line, followed by the
+ * remaining Trips.
+ * <p>
+ * Trips are formatted straight into reusable byte buffers, a block of Trips at
+ * a time, with blocks formatted concurrently and written in order, so that
+ * writing is bound by the disk rather than by formatting.
+ * <p>
+ * Drivers are named {@code Driver<rank>}, the Driver of rank {@code 1}
+ * recording the most Trips. Whenever the workload is skewed, a {@code double}
+ * and an {@code int} per Driver are held for drawing Drivers.
+ */
+public class WorkloadGenerator {
+
+	/** Weyl increment of the SplitMix64 generator **/
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	private static final double TO_UNIT = 0x1.0p-53;
+
+	private static final int MIN_DURATION = 5;
+	private static final int MAX_DURATION = 120;
+	private static final int MINUTES_PER_DAY = 24 * 60;
+
+	/**
+	 * Speeds, in tenths of a mile per hour, that stay inside or outside of
+	 * the accepted 5 to 100 mph once distances are rounded to a tenth of a
+	 * mile over no fewer than {@value #MIN_DURATION} minutes
+	 **/
+	private static final int MIN_VALID_SPEED = 60;
+	private static final int MAX_VALID_SPEED = 990;
+	private static final int MAX_SLOW_SPEED = 40;
+	private static final int MIN_FAST_SPEED = 1010;
+	private static final int MAX_FAST_SPEED = 1500;
+
+	private static final int LINES_PER_BLOCK = 1 << 16;
+	private static final int MAX_LINE_LENGTH = 64;
+
+	/** Blocks formatted ahead of the one being written, per thread **/
+	private static final int BLOCKS_AHEAD = 2;
+
+	private static final byte[] DRIVER = ascii("Driver ");
+	private static final byte[] TRIP = ascii("Trip ");
+	private static final byte[] NAME = ascii("Driver");
+
+	private final Workload workload;
+	private final int parallelism;
+
+	/** Cumulative probability of each rank; {@code null} when not skewed **/
+	private final double[] ranks;
+
+	/** First rank index whose cumulative probability reaches each 1/n-th **/
+	private final int[] guide;
+
+	/** Buffers no longer in use, for the next blocks **/
+	private final Queue<Block> blocks = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Creates a generator using one thread per core.
+	 */
+	public WorkloadGenerator(final Workload workload) {
+		this(workload, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param workload
+	 *            the file to be written
+	 * @param parallelism
+	 *            the number of threads formatting Trips
+	 */
+	public WorkloadGenerator(final Workload workload, final int parallelism) {
+		Validate.notNull(workload, "workload cannot be null");
+		Validate.isTrue(parallelism > 0, "parallelism must be positive");
+
+		this.workload = workload;
+		this.parallelism = parallelism;
+
+		if (workload.getSkew() == 0) {
+			this.ranks = null;
+			this.guide = null;
+		} else {
+			this.ranks = cumulativeZipf(workload.getDrivers(), workload.getSkew());
+			this.guide = guide(this.ranks);
+		}
+	}
+
+	/**
+	 * Writes the workload to {@code file}, replacing any existing content.
+	 */
+	public void write(final Path file) throws IOException {
+		Validate.notNull(file, "file cannot be null");
+
+		// LINES ARE ALREADY BUFFERED
+		try (OutputStream out = Files.newOutputStream(file)) {
+			write(out);
+		}
+	}
+
+	/**
+	 * Writes the workload to {@code out}, which is left open.
+	 */
+	public void write(final OutputStream out) throws IOException {
+		Validate.notNull(out, "out cannot be null");
+
+		final ExecutorService pool = this.parallelism == 1 ? null : Executors.newFixedThreadPool(this.parallelism);
+
+		try {
+			writeTrips(out, true, pool);
+
+			final Block block = take();
+
+			for (int rank = 1; rank <= this.workload.getDrivers(); rank++) {
+				block.putDriver(rank);
+
+				if (rank % LINES_PER_BLOCK == 0) {
+					block.writeTo(out);
+				}
+			}
+
+			block.writeTo(out);
+			this.blocks.add(block);
+
+			writeTrips(out, false, pool);
+			out.flush();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while writing " + this.workload, e);
+		} catch (ExecutionException e) {
+			throw Failures.rethrow(e.getCause());
+		} finally {
+			if (pool != null) {
+				pool.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * Writes either the Trips that come before their Driver line or those
+	 * that come after it, in order.
+	 */
+	private void writeTrips(final OutputStream out, final boolean early, final ExecutorService pool)
+			throws IOException, InterruptedException, ExecutionException {
+		final long trips = this.workload.getTrips();
+
+		if (pool == null) {
+			final Block block = take();
+
+			for (long from = 0; from < trips; from += LINES_PER_BLOCK) {
+				block.putTrips(from, Math.min(trips, from + LINES_PER_BLOCK), early);
+				block.writeTo(out);
+			}
+
+			this.blocks.add(block);
+			return;
+		}
+
+		final Deque<Future<Block>> pending = new ArrayDeque<>();
+
+		for (long from = 0; from < trips; from += LINES_PER_BLOCK) {
+			final long blockFrom = from;
+
+			pending.add(pool.submit(() -> {
+				final Block block = take();
+				block.putTrips(blockFrom, Math.min(trips, blockFrom + LINES_PER_BLOCK), early);
+				return block;
+			}));
+
+			if (pending.size() > this.parallelism * BLOCKS_AHEAD) {
+				write(out, pending.remove().get());
+			}
+		}
+
+		while (!pending.isEmpty()) {
+			write(out, pending.remove().get());
+		}
+	}
+
+	private void write(final OutputStream out, final Block block) throws IOException {
+		block.writeTo(out);
+		this.blocks.add(block);
+	}
+
+	private Block take() {
+		final Block block = this.blocks.poll();
+		return block != null ? block : new Block();
+	}
+
+	/**
+	 * @return the rank of the Driver drawn by {@code unit}, a uniform value
+	 *         in {@code [0, 1)}
+	 */
+	private int rank(final double unit) {
+
+		if (this.ranks == null) {
+			return 1 + (int) (unit * this.workload.getDrivers());
+		}
+
+		// THE GUIDE LEAVES AN EXPECTED SINGLE STEP TO THE RANK
+		int index = this.guide[(int) (unit * this.guide.length)];
+
+		while (index < this.ranks.length - 1 && this.ranks[index] <= unit) {
+			index++;
+		}
+
+		return index + 1;
+	}
+
+	private static double[] cumulativeZipf(final int drivers, final double skew) {
+		final double[] ranks = new double[drivers];
+		double total = 0;
+
+		for (int rank = 1; rank <= drivers; rank++) {
+			total += 1 / Math.pow(rank, skew);
+			ranks[rank - 1] = total;
+		}
+
+		for (int i = 0; i < drivers; i++) {
+			ranks[i] /= total;
+		}
+
+		return ranks;
+	}
+
+	private static int[] guide(final double[] ranks) {
+		final int[] guide = new int[ranks.length];
+		int index = 0;
+
+		for (int i = 0; i < guide.length; i++) {
+			while (index < ranks.length - 1 && ranks[index] <= (double) i / guide.length) {
+				index++;
+			}
+
+			guide[i] = index;
+		}
+
+		return guide;
+	}
+
+	/**
+	 * @return a speed in tenths of a mile per hour, accepted unless
+	 *         {@code invalid}, in which case half are too slow and half too
+	 *         fast
+	 */
+	private static int speed(final long random, final boolean invalid) {
+
+		if (!invalid) {
+			return MIN_VALID_SPEED + bounded(random, MAX_VALID_SPEED - MIN_VALID_SPEED + 1);
+		}
+
+		return (random & 1) == 0 ? bounded(random, MAX_SLOW_SPEED + 1)
+				: MIN_FAST_SPEED + bounded(random, MAX_FAST_SPEED - MIN_FAST_SPEED + 1);
+	}
+
+	/**
+	 * @return the {@code n}th random value drawn for a Trip, as the
+	 *         {@code n}th step of a SplitMix64 generator seeded by the Trip
+	 */
+	private static long draw(final long trip, final int n) {
+		return mix(trip + n * GOLDEN_GAMMA);
+	}
+
+	/** SplitMix64 finalizer **/
+	private static long mix(final long value) {
+		long z = value;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	private static double unit(final long random) {
+		return (random >>> 11) * TO_UNIT;
+	}
+
+	private static int bounded(final long random, final int bound) {
+		return (int) (((random >>> 32) * bound) >>> 32);
+	}
+
+	private static byte[] ascii(final String text) {
+		return text.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Buffer into which a block of lines is formatted.
+	 */
+	private class Block {
+		private final byte[] buffer = new byte[LINES_PER_BLOCK * MAX_LINE_LENGTH];
+		private int position;
+
+		/**
+		 * Formats the Trips with an index from {@code from}, inclusive, to
+		 * {@code to}, exclusive, that come before their Driver line if
+		 * {@code early}, or after it otherwise.
+		 */
+		void putTrips(final long from, final long to, final boolean early) {
+			final double earlyTripRatio = WorkloadGenerator.this.workload.getEarlyTripRatio();
+			final double invalidSpeedRatio = WorkloadGenerator.this.workload.getInvalidSpeedRatio();
+			final long seed = WorkloadGenerator.this.workload.getSeed();
+
+			for (long i = from; i < to; i++) {
+				final long trip = mix(seed + (i + 1) * GOLDEN_GAMMA);
+
+				// EVERY TRIP IS DRAWN AGAIN IN EACH PASS, BUT ONLY WRITTEN IN ONE
+				if ((unit(draw(trip, 1)) < earlyTripRatio) != early) {
+					continue;
+				}
+
+				final int rank = rank(unit(draw(trip, 2)));
+				final boolean invalid = unit(draw(trip, 3)) < invalidSpeedRatio;
+				final int duration = MIN_DURATION + bounded(draw(trip, 4), MAX_DURATION - MIN_DURATION + 1);
+				final int start = bounded(draw(trip, 5), MINUTES_PER_DAY - duration);
+				final int distance = (int) Math.round(speed(draw(trip, 6), invalid) * (double) duration / 60);
+
+				put(TRIP);
+				putName(rank);
+				this.buffer[this.position++] = ' ';
+				putTime(start);
+				this.buffer[this.position++] = ' ';
+				putTime(start + duration);
+				this.buffer[this.position++] = ' ';
+				putInt(distance / 10);
+				this.buffer[this.position++] = '.';
+				this.buffer[this.position++] = (byte) ('0' + distance % 10);
+				this.buffer[this.position++] = '\n';
+			}
+		}
+
+		void putDriver(final int rank) {
+			put(DRIVER);
+			putName(rank);
+			this.buffer[this.position++] = '\n';
+		}
+
+		void writeTo(final OutputStream out) throws IOException {
+			out.write(this.buffer, 0, this.position);
+			this.position = 0;
+		}
+
+		private void put(final byte[] bytes) {
+			System.arraycopy(bytes, 0, this.buffer, this.position, bytes.length);
+			this.position += bytes.length;
+		}
+
+		private void putName(final int rank) {
+			put(NAME);
+			putInt(rank);
+		}
+
+		private void putTime(final int minute) {
+			putTwoDigits(minute / 60);
+			this.buffer[this.position++] = ':';
+			putTwoDigits(minute % 60);
+		}
+
+		private void putTwoDigits(final int value) {
+			this.buffer[this.position++] = (byte) ('0' + value / 10);
+			this.buffer[this.position++] = (byte) ('0' + value % 10);
+		}
+
+		private void putInt(final int value) {
+			int digits = 1;
+
+			for (int remaining = value / 10; remaining > 0; remaining /= 10) {
+				digits++;
+			}
+
+			int remaining = value;
+
+			for (int i = this.position + digits - 1; i >= this.position; i--) {
+				this.buffer[i] = (byte) ('0' + remaining % 10);
+				remaining /= 10;
+			}
+
+			this.position += digits;
+		}
+	}
+}
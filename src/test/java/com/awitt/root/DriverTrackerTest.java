@@ -1,20 +1,66 @@
 package com.awitt.root;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import com.awitt.root.actions.Command;
+import com.awitt.root.io.Checkpoint;
+import com.awitt.root.io.FileTail;
+import com.awitt.root.io.ReaderLineSource;
+import com.awitt.root.io.StreamLineSource;
+import com.awitt.root.metrics.IngestMetrics;
+import com.awitt.root.metrics.IngestMetrics.Phase;
 import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverIndex;
+import com.awitt.root.model.DriverOptions;
+import com.awitt.root.model.DriverStore;
+import com.awitt.root.report.ReportFormat;
+import com.awitt.root.report.ReportSnapshot;
+import com.awitt.root.report.ReportWriter;
 
 public class DriverTrackerTest {
 
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
 	@Test(expected = NullPointerException.class)
 	public void driverTracker_NullBufferedReader_NPE() {
 		new DriverTracker(null);
@@ -44,4 +90,493 @@ void printResults(final Driver driver) {
 
 		assertTrue(printed.get());
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void process_StreamingOptions_TripsNotRetainedSameSummary() {
+
+		final String[] lines = new String[] { "Trip Dan 07:15 07:45 17.3", "Driver Dan", "Driver Alex",
+				"Trip Dan 06:12 06:32 21.8", "Trip Alex 12:01 13:16 42.0", "Trip Dan 00:12 06:32 21.8" };
+
+		final Map<String, String> retained = summaries(report(DriverOptions.DEFAULT, lines));
+		final List<Driver> streamed = report(DriverOptions.STREAMING, lines);
+
+		for (final Driver driver : streamed) {
+			assertTrue(driver.getTrips().isEmpty());
+		}
+
+		assertEquals(2, streamed.size());
+		assertEquals("39 miles @ 47 mph", summaries(streamed).get("Dan"));
+		assertEquals(retained, summaries(streamed));
+	}
+
+	@Test
+	public void process_ExactTotalOfHalfAMile_RoundedUpInEveryMode() {
+
+		// THESE ADD UP TO 329.49999999999994 AS DOUBLES, WHICH PRINTED "329 miles" BEFORE TOTALS WERE EXACT
+		final String[] lines = new String[] { "Driver Dan", "Trip Dan 01:00 02:00 9.6", "Trip Dan 01:00 02:00 41.2",
+				"Trip Dan 01:00 02:00 65.2", "Trip Dan 01:00 02:00 70.6", "Trip Dan 01:00 02:00 28.3",
+				"Trip Dan 01:00 02:00 62.0", "Trip Dan 01:00 02:00 31.2", "Trip Dan 01:00 02:00 21.4" };
+
+		for (final DriverOptions options : new DriverOptions[] { DriverOptions.DEFAULT, DriverOptions.COLUMNAR,
+				DriverOptions.STREAMING }) {
+			assertEquals(options.toString(), "330 miles @ 41 mph", summaries(report(options, lines)).get("Dan"));
+		}
+	}
+
+	@Test
+	public void process_StreamLineSource_SameSummaryAsReader() {
+
+		final String[] lines = new String[] { "Trip Dan 07:15 07:45 17.3", "Driver Dan", "driver Alex",
+				"trip alex 12:01 13:16 42.0", "Trip Dan 06:12 06:32 21.8", "Trip Dan 06:12 06:32 1021.8" };
+		final Map<String, String> read = summaries(report(DriverOptions.DEFAULT, lines));
+
+		final InputStream in = new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+		final ReportingTracker tracker = new ReportingTracker(new StreamLineSource(in), DriverOptions.STREAMING);
+		tracker.process();
+		final Map<String, String> streamed = summaries(tracker.getReported());
+
+		assertEquals(2, streamed.size());
+		assertEquals("42 miles @ 34 mph", streamed.get("Alex"));
+		assertEquals(read, streamed);
+	}
+
+	@Test
+	public void process_StoredDrivers_SameSummaryAndKeptInStore() throws IOException {
+
+		final String[] lines = new String[] { "Trip Dan 07:15 07:45 17.3", "Driver Dan", "driver Alex",
+				"trip alex 12:01 13:16 42.0", "Trip Dan 06:12 06:32 21.8", "Trip Dan 06:12 06:32 1021.8" };
+		final Path directory = this.folder.newFolder().toPath();
+
+		final ReportingTracker heldTracker = new ReportingTracker(source(lines), DriverOptions.STREAMING);
+		heldTracker.process();
+		final Map<String, String> held = summaries(heldTracker.getReported());
+
+		try (DriverStore store = DriverStore.open(directory)) {
+			final ReportingTracker storedTracker = new ReportingTracker(source(lines), DriverOptions.STREAMING);
+			storedTracker.storeIn(store).top(10).process();
+
+			assertEquals(held, summaries(storedTracker.getReported()));
+		}
+
+		try (DriverStore store = DriverStore.open(directory)) {
+			assertEquals(2, store.size());
+			assertEquals(held.get("Dan"), store.getIgnoreCase("dan").getDrivingSummary().toString());
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void process_StoredDriversWithoutTop_IllegalStateException() throws IOException {
+
+		try (DriverStore store = DriverStore.open(this.folder.newFolder().toPath())) {
+			new DriverTracker(source("Driver Dan"), DriverOptions.STREAMING).storeIn(store).process();
+		}
+	}
+
+	@Test
+	public void process_RegisteredCommand_CommandProcessed() {
+
+		final String[] lines = new String[] { "Driver Dan", "Rename Dan Daniel", "Trip Dan 07:15 07:45 17.3" };
+
+		final List<Driver> reported = report(DriverOptions.DEFAULT, tracker -> tracker.register(new Command() {
+			@Override
+			public String getCommand() {
+				return "Rename";
+			}
+
+			@Override
+			public Optional<String> doCommand(final String line, final Map<String, Driver> drivers,
+					final DriverOptions options) {
+				final String[] names = line.split(" ");
+				drivers.put(names[1].toLowerCase(), new Driver(names[2], options));
+				return Optional.empty();
+			}
+		}), lines);
+
+		assertEquals(1, reported.size());
+		assertEquals("Daniel", reported.get(0).getName());
+		assertEquals(1, reported.get(0).getTrips().size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void process_UnknownCommand_IAE() {
+
+		new DriverTracker(reader("Driver Dan", "Drive Dan 07:15 07:45 17.3")).process();
+	}
+
+	@Test
+	public void process_Top_OnlyLongestReported() {
+		final List<Driver> reported = report(DriverOptions.DEFAULT, tracker -> tracker.top(2), "Driver Dan",
+				"Driver Alex", "Driver Bob", "Trip Dan 07:15 07:45 17.3", "Trip Alex 12:01 13:16 42.0",
+				"Trip Bob 06:12 06:32 21.8");
+
+		assertEquals(Arrays.asList("Alex", "Bob"),
+				reported.stream().map(Driver::getName).collect(Collectors.toList()));
+	}
+
+	@Test
+	public void process_ReportTo_WrittenAndFlushed() throws IOException {
+		final BufferedReader reader = reader("Driver Dan", "Driver Alex", "Driver Bob", "Trip Dan 07:15 07:45 17.3",
+				"Trip Dan 06:12 06:32 21.8", "Trip Alex 12:01 13:16 42.0");
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		try (ReportWriter writer = new ReportWriter(out, ReportFormat.TEXT)) {
+			new DriverTracker(reader).reportTo(writer).process();
+
+			// FLUSHED BY THE REPORT, BEFORE THE WRITER IS CLOSED
+			assertEquals("Alex: 42 miles @ 34 mph\nDan: 39 miles @ 47 mph\nBob: 0 miles\n",
+					new String(out.toByteArray(), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void process_DriversRegisteredLast_TripsHandedOverWithoutReprocessing() {
+		IngestMetrics.GLOBAL.reset();
+
+		final List<Driver> reported = report(DriverOptions.DEFAULT, "Trip Dan 07:15 07:45 17.3",
+				"Trip dan 06:12 06:32 21.8", "Trip Alex 12:01 13:16 42.0", "Driver Dan", "Trip Dan 08:00 08:01 99.0",
+				"Driver Alex");
+
+		assertEquals(Arrays.asList("Alex", "Dan"),
+				reported.stream().map(Driver::getName).collect(Collectors.toList()));
+		assertEquals("42 miles @ 34 mph", reported.get(0).getDrivingSummary().toString());
+		assertEquals(1, reported.get(0).getTrips().size());
+		assertEquals("39 miles @ 47 mph", reported.get(1).getDrivingSummary().toString());
+		assertEquals(3, reported.get(1).getTrips().size());
+		assertEquals(0, IngestMetrics.GLOBAL.getReprocessPasses());
+	}
+
+	@Test
+	public void process_DriverNeverRegistered_OthersReported() {
+		final Map<String, String> reported = summaries(report(DriverOptions.DEFAULT, "Trip Bob 07:15 07:45 17.3",
+				"Driver Dan", "Trip Dan 07:15 07:45 17.3"));
+
+		assertEquals(Collections.singletonMap("Dan", "17 miles @ 35 mph"), reported);
+	}
+
+	@Test
+	public void process_BadData_CountedInMetrics() {
+		IngestMetrics.GLOBAL.reset();
+
+		new DriverTracker(reader("Trip Dan 07:15 07:45 17.3", "Driver Dan", "Driver dan", "Driver Alex",
+				"Trip Alex 12:01 13:16 1.0", "Trip Alex 12:01 12:02 42.0", "Trip Alex 12:01 13:16 42.0"),
+				DriverOptions.STREAMING).process();
+
+		assertEquals(7, IngestMetrics.GLOBAL.getLinesRead());
+		assertEquals(0, IngestMetrics.GLOBAL.getLinesRequeued());
+		assertEquals(0, IngestMetrics.GLOBAL.getReprocessPasses());
+		assertEquals(2, IngestMetrics.GLOBAL.getInvalidTrips());
+		assertEquals(1, IngestMetrics.GLOBAL.getDuplicateRegistrations());
+
+		for (final Phase phase : Phase.values()) {
+			assertEquals(phase.name(), 1, IngestMetrics.GLOBAL.getPhaseNanos(phase).getCount());
+		}
+	}
+
+	@Test
+	public void process_TrackersInTurn_EachGetsOwnMetrics() {
+		final DriverTracker earlier = new DriverTracker(
+				reader("Driver Dan", "Driver dan", "Trip Dan 07:15 07:45 1.0"), DriverOptions.STREAMING);
+		final DriverTracker later = new DriverTracker(reader("Driver Alex", "Trip Alex 12:01 13:16 42.0"),
+				DriverOptions.STREAMING);
+		earlier.process();
+		later.process();
+
+		assertEquals(3, earlier.getMetrics().getLinesRead());
+		assertEquals(1, earlier.getMetrics().getInvalidTrips());
+		assertEquals(1, earlier.getMetrics().getDuplicateRegistrations());
+		assertEquals(2, later.getMetrics().getLinesRead());
+		assertEquals(0, later.getMetrics().getInvalidTrips());
+		assertEquals(0, later.getMetrics().getDuplicateRegistrations());
+		assertEquals(1, later.getMetrics().getPhaseNanos(Phase.INGEST).getCount());
+	}
+
+	@Test
+	public void poll_LinesAppended_OnlyNewLinesUpdateSummary() throws IOException {
+		final Path file = this.folder.newFile().toPath();
+
+		try (FileTail tail = new FileTail(file)) {
+			final ReportingTracker subject = new ReportingTracker(tail, DriverOptions.STREAMING);
+
+			append(file, "Trip Dan 07:15 07:45 17.3\nDriver Dan\nTrip Dan 06:12 06:32 21.8\nTrip Da");
+			assertTrue(subject.poll());
+			subject.report();
+			assertEquals("39 miles @ 47 mph", summaries(subject.getReported()).get("Dan"));
+
+			assertFalse(subject.poll());
+
+			append(file, "n 12:01 13:16 42.0\nDriver Alex\n");
+			assertTrue(subject.poll());
+			subject.report();
+			assertEquals("81 miles @ 39 mph", summaries(subject.getReported()).get("Dan"));
+			assertEquals("0 miles", summaries(subject.getReported()).get("Alex"));
+		}
+	}
+
+	@Test
+	public void follow_Interrupted_ReportedOnInterval() throws Exception {
+		final Path file = this.folder.newFile().toPath();
+		final CountDownLatch reports = new CountDownLatch(2);
+		append(file, "Driver Dan\nTrip Dan 07:15 07:45 17.3\n");
+
+		try (FileTail tail = new FileTail(file)) {
+			final Thread follower = new Thread(() -> new DriverTracker(tail, DriverOptions.STREAMING) {
+				@Override
+				void printResults(final Driver driver) {
+					reports.countDown();
+				}
+			}.follow(10, TimeUnit.MILLISECONDS));
+
+			follower.start();
+
+			assertTrue(reports.await(10, TimeUnit.SECONDS));
+			follower.interrupt();
+			follower.join(10_000);
+			assertFalse(follower.isAlive());
+		}
+	}
+
+	@Test
+	public void follow_InterruptedWhileReporting_FollowingEnds() throws Exception {
+		final Path file = this.folder.newFile().toPath();
+		final AtomicReference<Throwable> thrown = new AtomicReference<>();
+		append(file, "Driver Dan\nTrip Dan 07:15 07:45 17.3\n");
+
+		try (FileTail tail = new FileTail(file)) {
+			final Thread follower = new Thread(() -> new DriverTracker(tail, DriverOptions.STREAMING) {
+				@Override
+				void printResults(final Driver driver) {
+					// AS A REPORT WRITER DOES WHEN INTERRUPTED WHILE WAITING FOR A BUFFER
+					Thread.currentThread().interrupt();
+					throw new UncheckedIOException(new InterruptedIOException("interrupted"));
+				}
+			}.follow(10, TimeUnit.MILLISECONDS));
+
+			follower.setUncaughtExceptionHandler((thread, e) -> thrown.set(e));
+			follower.start();
+			follower.join(10_000);
+
+			assertFalse(follower.isAlive());
+			assertNull(thrown.get());
+		}
+	}
+
+	@Test
+	public void follow_PublishingSnapshots_SnapshotsFollowFile() throws Exception {
+		final Path file = this.folder.newFile().toPath();
+		final LinkedBlockingQueue<ReportSnapshot> snapshots = new LinkedBlockingQueue<>();
+		append(file, "Driver Dan\nTrip Dan 07:15 07:45 17.3\n");
+
+		try (FileTail tail = new FileTail(file)) {
+			final Thread follower = new Thread(() -> new DriverTracker(tail, DriverOptions.STREAMING) {
+				@Override
+				void printResults(final Driver driver) {
+				}
+			}.publishTo(snapshots::add, 10, TimeUnit.MILLISECONDS).follow(1, TimeUnit.HOURS));
+
+			follower.start();
+
+			ReportSnapshot snapshot = snapshots.poll(10, TimeUnit.SECONDS);
+			assertEquals(1, snapshot.size());
+
+			append(file, "Driver Alex\n");
+
+			while (snapshot != null && snapshot.size() < 2) {
+				snapshot = snapshots.poll(10, TimeUnit.SECONDS);
+			}
+
+			assertEquals(2, snapshot.size());
+			follower.interrupt();
+			follower.join(10_000);
+			assertFalse(follower.isAlive());
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void follow_NotOverFileTail_ISE() {
+		new DriverTracker(mock(BufferedReader.class)).follow(1, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void processWithCheckpoint_ExistingCheckpoint_SameAsUninterrupted() throws IOException {
+		final String head = "Driver Dan\nTrip Dan 07:15 07:45 17.3\nTrip Alex 06:12 06:32 21.8\n";
+		final Path file = this.folder.newFile().toPath();
+		final Path checkpoint = this.folder.getRoot().toPath().resolve("checkpoint");
+		final DriverIndex drivers = new DriverIndex();
+		drivers.put("dan", new Driver("Dan", DriverOptions.STREAMING));
+		drivers.get("dan").addTrip(7 * 60 + 15, 7 * 60 + 45, 17_300_000L);
+		final Map<String, Driver> unregistered = new HashMap<>();
+		unregistered.put("alex", new Driver("Alex", DriverOptions.STREAMING));
+		unregistered.get("alex").addTrip(6 * 60 + 12, 6 * 60 + 32, 21_800_000L);
+		append(file, head + "Driver Alex\nTrip Alex 12:01 13:16 42.0\nTrip Dan 06:12 06:32 21.8\n");
+
+		// A RUN THAT DIED AFTER THE HEAD OF THE FILE
+		new Checkpoint(head.length(), Files.size(file), fileKey(file), drivers, unregistered,
+				Collections.emptyList()).write(checkpoint);
+
+		final Map<String, String> resumed = checkpointed(file, checkpoint, 1 << 20);
+
+		assertEquals(Arrays.asList("Alex", "Dan"), new ArrayList<>(resumed.keySet()));
+		assertEquals("39 miles @ 47 mph", resumed.get("Dan"));
+		assertEquals(checkpointed(file, checkpoint, 1 << 20), resumed);
+		assertEquals("64 miles @ 40 mph", resumed.get("Alex"));
+		assertFalse(Files.exists(checkpoint));
+	}
+
+	@Test
+	public void processWithCheckpoint_FileTruncatedSinceCheckpoint_UncheckedIOException() throws IOException {
+		final String head = "Driver Dan\nTrip Dan 07:15 07:45 17.3\n";
+		final Path file = this.folder.newFile().toPath();
+		final Path checkpoint = this.folder.getRoot().toPath().resolve("checkpoint");
+		append(file, head + "Trip Dan 06:12 06:32 21.8\n");
+		new Checkpoint(head.length(), Files.size(file), fileKey(file), new DriverIndex(), new HashMap<>(),
+				Collections.emptyList()).write(checkpoint);
+
+		// REWRITTEN IN PLACE, BELOW THE OFFSET OF THE CHECKPOINT
+		Files.write(file, "Driver Dan\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+
+		try {
+			checkpointed(file, checkpoint, 1 << 20);
+			fail("resumed from a checkpoint past the end of the file");
+		} catch (UncheckedIOException e) {
+			assertTrue(Files.exists(checkpoint));
+		}
+	}
+
+	@Test(expected = UncheckedIOException.class)
+	public void processWithCheckpoint_FileReplacedSinceCheckpoint_UncheckedIOException() throws IOException {
+		final String head = "Driver Dan\nTrip Dan 07:15 07:45 17.3\n";
+		final Path file = this.folder.newFile().toPath();
+		final Path replacement = this.folder.newFile().toPath();
+		final Path checkpoint = this.folder.getRoot().toPath().resolve("checkpoint");
+		append(file, head);
+		new Checkpoint(head.length(), Files.size(file), fileKey(file), new DriverIndex(), new HashMap<>(),
+				Collections.emptyList()).write(checkpoint);
+
+		// AS LONG AS THE ORIGINAL, BUT ANOTHER FILE
+		append(replacement, head + "Trip Dan 06:12 06:32 21.8\n");
+		Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING);
+
+		checkpointed(file, checkpoint, 1 << 20);
+	}
+
+	@Test
+	public void processWithCheckpoint_SmallInterval_CheckpointAtEnd() throws IOException {
+		final Path file = this.folder.newFile().toPath();
+		final Path checkpoint = this.folder.getRoot().toPath().resolve("checkpoint");
+		final AtomicBoolean printed = new AtomicBoolean(false);
+		append(file, "Trip Dan 07:15 07:45 17.3\nDriver Dan\nDriver Alex\nTrip Alex 12:01 13:16 42.0\n");
+
+		try (FileTail tail = new FileTail(file)) {
+			new DriverTracker(tail, DriverOptions.STREAMING) {
+				@Override
+				void printResults(final Driver driver) {
+					try {
+						assertEquals(Files.size(file), Checkpoint.read(checkpoint).getOffset());
+					} catch (IOException e) {
+						throw new AssertionError(e);
+					}
+					printed.set(true);
+				}
+			}.process(checkpoint, 8);
+		}
+
+		assertTrue(printed.get());
+	}
+
+	@Test
+	public void processWithCheckpoint_UnterminatedLastLine_LineProcessed() throws IOException {
+		final Path file = this.folder.newFile().toPath();
+		final Path checkpoint = this.folder.getRoot().toPath().resolve("checkpoint");
+		append(file, "Driver Dan\nTrip Dan 07:15 07:45 17.3");
+
+		assertEquals("17 miles @ 35 mph", checkpointed(file, checkpoint, 8).get("Dan"));
+		assertFalse(Files.exists(checkpoint));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void processWithCheckpoint_RetainedTrips_ISE() throws IOException {
+		try (FileTail tail = new FileTail(this.folder.newFile().toPath())) {
+			new DriverTracker(tail, DriverOptions.DEFAULT).process(this.folder.getRoot().toPath().resolve("c"), 8);
+		}
+	}
+
+	@Test
+	public void processWithCheckpoint_HourlyOrSpeeds_ISE() throws IOException {
+		final Path checkpoint = this.folder.getRoot().toPath().resolve("c");
+
+		for (final DriverOptions options : new DriverOptions[] { DriverOptions.STREAMING.withHourlySummary(true),
+				DriverOptions.STREAMING.withSpeedPercentiles(true) }) {
+			try (FileTail tail = new FileTail(this.folder.newFile().toPath())) {
+				new DriverTracker(tail, options).process(checkpoint, 8);
+				fail(options.toString());
+			} catch (IllegalStateException e) {
+				assertFalse(Files.exists(checkpoint));
+			}
+		}
+	}
+
+	private static Map<String, String> checkpointed(final Path file, final Path checkpoint, final long interval)
+			throws IOException {
+
+		try (FileTail tail = new FileTail(file)) {
+			final ReportingTracker tracker = new ReportingTracker(tail, DriverOptions.STREAMING);
+			tracker.process(checkpoint, interval);
+
+			return summaries(tracker.getReported());
+		}
+	}
+
+	/**
+	 * @return every Driver reported once {@code lines} are read by a tracker
+	 *         with {@code options}, in the order reported
+	 */
+	private static List<Driver> report(final DriverOptions options, final String... lines) {
+		return report(options, tracker -> {
+		}, lines);
+	}
+
+	/**
+	 * @return every Driver reported once {@code lines} are read by a tracker
+	 *         with {@code options}, itself first set up by {@code setUp}, in
+	 *         the order reported
+	 */
+	private static List<Driver> report(final DriverOptions options, final Consumer<DriverTracker> setUp,
+			final String... lines) {
+		final ReportingTracker tracker = new ReportingTracker(new ReaderLineSource(reader(lines)), options);
+		setUp.accept(tracker);
+		tracker.process();
+
+		return tracker.getReported();
+	}
+
+	/**
+	 * @return the summary of each Driver, keyed on its name; the last reported
+	 *         wins, as in the last of several reports
+	 */
+	private static Map<String, String> summaries(final List<Driver> drivers) {
+		final Map<String, String> summaries = new LinkedHashMap<>();
+		drivers.forEach(driver -> summaries.put(driver.getName(), driver.getDrivingSummary().toString()));
+		return summaries;
+	}
+
+	private static BufferedReader reader(final String... lines) {
+		final BufferedReader reader = mock(BufferedReader.class);
+		doReturn(Stream.of(lines)).when(reader).lines();
+		return reader;
+	}
+
+	private static String fileKey(final Path file) throws IOException {
+
+		try (FileTail tail = new FileTail(file)) {
+			return tail.getFileKey();
+		}
+	}
+
+	private static void append(final Path file, final String text) throws IOException {
+		Files.write(file, text.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+	}
+
+	private static StreamLineSource source(final String... lines) {
+		return new StreamLineSource(new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8)));
+	}
+}
@@ -0,0 +1,44 @@
+package com.awitt.root;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.awitt.root.engine.IngestEngine;
+import com.awitt.root.io.FileTail;
+import com.awitt.root.io.LineSource;
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverOptions;
+
+/**
+ * {@link DriverTracker} that keeps every {@link Driver} it reports, in
+ * order, instead of logging them, so that tests in any package can check a
+ * report.
+ */
+public class ReportingTracker extends DriverTracker {
+
+	private final List<Driver> reported = new ArrayList<>();
+
+	public ReportingTracker(final LineSource source, final DriverOptions options) {
+		super(source, options);
+	}
+
+	public ReportingTracker(final IngestEngine engine, final DriverOptions options) {
+		super(engine, options);
+	}
+
+	public ReportingTracker(final FileTail tail, final DriverOptions options) {
+		super(tail, options);
+	}
+
+	@Override
+	void printResults(final Driver driver) {
+		this.reported.add(driver);
+	}
+
+	/**
+	 * @return every Driver reported so far, in the order reported
+	 */
+	public List<Driver> getReported() {
+		return this.reported;
+	}
+}
@@ -1,10 +1,12 @@
 package com.awitt.root.actions;
 
+import static com.awitt.root.io.TestLines.bytes;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.ByteBuffer;
 import java.time.LocalTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -12,7 +14,9 @@
 
 import org.junit.Test;
 
+import com.awitt.root.io.Lines;
 import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverOptions;
 import com.awitt.root.model.Trip;
 
 public class ActionTest {
@@ -155,4 +159,34 @@ public void doCommand_Trip_() {
 		assertEquals(LocalTime.of(7, 15), trip.getStart());
 		assertEquals(LocalTime.of(8, 15), trip.getEnd());
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void doCommand_Trip_UnregisteredDriverWithHolders_TripHeld() {
+
+		final Map<String, Driver> held = new HashMap<>();
+		final TripHolders holders = holders(held);
+
+		assertFalse(Action.TRIP.doCommand("Trip freyja 07:15 08:15 27.27", new HashMap<>(), DriverOptions.DEFAULT,
+				holders).isPresent());
+		final ByteBuffer line = bytes("Trip Freyja 09:00 09:30 10.0");
+		assertFalse(Action.TRIP.doCommand(line, 0, line.limit(), new HashMap<>(), DriverOptions.DEFAULT, holders)
+				.isPresent());
+
+		assertEquals(1, held.size());
+		assertEquals(2, held.get("freyja").getTrips().size());
+	}
+
+	private static TripHolders holders(final Map<String, Driver> held) {
+		return new TripHolders() {
+			@Override
+			public Driver holderOf(final String name) {
+				return held.computeIfAbsent(name.toLowerCase(), key -> new Driver(name));
+			}
+
+			@Override
+			public Driver holderOf(final ByteBuffer buffer, final int from, final int to) {
+				return holderOf(Lines.toString(buffer, from, to));
+			}
+		};
+	}
+}
@@ -0,0 +1,89 @@
+package com.awitt.root.actions;
+
+import static com.awitt.root.io.TestLines.bytes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverOptions;
+
+public class CommandTableTest {
+
+	private final CommandTable subject = CommandTable.withActions();
+
+	@Test
+	public void get_StringLines_ActionIgnoringCase() {
+		assertSame(Action.DRIVER, this.subject.get("Driver Dan"));
+		assertSame(Action.DRIVER, this.subject.get("dRIVER Dan"));
+		assertSame(Action.TRIP, this.subject.get("TRIP Dan 07:15 07:45 17.3"));
+		assertSame(Action.TRIP, this.subject.get("Trip"));
+	}
+
+	@Test
+	public void get_ByteLines_ActionIgnoringCase() {
+		final ByteBuffer buffer = bytes("Driver Dan\ntrip Dan 07:15 07:45 17.3");
+
+		assertSame(Action.DRIVER, this.subject.get(buffer, 0, 10));
+		assertSame(Action.TRIP, this.subject.get(buffer, 11, buffer.limit()));
+	}
+
+	@Test
+	public void get_UnknownCommands_Null() {
+		assertNull(this.subject.get("Drive Dan"));
+		assertNull(this.subject.get("Drivers Dan"));
+		assertNull(this.subject.get(" Driver Dan"));
+		assertNull(this.subject.get(""));
+		assertNull(this.subject.get(bytes("Tripp Dan"), 0, 9));
+	}
+
+	@Test
+	public void register_ManyCommands_AllDispatched() {
+
+		for (int i = 0; i < 100; i++) {
+			this.subject.register(new NamedCommand("Command" + i));
+		}
+
+		assertEquals(102, this.subject.size());
+		assertSame(Action.DRIVER, this.subject.get("driver Dan"));
+		assertSame(Action.TRIP, this.subject.get(bytes("trip Dan"), 0, 8));
+		assertEquals("Command42", this.subject.get("COMMAND42 x").getCommand());
+		assertEquals("Command7", this.subject.get(bytes("command7"), 0, 8).getCommand());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void register_DuplicateIgnoringCase_IAE() {
+		this.subject.register(new NamedCommand("TRIP"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void register_MultipleWords_IAE() {
+		this.subject.register(new NamedCommand("Two Words"));
+	}
+
+	private static class NamedCommand implements Command {
+
+		private final String command;
+
+		NamedCommand(final String command) {
+			this.command = command;
+		}
+
+		@Override
+		public String getCommand() {
+			return this.command;
+		}
+
+		@Override
+		public Optional<String> doCommand(final String line, final Map<String, Driver> drivers,
+				final DriverOptions options) {
+			return Optional.empty();
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package com.awitt.root.engine;
+
+import static com.awitt.root.engine.EngineReports.report;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.awitt.root.actions.CommandTable;
+import com.awitt.root.io.BinaryConverter;
+import com.awitt.root.io.FileLineSource;
+import com.awitt.root.model.DriverIndex;
+import com.awitt.root.model.DriverOptions;
+import com.awitt.root.workload.Workload;
+import com.awitt.root.workload.WorkloadGenerator;
+
+public class BinaryEngineTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void ingest_ConvertedWorkload_SameResultsAsText() throws IOException {
+		final Path text = this.folder.newFile().toPath();
+		new WorkloadGenerator(Workload.DEFAULT.withDrivers(200).withTrips(20_000).withEarlyTripRatio(0.2)
+				.withSeed(3)).write(text);
+		final Path binary = convert(text);
+
+		assertEquals(report(new SequentialEngine(new FileLineSource(text)), DriverOptions.STREAMING),
+				report(new BinaryEngine(Collections.singletonList(binary)), DriverOptions.STREAMING));
+		assertEquals(report(new SequentialEngine(new FileLineSource(text)), DriverOptions.COLUMNAR),
+				report(new BinaryEngine(Collections.singletonList(binary)), DriverOptions.COLUMNAR));
+	}
+
+	@Test
+	public void ingest_MixedCaseEarlyAndNonCanonicalTrips_SameResultsAsText() throws IOException {
+		final Path text = write("Trip dan 07:15 07:45 17.3", "Driver Dan", "Driver DAN",
+				"trip DAN 06:12 06:32 21.80000001", "Trip Alex 12:01 13:16 42", "Trip Kumi 11:00 12:00 0.5", "", "Driver Alex",
+				"Trip alex 14:00 15:00 40.0");
+		final List<String> expected = report(new SequentialEngine(new FileLineSource(text)), DriverOptions.DEFAULT);
+
+		assertEquals(2, expected.size());
+		assertEquals(expected, report(new BinaryEngine(Collections.singletonList(convert(text))),
+				DriverOptions.DEFAULT));
+	}
+
+	@Test
+	public void ingest_TimesOfWholeMinutesWithSeconds_SameResultsAsText() throws IOException {
+		final Path text = write("Driver Dan", "Trip Dan 07:15:00 07:45:00 17.3", "Trip Dan 06:12 06:32:00.000 21.8");
+		final List<String> expected = report(new SequentialEngine(new FileLineSource(text)), DriverOptions.DEFAULT);
+
+		assertEquals(Arrays.asList("Dan: 39 miles @ 47 mph"), expected);
+		assertEquals(expected, report(new BinaryEngine(Collections.singletonList(convert(text))),
+				DriverOptions.DEFAULT));
+	}
+
+	@Test
+	public void convert_TimesWithSeconds_IllegalArgumentException() throws IOException {
+		final Path text = write("Driver Dan", "Trip Dan 07:15:30 07:45 17.3");
+
+		// PROCESSING THE TEXT KEEPS THE SECONDS, WHICH A RECORD CANNOT HOLD
+		assertEquals(Arrays.asList("Dan: 17 miles @ 35 mph"),
+				report(new SequentialEngine(new FileLineSource(text)), DriverOptions.DEFAULT));
+
+		try {
+			convert(text);
+			fail("converted a trip whose seconds would be dropped");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("07:15:30"));
+		}
+	}
+
+	@Test
+	public void ingest_ManyFiles_DriversRegisteredInLaterFile() throws IOException {
+		final Path first = convert(write("Trip Dan 07:15 07:45 17.3", "Driver Alex"));
+		final Path second = convert(write("Driver Dan", "Trip alex 12:01 13:16 42"));
+
+		assertEquals(Arrays.asList("Alex: 42 miles @ 34 mph", "Dan: 17 miles @ 35 mph"),
+				report(new BinaryEngine(Arrays.asList(first, second)), DriverOptions.STREAMING));
+	}
+
+	@Test(expected = IOException.class)
+	public void ingest_TextFile_IOException() throws IOException {
+		ingest(write("Driver Dan"));
+	}
+
+	@Test(expected = EOFException.class)
+	public void ingest_TruncatedRecord_EOFException() throws IOException {
+		final byte[] bytes = Files.readAllBytes(convert(write("Driver Dan", "Trip Dan 07:15 07:45 17.3")));
+		final Path truncated = this.folder.newFile().toPath();
+		Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 3));
+
+		ingest(truncated);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void ingest_UnregisteredInDriverTable_IllegalArgumentException() throws IOException {
+		final Path binary = convert(write("Trip Dan 07:15 07:45 17.3", "Driver Dan"));
+
+		// A DRAINED TRIP IS REMOVED, WHICH A DriverTable CANNOT DO ONE DRIVER AT A TIME
+		new BinaryEngine(Collections.singletonList(binary)).ingest(new DriverIndex(), new DriverIndex(),
+				CommandTable.withActions(), DriverOptions.STREAMING);
+	}
+
+	private static void ingest(final Path file) throws IOException {
+		new BinaryEngine(Collections.singletonList(file)).ingest(new DriverIndex(), new LinkedHashMap<>(),
+				CommandTable.withActions(), DriverOptions.STREAMING);
+	}
+
+	private Path convert(final Path text) throws IOException {
+		final Path binary = this.folder.newFile().toPath();
+
+		try (OutputStream out = Files.newOutputStream(binary); BinaryConverter converter = new BinaryConverter(out)) {
+			converter.convert(new FileLineSource(text));
+		}
+
+		return binary;
+	}
+
+	private Path write(final String... lines) throws IOException {
+		final Path file = this.folder.newFile().toPath();
+		Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+
+		return file;
+	}
+}
@@ -0,0 +1,31 @@
+package com.awitt.root.engine;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.awitt.root.ReportingTracker;
+import com.awitt.root.model.DriverOptions;
+
+/**
+ * Reports shared by the tests of every {@link IngestEngine}, so that the
+ * results of an engine can be compared with those of a
+ * {@link SequentialEngine}.
+ */
+final class EngineReports {
+
+	private EngineReports() {
+	}
+
+	/**
+	 * Processes the Driver data read by {@code engine}.
+	 * 
+	 * @return each line of the report, as {@code name: summary}
+	 */
+	static List<String> report(final IngestEngine engine, final DriverOptions options) {
+		final ReportingTracker tracker = new ReportingTracker(engine, options);
+		tracker.process();
+
+		return tracker.getReported().stream().map(driver -> driver.getName() + ": " + driver.getDrivingSummary())
+				.collect(Collectors.toList());
+	}
+}
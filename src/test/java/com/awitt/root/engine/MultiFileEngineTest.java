@@ -0,0 +1,85 @@
+package com.awitt.root.engine;
+
+import static com.awitt.root.engine.EngineReports.report;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.awitt.root.io.FileLineSource;
+import com.awitt.root.io.MappedLineSource;
+import com.awitt.root.model.DriverOptions;
+
+public class MultiFileEngineTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void ingest_DriversAndTripsInDifferentFiles_TripsAttached() throws IOException {
+		final Path drivers = write(Arrays.asList("Driver Dan", "Driver Alex"));
+		final Path trips = write(Arrays.asList("Trip dan 07:15 07:45 17.3", "Trip Alex 12:01 13:16 42.0"));
+		final Path more = write(Arrays.asList("Trip Dan 06:12 06:32 21.8", "Driver Bob"));
+
+		assertEquals(Arrays.asList("Alex: 42 miles @ 34 mph", "Dan: 39 miles @ 47 mph", "Bob: 0 miles"),
+				report(new MultiFileEngine(Arrays.asList(trips, more, drivers), 2), DriverOptions.STREAMING));
+	}
+
+	@Test
+	public void ingest_ShuffledLinesAcrossFiles_SameResultsAsSequential() throws IOException {
+		final Random random = new Random(42);
+		final List<String> lines = new ArrayList<>();
+
+		for (int i = 0; i < 40; i++) {
+			lines.add("Driver Driver" + i);
+		}
+
+		for (int i = 0; i < 1000; i++) {
+			final int start = random.nextInt(23 * 60);
+			final int end = start + 1 + random.nextInt(60);
+			lines.add(String.format("Trip driver%d %02d:%02d %02d:%02d %d.%d", random.nextInt(40), start / 60,
+					start % 60, end / 60, end % 60, random.nextInt(110), random.nextInt(10)));
+		}
+
+		Collections.shuffle(lines, random);
+
+		final List<Path> files = new ArrayList<>();
+
+		for (int i = 0; i < lines.size(); i += 97) {
+			files.add(write(lines.subList(i, Math.min(i + 97, lines.size()))));
+		}
+
+		final List<String> sequential = report(new SequentialEngine(new FileLineSource(write(lines))),
+				DriverOptions.STREAMING);
+
+		assertEquals(40, sequential.size());
+		assertEquals(sequential, report(new MultiFileEngine(files, 3), DriverOptions.STREAMING));
+		assertEquals(sequential,
+				report(new MultiFileEngine(files, 4, MappedLineSource::new), DriverOptions.DEFAULT));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void ingest_MalformedLineInOneFile_ExceptionPropagated() throws IOException {
+		final Path good = write(Arrays.asList("Driver Dan", "Trip Dan 07:15 07:45 17.3"));
+		final Path bad = write(Arrays.asList("Drive Dan"));
+
+		report(new MultiFileEngine(Arrays.asList(good, bad), 2), DriverOptions.STREAMING);
+	}
+
+	private Path write(final List<String> lines) throws IOException {
+		final Path file = this.folder.newFile().toPath();
+		Files.write(file, lines, StandardCharsets.UTF_8);
+		return file;
+	}
+}
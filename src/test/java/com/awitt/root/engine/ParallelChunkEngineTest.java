@@ -0,0 +1,126 @@
+package com.awitt.root.engine;
+
+import static com.awitt.root.engine.EngineReports.report;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.awitt.root.DriverTracker;
+import com.awitt.root.ReportingTracker;
+import com.awitt.root.io.FileLineSource;
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverOptions;
+import com.awitt.root.model.SpeedSketch;
+
+public class ParallelChunkEngineTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void ingest_OutOfOrderLinesManyChunks_SameResultsAsSequential() throws IOException {
+		final Path file = writeShuffledFile(new Random(42), 60, 2000);
+
+		final List<String> sequential = report(new SequentialEngine(new FileLineSource(file)),
+				DriverOptions.STREAMING);
+		final List<String> parallel = report(new ParallelChunkEngine(file, 4, 64), DriverOptions.STREAMING);
+		final List<String> parallelRetained = report(new ParallelChunkEngine(file, 3, 128), DriverOptions.DEFAULT);
+
+		assertEquals(60, sequential.size());
+		assertEquals(sequential, parallel);
+		assertEquals(sequential, parallelRetained);
+	}
+
+	@Test
+	public void ingest_SingleChunk_SameResultsAsSequential() throws IOException {
+		final Path file = writeShuffledFile(new Random(7), 5, 20);
+
+		assertEquals(report(new SequentialEngine(new FileLineSource(file)), DriverOptions.STREAMING),
+				report(new ParallelChunkEngine(file, 8), DriverOptions.STREAMING));
+	}
+
+	@Test
+	public void ingest_SpeedPercentiles_SamePercentilesAsSequential() throws IOException {
+		final Path file = writeShuffledFile(new Random(13), 40, 5000);
+		final DriverOptions options = DriverOptions.STREAMING.withSpeedPercentiles(true);
+		final List<String> sequential = new ArrayList<>();
+		final List<String> parallel = new ArrayList<>();
+
+		final DriverTracker sequentialTracker = percentiles(new SequentialEngine(new FileLineSource(file)), options,
+				sequential);
+		final DriverTracker parallelTracker = percentiles(new ParallelChunkEngine(file, 4, 64), options, parallel);
+
+		assertEquals(40, sequential.size());
+		assertEquals(sequential, parallel);
+		assertEquals(sequentialTracker.getFleetSpeeds().getCount(), parallelTracker.getFleetSpeeds().getCount());
+
+		for (final double quantile : new double[] { 0.5, 0.95, 0.99 }) {
+			assertEquals(sequentialTracker.getFleetSpeeds().getQuantile(quantile),
+					parallelTracker.getFleetSpeeds().getQuantile(quantile), 0);
+		}
+	}
+
+	@Test
+	public void ingest_EmptyFile_NoDrivers() throws IOException {
+		final Path file = this.folder.newFile().toPath();
+
+		assertTrue(report(new ParallelChunkEngine(file, 2, 1), DriverOptions.STREAMING).isEmpty());
+	}
+
+	private Path writeShuffledFile(final Random random, final int driverCount, final int tripCount)
+			throws IOException {
+		final List<String> lines = new ArrayList<>();
+
+		for (int i = 0; i < driverCount; i++) {
+			lines.add("Driver Driver" + i);
+		}
+
+		// A DUPLICATE REGISTRATION WITH DIFFERENT CASE
+		lines.add("Driver DRIVER0");
+
+		for (int i = 0; i < tripCount; i++) {
+			final int start = random.nextInt(23 * 60);
+			final int end = start + 1 + random.nextInt(60);
+			lines.add(String.format("%s driver%d %02d:%02d %02d:%02d %d.%d", i % 2 == 0 ? "Trip" : "trip",
+					random.nextInt(driverCount), start / 60, start % 60, end / 60, end % 60, random.nextInt(110),
+					random.nextInt(10)));
+		}
+
+		Collections.shuffle(lines, random);
+
+		final Path file = this.folder.newFile().toPath();
+		Files.write(file, lines, StandardCharsets.UTF_8);
+
+		return file;
+	}
+
+	/**
+	 * @return the tracker, once it has printed the speed percentiles of each
+	 *         Driver to {@code printed}
+	 */
+	private static DriverTracker percentiles(final IngestEngine engine, final DriverOptions options,
+			final List<String> printed) {
+		final ReportingTracker tracker = new ReportingTracker(engine, options);
+		tracker.process();
+
+		for (final Driver driver : tracker.getReported()) {
+			final SpeedSketch speeds = driver.getDrivingSummary().getSpeeds();
+			printed.add(driver.getName() + ": " + speeds.getCount() + " " + speeds.getQuantile(0.5) + " "
+					+ speeds.getQuantile(0.95) + " " + speeds.getQuantile(0.99));
+		}
+
+		return tracker;
+	}
+}
@@ -0,0 +1,77 @@
+package com.awitt.root.engine;
+
+import static com.awitt.root.engine.EngineReports.report;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.awitt.root.io.FileLineSource;
+import com.awitt.root.io.MappedLineSource;
+import com.awitt.root.model.DriverOptions;
+import com.awitt.root.workload.Workload;
+import com.awitt.root.workload.WorkloadGenerator;
+
+public class PipelinedEngineTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void ingest_GeneratedWorkload_SameResultsAsSequential() throws IOException {
+		final Path file = this.folder.newFile().toPath();
+		new WorkloadGenerator(Workload.DEFAULT.withDrivers(300).withTrips(20_000).withEarlyTripRatio(0.2)
+				.withSeed(11)).write(file);
+
+		final List<String> sequential = report(new SequentialEngine(new FileLineSource(file)),
+				DriverOptions.STREAMING);
+
+		assertEquals(300, sequential.size());
+		assertEquals(sequential, report(new PipelinedEngine(new FileLineSource(file), 3, 2), DriverOptions.STREAMING));
+		assertEquals(sequential, report(new PipelinedEngine(new MappedLineSource(file), 1, 1), DriverOptions.DEFAULT));
+	}
+
+	@Test
+	public void ingest_MixedCaseDuplicatesAndLongLines_SameResultsAsSequential() throws IOException {
+		final String longName = new String(new char[PipelinedEngine.BATCH_BYTES + 10]).replace('\0', 'x');
+		final Path file = write("Trip dan 07:15 07:45 17.3", "Driver Dan", "Driver DAN", "trip DAN 06:12 06:32 21.8",
+				"Trip Alex 12:01 13:16 42", "Trip Kumi 11:00 12:00 0.5", "Driver " + longName,
+				"Trip " + longName + " 01:00 02:00 30", "", "Driver Alex", "Trip alex 14:00 15:00 40.0");
+
+		final List<String> sequential = report(new SequentialEngine(new FileLineSource(file)),
+				DriverOptions.STREAMING);
+
+		assertEquals(3, sequential.size());
+		assertEquals(sequential, report(new PipelinedEngine(new FileLineSource(file), 2, 3), DriverOptions.STREAMING));
+	}
+
+	@Test
+	public void ingest_EmptyFile_NoDrivers() throws IOException {
+		final Path file = this.folder.newFile().toPath();
+
+		assertTrue(report(new PipelinedEngine(new FileLineSource(file), 2, 2), DriverOptions.STREAMING).isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void ingest_UnexpectedCommand_IAE() throws IOException {
+		final Path file = write("Driver Dan", "Refuel Dan 07:15");
+
+		report(new PipelinedEngine(new FileLineSource(file), 2, 2), DriverOptions.STREAMING);
+	}
+
+	private Path write(final String... lines) throws IOException {
+		final Path file = this.folder.newFile().toPath();
+		Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+
+		return file;
+	}
+}
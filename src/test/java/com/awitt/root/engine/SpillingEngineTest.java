@@ -0,0 +1,188 @@
+package com.awitt.root.engine;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.awitt.root.DriverTracker;
+import com.awitt.root.actions.CommandTable;
+import com.awitt.root.io.FileLineSource;
+import com.awitt.root.io.ReaderLineSource;
+import com.awitt.root.model.DriverIndex;
+import com.awitt.root.model.DriverOptions;
+import com.awitt.root.report.ReportFormat;
+import com.awitt.root.report.ReportWriter;
+import com.awitt.root.workload.Workload;
+import com.awitt.root.workload.WorkloadGenerator;
+
+public class SpillingEngineTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void ingest_OverBudget_SameReportAsInMemory() throws IOException {
+		final Path file = this.folder.newFile().toPath();
+		new WorkloadGenerator(Workload.DEFAULT.withDrivers(2_000).withTrips(40_000).withEarlyTripRatio(0.2)
+				.withInvalidSpeedRatio(0.05).withSeed(5)).write(file);
+
+		for (final DriverOptions options : new DriverOptions[] { DriverOptions.DEFAULT, DriverOptions.COLUMNAR,
+				DriverOptions.STREAMING, DriverOptions.STREAMING.withHourlySummary(true),
+				DriverOptions.COLUMNAR.withSpeedPercentiles(true) }) {
+			final SpillingEngine engine = new SpillingEngine(new FileLineSource(file), spillDirectory(), 1 << 16);
+			final byte[] expected = report(new SequentialEngine(new FileLineSource(file)), options, 0);
+
+			assertArrayEquals(options.toString(), expected, report(engine, options, 0));
+			assertTrue(engine.isSpilled());
+		}
+	}
+
+	@Test
+	public void ingest_OverBudgetWithTop_SameTopAsInMemory() throws IOException {
+		final Path file = this.folder.newFile().toPath();
+		new WorkloadGenerator(Workload.DEFAULT.withDrivers(500).withTrips(20_000).withSeed(8)).write(file);
+
+		assertArrayEquals(report(new SequentialEngine(new FileLineSource(file)), DriverOptions.STREAMING, 25),
+				report(new SpillingEngine(new FileLineSource(file), spillDirectory(), 1, 7), DriverOptions.STREAMING,
+						25));
+	}
+
+	@Test
+	public void ingest_EqualDistancesInEveryPartition_RegistrationOrderKept() throws IOException {
+		final List<String> lines = new ArrayList<>();
+
+		// EVERY DRIVER DRIVES THE SAME DISTANCE, SOME REGISTERED ONLY AFTER THE SPILL AND AFTER THEIR TRIPS
+		for (int i = 0; i < 3_000; i++) {
+			lines.add(i % 3 == 0 ? "Trip Driver" + i + " 07:00 08:00 30" : "Driver Driver" + i);
+			lines.add(i % 3 == 0 ? "driver DRIVER" + i : "Trip driver" + i + " 07:00 08:00 30");
+		}
+
+		lines.add("Trip Nobody 07:00 08:00 30");
+		final Path file = this.folder.newFile().toPath();
+		Files.write(file, lines, StandardCharsets.UTF_8);
+
+		final String expected = new String(report(new SequentialEngine(new FileLineSource(file)),
+				DriverOptions.DEFAULT, 0), StandardCharsets.UTF_8);
+		final String spilled = new String(report(new SpillingEngine(new ReaderLineSource(Files.newBufferedReader(file)),
+				spillDirectory(), 1, 5), DriverOptions.DEFAULT, 0), StandardCharsets.UTF_8);
+
+		assertTrue(expected.startsWith("{\"name\":\"DRIVER0\""));
+		assertEquals(expected, spilled);
+	}
+
+	@Test
+	public void ingest_NameOfSeveralWordsRegisteredAgainAfterSpill_ReportedOnce() throws IOException {
+		final List<String> lines = new ArrayList<>();
+		lines.add("Driver Mary Ann");
+
+		for (int i = 0; i < 3_000; i++) {
+			lines.add("Driver Driver" + i);
+		}
+
+		lines.add("driver MARY ANN");
+		lines.add("Trip Driver7 07:00 08:00 30");
+		final Path file = this.folder.newFile().toPath();
+		Files.write(file, lines, StandardCharsets.UTF_8);
+
+		final String expected = new String(report(new SequentialEngine(new FileLineSource(file)),
+				DriverOptions.DEFAULT, 0), StandardCharsets.UTF_8);
+
+		for (final SpillingEngine engine : new SpillingEngine[] {
+				new SpillingEngine(new FileLineSource(file), spillDirectory(), 1, 5),
+				new SpillingEngine(new ReaderLineSource(Files.newBufferedReader(file)), spillDirectory(), 1, 5) }) {
+			final String spilled = new String(report(engine, DriverOptions.DEFAULT, 0), StandardCharsets.UTF_8);
+
+			assertTrue(engine.isSpilled());
+			assertEquals(expected, spilled);
+			assertEquals(spilled.indexOf("Mary Ann"), spilled.lastIndexOf("Mary Ann"));
+		}
+	}
+
+	@Test
+	public void ingest_FailsAfterSpill_SpillDeleted() throws IOException {
+		final Path directory = spillDirectory();
+		final SpillingEngine engine = new SpillingEngine(handler -> {
+
+			for (int i = 0; i < 3_000; i++) {
+				handler.onLine("Driver Driver" + i);
+			}
+
+			throw new IOException("read failed");
+		}, directory, 1);
+
+		try {
+			engine.ingest(new DriverIndex(), new LinkedHashMap<>(), CommandTable.withActions(),
+					DriverOptions.DEFAULT);
+			fail("the read failure was not thrown");
+		} catch (IOException e) {
+			assertEquals("read failed", e.getMessage());
+		}
+
+		assertTrue(engine.isSpilled());
+		assertEquals(0, directory.toFile().list().length);
+	}
+
+	@Test
+	public void ingest_WithinBudget_NotSpilled() throws IOException {
+		final Path file = this.folder.newFile().toPath();
+		new WorkloadGenerator(Workload.DEFAULT.withDrivers(100).withTrips(5_000).withSeed(2)).write(file);
+		final SpillingEngine engine = new SpillingEngine(new FileLineSource(file), spillDirectory(), 1L << 30);
+
+		assertArrayEquals(report(new SequentialEngine(new FileLineSource(file)), DriverOptions.DEFAULT, 0),
+				report(engine, DriverOptions.DEFAULT, 0));
+		assertFalse(engine.isSpilled());
+	}
+
+	@Test
+	public void forEachInOrder_Reported_SpillDeleted() throws IOException {
+		final Path file = this.folder.newFile().toPath();
+		new WorkloadGenerator(Workload.DEFAULT.withDrivers(300).withTrips(5_000).withSeed(4)).write(file);
+		final Path directory = spillDirectory();
+
+		report(new SpillingEngine(new FileLineSource(file), directory, 1), DriverOptions.STREAMING, 0);
+
+		assertEquals(0, directory.toFile().list().length);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void sortPartitions_NotSpilled_ISE() throws IOException {
+		new SpillingEngine(new FileLineSource(this.folder.newFile().toPath()), spillDirectory(), 1)
+				.sortPartitions();
+	}
+
+	private Path spillDirectory() throws IOException {
+		return this.folder.newFolder().toPath();
+	}
+
+	private static byte[] report(final IngestEngine engine, final DriverOptions options, final int top)
+			throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		try (ReportWriter writer = new ReportWriter(out, ReportFormat.JSON)) {
+			final DriverTracker tracker = new DriverTracker(engine, options).reportTo(writer);
+
+			if (top > 0) {
+				tracker.top(top);
+			}
+
+			tracker.process();
+		}
+
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,67 @@
+package com.awitt.root.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverIndex;
+import com.awitt.root.model.DriverOptions;
+
+public class CheckpointTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void read_WrittenCheckpoint_SameState() throws IOException {
+		final Path file = this.folder.getRoot().toPath().resolve("checkpoint");
+		final Driver dan = new Driver("Dan", DriverOptions.STREAMING);
+		final Driver zoe = new Driver("Zoë", DriverOptions.STREAMING);
+		dan.addTrip(7 * 60 + 15, 7 * 60 + 45, 17_300_000L);
+		dan.addTrip(6 * 60 + 12, 6 * 60 + 32, 21_800_000L);
+
+		final DriverIndex drivers = new DriverIndex();
+		drivers.put("zoë", zoe);
+		drivers.put("dan", dan);
+
+		final Driver alex = new Driver("Alex", DriverOptions.STREAMING);
+		alex.addTrip(12 * 60 + 1, 13 * 60 + 16, 42_000_000L);
+
+		final Map<String, Driver> unregistered = new LinkedHashMap<>();
+		unregistered.put("alex", alex);
+
+		new Checkpoint(1234L, 5678L, "(dev=803,ino=42)", drivers, unregistered, Arrays.asList("Bonus Dan 5")).write(file);
+		final Checkpoint subject = Checkpoint.read(file);
+
+		assertEquals(1234L, subject.getOffset());
+		assertEquals(5678L, subject.getSize());
+		assertEquals("(dev=803,ino=42)", subject.getFileKey());
+		assertEquals(Arrays.asList("Bonus Dan 5"), subject.getPending());
+		assertEquals(alex.getDrivingSummary(), subject.getUnregistered().get("alex").getDrivingSummary());
+		assertEquals(Arrays.asList("zoë", "dan"), new ArrayList<>(subject.getDrivers().keySet()));
+		assertEquals("Zoë", subject.getDrivers().get("zoë").getName());
+		assertEquals(dan.getDrivingSummary(), subject.getDrivers().get("dan").getDrivingSummary());
+		assertEquals(Arrays.asList(file), Files.list(this.folder.getRoot().toPath()).collect(
+				Collectors.toList()));
+	}
+
+	@Test(expected = IOException.class)
+	public void read_NotACheckpoint_IOException() throws IOException {
+		final Path file = this.folder.newFile().toPath();
+		Files.write(file, "Driver Dan\n".getBytes());
+
+		Checkpoint.read(file);
+	}
+}
@@ -0,0 +1,123 @@
+package com.awitt.root.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileTailTest {
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void forEachLine_IncompleteLine_HeldUntilTerminated() throws IOException {
+		final Path file = this.folder.newFile().toPath();
+
+		try (FileTail subject = new FileTail(file)) {
+			append(file, "Driver Dan\r\nTrip Dan 07:15");
+
+			assertEquals(Arrays.asList("Driver Dan"), read(subject));
+			assertEquals(12, subject.getPosition());
+
+			append(file, " 07:45 17.3\n");
+
+			assertEquals(Arrays.asList("Trip Dan 07:15 07:45 17.3"), read(subject));
+			assertEquals(Collections.emptyList(), read(subject));
+			assertEquals(Files.size(file), subject.getPosition());
+		}
+	}
+
+	@Test
+	public void forEachLine_LineLongerThanBuffer_WholeLine() throws IOException {
+		final Path file = this.folder.newFile().toPath();
+		final char[] name = new char[StreamLineSource.DEFAULT_BUFFER_SIZE * 2];
+		Arrays.fill(name, 'a');
+
+		try (FileTail subject = new FileTail(file)) {
+			append(file, "Driver " + new String(name));
+			assertEquals(Collections.emptyList(), read(subject));
+
+			append(file, "\n");
+			assertEquals(Arrays.asList("Driver " + new String(name)), read(subject));
+		}
+	}
+
+	@Test
+	public void forEachLine_Truncated_ReadFromStart() throws IOException {
+		final Path file = this.folder.newFile().toPath();
+
+		try (FileTail subject = new FileTail(file)) {
+			append(file, "Driver Dan\nDriver Alex\n");
+			assertEquals(Arrays.asList("Driver Dan", "Driver Alex"), read(subject));
+
+			Files.write(file, "Driver Bob\n".getBytes(StandardCharsets.UTF_8));
+			assertEquals(Arrays.asList("Driver Bob"), read(subject));
+		}
+	}
+
+	@Test
+	public void forEachLine_FromPosition_OnlyLaterLines() throws IOException {
+		final Path file = this.folder.newFile().toPath();
+		append(file, "Driver Dan\nDriver Alex\n");
+
+		try (FileTail subject = new FileTail(file, 11)) {
+			assertEquals(Arrays.asList("Driver Alex"), read(subject));
+		}
+	}
+
+	@Test
+	public void forHeldLine_UnterminatedLastLine_HandedOver() throws IOException {
+		final Path file = this.folder.newFile().toPath();
+		append(file, "Driver Dan\nTrip Dan 07:15 07:45 17.3\r");
+
+		try (FileTail subject = new FileTail(file)) {
+			assertEquals(Arrays.asList("Driver Dan"), read(subject));
+
+			final List<String> lines = new ArrayList<>();
+
+			assertTrue(subject.forHeldLine(handler(lines)));
+			assertEquals(Arrays.asList("Trip Dan 07:15 07:45 17.3"), lines);
+			assertEquals(Files.size(file), subject.getPosition());
+			assertFalse(subject.forHeldLine(handler(lines)));
+		}
+	}
+
+	private static List<String> read(final FileTail tail) throws IOException {
+		final List<String> lines = new ArrayList<>();
+		tail.forEachLine(handler(lines));
+		return lines;
+	}
+
+	private static LineHandler handler(final List<String> lines) {
+		return new LineHandler() {
+			@Override
+			public void onLine(final String line) {
+				lines.add(line);
+			}
+
+			@Override
+			public void onLine(final ByteBuffer buffer, final int from, final int to) {
+				lines.add(Lines.toString(buffer, from, to));
+			}
+		};
+	}
+
+	private static void append(final Path file, final String text) throws IOException {
+		Files.write(file, text.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+	}
+}
@@ -0,0 +1,171 @@
+package com.awitt.root.io;
+
+import static com.awitt.root.io.TestLines.readAll;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GzipLineSourceTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void forEachLine_ManyMembersSplittingLines_LinesInOrder() throws IOException {
+		final List<String> lines = lines(20_000);
+		final byte[] text = join(lines);
+		final ByteArrayOutputStream members = new ByteArrayOutputStream();
+
+		// MEMBERS OF VARYING SIZE, EACH ENDING PART OF THE WAY THROUGH A LINE
+		for (int from = 0, size = 1_000; from < text.length; from += size, size = size * 3 / 2 % 50_000 + 7) {
+			members.write(gzip(text, from, Math.min(text.length, from + size), Deflater.DEFAULT_COMPRESSION));
+		}
+
+		final Path file = write(members.toByteArray());
+
+		assertEquals(lines, readAll(new GzipLineSource(file, 4)));
+		assertEquals(lines, readAll(new GzipLineSource(file, 1)));
+	}
+
+	@Test
+	public void forEachLine_StoredMemberContainingHeaderBytes_LinesInOrder() throws IOException {
+		final List<String> lines = lines(100);
+		lines.add(50, new String(new byte[] { 'D', 'r', 'i', 'v', 'e', 'r', ' ', 0x1f, (byte) 0x8b, 0x08, 0x00 },
+				StandardCharsets.ISO_8859_1));
+		final byte[] text = join(lines);
+		final ByteArrayOutputStream members = new ByteArrayOutputStream();
+
+		// STORED, SO THE BYTES OF A MEMBER HEADER APPEAR INSIDE THE FIRST MEMBER
+		members.write(gzip(text, 0, text.length / 2, Deflater.NO_COMPRESSION));
+		members.write(gzip(text, text.length / 2, text.length, Deflater.NO_COMPRESSION));
+
+		assertEquals(lines, readAll(new GzipLineSource(write(members.toByteArray()), 3), StandardCharsets.ISO_8859_1));
+	}
+
+	@Test
+	public void forEachLine_SingleMember_LinesInOrder() throws IOException {
+		final List<String> lines = lines(5_000);
+		final byte[] text = join(lines);
+
+		assertEquals(lines, readAll(new GzipLineSource(write(gzip(text, 0, text.length, Deflater.BEST_SPEED)), 2)));
+	}
+
+	@Test
+	public void forEachLine_MembersLargerThanScan_LinesInOrder() throws IOException {
+		final List<String> lines = lines(160_000);
+		final byte[] text = join(lines);
+		final ByteArrayOutputStream members = new ByteArrayOutputStream();
+
+		// STORED, SO THAT NO SECOND MEMBER STARTS WITHIN THE CHUNKS SCANNED FIRST
+		members.write(gzip(text, 0, text.length / 2, Deflater.NO_COMPRESSION));
+		members.write(gzip(text, text.length / 2, text.length, Deflater.NO_COMPRESSION));
+
+		final GzipLineSource source = new GzipLineSource(write(members.toByteArray()), 4);
+
+		assertTrue(text.length / 2 > GzipLineSource.SCAN_CHUNKS * GzipLineSource.CHUNK_SIZE);
+		assertTrue(source.hasEarlyMember());
+		assertEquals(lines, readAll(source));
+	}
+
+	@Test
+	public void forEachLine_SecondMemberPastScanLimit_LinesInOrderOnOneThread() throws IOException {
+		final List<String> lines = lines(20_000);
+		final byte[] text = join(lines);
+		final ByteArrayOutputStream members = new ByteArrayOutputStream();
+		members.write(gzip(text, 0, text.length / 2, Deflater.NO_COMPRESSION));
+		members.write(gzip(text, text.length / 2, text.length, Deflater.NO_COMPRESSION));
+
+		final Path file = write(members.toByteArray());
+		final GzipLineSource source = new GzipLineSource(file, 4, text.length / 4);
+
+		assertFalse(source.hasEarlyMember());
+		assertTrue(new GzipLineSource(file, 4, text.length).hasEarlyMember());
+		assertEquals(lines, readAll(source));
+	}
+
+	@Test
+	public void forEachLine_LargeMemberAmongSmallOnes_LinesInOrder() throws IOException {
+		final List<String> lines = lines(300_000);
+		final byte[] text = join(lines);
+		final int large = text.length / 4;
+		final ByteArrayOutputStream members = new ByteArrayOutputStream();
+
+		// SCANNING PAST THE LARGE MEMBER TAKES SEVERAL SCANS, MADE AS IT IS READ
+		for (int from = 0; from < large; from += 10_000) {
+			members.write(gzip(text, from, Math.min(large, from + 10_000), Deflater.DEFAULT_COMPRESSION));
+		}
+
+		members.write(gzip(text, large, large * 3, Deflater.NO_COMPRESSION));
+
+		for (int from = large * 3; from < text.length; from += 10_000) {
+			members.write(gzip(text, from, Math.min(text.length, from + 10_000), Deflater.DEFAULT_COMPRESSION));
+		}
+
+		assertTrue(large * 2 > 3 * GzipLineSource.SCAN_CHUNKS * GzipLineSource.CHUNK_SIZE);
+		assertEquals(lines, readAll(new GzipLineSource(write(members.toByteArray()), 3)));
+	}
+
+	@Test(expected = ZipException.class)
+	public void forEachLine_CorruptMember_ZipException() throws IOException {
+		final byte[] text = join(lines(1_000));
+		final ByteArrayOutputStream members = new ByteArrayOutputStream();
+		members.write(gzip(text, 0, text.length / 2, Deflater.DEFAULT_COMPRESSION));
+		members.write(gzip(text, text.length / 2, text.length, Deflater.DEFAULT_COMPRESSION));
+
+		// THE LAST BYTE OF THE SECOND MEMBER'S LENGTH
+		final byte[] corrupt = members.toByteArray();
+		corrupt[corrupt.length - 1] ^= 1;
+
+		readAll(new GzipLineSource(write(corrupt), 2));
+	}
+
+	private static List<String> lines(final int count) {
+		final List<String> lines = new ArrayList<>();
+
+		for (int i = 0; i < count; i++) {
+			lines.add(i % 10 == 0 ? "Driver Driver" + i : "Trip Driver" + (i / 10 * 10) + " 07:15 07:45 " + i % 97);
+		}
+
+		return lines;
+	}
+
+	private static byte[] join(final List<String> lines) {
+		return (String.join("\n", lines) + "\n").getBytes(StandardCharsets.ISO_8859_1);
+	}
+
+	private static byte[] gzip(final byte[] bytes, final int from, final int to, final int level) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+			{
+				this.def.setLevel(level);
+			}
+		}) {
+			gzip.write(bytes, from, to - from);
+		}
+
+		return out.toByteArray();
+	}
+
+	private Path write(final byte[] bytes) throws IOException {
+		final Path file = this.folder.newFile("drivers.txt.gz").toPath();
+		Files.write(file, bytes);
+
+		return file;
+	}
+}
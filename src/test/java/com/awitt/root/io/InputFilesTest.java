@@ -0,0 +1,83 @@
+package com.awitt.root.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class InputFilesTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File logs;
+
+	@Before
+	public void init() throws IOException {
+		this.logs = this.folder.newFolder("logs");
+		this.folder.newFile("logs/b.txt");
+		this.folder.newFile("logs/a.txt");
+		this.folder.newFile("logs/c.gz");
+		this.folder.newFolder("logs", "nested");
+		this.folder.newFile("logs/nested/d.txt");
+	}
+
+	@Test
+	public void resolve_Directory_SortedFilesDirectlyWithin() throws IOException {
+		assertEquals(Arrays.asList(path("a.txt"), path("b.txt"), path("c.gz")),
+				InputFiles.resolve(Collections.singletonList(this.logs.getPath())));
+	}
+
+	@Test
+	public void resolve_Glob_SortedMatchingFiles() throws IOException {
+		assertEquals(Arrays.asList(path("a.txt"), path("b.txt")),
+				InputFiles.resolve(Collections.singletonList(this.logs.getPath() + "/*.txt")));
+		assertEquals(Arrays.asList(path("a.txt"), path("b.txt"), path("nested/d.txt")),
+				InputFiles.resolve(Collections.singletonList(this.logs.getPath() + "/**.txt")));
+	}
+
+	@Test
+	public void resolve_GlobAcrossDirectories_OnlyFilesAtItsDepth() throws IOException {
+		this.folder.newFolder("logs", "nested", "deeper");
+		this.folder.newFile("logs/nested/deeper/d.txt");
+
+		assertEquals(Arrays.asList(path("nested/d.txt")),
+				InputFiles.resolve(Collections.singletonList(this.logs.getPath() + "/*/d.txt")));
+	}
+
+	@Test
+	public void resolve_FilesAndDirectory_InputOrderKept() throws IOException {
+		assertEquals(Arrays.asList(path("c.gz"), path("nested/d.txt")), InputFiles
+				.resolve(Arrays.asList(path("c.gz").toString(), new File(this.logs, "nested").getPath())));
+	}
+
+	@Test(expected = NoSuchFileException.class)
+	public void resolve_MissingFile_NSFE() throws IOException {
+		InputFiles.resolve(Collections.singletonList(this.logs.getPath() + "/missing.txt"));
+	}
+
+	@Test(expected = NoSuchFileException.class)
+	public void resolve_GlobMatchingNothing_NSFE() throws IOException {
+		InputFiles.resolve(Collections.singletonList(this.logs.getPath() + "/*.csv"));
+	}
+
+	@Test(expected = NoSuchFileException.class)
+	public void resolve_DirectoryOfOnlyDirectories_NSFE() throws IOException {
+		this.folder.newFolder("logs", "empty", "nested");
+
+		InputFiles.resolve(Collections.singletonList(this.logs.getPath() + "/empty"));
+	}
+
+	private Path path(final String name) {
+		return new File(this.logs, name).toPath();
+	}
+}
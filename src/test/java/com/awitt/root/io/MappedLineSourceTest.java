@@ -0,0 +1,45 @@
+package com.awitt.root.io;
+
+import static com.awitt.root.io.TestLines.readAll;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedLineSourceTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void forEachLine_LinesSpanningWindows_LinesIntact() throws IOException {
+		final Path file = write("Driver Dan\r\nTrip Dan 07:15 07:45 17.3\n\nDriver Zoë");
+
+		assertEquals(Arrays.asList("Driver Dan", "Trip Dan 07:15 07:45 17.3", "", "Driver Zoë"),
+				readAll(new MappedLineSource(file, 32)));
+		assertEquals(readAll(new MappedLineSource(file)), readAll(new MappedLineSource(file, 32)));
+	}
+
+	@Test
+	public void forEachLine_EmptyFile_NoLines() throws IOException {
+		assertEquals(0, readAll(new MappedLineSource(write(""))).size());
+	}
+
+	@Test(expected = IOException.class)
+	public void forEachLine_LineLongerThanWindow_IOException() throws IOException {
+		readAll(new MappedLineSource(write("Trip Dan 07:15 07:45 17.3\nDriver Dan\n"), 8));
+	}
+
+	private Path write(final String text) throws IOException {
+		final Path file = this.folder.newFile().toPath();
+		Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+}
@@ -0,0 +1,31 @@
+package com.awitt.root.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class StreamLineSourceTest {
+
+	@Test
+	public void forEachLine_MixedTerminators_LinesWithoutTerminators() throws IOException {
+		assertEquals(Arrays.asList("Driver Dan", "", "Trip Dan 07:15 07:45 17.3", "Driver Zoë"),
+				readAll("Driver Dan\r\n\nTrip Dan 07:15 07:45 17.3\nDriver Zoë", 64));
+	}
+
+	@Test
+	public void forEachLine_LinesLongerThanBuffer_LinesIntact() throws IOException {
+		assertEquals(Arrays.asList("Driver Alexander", "Trip Alexander 07:15 07:45 17.3"),
+				readAll("Driver Alexander\nTrip Alexander 07:15 07:45 17.3\n", 4));
+	}
+
+	private static List<String> readAll(final String text, final int bufferSize) throws IOException {
+		return TestLines.readAll(
+				new StreamLineSource(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), bufferSize));
+	}
+}
@@ -0,0 +1,60 @@
+package com.awitt.root.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lines shared by the tests of every class that reads them as bytes, whether
+ * a {@link LineSource} or what parses and looks up names held in a
+ * {@link ByteBuffer}.
+ */
+public final class TestLines {
+
+	private TestLines() {
+	}
+
+	/**
+	 * @return {@code text} UTF-8 encoded, from index {@code 0} to its limit
+	 */
+	public static ByteBuffer bytes(final String text) {
+		return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @return every line read by {@code source}, UTF-8 decoded
+	 */
+	public static List<String> readAll(final LineSource source) throws IOException {
+		return readAll(source, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return every line read by {@code source}, decoded as {@code charset}
+	 */
+	public static List<String> readAll(final LineSource source, final Charset charset) throws IOException {
+		final List<String> lines = new ArrayList<>();
+
+		source.forEachLine(new LineHandler() {
+			@Override
+			public void onLine(final String line) {
+				lines.add(line);
+			}
+
+			@Override
+			public void onLine(final ByteBuffer buffer, final int from, final int to) {
+				final byte[] bytes = new byte[to - from];
+
+				for (int i = from; i < to; i++) {
+					bytes[i - from] = buffer.get(i);
+				}
+
+				lines.add(new String(bytes, charset));
+			}
+		});
+
+		return lines;
+	}
+}
@@ -0,0 +1,78 @@
+package com.awitt.root.io;
+
+import static com.awitt.root.io.TestLines.bytes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import com.awitt.root.model.Trip;
+
+public class TripLineParserTest {
+
+	/** start, end and distance of every Trip used across the existing tests **/
+	private static final String[][] EXISTING_TRIPS = { { "07:15", "07:55", "3.0" }, { "12:00", "14:00", "120.0" },
+			{ "12:00", "14:00", "5.0" }, { "12:00", "14:00", "1200.0" }, { "07:15", "07:45", "17.3" },
+			{ "06:12", "06:32", "21.8" }, { "00:12", "06:32", "21.8" }, { "06:12", "06:32", "1021.8" },
+			{ "07:15", "08:15", "27.27" }, { "00:00", "05:00", "100.0" }, { "23:59", "00:01", "1" },
+			{ "08:00", "08:00", ".5" }, { "10:00", "11:00", "-4.123456" } };
+
+	private final TripLineParser subject = new TripLineParser();
+
+	@Test
+	public void parse_ExistingTestCases_MatchesStringConstructor() {
+
+		for (final String[] values : EXISTING_TRIPS) {
+			final ByteBuffer line = bytes("Trip Yossarian " + values[0] + " " + values[1] + " " + values[2]);
+
+			assertTrue(String.join(" ", values), this.subject.parse(line, 0, line.limit()));
+
+			final Trip expected = new Trip(values[0], values[1], values[2]);
+			final Trip parsed = new Trip(this.subject.getStartMinute(), this.subject.getEndMinute(),
+					this.subject.getDistance());
+
+			assertEquals(expected, parsed);
+			assertEquals(Double.doubleToLongBits(expected.getAverageSpeed()),
+					Double.doubleToLongBits(parsed.getAverageSpeed()));
+			assertEquals(expected.meetsTripRequirements(), Trip.meetsTripRequirements(this.subject.getStartMinute(),
+					this.subject.getEndMinute(), this.subject.getDistance()));
+		}
+	}
+
+	@Test
+	public void parse_GoodData_PartsAvailable() {
+		final ByteBuffer line = bytes("Trip Dan 07:15 07:45 17.3  ");
+
+		assertTrue(this.subject.parse(line, 0, line.limit()));
+		assertEquals("Dan", Lines.toString(line, this.subject.getNameFrom(), this.subject.getNameTo()));
+		assertEquals(7 * 60 + 15, this.subject.getStartMinute());
+		assertEquals(7 * 60 + 45, this.subject.getEndMinute());
+		assertEquals(17_300_000L, this.subject.getDistance());
+	}
+
+	@Test
+	public void parse_OffsetSlice_OnlySliceParsed() {
+		final ByteBuffer line = bytes("Driver Dan\nTrip Dan 07:15 07:45 17.3\nDriver Bob");
+
+		assertTrue(this.subject.parse(line, 11, 36));
+		assertEquals(17_300_000L, this.subject.getDistance());
+	}
+
+	@Test
+	public void parse_NonCanonicalLines_False() {
+		final String[] lines = { "Trip", "Trip Dan", "Trip Dan 07:15 07:45", "Trip  Dan 07:15 07:45 17.3",
+				"Trip Dan 07:15  07:45 17.3", "Trip Dan 7:15 07:45 17.3", "Trip Dan 07:15 07:45:00 17.3",
+				"Trip Dan 24:00 07:45 17.3", "Trip Dan 07:60 07:45 17.3", "Trip Dan not gonna work 17.3",
+				"Trip Dan 07:15 07:45 metric5", "Trip Dan 07:15 07:45 1e3", "Trip Dan 07:15 07:45 .",
+				"Trip Dan 07:15 07:45 1.2345678", "Trip Dan 07:15 07:45 12345678901.0",
+				"Trip metric1 metric2 metric5 metric3sir metric4" };
+
+		for (final String text : lines) {
+			final ByteBuffer line = bytes(text);
+			assertFalse(text, this.subject.parse(line, 0, line.limit()));
+		}
+	}
+}
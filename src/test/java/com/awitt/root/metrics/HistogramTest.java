@@ -0,0 +1,61 @@
+package com.awitt.root.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HistogramTest {
+
+	@Test
+	public void bucketOf_EveryBucket_UpperBoundInSameBucket() {
+
+		for (long value = 0; value < 1 << 16; value++) {
+			final int bucket = Histogram.bucketOf(value);
+
+			assertTrue(value <= Histogram.upperBoundOf(bucket));
+			assertEquals(bucket, Histogram.bucketOf(Histogram.upperBoundOf(bucket)));
+		}
+
+		assertEquals(Long.MAX_VALUE, Histogram.upperBoundOf(Histogram.bucketOf(Long.MAX_VALUE)));
+	}
+
+	@Test
+	public void getPercentile_RandomValues_WithinOneEighthAbove() {
+		final Random random = new Random(3);
+		final long[] values = new long[100_000];
+		final Histogram subject = new Histogram();
+
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (long) Math.exp(random.nextDouble() * 20);
+			subject.record(values[i]);
+		}
+
+		Arrays.sort(values);
+
+		for (final double percentile : new double[] { 1, 50, 90, 99, 99.9, 100 }) {
+			final long exact = values[(int) Math.ceil(values.length * percentile / 100) - 1];
+			final long estimate = subject.getPercentile(percentile);
+
+			assertTrue(percentile + ": " + estimate + " < " + exact, estimate >= exact);
+			assertTrue(percentile + ": " + estimate + " > " + exact, estimate <= exact + exact / 8);
+		}
+
+		assertEquals(values.length, subject.getCount());
+		assertEquals(Arrays.stream(values).sum(), subject.getSum());
+	}
+
+	@Test
+	public void reset_Recorded_Empty() {
+		final Histogram subject = new Histogram();
+		subject.record(42);
+		subject.reset();
+
+		assertEquals(0, subject.getCount());
+		assertEquals(0, subject.getPercentile(99));
+		assertEquals(0, subject.getMean(), 0);
+	}
+}
@@ -0,0 +1,76 @@
+package com.awitt.root.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+public class IngestMetricsTest {
+
+	@Test
+	public void register_Twice_ExposedOverJmx() throws Exception {
+		IngestMetrics.register();
+		IngestMetrics.register();
+
+		final long lines = IngestMetrics.GLOBAL.getLinesRead();
+
+		assertEquals(lines, ManagementFactory.getPlatformMBeanServer()
+				.getAttribute(new ObjectName(IngestMetrics.OBJECT_NAME), "LinesRead"));
+	}
+
+	@Test
+	public void isSampled_OneInInterval() {
+		int sampled = 0;
+
+		for (long count = 1; count <= IngestMetrics.SAMPLE_INTERVAL * 10; count++) {
+			sampled += IngestMetrics.isSampled(count) ? 1 : 0;
+		}
+
+		assertEquals(10, sampled);
+	}
+
+	@Test
+	public void since_CountedAfterSnapshot_OnlyLaterCounts() {
+		final IngestMetrics subject = new IngestMetrics();
+		subject.lineRead();
+		subject.duplicateRegistration();
+		subject.parsed(100);
+		subject.time(IngestMetrics.Phase.SORT, System.nanoTime());
+
+		final IngestMetrics snapshot = subject.snapshot();
+		subject.lineRead();
+		subject.invalidTrips(3);
+		subject.parsed(1_000);
+
+		final IngestMetrics since = subject.since(snapshot);
+
+		assertEquals(1, since.getLinesRead());
+		assertEquals(3, since.getInvalidTrips());
+		assertEquals(0, since.getDuplicateRegistrations());
+		assertEquals(1, since.getParseNanos().getCount());
+		assertEquals(1_000, since.getParseNanos().getSum());
+		assertTrue(since.getParseNanosP50() >= 1_000);
+		assertEquals(0, since.getPhaseNanos(IngestMetrics.Phase.SORT).getCount());
+		assertEquals(2, subject.getLinesRead());
+		assertEquals(1, snapshot.getLinesRead());
+	}
+
+	@Test
+	public void reset_Counted_Zero() {
+		final IngestMetrics subject = new IngestMetrics();
+		subject.lineRead();
+		subject.invalidTrips(3);
+		subject.duplicateRegistration();
+		subject.time(IngestMetrics.Phase.SORT, System.nanoTime());
+		subject.reset();
+
+		assertEquals(0, subject.getLinesRead());
+		assertEquals(0, subject.getInvalidTrips());
+		assertEquals(0, subject.getDuplicateRegistrations());
+		assertEquals(0, subject.getPhaseNanos(IngestMetrics.Phase.SORT).getCount());
+	}
+}
@@ -0,0 +1,127 @@
+package com.awitt.root.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class ConcurrentDrivingSummaryTest {
+
+	private static final int THREADS = 8;
+	private static final int TRIPS_PER_THREAD = 20_000;
+
+	@Test
+	public void addTripInfo_ManyThreads_ExactTotals() throws InterruptedException {
+		final ConcurrentDrivingSummary subject = new ConcurrentDrivingSummary();
+		final DrivingSummary expected = new DrivingSummary();
+
+		runConcurrently(thread -> {
+			for (int i = 0; i < TRIPS_PER_THREAD; i++) {
+				subject.addTripInfo(1_000_001L * (thread + 1), 60);
+			}
+		});
+
+		for (int thread = 0; thread < THREADS; thread++) {
+			for (int i = 0; i < TRIPS_PER_THREAD; i++) {
+				expected.addTripInfo(1_000_001L * (thread + 1), 60);
+			}
+		}
+
+		assertEquals(expected.getScaledTotalDistance(), subject.getScaledTotalDistance());
+		assertEquals(expected.getTotalDuration(), subject.getTotalDuration());
+		assertEquals(expected.getAverageSpeed(), subject.getAverageSpeed());
+		assertEquals(expected.toString(), subject.toString());
+		assertEquals(expected, subject);
+		assertEquals(subject, expected);
+	}
+
+	@Test
+	public void snapshot_WhileAdding_NeverDurationWithoutDistance() throws InterruptedException {
+		final ConcurrentDrivingSummary subject = new ConcurrentDrivingSummary();
+		final AtomicBoolean torn = new AtomicBoolean();
+		final AtomicBoolean done = new AtomicBoolean();
+
+		final Thread reader = new Thread(() -> {
+			while (!done.get()) {
+				final DrivingSummary snapshot = subject.snapshot();
+
+				// EVERY TRIP IS A MILE A MINUTE, AND ITS DISTANCE IS ADDED FIRST
+				if (snapshot.getScaledTotalDistance() < snapshot.getTotalDuration() / 60 * Trip.DISTANCE_SCALE) {
+					torn.set(true);
+				}
+			}
+		});
+		reader.start();
+
+		runConcurrently(thread -> {
+			for (int i = 0; i < TRIPS_PER_THREAD; i++) {
+				subject.addTripInfo(Trip.DISTANCE_SCALE, 60);
+			}
+		});
+
+		done.set(true);
+		reader.join();
+
+		assertFalse(torn.get());
+		assertEquals(THREADS * TRIPS_PER_THREAD * 60L, subject.getTotalDuration());
+	}
+
+	@Test
+	public void merge_IntoPlainSummary_TotalsAdded() {
+		final ConcurrentDrivingSummary concurrent = new ConcurrentDrivingSummary();
+		concurrent.addTripInfo(30 * Trip.DISTANCE_SCALE, 60 * 60);
+
+		final DrivingSummary subject = new DrivingSummary();
+		subject.addTripInfo(10 * Trip.DISTANCE_SCALE, 60 * 60);
+		subject.merge(concurrent);
+
+		assertEquals(40.0, subject.getTotalDistance(), 0);
+		assertEquals(20, subject.getAverageSpeed());
+	}
+
+	@Test
+	public void newDriver_ConcurrentSummaryOption_ConcurrentSummary() {
+		final Driver driver = new Driver("Dan", DriverOptions.STREAMING.withConcurrentSummary(true));
+
+		assertTrue(driver.getDrivingSummary() instanceof ConcurrentDrivingSummary);
+		assertTrue(driver.getOptions().withRetention(DriverOptions.Retention.RETAIN).isConcurrentSummary());
+		assertFalse(new Driver("Dan", DriverOptions.STREAMING).getDrivingSummary() instanceof ConcurrentDrivingSummary);
+	}
+
+	private static void runConcurrently(final ThreadTask task) throws InterruptedException {
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<Thread> threads = new ArrayList<>();
+
+		for (int i = 0; i < THREADS; i++) {
+			final int thread = i;
+			threads.add(new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+
+				task.run(thread);
+			}));
+		}
+
+		threads.forEach(Thread::start);
+		start.countDown();
+
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+	}
+
+	@FunctionalInterface
+	private interface ThreadTask {
+		void run(int thread);
+	}
+}
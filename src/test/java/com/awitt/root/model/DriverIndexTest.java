@@ -0,0 +1,100 @@
+package com.awitt.root.model;
+
+import static com.awitt.root.io.TestLines.bytes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Test;
+
+public class DriverIndexTest {
+
+	private final DriverIndex subject = new DriverIndex();
+
+	@Test
+	public void getIgnoreCase_AnyCase_SameDriver() {
+		final Driver driver = new Driver("Dan");
+		this.subject.put(DriverIndex.toKey("Dan"), driver);
+
+		assertSame(driver, this.subject.getIgnoreCase("dan"));
+		assertSame(driver, this.subject.getIgnoreCase("DAN"));
+		assertSame(driver, this.subject.get("dan"));
+		assertNull(this.subject.getIgnoreCase("Dana"));
+	}
+
+	@Test
+	public void get_NameAsBytes_SameDriver() {
+		final Driver driver = new Driver("Dan");
+		this.subject.put(DriverIndex.toKey("Dan"), driver);
+		final ByteBuffer buffer = bytes("Trip dAn 07:15");
+
+		assertSame(driver, this.subject.get(buffer, 5, 8));
+		assertNull(this.subject.get(buffer, 5, 9));
+	}
+
+	@Test
+	public void register_NonAsciiName_SameAsStringLowerCase() {
+		final ByteBuffer buffer = bytes("ÉLODIE");
+
+		final Driver driver = this.subject.register(buffer, 0, buffer.limit(), DriverOptions.DEFAULT);
+
+		assertEquals("ÉLODIE", driver.getName());
+		assertSame(driver, this.subject.get("ÉLODIE".toLowerCase(Locale.ROOT)));
+		assertSame(driver, this.subject.getIgnoreCase("élodie"));
+		assertNull(this.subject.register(bytes("élodie"), 0, bytes("élodie").limit(), DriverOptions.DEFAULT));
+	}
+
+	@Test
+	public void toKey_TurkishDefaultLocale_FoldedAsInRootLocale() {
+		final Locale locale = Locale.getDefault();
+
+		try {
+			Locale.setDefault(new Locale("tr", "TR"));
+			final ByteBuffer buffer = bytes("ÉMILIE");
+			final Driver driver = this.subject.register(buffer, 0, buffer.limit(), DriverOptions.DEFAULT);
+
+			// NON-ASCII NAMES ARE FOLDED AS ASCII ONES ARE, WITHOUT A DOTLESS I
+			assertEquals("émilie", DriverIndex.toKey("ÉMILIE"));
+			assertEquals("iris", DriverIndex.toKey("IRIS"));
+			assertSame(driver, this.subject.get("émilie"));
+			assertSame(driver, this.subject.getIgnoreCase("ÉMILIE"));
+			assertSame(driver, this.subject.get(bytes("éMILIE"), 0, bytes("éMILIE").limit()));
+		} finally {
+			Locale.setDefault(locale);
+		}
+	}
+
+	@Test
+	public void register_AlreadyRegistered_Null() {
+		final ByteBuffer buffer = bytes("Dan DAN");
+
+		final Driver driver = this.subject.register(buffer, 0, 3, DriverOptions.DEFAULT);
+
+		assertNull(this.subject.register(buffer, 4, 7, DriverOptions.DEFAULT));
+		assertEquals("Dan", driver.getName());
+		assertEquals(1, this.subject.size());
+	}
+
+	@Test
+	public void put_ManyDrivers_AllFoundAndIteratedInOrder() {
+		final List<String> names = new ArrayList<>();
+
+		for (int i = 0; i < 10_000; i++) {
+			final String name = "Driver" + i;
+			names.add(name.toLowerCase(Locale.ROOT));
+			this.subject.put(DriverIndex.toKey(name), new Driver(name));
+		}
+
+		assertEquals(10_000, this.subject.size());
+		assertEquals(names, new ArrayList<>(this.subject.keySet()));
+
+		for (int i = 0; i < 10_000; i++) {
+			assertEquals("Driver" + i, this.subject.getIgnoreCase("DRIVER" + i).getName());
+		}
+	}
+}
@@ -0,0 +1,335 @@
+package com.awitt.root.model;
+
+import static com.awitt.root.io.TestLines.bytes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DriverStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void register_TripsAddedThenReopened_SameTotals() throws IOException {
+		final Path directory = this.folder.getRoot().toPath();
+
+		try (DriverStore subject = DriverStore.open(directory)) {
+			final ByteBuffer buffer = bytes("Dan Alex");
+			final Driver dan = subject.register(buffer, 0, 3, DriverOptions.STREAMING);
+			subject.register(buffer, 4, 8, DriverOptions.STREAMING);
+
+			dan.addTrip(new Trip("07:15", "07:45", "17.3"));
+			subject.getIgnoreCase("DAN").addTrip(new Trip("06:12", "06:32", "21.8"));
+			subject.get(buffer, 4, 8).addTrip(new Trip("12:01", "13:16", "42.0"));
+		}
+
+		try (DriverStore subject = DriverStore.open(directory)) {
+			assertEquals(2, subject.size());
+			assertEquals("Dan", subject.getIgnoreCase("dan").getName());
+			assertEquals("39 miles @ 47 mph", subject.getIgnoreCase("dan").getDrivingSummary().toString());
+			assertEquals("42 miles @ 34 mph", subject.get("alex").getDrivingSummary().toString());
+			assertNull(subject.getIgnoreCase("Bob"));
+		}
+	}
+
+	@Test
+	public void register_AlreadyRegisteredInAnyCase_Null() throws IOException {
+
+		try (DriverStore subject = DriverStore.open(this.folder.getRoot().toPath())) {
+			final ByteBuffer buffer = bytes("Dan DAN");
+
+			assertNotNull(subject.register(buffer, 0, 3, DriverOptions.STREAMING));
+			assertNull(subject.register(buffer, 4, 7, DriverOptions.STREAMING));
+			assertEquals(1, subject.size());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void register_RetainingOptions_IllegalArgumentException() throws IOException {
+
+		try (DriverStore subject = DriverStore.open(this.folder.getRoot().toPath())) {
+			final ByteBuffer buffer = bytes("Dan");
+			subject.register(buffer, 0, 3, DriverOptions.DEFAULT);
+		}
+	}
+
+	@Test
+	public void register_BlankName_RejectedAndLaterDriversKept() throws IOException {
+		final Path directory = this.folder.getRoot().toPath();
+
+		try (DriverStore subject = DriverStore.open(directory)) {
+			final ByteBuffer buffer = bytes("alice  bob");
+			subject.register(buffer, 0, 5, DriverOptions.STREAMING);
+
+			try {
+				subject.register(buffer, 6, 6, DriverOptions.STREAMING);
+				fail("a blank name was registered");
+			} catch (IllegalArgumentException e) {
+				assertEquals("name cannot be blank", e.getMessage());
+			}
+
+			subject.register(buffer, 7, 10, DriverOptions.STREAMING);
+			assertEquals(Arrays.asList("alice", "bob"), names(subject));
+		}
+
+		Files.delete(directory.resolve(DriverStore.INDEX_FILE));
+
+		try (DriverStore subject = DriverStore.open(directory)) {
+			assertEquals(2, subject.size());
+			assertEquals(Arrays.asList("alice", "bob"), names(subject));
+		}
+	}
+
+	@Test
+	public void open_IndexDeleted_IndexRebuilt() throws IOException {
+		final Path directory = this.folder.getRoot().toPath();
+		final Map<String, String> expected = fill(directory, 5_000);
+
+		Files.delete(directory.resolve(DriverStore.INDEX_FILE));
+
+		try (DriverStore subject = DriverStore.open(directory)) {
+			assertEquals(expected, summaries(subject));
+			assertEquals("Driver42", subject.getIgnoreCase("DRIVER42").getName());
+		}
+	}
+
+	@Test
+	public void open_IndexBehindDataFile_IndexRebuilt() throws IOException {
+		final Path directory = this.folder.getRoot().toPath();
+		final Path behind = this.folder.newFolder().toPath().resolve(DriverStore.INDEX_FILE);
+		fill(directory, 3);
+		Files.copy(directory.resolve(DriverStore.INDEX_FILE), behind, StandardCopyOption.REPLACE_EXISTING);
+
+		try (DriverStore subject = DriverStore.open(directory)) {
+			final ByteBuffer buffer = bytes("Dan");
+			subject.register(buffer, 0, 3, DriverOptions.STREAMING);
+		}
+
+		// AS IF THE PROCESS ENDED ONCE THE RECORD WAS APPENDED, BUT BEFORE IT WAS INDEXED
+		Files.copy(behind, directory.resolve(DriverStore.INDEX_FILE), StandardCopyOption.REPLACE_EXISTING);
+
+		try (DriverStore subject = DriverStore.open(directory)) {
+			final ByteBuffer buffer = bytes("DAN");
+
+			assertEquals(4, subject.size());
+			assertEquals("Dan", subject.getIgnoreCase("dan").getName());
+			assertNull(subject.register(buffer, 0, 3, DriverOptions.STREAMING));
+			assertEquals(4, names(subject).size());
+		}
+	}
+
+	@Test
+	public void put_ManyDrivers_IndexGrownAllFound() throws IOException {
+		final Path directory = this.folder.getRoot().toPath();
+		final Map<String, String> expected = fill(directory, 5_000);
+
+		try (DriverStore subject = DriverStore.open(directory)) {
+			assertEquals(5_000, subject.size());
+			assertEquals(expected, summaries(subject));
+
+			for (int i = 0; i < 5_000; i++) {
+				final ByteBuffer buffer = bytes("DRIVER" + i);
+				assertEquals("Driver" + i, subject.get(buffer, 0, buffer.limit()).getName());
+			}
+		}
+	}
+
+	@Test
+	public void put_IndexMappedInManySegments_AllFoundHoweverMapped() throws IOException {
+		final Path directory = this.folder.getRoot().toPath();
+		final Map<String, String> expected = fill(directory, 5_000, 1 << 12);
+
+		try (DriverStore subject = DriverStore.open(directory)) {
+			assertEquals(expected, summaries(subject));
+			assertEquals("Driver4999", subject.getIgnoreCase("driver4999").getName());
+		}
+
+		try (DriverStore subject = DriverStore.open(directory, DriverStore.SEGMENT_BYTES, 1 << 5)) {
+
+			for (int i = 0; i < 5_000; i++) {
+				final ByteBuffer buffer = bytes("DRIVER" + i);
+				assertEquals("Driver" + i, subject.get(buffer, 0, buffer.limit()).getName());
+			}
+		}
+	}
+
+	@Test
+	public void put_ExistingDriver_TotalsReplaced() throws IOException {
+
+		try (DriverStore subject = DriverStore.open(this.folder.getRoot().toPath())) {
+			final Driver first = new Driver("Dan", DriverOptions.STREAMING);
+			first.addTrip(new Trip("07:15", "07:45", "17.3"));
+			final Driver second = new Driver("Dan", DriverOptions.STREAMING);
+			second.addTrip(new Trip("12:01", "13:16", "42.0"));
+
+			subject.put(DriverIndex.toKey("Dan"), first);
+			subject.put(DriverIndex.toKey("Dan"), second);
+
+			assertEquals(1, subject.size());
+			assertEquals(second.getDrivingSummary(), subject.get("dan").getDrivingSummary());
+		}
+	}
+
+	@Test
+	public void clear_ManyDrivers_EmptyAndReusedOnceReopened() throws IOException {
+		final Path directory = this.folder.getRoot().toPath();
+		fill(directory, 5_000);
+
+		try (DriverStore subject = DriverStore.open(directory)) {
+			subject.clear();
+
+			assertEquals(0, subject.size());
+			assertNull(subject.getIgnoreCase("Driver42"));
+
+			final ByteBuffer buffer = bytes("Dan");
+			subject.register(buffer, 0, 3, DriverOptions.STREAMING).addTrip(new Trip("07:15", "07:45", "17.3"));
+		}
+
+		try (DriverStore subject = DriverStore.open(directory)) {
+			assertEquals(Arrays.asList("Dan"), names(subject));
+			assertEquals("17 miles @ 35 mph", subject.get("dan").getDrivingSummary().toString());
+			assertNull(subject.get("driver1"));
+		}
+	}
+
+	@Test
+	public void clear_RecordsPastSegmentEnds_OnlyNewRecordsOnceReopenedOrRebuilt() throws IOException {
+		final Path directory = this.folder.getRoot().toPath();
+		final List<String> expected = new ArrayList<>();
+
+		try (DriverStore subject = DriverStore.open(directory, 1 << 8, 1 << 5)) {
+
+			// SHORT RECORDS, LEFT BEHIND IN THE PADDING OF THE LONGER ONES THAT FOLLOW
+			for (int i = 0; i < 200; i++) {
+				subject.register(bytes("D" + i), 0, ("D" + i).length(), DriverOptions.STREAMING);
+			}
+
+			subject.clear();
+
+			for (int i = 0; i < 100; i++) {
+				final String name = "Driver number " + i;
+				subject.register(bytes(name), 0, name.length(), DriverOptions.STREAMING).addTrip(0, 60,
+						i * 1_000_000L);
+				expected.add(name);
+			}
+
+			assertEquals(expected, names(subject));
+		}
+
+		try (DriverStore subject = DriverStore.open(directory, 1 << 8, 1 << 5)) {
+			assertEquals(expected, names(subject));
+			assertEquals("42 miles @ 42 mph", subject.get("driver number 42").getDrivingSummary().toString());
+			assertNull(subject.get("d1"));
+		}
+
+		Files.delete(directory.resolve(DriverStore.INDEX_FILE));
+
+		try (DriverStore subject = DriverStore.open(directory, 1 << 8, 1 << 5)) {
+			assertEquals(expected, names(subject));
+			assertEquals(100, subject.size());
+			assertEquals("99 miles @ 99 mph", subject.getIgnoreCase("Driver Number 99").getDrivingSummary()
+					.toString());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void open_OtherSegmentSize_IOException() throws IOException {
+		final Path directory = this.folder.getRoot().toPath();
+		DriverStore.open(directory, 1 << 8, 1 << 5).close();
+
+		DriverStore.open(directory);
+	}
+
+	@Test
+	public void register_NonAsciiName_FoundInAnyCase() throws IOException {
+
+		try (DriverStore subject = DriverStore.open(this.folder.getRoot().toPath())) {
+			final ByteBuffer buffer = bytes("ÉLODIE");
+			subject.register(buffer, 0, buffer.limit(), DriverOptions.STREAMING);
+
+			assertEquals("ÉLODIE", subject.getIgnoreCase("élodie").getName());
+			assertEquals("ÉLODIE", subject.get(bytes("élodie"), 0, bytes("élodie").limit()).getName());
+		}
+	}
+
+	/**
+	 * @return the summary of each of {@code count} Drivers put in a new
+	 *         store, by name
+	 */
+	private static Map<String, String> fill(final Path directory, final int count) throws IOException {
+		return fill(directory, count, 1 << 26);
+	}
+
+	/**
+	 * @return the summary of each of {@code count} Drivers put in a new
+	 *         store whose index is mapped in segments of
+	 *         {@code indexSegmentBytes}, by name
+	 */
+	private static Map<String, String> fill(final Path directory, final int count, final int indexSegmentBytes)
+			throws IOException {
+		final Map<String, String> summaries = new HashMap<>();
+
+		try (DriverStore subject = DriverStore.open(directory, DriverStore.SEGMENT_BYTES, indexSegmentBytes)) {
+
+			for (int i = 0; i < count; i++) {
+				final Driver driver = new Driver("Driver" + i, DriverOptions.STREAMING);
+				driver.addTrip(new Trip("01:00", "02:00", String.valueOf(10 + i % 50)));
+				subject.put(DriverIndex.toKey(driver.getName()), driver);
+				summaries.put(driver.getName(), driver.getDrivingSummary().toString());
+			}
+		}
+
+		return summaries;
+	}
+
+	private static Map<String, String> summaries(final DriverStore store) {
+		final Map<String, String> summaries = new HashMap<>();
+
+		for (final Driver driver : store.values()) {
+			summaries.put(driver.getName(), driver.getDrivingSummary().toString());
+		}
+
+		return summaries;
+	}
+
+	private static List<String> names(final DriverStore store) {
+		return store.values().stream().map(Driver::getName).collect(Collectors.toList());
+	}
+
+	@Test
+	public void records_ThreeDrivers_DistancesAndDriversInRegistrationOrder() throws IOException {
+
+		try (DriverStore subject = DriverStore.open(this.folder.getRoot().toPath())) {
+			final ByteBuffer buffer = bytes("Dan Alex Bob");
+			subject.register(buffer, 0, 3, DriverOptions.STREAMING).addTrip(0, 60, 17_300_000L);
+			subject.register(buffer, 4, 8, DriverOptions.STREAMING).addTrip(0, 60, 42_000_000L);
+			subject.register(buffer, 9, 12, DriverOptions.STREAMING);
+
+			final List<Long> records = new ArrayList<>();
+			subject.records().forEachRemaining((long record) -> records.add(record));
+
+			assertEquals(Arrays.asList(17_300_000L, 42_000_000L, 0L),
+					records.stream().map(subject::scaledDistanceAt).collect(Collectors.toList()));
+			assertEquals(Arrays.asList("Dan", "Alex", "Bob"),
+					records.stream().map(record -> subject.driverAt(record).getName()).collect(Collectors.toList()));
+		}
+	}
+}
@@ -62,4 +62,113 @@ public void addTripInfo_MultipleTrip_TripInfoAddedCorrectly() {
 		assertEquals((2 * 60 * 60) + (60 * 60), this.subject.getTotalDuration());
 		assertEquals(35.0, this.subject.getAverageSpeed(), 0.01);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void addTripInfo_HourlyTripAcrossHours_SplitByTimeInEachHour() {
+		final DrivingSummary hourly = new DrivingSummary(true);
+
+		// 07:30 TO 09:15, 35 MILES
+		hourly.addTripInfo(7 * 3600 + 30 * 60, 9 * 3600 + 15 * 60, 35 * Trip.DISTANCE_SCALE);
+
+		assertEquals(10 * Trip.DISTANCE_SCALE, hourly.getScaledHourlyDistance(7));
+		assertEquals(20 * Trip.DISTANCE_SCALE, hourly.getScaledHourlyDistance(8));
+		assertEquals(5 * Trip.DISTANCE_SCALE, hourly.getScaledHourlyDistance(9));
+		assertEquals(30 * 60, hourly.getHourlyDuration(7));
+		assertEquals(60 * 60, hourly.getHourlyDuration(8));
+		assertEquals(15 * 60, hourly.getHourlyDuration(9));
+		assertEquals(0, hourly.getScaledHourlyDistance(10));
+		assertEquals(35 * Trip.DISTANCE_SCALE, hourly.getScaledTotalDistance());
+	}
+
+	@Test
+	public void addTripInfo_HourlyUnevenSplit_HoursAddUpToTotal() {
+		final DrivingSummary hourly = new DrivingSummary(true);
+		hourly.addTripInfo(100, 4 * 3600 + 7, 1_000_001L);
+		hourly.addTripInfo(3599, 3601, 1L);
+
+		long distance = 0;
+		long duration = 0;
+
+		for (int hour = 0; hour < DrivingSummary.HOURS; hour++) {
+			distance += hourly.getScaledHourlyDistance(hour);
+			duration += hourly.getHourlyDuration(hour);
+		}
+
+		assertEquals(hourly.getScaledTotalDistance(), distance);
+		assertEquals(hourly.getTotalDuration(), duration);
+	}
+
+	@Test
+	public void merge_HourlySummaries_HourlyTotalsMerged() {
+		final DrivingSummary first = new DrivingSummary(true);
+		final DrivingSummary second = new DrivingSummary(true);
+		first.addTripInfo(3600, 7200, 10 * Trip.DISTANCE_SCALE);
+		second.addTripInfo(3600, 5400, 5 * Trip.DISTANCE_SCALE);
+
+		first.merge(second);
+
+		assertEquals(15 * Trip.DISTANCE_SCALE, first.getScaledHourlyDistance(1));
+		assertEquals(90 * 60, first.getHourlyDuration(1));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void getScaledHourlyDistance_NotHourly_IllegalStateException() {
+		this.subject.getScaledHourlyDistance(0);
+	}
+
+	@Test
+	public void addTripInfo_SpeedsKept_SpeedOfEachTripSketched() {
+		final DrivingSummary speeds = new DrivingSummary(false, true);
+
+		// 30 MPH, THEN 60 MPH TWICE
+		speeds.addTripInfo(3600, 7200, 30 * Trip.DISTANCE_SCALE);
+		speeds.addTripInfo(7200, 9000, 30 * Trip.DISTANCE_SCALE);
+		speeds.addTripInfo(9000, 10800, 30 * Trip.DISTANCE_SCALE);
+
+		assertEquals(3, speeds.getSpeeds().getCount());
+		assertEquals(30, speeds.getSpeeds().getQuantile(0), 30 * SpeedSketch.RELATIVE_ACCURACY);
+		assertEquals(60, speeds.getSpeeds().getQuantile(0.5), 60 * SpeedSketch.RELATIVE_ACCURACY);
+	}
+
+	@Test
+	public void merge_SummariesKeepingSpeeds_SpeedsMergedSnapshotUnaffected() {
+		final DrivingSummary first = new DrivingSummary(false, true);
+		final DrivingSummary second = new DrivingSummary(false, true);
+		first.addTripInfo(3600, 7200, 10 * Trip.DISTANCE_SCALE);
+		second.addTripInfo(3600, 5400, 40 * Trip.DISTANCE_SCALE);
+		final DrivingSummary snapshot = first.snapshot();
+
+		first.merge(second);
+
+		assertEquals(2, first.getSpeeds().getCount());
+		assertEquals(80, first.getSpeeds().getQuantile(1), 80 * SpeedSketch.RELATIVE_ACCURACY);
+		assertEquals(1, snapshot.getSpeeds().getCount());
+	}
+
+	@Test
+	public void toStringEqualsMerge_SummaryOnHeap_NoSnapshotTaken() {
+		final DrivingSummary unsnapshotted = new DrivingSummary(true, true) {
+			@Override
+			public DrivingSummary snapshot() {
+				throw new AssertionError("a summary on the heap is read in place");
+			}
+		};
+		final DrivingSummary same = new DrivingSummary();
+		unsnapshotted.addTripInfo(3600, 5400, 40 * Trip.DISTANCE_SCALE);
+		same.addTripInfo(40 * Trip.DISTANCE_SCALE, 1800);
+
+		assertEquals("40 miles @ 80 mph", unsnapshotted.toString());
+		assertEquals(same, unsnapshotted);
+		assertEquals(unsnapshotted, same);
+		assertEquals(same.hashCode(), unsnapshotted.hashCode());
+
+		this.subject.merge(unsnapshotted);
+
+		assertEquals(same, this.subject);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void getSpeeds_NotKept_IllegalStateException() {
+		this.subject.getSpeeds();
+	}
+}
@@ -2,6 +2,9 @@
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
 
 import org.junit.Test;
 
@@ -70,4 +73,41 @@ public void aggregateTrips_TwoValidTripsTwoInvalidTrips_ValidSummary() {
 		assertEquals(39.1, summary.getTotalDistance(), 0.01);
 		assertEquals(3000, summary.getTotalDuration());
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void addTrip_Streaming_ValidTripsAggregatedNotRetained() {
+
+		final Driver driver = new Driver("washington irving", DriverOptions.STREAMING);
+		driver.addTrip(new Trip("07:15", "07:45", "17.3"));
+		driver.addTrip(new Trip("06:12", "06:32", "21.8"));
+		driver.addTrip(new Trip("00:12", "06:32", "21.8"));
+		driver.addTrip(new Trip("06:12", "06:32", "1021.8"));
+
+		final DrivingSummary summary = driver.aggregateTrips().getDrivingSummary();
+
+		assertTrue(driver.getTrips().isEmpty());
+		assertEquals(47, summary.getAverageSpeed());
+		assertEquals(39.1, summary.getTotalDistance(), 0.01);
+		assertEquals(3000, summary.getTotalDuration());
+	}
+
+	@Test
+	public void aggregateTrips_Columnar_SameSummaryAsRetained() {
+
+		final Driver retained = new Driver("washington irving");
+		final Driver columnar = new Driver("washington irving", DriverOptions.COLUMNAR);
+
+		for (final Driver driver : Arrays.asList(retained, columnar)) {
+			driver.addTrip(new Trip("07:15", "07:45", "17.3"));
+			driver.addTrip(6 * 60 + 12, 6 * 60 + 32, 21_800_000L);
+			driver.addTrip(new Trip("00:12", "06:32", "21.8"));
+			driver.addTrip(new Trip("06:12", "06:32", "1021.8"));
+			driver.aggregateTrips();
+		}
+
+		assertEquals(4, columnar.getTrips().size());
+		assertEquals(retained.getTrips(), columnar.getTrips());
+		assertEquals(retained.getDrivingSummary(), columnar.getDrivingSummary());
+		assertEquals(47, columnar.getDrivingSummary().getAverageSpeed());
+	}
+}
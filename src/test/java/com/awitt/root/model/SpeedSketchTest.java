@@ -0,0 +1,138 @@
+package com.awitt.root.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SpeedSketchTest {
+
+	private static final double[] QUANTILES = { 0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 0.999, 1 };
+
+	@Test
+	public void getQuantile_ManyRandomSpeeds_WithinRelativeAccuracy() {
+		final Random random = new Random(11);
+		final double[] speeds = new double[100_000];
+		final SpeedSketch subject = new SpeedSketch();
+
+		for (int i = 0; i < speeds.length; i++) {
+			// MOSTLY AROUND CITY AND HIGHWAY SPEEDS, WITH SOME ANYWHERE IN THE VALID RANGE
+			speeds[i] = i % 10 == 0 ? 5 + random.nextDouble() * 95
+					: Math.max(5, Math.min(100, (i % 2 == 0 ? 28 : 64) + random.nextGaussian() * 8));
+			subject.add(speeds[i]);
+		}
+
+		Arrays.sort(speeds);
+
+		for (final double quantile : QUANTILES) {
+			assertWithinAccuracy(speeds[Math.max(0, (int) Math.ceil(quantile * speeds.length) - 1)],
+					subject.getQuantile(quantile));
+		}
+
+		assertEquals(speeds.length, subject.getCount());
+	}
+
+	@Test
+	public void getQuantile_SpeedsOnBucketBounds_WithinRelativeAccuracy() {
+		final double gamma = (1 + SpeedSketch.RELATIVE_ACCURACY) / (1 - SpeedSketch.RELATIVE_ACCURACY);
+
+		for (int bucket = 0; bucket <= SpeedSketch.BUCKETS; bucket++) {
+			final double speed = Math.min(DrivingSummary.MAX_AVERAGE_SPEED,
+					DrivingSummary.MIN_AVERAGE_SPEED * Math.pow(gamma, bucket));
+			final SpeedSketch subject = new SpeedSketch();
+			subject.add(speed);
+
+			assertWithinAccuracy(speed, subject.getQuantile(0.5));
+		}
+	}
+
+	@Test
+	public void merge_SpeedsSplitAcrossSketches_SameAsSingleSketch() {
+		final Random random = new Random(3);
+		final SpeedSketch single = new SpeedSketch();
+		final SpeedSketch[] parts = new SpeedSketch[7];
+
+		for (int i = 0; i < parts.length; i++) {
+			parts[i] = new SpeedSketch();
+		}
+
+		for (int i = 0; i < 20_000; i++) {
+			final double speed = 5 + random.nextDouble() * 95;
+			single.add(speed);
+			parts[random.nextInt(parts.length)].add(speed);
+		}
+
+		final SpeedSketch merged = new SpeedSketch();
+
+		// IN ANY ORDER
+		for (int i = parts.length - 1; i >= 0; i--) {
+			merged.merge(parts[i]);
+		}
+
+		assertEquals(single.getCount(), merged.getCount());
+
+		for (int bucket = 0; bucket < SpeedSketch.BUCKETS; bucket++) {
+			assertEquals(single.getBucketCount(bucket), merged.getBucketCount(bucket));
+		}
+
+		for (final double quantile : QUANTILES) {
+			assertEquals(single.getQuantile(quantile), merged.getQuantile(quantile), 0);
+		}
+	}
+
+	@Test
+	public void getQuantile_TwoSpeeds_NearestRank() {
+		final SpeedSketch subject = new SpeedSketch();
+		subject.add(60);
+		subject.add(30);
+
+		assertWithinAccuracy(30, subject.getQuantile(0));
+		assertWithinAccuracy(30, subject.getQuantile(0.5));
+		assertWithinAccuracy(60, subject.getQuantile(0.95));
+	}
+
+	@Test
+	public void add_TripDistanceAndDuration_SpeedOfTrip() {
+		final SpeedSketch subject = new SpeedSketch();
+
+		// 17.3 MILES IN 30 MINUTES
+		subject.add(17_300_000L, 30 * 60);
+
+		assertWithinAccuracy(34.6, subject.getQuantile(0.99));
+	}
+
+	@Test
+	public void add_ManySpeeds_MemoryCapped() {
+		final SpeedSketch subject = new SpeedSketch();
+
+		for (int i = 0; i < 1_000_000; i++) {
+			subject.add(5 + (i % 9_500) / 100.0);
+		}
+
+		// THE BUCKETS NEEDED FOR 1% ACROSS 5 TO 100 MPH, WHATEVER THE NUMBER OF SPEEDS
+		assertEquals(150, SpeedSketch.BUCKETS);
+		assertEquals(1_000_000, subject.getCount());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void getQuantile_NoSpeeds_IllegalStateException() {
+		new SpeedSketch().getQuantile(0.5);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void getQuantile_OutOfRange_IllegalArgumentException() {
+		final SpeedSketch subject = new SpeedSketch();
+		subject.add(50);
+
+		subject.getQuantile(1.5);
+	}
+
+	private static void assertWithinAccuracy(final double expected, final double actual) {
+		// WITHIN THE RELATIVE ACCURACY, ALLOWING ONLY FOR FLOATING-POINT ROUNDING
+		assertTrue(expected + " estimated as " + actual,
+				Math.abs(actual - expected) <= expected * SpeedSketch.RELATIVE_ACCURACY + 1e-9);
+	}
+}
@@ -0,0 +1,64 @@
+package com.awitt.root.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TripStoreTest {
+
+	private final TripStore subject = new TripStore();
+
+	@Test
+	public void add_ManyTrips_AllRetainedInOrder() {
+
+		for (int i = 0; i < 1000; i++) {
+			this.subject.add(i % 1380, i % 1380 + 60, i * 1_000_000L);
+		}
+
+		assertEquals(1000, this.subject.size());
+		assertEquals(new Trip(999 % 1380, 999 % 1380 + 60, 999_000_000L), this.subject.asList().get(999));
+	}
+
+	@Test
+	public void asList_TripsAddedAsObjects_EqualTrips() {
+		final List<Trip> trips = Arrays.asList(new Trip("07:15", "07:45", "17.3"), new Trip("06:12", "06:32", "21.8"),
+				new Trip("06:12:30", "06:32:15", "21.8"));
+
+		trips.forEach(this.subject::add);
+
+		assertEquals(trips, this.subject.asList());
+	}
+
+	@Test
+	public void aggregateInto_ValidAndInvalidTrips_SameAsTripByTrip() {
+		final List<Trip> trips = Arrays.asList(new Trip("07:15", "07:45", "17.3"), new Trip("06:12", "06:32", "21.8"),
+				new Trip("00:12", "06:32", "21.8"), new Trip("06:12", "06:32", "1021.8"),
+				new Trip("12:00", "14:00", "10.0"), new Trip("14:00", "12:00", "10.0"));
+		final DrivingSummary expected = new DrivingSummary();
+		final DrivingSummary summary = new DrivingSummary();
+
+		trips.forEach(this.subject::add);
+		trips.stream().filter(Trip::meetsTripRequirements).forEach(expected::addTripInfo);
+		this.subject.aggregateInto(summary);
+
+		assertEquals(expected, summary);
+		assertEquals(3, this.subject.countValidTrips());
+	}
+
+	@Test
+	public void addAll_OtherStore_TripsAppended() {
+		final TripStore other = new TripStore();
+		other.add(new Trip("07:15", "07:45", "17.3"));
+		other.add(new Trip("06:12", "06:32", "21.8"));
+
+		this.subject.add(new Trip("12:00", "14:00", "10.0"));
+		this.subject.addAll(other);
+		this.subject.trimToSize();
+
+		assertEquals(Arrays.asList(new Trip("12:00", "14:00", "10.0"), new Trip("07:15", "07:45", "17.3"),
+				new Trip("06:12", "06:32", "21.8")), this.subject.asList());
+	}
+}
@@ -0,0 +1,33 @@
+package com.awitt.root.report;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class RecordTest {
+
+	@Test
+	public void grownCapacity_Small_Doubled() {
+		assertEquals(512, Record.grownCapacity(250, 10, 256));
+	}
+
+	@Test
+	public void grownCapacity_LargerThanDouble_Required() {
+		assertEquals(1_000, Record.grownCapacity(250, 750, 256));
+	}
+
+	@Test
+	public void grownCapacity_PastOneGibibyte_Capped() {
+		assertEquals(Record.MAX_CAPACITY, Record.grownCapacity(1 << 30, 1, 1 << 30));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void grownCapacity_PastMaxCapacity_Exception() {
+		Record.grownCapacity(Record.MAX_CAPACITY, 1, Record.MAX_CAPACITY);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void grownCapacity_PastIntegerRange_Exception() {
+		Record.grownCapacity(Integer.MAX_VALUE - 10, Integer.MAX_VALUE, Integer.MAX_VALUE - 10);
+	}
+}
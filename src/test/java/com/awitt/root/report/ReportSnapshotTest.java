@@ -0,0 +1,76 @@
+package com.awitt.root.report;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverOptions;
+
+public class ReportSnapshotTest {
+
+	private static final String DAN = "{\"name\":\"Dan\",\"miles\":39,\"seconds\":3600,\"mph\":39}\n";
+	private static final String DANA = "{\"name\":\"Dana\",\"miles\":10,\"seconds\":3600,\"mph\":10}\n";
+	private static final String ALEX = "{\"name\":\"Alex\",\"miles\":42,\"seconds\":3600,\"mph\":42}\n";
+
+	@Test
+	public void top_ManyDrivers_FirstDriversInReportOrder() {
+		final ReportSnapshot subject = ReportSnapshot.of(drivers());
+
+		assertEquals(ALEX, text(subject.top(1)));
+		assertEquals(ALEX + DAN + DANA, text(subject.top(10)));
+	}
+
+	@Test
+	public void driver_AnyCase_DriverFound() {
+		final ReportSnapshot subject = ReportSnapshot.of(drivers());
+
+		assertEquals(DAN, text(subject.driver("dAN")));
+		assertEquals(DANA, text(subject.driver("Dana")));
+		assertNull(subject.driver("Da"));
+	}
+
+	@Test
+	public void withPrefix_AnyCase_MatchesByNameUpToLimit() {
+		final ReportSnapshot subject = ReportSnapshot.of(drivers());
+
+		assertEquals(DAN + DANA, text(subject.withPrefix("DA", 10)));
+		assertEquals(DAN, text(subject.withPrefix("da", 1)));
+		assertEquals("", text(subject.withPrefix("Kumi", 10)));
+		assertEquals(ALEX + DAN, text(subject.withPrefix("", 2)));
+	}
+
+	@Test
+	public void of_DriverUpdatedAfterwards_SnapshotUnchanged() {
+		final List<Driver> drivers = drivers();
+		final ReportSnapshot subject = ReportSnapshot.of(drivers);
+
+		drivers.get(0).addTrip(0, 60, 50_000_000L);
+
+		assertEquals(DAN, text(subject.driver("Dan")));
+	}
+
+	private static List<Driver> drivers() {
+		final Driver dan = new Driver("Dan", DriverOptions.STREAMING);
+		final Driver dana = new Driver("Dana", DriverOptions.STREAMING);
+		final Driver alex = new Driver("Alex", DriverOptions.STREAMING);
+		dan.addTrip(0, 60, 39_000_000L);
+		dana.addTrip(0, 60, 10_000_000L);
+		alex.addTrip(0, 60, 42_000_000L);
+
+		return Arrays.asList(dan, dana, alex);
+	}
+
+	private static String text(final ByteBuffer buffer) {
+		final byte[] bytes = new byte[buffer.remaining()];
+		buffer.duplicate().get(bytes);
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,174 @@
+package com.awitt.root.report;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverOptions;
+
+public class ReportWriterTest {
+
+	@Test
+	public void write_Text_SameAsLoggedSummary() throws IOException {
+		final List<Driver> drivers = drivers();
+		final StringBuilder expected = new StringBuilder();
+
+		drivers.forEach(driver -> expected.append(driver.getName()).append(": ").append(driver.getDrivingSummary())
+				.append('\n'));
+
+		assertEquals(expected.toString(), report(ReportFormat.TEXT, drivers, ReportWriter.DEFAULT_BUFFER_SIZE));
+	}
+
+	@Test
+	public void write_Csv_ExactMilesAndQuotedNames() throws IOException {
+		assertEquals("name,miles,seconds,mph\n" + "Dan,39.1,3000,47\n" + "\"Smith, \"\"Jo\"\"\",0.000005,60,0\n"
+				+ "Zoë,0,0,0\n", report(ReportFormat.CSV, drivers(), ReportWriter.DEFAULT_BUFFER_SIZE));
+	}
+
+	@Test
+	public void endReport_ReportsOneAfterAnother_EachWithItsHeader() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final List<Driver> drivers = drivers();
+
+		try (ReportWriter writer = new ReportWriter(Channels.newChannel(out), ReportFormat.CSV, 64)) {
+			writer.write(drivers.get(0));
+			writer.endReport();
+			writer.write(drivers.get(2));
+			writer.endReport();
+			writer.endReport();
+		}
+
+		assertEquals("name,miles,seconds,mph\n" + "Dan,39.1,3000,47\n" + "name,miles,seconds,mph\n" + "Zoë,0,0,0\n"
+				+ "name,miles,seconds,mph\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void write_Json_EscapedNames() throws IOException {
+		assertEquals("{\"name\":\"Dan\",\"miles\":39.1,\"seconds\":3000,\"mph\":47}\n"
+				+ "{\"name\":\"Smith, \\\"Jo\\\"\",\"miles\":0.000005,\"seconds\":60,\"mph\":0}\n"
+				+ "{\"name\":\"Zoë\",\"miles\":0,\"seconds\":0,\"mph\":0}\n",
+				report(ReportFormat.JSON, drivers(), ReportWriter.DEFAULT_BUFFER_SIZE));
+	}
+
+	@Test
+	public void write_Binary_ReadBack() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final List<Driver> drivers = drivers();
+
+		try (ReportWriter writer = new ReportWriter(out, ReportFormat.BINARY)) {
+			for (final Driver driver : drivers) {
+				writer.write(driver);
+			}
+		}
+
+		final DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(0x52445250, in.readInt());
+		assertEquals(1, in.readInt());
+
+		for (final Driver driver : drivers) {
+			final byte[] name = new byte[in.readInt()];
+			in.readFully(name);
+
+			assertEquals(driver.getName(), new String(name, StandardCharsets.UTF_8));
+			assertEquals(driver.getDrivingSummary().getScaledTotalDistance(), in.readLong());
+			assertEquals(driver.getDrivingSummary().getTotalDuration(), in.readLong());
+		}
+
+		assertEquals(-1, in.read());
+	}
+
+	@Test
+	public void write_RecordsLongerThanBuffers_AllWrittenInOrder() throws IOException {
+		final List<Driver> drivers = new ArrayList<>();
+		final StringBuilder expected = new StringBuilder();
+
+		for (int i = 0; i < 1_000; i++) {
+			final String padding = i % 10 == 0 ? new String(new char[200]).replace('\0', 'x') : "";
+			final Driver driver = new Driver("Driver" + i + padding, DriverOptions.STREAMING);
+			driver.addTrip(0, 60, i * 1_000_000L);
+			drivers.add(driver);
+			expected.append(driver.getName()).append(": ").append(driver.getDrivingSummary()).append('\n');
+		}
+
+		assertEquals(expected.toString(), report(ReportFormat.TEXT, drivers, 64));
+	}
+
+	@Test
+	public void flush_WriteFailed_IOException() throws IOException {
+		final WritableByteChannel failing = new WritableByteChannel() {
+			@Override
+			public boolean isOpen() {
+				return true;
+			}
+
+			@Override
+			public void close() {
+			}
+
+			@Override
+			public int write(final ByteBuffer src) throws IOException {
+				throw new IOException("disk full");
+			}
+		};
+
+		final ReportWriter writer = new ReportWriter(failing, ReportFormat.TEXT, 64);
+		writer.write(drivers().get(0));
+
+		try {
+			writer.flush();
+			fail("expected an IOException");
+		} catch (IOException e) {
+			assertEquals("disk full", e.getCause().getMessage());
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void write_Closed_ISE() throws IOException {
+		final ReportWriter writer = new ReportWriter(Channels.newChannel(new ByteArrayOutputStream()),
+				ReportFormat.CSV, 64);
+		writer.close();
+		writer.write(drivers().get(0));
+	}
+
+	private static String report(final ReportFormat format, final List<Driver> drivers, final int bufferSize)
+			throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		try (ReportWriter writer = new ReportWriter(Channels.newChannel(out), format, bufferSize)) {
+			for (final Driver driver : drivers) {
+				writer.write(driver);
+			}
+		}
+
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static List<Driver> drivers() {
+		final Driver dan = new Driver("Dan", DriverOptions.STREAMING);
+		dan.addTrip(7 * 60 + 15, 7 * 60 + 45, 17_300_000L);
+		dan.addTrip(6 * 60 + 12, 6 * 60 + 32, 21_800_000L);
+
+		// A DISTANCE ONLY AN EXACT FORMAT CAN SHOW
+		final Driver smith = new Driver("Smith, \"Jo\"", DriverOptions.STREAMING);
+		smith.getDrivingSummary().addTripInfo(5, 60);
+
+		final List<Driver> drivers = new ArrayList<>();
+		drivers.add(dan);
+		drivers.add(smith);
+		drivers.add(new Driver("Zoë", DriverOptions.STREAMING));
+		return drivers;
+	}
+}
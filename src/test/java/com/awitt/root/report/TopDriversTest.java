@@ -0,0 +1,57 @@
+package com.awitt.root.report;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverOptions;
+
+public class TopDriversTest {
+
+	@Test
+	public void select_ManyTies_HeadOfStableSort() {
+		final Random random = new Random(7);
+		final List<Driver> drivers = new ArrayList<>();
+
+		for (int i = 0; i < 10_000; i++) {
+			final Driver driver = new Driver("Driver" + i, DriverOptions.STREAMING);
+
+			// FEW DISTINCT DISTANCES, SO MOST DRIVERS TIE
+			driver.addTrip(0, 60, random.nextInt(20) * 1_000_000L);
+			drivers.add(driver);
+		}
+
+		final List<Driver> sorted = drivers.stream().sorted().collect(Collectors.toList());
+
+		for (final int count : new int[] { 1, 7, 100, 999, 10_000 }) {
+			assertEquals(sorted.subList(0, count), TopDrivers.select(drivers.iterator(), count));
+		}
+	}
+
+	@Test
+	public void select_FewerDriversThanCount_AllSorted() {
+		final Driver dan = new Driver("Dan", DriverOptions.STREAMING);
+		final Driver alex = new Driver("Alex", DriverOptions.STREAMING);
+		final Driver bob = new Driver("Bob", DriverOptions.STREAMING);
+		alex.addTrip(0, 60, 42_000_000L);
+		bob.addTrip(0, 60, 42_400_000L);
+
+		final List<Driver> drivers = new ArrayList<>();
+		drivers.add(dan);
+		drivers.add(alex);
+		drivers.add(bob);
+
+		final List<Driver> expected = new ArrayList<>();
+		expected.add(alex);
+		expected.add(bob);
+		expected.add(dan);
+
+		assertEquals(expected, TopDrivers.select(drivers.iterator(), 100));
+	}
+}
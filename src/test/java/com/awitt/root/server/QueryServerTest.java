@@ -0,0 +1,92 @@
+package com.awitt.root.server;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverOptions;
+import com.awitt.root.report.ReportSnapshot;
+
+public class QueryServerTest {
+
+	private QueryServer subject;
+
+	@Before
+	public void init() throws IOException {
+		this.subject = new QueryServer(new InetSocketAddress("localhost", 0), 2).start();
+	}
+
+	@After
+	public void close() {
+		this.subject.close();
+	}
+
+	@Test
+	public void get_DriverQueries_AnsweredFromLatestSnapshot() throws IOException {
+		assertEquals(404, status("/drivers/Dan"));
+
+		final Driver dan = new Driver("Dan", DriverOptions.STREAMING);
+		final Driver alex = new Driver("Alex", DriverOptions.STREAMING);
+		dan.addTrip(0, 60, 39_000_000L);
+		alex.addTrip(0, 60, 42_000_000L);
+		this.subject.accept(ReportSnapshot.of(Arrays.asList(dan, alex)));
+
+		assertEquals("{\"name\":\"Dan\",\"miles\":39,\"seconds\":3600,\"mph\":39}\n", get("/drivers/dan"));
+		assertEquals("{\"name\":\"Alex\",\"miles\":42,\"seconds\":3600,\"mph\":42}\n", get("/top?count=1"));
+		assertEquals(2, get("/drivers?prefix=").split("\n").length);
+		assertEquals("", get("/drivers?prefix=Kumi"));
+	}
+
+	@Test
+	public void get_MalformedQueries_BadRequestOrNotFound() throws IOException {
+		assertEquals(400, status("/top?count=0"));
+		assertEquals(400, status("/drivers?limit=many"));
+		assertEquals(404, status("/drivers/Unknown"));
+		assertEquals(404, status("/driversandmore"));
+	}
+
+	private int status(final String path) throws IOException {
+		final HttpURLConnection connection = connect(path);
+
+		try {
+			return connection.getResponseCode();
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	private String get(final String path) throws IOException {
+		final HttpURLConnection connection = connect(path);
+		assertEquals(200, connection.getResponseCode());
+
+		try (InputStream in = connection.getInputStream()) {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[4096];
+
+			for (int read; (read = in.read(buffer)) >= 0;) {
+				bytes.write(buffer, 0, read);
+			}
+
+			return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+
+	private HttpURLConnection connect(final String path) throws IOException {
+		final InetSocketAddress address = this.subject.getAddress();
+
+		return (HttpURLConnection) new URL("http", address.getHostString(), address.getPort(), path)
+				.openConnection();
+	}
+}
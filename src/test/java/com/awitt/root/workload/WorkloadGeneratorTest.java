@@ -0,0 +1,114 @@
+package com.awitt.root.workload;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.awitt.root.ReportingTracker;
+import com.awitt.root.io.StreamLineSource;
+import com.awitt.root.model.Driver;
+import com.awitt.root.model.DriverOptions;
+import com.awitt.root.model.Trip;
+
+public class WorkloadGeneratorTest {
+
+	private final Workload workload = Workload.DEFAULT.withDrivers(100).withTrips(20_000).withEarlyTripRatio(0.25)
+			.withInvalidSpeedRatio(0.1).withSeed(42L);
+
+	@Test
+	public void write_SameWorkload_SameBytes() throws IOException {
+		assertArrayEquals(write(this.workload), write(this.workload));
+		assertFalse(Arrays.equals(write(this.workload), write(this.workload.withSeed(43L))));
+	}
+
+	@Test
+	public void write_Parallel_SameBytesAsSequential() throws IOException {
+		final Workload large = this.workload.withTrips(300_000);
+
+		assertArrayEquals(write(large, 1), write(large, 4));
+	}
+
+	@Test
+	public void write_Workload_LinesMatchWorkload() throws IOException {
+		final List<String> lines = lines(write(this.workload));
+		final Set<String> registered = new HashSet<>();
+		int drivers = 0;
+		int early = 0;
+		int invalid = 0;
+
+		for (final String line : lines) {
+			final String[] tokens = line.split(" ");
+
+			if (tokens[0].equals("Driver")) {
+				drivers++;
+				registered.add(tokens[1]);
+				continue;
+			}
+
+			assertEquals(5, tokens.length);
+
+			if (!registered.contains(tokens[1])) {
+				early++;
+			}
+			if (!new Trip(tokens[2], tokens[3], tokens[4]).meetsTripRequirements()) {
+				invalid++;
+			}
+		}
+
+		assertEquals(100, drivers);
+		assertEquals(20_100, lines.size());
+		assertEquals(0.25, early / 20_000.0, 0.01);
+		assertEquals(0.1, invalid / 20_000.0, 0.01);
+	}
+
+	@Test
+	public void write_Skewed_FirstRankRecordsMostTrips() throws IOException {
+		final Map<String, Integer> trips = new HashMap<>();
+
+		for (final String line : lines(write(this.workload.withSkew(1.2)))) {
+			if (line.startsWith("Trip")) {
+				trips.merge(line.split(" ")[1], 1, Integer::sum);
+			}
+		}
+
+		assertTrue(trips.get("Driver1") > 5 * trips.get("Driver10"));
+		assertTrue(trips.get("Driver10") > trips.get("Driver100"));
+	}
+
+	@Test
+	public void write_Processed_EveryDriverReported() throws IOException {
+		final ReportingTracker tracker = new ReportingTracker(
+				new StreamLineSource(new ByteArrayInputStream(write(this.workload))), DriverOptions.STREAMING);
+		tracker.process();
+
+		assertEquals(100, tracker.getReported().stream().map(Driver::getName).distinct().count());
+	}
+
+	private static byte[] write(final Workload workload) throws IOException {
+		return write(workload, 1);
+	}
+
+	private static byte[] write(final Workload workload, final int parallelism) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new WorkloadGenerator(workload, parallelism).write(out);
+		return out.toByteArray();
+	}
+
+	private static List<String> lines(final byte[] bytes) {
+		return Arrays.asList(new String(bytes, StandardCharsets.US_ASCII).split("\n"));
+	}
+}